@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2016 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Compares reader throughput of {@link LockFreeRegionQuadTree},
+ * {@link ConcurrentRegionQuadTree} and {@link ConcurrentPointQuadTree} at 1,
+ * 2, 4 and 8 reader threads while a single writer thread moves elements
+ */
+public class ConcurrentQuadTreePerformanceTest {
+	private static final int ELEMENTS_PER_QUAD = 4;
+	private static final int TOTAL_ELEMENTS = 1000;
+
+	@State(Scope.Group)
+	public static class SharedState {
+		public LockFreeRegionQuadTree<CollisionBox> lockFreeQuadTree = new LockFreeRegionQuadTree<CollisionBox>(
+				ELEMENTS_PER_QUAD, 0f, 0f, 1000f, 1000f);
+		public ConcurrentRegionQuadTree<CollisionBox> concurrentRegionQuadTree = new ConcurrentRegionQuadTree<CollisionBox>(
+				ELEMENTS_PER_QUAD, 0f, 0f, 1000f, 1000f);
+		public ConcurrentPointQuadTree<CollisionBox> concurrentPointQuadTree = new ConcurrentPointQuadTree<CollisionBox>(
+				ELEMENTS_PER_QUAD, 0f, 0f, 1000f, 1000f);
+
+		// Each tree gets its own elements so a move only notifies one tree
+		public List<CollisionBox> lockFreeCollisions = createCollisions();
+		public List<CollisionBox> concurrentRegionCollisions = createCollisions();
+		public List<CollisionBox> concurrentPointCollisions = createCollisions();
+
+		{
+			lockFreeQuadTree.addAll(lockFreeCollisions);
+			concurrentRegionQuadTree.addAll(concurrentRegionCollisions);
+			concurrentPointQuadTree.addAll(concurrentPointCollisions);
+		}
+
+		private static List<CollisionBox> createCollisions() {
+			List<CollisionBox> result = new ArrayList<CollisionBox>();
+			for (int i = 0; i < TOTAL_ELEMENTS; i++) {
+				result.add(new CollisionBox(MathUtils.random(0f, 980f), MathUtils.random(0f, 980f), 20f, 20f));
+			}
+			return result;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ReaderState {
+		public Rectangle area = new Rectangle(MathUtils.random(0f, 900f), MathUtils.random(0f, 900f), 100f, 100f);
+		public List<CollisionBox> result = new ArrayList<CollisionBox>();
+	}
+
+	@State(Scope.Thread)
+	public static class WriterState {
+		public int nextElement;
+	}
+
+	private static int query(QuadTree<CollisionBox> quadTree, ReaderState state) {
+		state.result.clear();
+		quadTree.getElementsWithinArea(state.result, state.area);
+		return state.result.size();
+	}
+
+	private static void move(List<CollisionBox> collisions, WriterState state) {
+		CollisionBox collisionBox = collisions.get(state.nextElement);
+		collisionBox.forceTo(MathUtils.random(0f, 980f), MathUtils.random(0f, 980f));
+		state.nextElement = (state.nextElement + 1) % collisions.size();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_1")
+	@GroupThreads(1)
+	public int testLockFreeRegionQuadTreeRead1(SharedState shared, ReaderState state) {
+		return query(shared.lockFreeQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_1")
+	@GroupThreads(1)
+	public void testLockFreeRegionQuadTreeWrite1(SharedState shared, WriterState state) {
+		move(shared.lockFreeCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_2")
+	@GroupThreads(2)
+	public int testLockFreeRegionQuadTreeRead2(SharedState shared, ReaderState state) {
+		return query(shared.lockFreeQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_2")
+	@GroupThreads(1)
+	public void testLockFreeRegionQuadTreeWrite2(SharedState shared, WriterState state) {
+		move(shared.lockFreeCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_4")
+	@GroupThreads(4)
+	public int testLockFreeRegionQuadTreeRead4(SharedState shared, ReaderState state) {
+		return query(shared.lockFreeQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_4")
+	@GroupThreads(1)
+	public void testLockFreeRegionQuadTreeWrite4(SharedState shared, WriterState state) {
+		move(shared.lockFreeCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_8")
+	@GroupThreads(8)
+	public int testLockFreeRegionQuadTreeRead8(SharedState shared, ReaderState state) {
+		return query(shared.lockFreeQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("LockFreeRegionQuadTree_Read_8")
+	@GroupThreads(1)
+	public void testLockFreeRegionQuadTreeWrite8(SharedState shared, WriterState state) {
+		move(shared.lockFreeCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_1")
+	@GroupThreads(1)
+	public int testConcurrentRegionQuadTreeRead1(SharedState shared, ReaderState state) {
+		return query(shared.concurrentRegionQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_1")
+	@GroupThreads(1)
+	public void testConcurrentRegionQuadTreeWrite1(SharedState shared, WriterState state) {
+		move(shared.concurrentRegionCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_2")
+	@GroupThreads(2)
+	public int testConcurrentRegionQuadTreeRead2(SharedState shared, ReaderState state) {
+		return query(shared.concurrentRegionQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_2")
+	@GroupThreads(1)
+	public void testConcurrentRegionQuadTreeWrite2(SharedState shared, WriterState state) {
+		move(shared.concurrentRegionCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_4")
+	@GroupThreads(4)
+	public int testConcurrentRegionQuadTreeRead4(SharedState shared, ReaderState state) {
+		return query(shared.concurrentRegionQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_4")
+	@GroupThreads(1)
+	public void testConcurrentRegionQuadTreeWrite4(SharedState shared, WriterState state) {
+		move(shared.concurrentRegionCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_8")
+	@GroupThreads(8)
+	public int testConcurrentRegionQuadTreeRead8(SharedState shared, ReaderState state) {
+		return query(shared.concurrentRegionQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentRegionQuadTree_Read_8")
+	@GroupThreads(1)
+	public void testConcurrentRegionQuadTreeWrite8(SharedState shared, WriterState state) {
+		move(shared.concurrentRegionCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_1")
+	@GroupThreads(1)
+	public int testConcurrentPointQuadTreeRead1(SharedState shared, ReaderState state) {
+		return query(shared.concurrentPointQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_1")
+	@GroupThreads(1)
+	public void testConcurrentPointQuadTreeWrite1(SharedState shared, WriterState state) {
+		move(shared.concurrentPointCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_2")
+	@GroupThreads(2)
+	public int testConcurrentPointQuadTreeRead2(SharedState shared, ReaderState state) {
+		return query(shared.concurrentPointQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_2")
+	@GroupThreads(1)
+	public void testConcurrentPointQuadTreeWrite2(SharedState shared, WriterState state) {
+		move(shared.concurrentPointCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_4")
+	@GroupThreads(4)
+	public int testConcurrentPointQuadTreeRead4(SharedState shared, ReaderState state) {
+		return query(shared.concurrentPointQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_4")
+	@GroupThreads(1)
+	public void testConcurrentPointQuadTreeWrite4(SharedState shared, WriterState state) {
+		move(shared.concurrentPointCollisions, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_8")
+	@GroupThreads(8)
+	public int testConcurrentPointQuadTreeRead8(SharedState shared, ReaderState state) {
+		return query(shared.concurrentPointQuadTree, state);
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.Throughput)
+	@Group("ConcurrentPointQuadTree_Read_8")
+	@GroupThreads(1)
+	public void testConcurrentPointQuadTreeWrite8(SharedState shared, WriterState state) {
+		move(shared.concurrentPointCollisions, state);
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2016 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Compares {@link LooseRegionQuadTree} against {@link RegionQuadTree} when
+ * populated with many medium-sized elements that straddle quad boundaries.
+ * Root occupancy of both trees is printed when each iteration is set up.
+ */
+@Threads(value=1)
+public class LooseRegionQuadTreePerformanceTest {
+	private static final int ELEMENTS_PER_QUAD = 8;
+	private static final int TOTAL_ELEMENTS = 2000;
+	private static final float SIZE = 1024f;
+	
+	@State(Scope.Thread)
+	public static class TestState {
+		public RegionQuadTree<CollisionBox> regionQuadTree = new RegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, SIZE, SIZE);
+		public LooseRegionQuadTree<CollisionBox> looseQuadTree = new LooseRegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, SIZE, SIZE);
+		
+		public LineSegment lineSegment = new LineSegment(100f, 100f, 900f, 700f);
+		public Rectangle rectangle = new Rectangle(400f, 400f, 64f, 64f);
+		public Point point = new Point(512f, 512f);
+		public RegionQuadTreePerformanceTest.CountingVisitor visitor = new RegionQuadTreePerformanceTest.CountingVisitor();
+		
+		public List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		
+		{
+			for(int i = 0; i < TOTAL_ELEMENTS; i++) {
+				collisions.add(new CollisionBox(MathUtils.random(0f, SIZE - 48f), MathUtils.random(0f, SIZE - 48f),
+						MathUtils.random(8f, 48f), MathUtils.random(8f, 48f)));
+			}
+		}
+		
+		@Setup(Level.Iteration)
+		public void setUp() {
+			regionQuadTree.addAll(collisions);
+			looseQuadTree.addAll(collisions);
+			System.out.println("Root elements: " + RegionQuadTree.class.getSimpleName() + "=" + regionQuadTree.elements.size()
+					+ ", " + LooseRegionQuadTree.class.getSimpleName() + "=" + looseQuadTree.getTotalElementsInQuad());
+		}
+		
+		@TearDown(Level.Iteration)
+		public void cleanup() {
+			regionQuadTree.clear();
+			looseQuadTree.clear();
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Medium")
+	public void testRegionQuadTreeIntersectingRectangle(TestState state) {
+		state.regionQuadTree.getElementsWithinArea(state.rectangle);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("LooseRegionQuadTree_Medium")
+	public void testLooseRegionQuadTreeIntersectingRectangle(TestState state) {
+		state.looseQuadTree.getElementsWithinArea(state.rectangle);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Medium")
+	public void testRegionQuadTreeQueryRectangle(TestState state) {
+		state.regionQuadTree.query(state.rectangle, state.visitor);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("LooseRegionQuadTree_Medium")
+	public void testLooseRegionQuadTreeQueryRectangle(TestState state) {
+		state.looseQuadTree.query(state.rectangle, state.visitor);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Medium")
+	public void testRegionQuadTreeContainingPoint(TestState state) {
+		state.regionQuadTree.getElementsContainingPoint(state.point);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("LooseRegionQuadTree_Medium")
+	public void testLooseRegionQuadTreeContainingPoint(TestState state) {
+		state.looseQuadTree.getElementsContainingPoint(state.point);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Medium")
+	public void testRegionQuadTreeIntersectingLineSegment(TestState state) {
+		state.regionQuadTree.getElementsIntersectingLineSegment(state.lineSegment);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("LooseRegionQuadTree_Medium")
+	public void testLooseRegionQuadTreeIntersectingLineSegment(TestState state) {
+		state.looseQuadTree.getElementsIntersectingLineSegment(state.lineSegment);
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.geom.CollisionPoint;
+import org.mini2Dx.core.geom.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares nearest neighbour and radius queries on {@link PointQuadTree}
+ * against querying a rectangle and sorting by distance
+ */
+@Threads(value=1)
+public class PointQuadTreePerformanceTest {
+	private static final int ELEMENTS_PER_QUAD = 8;
+	private static final int TOTAL_ELEMENTS = 10000;
+	private static final int NEAREST = 8;
+	private static final float RADIUS = 50f;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public PointQuadTree<CollisionPoint> quadTree = new PointQuadTree<CollisionPoint>(ELEMENTS_PER_QUAD, 0f, 0f, 1000f, 1000f);
+		public Positionable origin = new CollisionPoint(500f, 500f);
+		public Rectangle searchArea = new Rectangle(400f, 400f, 200f, 200f);
+		public List<CollisionPoint> result = new ArrayList<CollisionPoint>();
+
+		public Comparator<CollisionPoint> distanceComparator = new Comparator<CollisionPoint>() {
+			@Override
+			public int compare(CollisionPoint o1, CollisionPoint o2) {
+				return Float.compare(o1.getDistanceTo(origin), o2.getDistanceTo(origin));
+			}
+		};
+
+		{
+			Random random = new Random(TOTAL_ELEMENTS);
+			List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+			for(int i = 0; i < TOTAL_ELEMENTS; i++) {
+				points.add(new CollisionPoint(random.nextFloat() * 1000f, random.nextFloat() * 1000f));
+			}
+			quadTree.addAll(points);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("PointQuadTree_Nearest")
+	public List<CollisionPoint> testGetNearest(TestState state) {
+		state.result.clear();
+		state.quadTree.getNearest(500f, 500f, NEAREST, state.result);
+		return state.result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("PointQuadTree_Nearest")
+	public List<CollisionPoint> testGetNearestByAreaAndSort(TestState state) {
+		state.result.clear();
+		state.quadTree.getElementsWithinArea(state.result, state.searchArea);
+		Collections.sort(state.result, state.distanceComparator);
+		while(state.result.size() > NEAREST) {
+			state.result.remove(state.result.size() - 1);
+		}
+		return state.result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("PointQuadTree_Radius")
+	public List<CollisionPoint> testGetWithinRadius(TestState state) {
+		state.result.clear();
+		state.quadTree.getWithinRadius(500f, 500f, RADIUS, state.result);
+		return state.result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("PointQuadTree_Radius")
+	public List<CollisionPoint> testGetWithinRadiusByAreaAndDistance(TestState state) {
+		state.result.clear();
+		state.searchArea.set(500f - RADIUS, 500f - RADIUS, RADIUS * 2f, RADIUS * 2f);
+		state.quadTree.getElementsWithinArea(state.result, state.searchArea);
+		for(int i = state.result.size() - 1; i >= 0; i--) {
+			Positionable element = state.result.get(i);
+			if(element.getDistanceTo(state.origin) > RADIUS) {
+				state.result.remove(i);
+			}
+		}
+		state.searchArea.set(400f, 400f, 200f, 200f);
+		return state.result;
+	}
+}
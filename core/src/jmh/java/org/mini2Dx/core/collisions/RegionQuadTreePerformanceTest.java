@@ -45,6 +45,8 @@ public class RegionQuadTreePerformanceTest {
 		
 		public LineSegment lineSegment = new LineSegment(25f, 25f, 75f, 75f);
 		public Rectangle rectangle = new Rectangle(25f, 25f, 50f, 50f);
+		public CountingVisitor visitor = new CountingVisitor();
+		public RaycastHit<CollisionBox> raycastHit = new RaycastHit<CollisionBox>();
 		
 		public List<CollisionBox> basicCollisions = new ArrayList<CollisionBox>();
 		public List<CollisionBox> complexCollisions = new ArrayList<CollisionBox>();
@@ -135,6 +137,20 @@ public class RegionQuadTreePerformanceTest {
 		state.complexQuadTree.getElementsIntersectingLineSegment(state.lineSegment);
 	}
 	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Basic")
+	public void testBasicRegionQuadTreeRaycast(TestState state) {
+		state.basicQuadTree.raycast(25f, 25f, 75f, 75f, state.raycastHit);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Complex")
+	public void testComplexRegionQuadTreeRaycast(TestState state) {
+		state.complexQuadTree.raycast(25f, 25f, 75f, 75f, state.raycastHit);
+	}
+	
 	@Benchmark
 	@BenchmarkMode(value=Mode.AverageTime)
 	@Group("RegionQuadTree_Empty")
@@ -155,4 +171,28 @@ public class RegionQuadTreePerformanceTest {
 	public void testComplexRegionQuadTreeIntersectingRectangle(TestState state) {
 		state.complexQuadTree.getElementsWithinArea(state.rectangle);
 	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Basic")
+	public void testBasicRegionQuadTreeQueryRectangle(TestState state) {
+		state.basicQuadTree.query(state.rectangle, state.visitor);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("RegionQuadTree_Complex")
+	public void testComplexRegionQuadTreeQueryRectangle(TestState state) {
+		state.complexQuadTree.query(state.rectangle, state.visitor);
+	}
+	
+	public static class CountingVisitor implements QuadTreeVisitor<CollisionBox> {
+		public int count;
+		
+		@Override
+		public boolean visit(CollisionBox element) {
+			count++;
+			return true;
+		}
+	}
 }
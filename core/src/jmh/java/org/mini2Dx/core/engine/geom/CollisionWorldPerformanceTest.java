@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares a frame of {@link CollisionBox} updates against the same frame in
+ * a {@link CollisionWorld}
+ */
+@Threads(value=1)
+public class CollisionWorldPerformanceTest {
+	private static final int TOTAL_BOXES = 10000;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public CollisionBox [] boxes = new CollisionBox[TOTAL_BOXES];
+		public CollisionWorld world = new CollisionWorld(TOTAL_BOXES);
+		public CollisionBoxHandle [] handles = new CollisionBoxHandle[TOTAL_BOXES];
+		public float offset = 1f;
+
+		{
+			for(int i = 0; i < TOTAL_BOXES; i++) {
+				boxes[i] = new CollisionBox((i % 100) * 10f, (i / 100) * 10f, 8f, 8f);
+				handles[i] = world.createBox((i % 100) * 10f, (i / 100) * 10f, 8f, 8f);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("CollisionWorld_Frame")
+	public CollisionBox [] testCollisionBoxFrame(TestState state) {
+		state.offset = -state.offset;
+		for(int i = 0; i < TOTAL_BOXES; i++) {
+			state.boxes[i].preUpdate();
+		}
+		for(int i = 0; i < TOTAL_BOXES; i++) {
+			CollisionBox box = state.boxes[i];
+			box.set(box.getX() + state.offset, box.getY());
+		}
+		for(int i = 0; i < TOTAL_BOXES; i++) {
+			state.boxes[i].interpolate(null, 0.5f);
+		}
+		return state.boxes;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("CollisionWorld_Frame")
+	public CollisionWorld testCollisionWorldFrame(TestState state) {
+		state.offset = -state.offset;
+		state.world.preUpdate();
+		for(int i = 0; i < TOTAL_BOXES; i++) {
+			CollisionBoxHandle box = state.handles[i];
+			box.set(box.getX() + state.offset, box.getY());
+		}
+		state.world.interpolate(null, 0.5f);
+		return state.world;
+	}
+}
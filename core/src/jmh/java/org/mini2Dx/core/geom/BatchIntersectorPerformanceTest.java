@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares the throughput of scalar {@link Shape} tests against
+ * {@link BatchIntersector}
+ */
+@Threads(value=1)
+public class BatchIntersectorPerformanceTest {
+	private static final int TOTAL_SHAPES = 4096;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public Rectangle rectangle = new Rectangle(400f, 400f, 200f, 200f);
+
+		public Rectangle [] rectangles = new Rectangle[TOTAL_SHAPES];
+		public Circle [] circles = new Circle[TOTAL_SHAPES];
+
+		public float [] xs = new float[TOTAL_SHAPES];
+		public float [] ys = new float[TOTAL_SHAPES];
+		public float [] widths = new float[TOTAL_SHAPES];
+		public float [] heights = new float[TOTAL_SHAPES];
+		public float [] radii = new float[TOTAL_SHAPES];
+		public long [] result = new long[BatchIntersector.getBitsetLength(TOTAL_SHAPES)];
+
+		{
+			Random random = new Random(4096);
+			for(int i = 0; i < TOTAL_SHAPES; i++) {
+				xs[i] = random.nextFloat() * 1000f;
+				ys[i] = random.nextFloat() * 1000f;
+				widths[i] = 8f + (random.nextFloat() * 32f);
+				heights[i] = 8f + (random.nextFloat() * 32f);
+				radii[i] = widths[i] * 0.5f;
+				rectangles[i] = new Rectangle(xs[i], ys[i], widths[i], heights[i]);
+				circles[i] = new Circle(xs[i], ys[i], radii[i]);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectRectangles")
+	public int testScalarIntersectRectangles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.rectangle.intersects(state.rectangles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectRectangles")
+	public long [] testBatchIntersectRectangles(TestState state) {
+		BatchIntersector.intersectRectangles(400f, 400f, 200f, 200f, state.xs, state.ys, state.widths,
+				state.heights, TOTAL_SHAPES, state.result);
+		return state.result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("CirclesContain")
+	public int testScalarCirclesContain(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.circles[i].contains(500f, 500f)) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("CirclesContain")
+	public long [] testBatchCirclesContain(TestState state) {
+		BatchIntersector.circlesContain(state.xs, state.ys, state.radii, TOTAL_SHAPES, 500f, 500f, state.result);
+		return state.result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("CirclesIntersectRectangle")
+	public int testScalarCirclesIntersectRectangle(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.circles[i].intersects(state.rectangle)) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("CirclesIntersectRectangle")
+	public long [] testBatchCirclesIntersectRectangle(TestState state) {
+		BatchIntersector.circlesIntersectRectangle(state.xs, state.ys, state.radii, TOTAL_SHAPES, 400f, 400f,
+				200f, 200f, state.result);
+		return state.result;
+	}
+}
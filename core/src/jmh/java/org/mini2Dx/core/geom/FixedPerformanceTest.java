@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares the throughput of floating point {@link Shape} tests against their
+ * {@link Fixed} equivalents
+ */
+@Threads(value=1)
+public class FixedPerformanceTest {
+	private static final int TOTAL_SHAPES = 4096;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public Rectangle rectangle = new Rectangle(400f, 400f, 200f, 200f);
+		public Circle circle = new Circle(500f, 500f, 100f);
+		public FixedRectangle fixedRectangle = new FixedRectangle(Fixed.fromInt(400), Fixed.fromInt(400),
+				Fixed.fromInt(200), Fixed.fromInt(200));
+		public FixedCircle fixedCircle = new FixedCircle(Fixed.fromInt(500), Fixed.fromInt(500), Fixed.fromInt(100));
+
+		public Rectangle [] rectangles = new Rectangle[TOTAL_SHAPES];
+		public Circle [] circles = new Circle[TOTAL_SHAPES];
+		public FixedRectangle [] fixedRectangles = new FixedRectangle[TOTAL_SHAPES];
+		public FixedCircle [] fixedCircles = new FixedCircle[TOTAL_SHAPES];
+
+		{
+			Random random = new Random(4096);
+			for(int i = 0; i < TOTAL_SHAPES; i++) {
+				float x = random.nextFloat() * 1000f;
+				float y = random.nextFloat() * 1000f;
+				float width = 8f + (random.nextFloat() * 32f);
+				float height = 8f + (random.nextFloat() * 32f);
+				rectangles[i] = new Rectangle(x, y, width, height);
+				circles[i] = new Circle(x, y, width * 0.5f);
+				fixedRectangles[i] = new FixedRectangle(Fixed.fromFloat(x), Fixed.fromFloat(y), Fixed.fromFloat(width),
+						Fixed.fromFloat(height));
+				fixedCircles[i] = new FixedCircle(Fixed.fromFloat(x), Fixed.fromFloat(y), Fixed.fromFloat(width * 0.5f));
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectRectangles")
+	public int testFloatIntersectRectangles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.rectangle.intersects(state.rectangles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectRectangles")
+	public int testFixedIntersectRectangles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.fixedRectangle.intersects(state.fixedRectangles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectCircles")
+	public int testFloatIntersectCircles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.circle.intersects(state.circles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectCircles")
+	public int testFixedIntersectCircles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.fixedCircle.intersects(state.fixedCircles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectRectangleCircles")
+	public int testFloatIntersectRectangleCircles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.rectangle.intersects(state.circles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(value=Mode.Throughput)
+	@Group("IntersectRectangleCircles")
+	public int testFixedIntersectRectangleCircles(TestState state) {
+		int result = 0;
+		for(int i = 0; i < TOTAL_SHAPES; i++) {
+			if(state.fixedRectangle.intersects(state.fixedCircles[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+}
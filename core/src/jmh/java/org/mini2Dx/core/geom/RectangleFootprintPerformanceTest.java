@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Allocation and heap footprint tests for {@link Rectangle} and
+ * {@link CollisionBox}. The retained heap per instance is printed after each
+ * iteration.
+ */
+@Threads(value=1)
+public class RectangleFootprintPerformanceTest {
+	private static final int TOTAL_INSTANCES = 100000;
+	
+	@State(Scope.Thread)
+	public static class TestState {
+		public Shape [] shapes;
+		private long usedMemoryBefore;
+		
+		@Setup(Level.Iteration)
+		public void setUp() {
+			shapes = new Shape[TOTAL_INSTANCES];
+			usedMemoryBefore = getUsedMemory();
+		}
+		
+		@TearDown(Level.Iteration)
+		public void cleanup() {
+			long retained = getUsedMemory() - usedMemoryBefore;
+			System.out.println();
+			System.out.println(shapes[0].getClass().getSimpleName() + " retained heap per instance: "
+					+ (retained / TOTAL_INSTANCES) + " bytes");
+			shapes = null;
+		}
+		
+		private static long getUsedMemory() {
+			Runtime runtime = Runtime.getRuntime();
+			for(int i = 0; i < 3; i++) {
+				System.gc();
+			}
+			return runtime.totalMemory() - runtime.freeMemory();
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.SingleShotTime)
+	public void testAllocateRectangles(TestState state) {
+		for(int i = 0; i < TOTAL_INSTANCES; i++) {
+			state.shapes[i] = new Rectangle(i, i, 32f, 32f);
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.SingleShotTime)
+	public void testAllocateRectanglesWithPolygons(TestState state) {
+		for(int i = 0; i < TOTAL_INSTANCES; i++) {
+			Rectangle rectangle = new Rectangle(i, i, 32f, 32f);
+			rectangle.getPolygon();
+			state.shapes[i] = rectangle;
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.SingleShotTime)
+	public void testAllocateCollisionBoxes(TestState state) {
+		for(int i = 0; i < TOTAL_INSTANCES; i++) {
+			state.shapes[i] = new CollisionBox(i, i, 32f, 32f);
+		}
+	}
+}
@@ -196,4 +196,34 @@ public class RectanglePerformanceTest {
 		state.rectangle.setRotation(45f);
 		state.rectangle.intersects(state.nonIntersectingCircle);
 	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("Rectangle_Create")
+	public Rectangle testCreate() {
+		return new Rectangle(0f, 0f, 50f, 50f);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("Rectangle_Create")
+	public Polygon testCreateWithPolygon() {
+		return new Rectangle(0f, 0f, 50f, 50f).getPolygon();
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("Rectangle")
+	public boolean testIntersectsShape(TestState state) {
+		return state.rectangle.intersects((Shape) state.intersectingRectangle);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	@Group("Rectangle")
+	public boolean testTranslateIntersectsRectangle(TestState state) {
+		state.rectangle.translate(1f, 0f);
+		state.rectangle.translate(-1f, 0f);
+		return state.rectangle.intersects(state.intersectingRectangle);
+	}
 }
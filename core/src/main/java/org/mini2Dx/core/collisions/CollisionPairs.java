@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of candidate collision pairs stored as a flat
+ * <code>int</code> array. Each pair refers to two slots of the broadphase
+ * that produced it, e.g. {@link SweepAndPrune#getElement(int)}.
+ */
+public class CollisionPairs {
+	private static final int INITIAL_CAPACITY = 32;
+
+	private int[] pairs;
+	private int size = 0;
+
+	/**
+	 * Constructs an empty {@link CollisionPairs} buffer
+	 */
+	public CollisionPairs() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty {@link CollisionPairs} buffer
+	 * 
+	 * @param initialCapacity
+	 *            The initial amount of pairs that can be stored before the
+	 *            buffer is resized
+	 */
+	public CollisionPairs(int initialCapacity) {
+		pairs = new int[Math.max(1, initialCapacity) * 2];
+	}
+
+	/**
+	 * Adds a pair to the buffer
+	 * 
+	 * @param first
+	 *            The slot of the first element
+	 * @param second
+	 *            The slot of the second element
+	 */
+	public void add(int first, int second) {
+		int index = size * 2;
+		if (index == pairs.length) {
+			pairs = Arrays.copyOf(pairs, pairs.length * 2);
+		}
+		pairs[index] = first;
+		pairs[index + 1] = second;
+		size++;
+	}
+
+	/**
+	 * Returns the slot of the first element in a pair
+	 * 
+	 * @param index
+	 *            The index of the pair
+	 * @return The slot of the first element
+	 */
+	public int getFirst(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " exceeds pair count " + size);
+		}
+		return pairs[index * 2];
+	}
+
+	/**
+	 * Returns the slot of the second element in a pair
+	 * 
+	 * @param index
+	 *            The index of the pair
+	 * @return The slot of the second element
+	 */
+	public int getSecond(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " exceeds pair count " + size);
+		}
+		return pairs[(index * 2) + 1];
+	}
+
+	/**
+	 * Removes all pairs without releasing the underlying storage
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the amount of pairs in the buffer
+	 * 
+	 * @return 0 if the buffer is empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+}
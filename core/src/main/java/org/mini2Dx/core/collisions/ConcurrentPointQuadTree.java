@@ -14,10 +14,15 @@ package org.mini2Dx.core.collisions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Parallelogram;
 import org.mini2Dx.core.geom.Point;
@@ -39,15 +44,27 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 	public static Color QUAD_COLOR = new Color(1f, 0f, 0f, 0.5f);
 	public static Color ELEMENT_COLOR = new Color(0f, 0f, 1f, 0.5f);
 
+	private static final ThreadLocal<NearestSearch> NEAREST_SEARCHES = new ThreadLocal<NearestSearch>() {
+		@Override
+		protected NearestSearch initialValue() {
+			return new NearestSearch();
+		}
+	};
+
 	protected ConcurrentPointQuadTree<T> parent;
 	protected ConcurrentPointQuadTree<T> topLeft, topRight, bottomLeft, bottomRight;
 	protected List<T> elements;
+	protected List<T> pendingMoves;
+	protected Set<T> pendingMoveInstances;
+	protected Queue<T> orphanedMoves;
 
 	protected final int elementLimitPerQuad;
 	protected final int mergeWatermark;
 	protected final ReadWriteLock lock;
 
 	protected int totalElementsCache = -1;
+	protected volatile boolean deferredUpdates = false;
+	protected volatile boolean hasPendingMoves = false;
 
 	/**
 	 * Constructs a {@link ConcurrentPointQuadTree} with a specified element
@@ -82,6 +99,7 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		this.lock = new ReentrantReadWriteLock(false);
 
 		elements = new ArrayList<T>();
+		orphanedMoves = new ConcurrentLinkedQueue<T>();
 	}
 
 	/**
@@ -123,6 +141,8 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 	public ConcurrentPointQuadTree(ConcurrentPointQuadTree<T> parent, float x, float y, float width, float height) {
 		this(parent.getElementLimitPerQuad(), x, y, width, height);
 		this.parent = parent;
+		this.deferredUpdates = parent.deferredUpdates;
+		this.orphanedMoves = null;
 	}
 
 	public void debugRender(Graphics g) {
@@ -278,8 +298,12 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 			T element = elements.remove(i);
 			element.removePositionChangeListener(this);
 			lock.readLock().lock();
-			addElementToChild(element);
+			if (!addElementToChild(element)) {
+				//Element moved out of this quad while updates were deferred
+				getRoot().orphanedMoves.offer(element);
+			}
 		}
+		clearPendingMoves();
 
 		lock.writeLock().unlock();
 	}
@@ -349,6 +373,10 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 			element.removePositionChangeListener(bottomRight);
 			element.addPostionChangeListener(this);
 		}
+		takePendingMoves(topLeft);
+		takePendingMoves(topRight);
+		takePendingMoves(bottomLeft);
+		takePendingMoves(bottomRight);
 
 		topLeft = null;
 		topRight = null;
@@ -363,6 +391,9 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		if(elementsToRemove == null || elementsToRemove.isEmpty()) {
 			return;
 		}
+		if(parent == null && hasPendingMoves) {
+			elementsToRemove = removePendingMoves(elementsToRemove);
+		}
 		clearTotalElementsCache();
 		
 		List<T> elementsWithinQuad = new ArrayList<T>();
@@ -413,6 +444,9 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 	public boolean remove(T element) {
 		if (element == null)
 			return false;
+		if (parent == null && hasPendingMoves && removePendingMove(element)) {
+			return true;
+		}
 
 		if (!this.contains(element.getX(), element.getY())) {
 			return false;
@@ -448,6 +482,69 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		return false;
 	}
 
+	/**
+	 * Removes an element that moved since the last call to
+	 * {@link #flushMoves()} from the quad that still holds it. The element
+	 * may no longer be inside that quad, so it cannot be found by position.
+	 * The parent's read lock must be held by the caller.
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return False if the element has no pending move in this quad or its
+	 *         child quads
+	 */
+	protected boolean removePendingMove(T element) {
+		if (!hasPendingMoves) {
+			return false;
+		}
+		lock.readLock().lock();
+		if (pendingMoveInstances == null || !pendingMoveInstances.contains(element)) {
+			boolean result = topLeft != null && (topLeft.removePendingMove(element)
+					|| topRight.removePendingMove(element) || bottomLeft.removePendingMove(element)
+					|| bottomRight.removePendingMove(element));
+			lock.readLock().unlock();
+			if (result) {
+				clearTotalElementsCache();
+			}
+			return result;
+		}
+		lock.readLock().unlock();
+
+		lock.writeLock().lock();
+		//Another write may occur concurrently before this one
+		if (pendingMoveInstances == null || !pendingMoveInstances.remove(element)) {
+			lock.writeLock().unlock();
+			return false;
+		}
+		PointQuadTree.removeInstance(pendingMoves, element);
+		boolean result = PointQuadTree.removeInstance(elements, element);
+		lock.writeLock().unlock();
+		element.removePositionChangeListener(this);
+		clearTotalElementsCache();
+
+		if (parent != null && parent.isMergable()) {
+			parent.merge();
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the elements that have pending moves via
+	 * {@link #removePendingMove(Positionable)}
+	 * 
+	 * @return The elements that did not have pending moves
+	 */
+	protected List<T> removePendingMoves(List<T> elementsToRemove) {
+		List<T> result = new ArrayList<T>(elementsToRemove.size());
+		for (int i = 0; i < elementsToRemove.size(); i++) {
+			T element = elementsToRemove.get(i);
+			if (!removePendingMove(element)) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
 	protected boolean removeElement(T element) {
 		lock.writeLock().lock();
 		
@@ -497,6 +594,75 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		lock.readLock().unlock();
 	}
 
+	@Override
+	public void query(Shape area, QuadTreeVisitor<T> visitor) {
+		query(area, area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY(), visitor);
+	}
+
+	/**
+	 * Visits the elements of this quad and its child quads. The read lock is
+	 * held until all child quads have been visited so that a concurrent
+	 * merge cannot move elements out of child quads that are yet to be
+	 * visited.
+	 * 
+	 * @return False if the visitor terminated the query
+	 */
+	private boolean query(Shape area, float minX, float minY, float maxX, float maxY, QuadTreeVisitor<T> visitor) {
+		lock.readLock().lock();
+		try {
+			if (topLeft != null) {
+				if (topLeft.overlaps(minX, minY, maxX, maxY)
+						&& !topLeft.query(area, minX, minY, maxX, maxY, visitor)) {
+					return false;
+				}
+				if (topRight.overlaps(minX, minY, maxX, maxY)
+						&& !topRight.query(area, minX, minY, maxX, maxY, visitor)) {
+					return false;
+				}
+				if (bottomLeft.overlaps(minX, minY, maxX, maxY)
+						&& !bottomLeft.query(area, minX, minY, maxX, maxY, visitor)) {
+					return false;
+				}
+				if (bottomRight.overlaps(minX, minY, maxX, maxY)
+						&& !bottomRight.query(area, minX, minY, maxX, maxY, visitor)) {
+					return false;
+				}
+			}
+			return visitElements(area, visitor);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes the elements stored in this quad that are within an area to a
+	 * {@link QuadTreeVisitor}. The read lock must be held by the caller.
+	 * 
+	 * @param area
+	 *            The area to search
+	 * @param visitor
+	 *            The {@link QuadTreeVisitor} to pass elements to
+	 * @return False if the visitor terminated the query
+	 */
+	protected boolean visitElements(Shape area, QuadTreeVisitor<T> visitor) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null && area.contains(element.getX(), element.getY())) {
+				if (!visitor.visit(element)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns if this quad's bounds overlap an axis-aligned area
+	 */
+	protected boolean overlaps(float minX, float minY, float maxX, float maxY) {
+		return getMinX() <= maxX && getMaxX() >= minX && getMinY() <= maxY && getMaxY() >= minY;
+	}
+
 	@Override
 	public List<T> getElementsContainingPoint(Point point) {
 		List<T> result = new ArrayList<T>();
@@ -538,6 +704,391 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		lock.readLock().unlock();
 	}
 
+	@Override
+	public List<T> getElementsIntersectingSweep(Shape shape, float velocityX, float velocityY) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingSweep(result, shape, velocityX, velocityY);
+		return result;
+	}
+
+	@Override
+	public void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX, float velocityY) {
+		getElementsIntersectingSweep(result, shape, velocityX, velocityY, shape.getMinX() + Math.min(0f, velocityX),
+				shape.getMinY() + Math.min(0f, velocityY), shape.getMaxX() + Math.max(0f, velocityX),
+				shape.getMaxY() + Math.max(0f, velocityY));
+	}
+
+	/**
+	 * Collects the elements touched by a moving {@link Shape}
+	 * 
+	 * @param sweepMinX
+	 *            The minimum x coordinate covered by the whole movement
+	 * @param sweepMinY
+	 *            The minimum y coordinate covered by the whole movement
+	 * @param sweepMaxX
+	 *            The maximum x coordinate covered by the whole movement
+	 * @param sweepMaxY
+	 *            The maximum y coordinate covered by the whole movement
+	 */
+	protected void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX,
+			float velocityY, float sweepMinX, float sweepMinY, float sweepMaxX, float sweepMaxY) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (topRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+		} else {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element != null && Intersector.getTimeOfImpact(shape, velocityX, velocityY, element.getX(),
+						element.getY(), element.getX(), element.getY()) >= 0f) {
+					result.add(element);
+				}
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	public boolean raycast(float x1, float y1, float x2, float y2, RaycastHit<T> result) {
+		result.begin(x1, y1, x2, y2);
+		float deltaX = x2 - x1;
+		float deltaY = y2 - y1;
+		if (result.isCloser(getRayEntry(x1, y1, deltaX, deltaY))) {
+			raycastQuad(x1, y1, deltaX, deltaY, result);
+		}
+		return result.isHit();
+	}
+
+	@Override
+	public int raycast(float[] rays, int totalRays, RaycastHit<T>[] results) {
+		int result = 0;
+		for (int i = 0; i < totalRays; i++) {
+			int offset = i * 4;
+			if (raycast(rays[offset], rays[offset + 1], rays[offset + 2], rays[offset + 3], results[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tests the elements in this quad and then visits the child quads in the
+	 * order the ray passes through them
+	 */
+	protected void raycastQuad(float x, float y, float deltaX, float deltaY, RaycastHit<T> result) {
+		lock.readLock().lock();
+		try {
+			if (elements != null) {
+				raycastElements(result);
+			}
+			if (topLeft == null) {
+				return;
+			}
+			ConcurrentPointQuadTree<T> near, far, acrossX, acrossY;
+			if (deltaX >= 0f) {
+				if (deltaY >= 0f) {
+					near = topLeft;
+					acrossX = topRight;
+					acrossY = bottomLeft;
+					far = bottomRight;
+				} else {
+					near = bottomLeft;
+					acrossX = bottomRight;
+					acrossY = topLeft;
+					far = topRight;
+				}
+			} else if (deltaY >= 0f) {
+				near = topRight;
+				acrossX = topLeft;
+				acrossY = bottomRight;
+				far = bottomLeft;
+			} else {
+				near = bottomRight;
+				acrossX = bottomLeft;
+				acrossY = topRight;
+				far = topLeft;
+			}
+			float crossX = deltaX == 0f ? Float.MAX_VALUE : (topRight.getX() - x) / deltaX;
+			float crossY = deltaY == 0f ? Float.MAX_VALUE : (bottomLeft.getY() - y) / deltaY;
+
+			raycastChild(near, x, y, deltaX, deltaY, result);
+			if (crossX <= crossY) {
+				raycastChild(acrossX, x, y, deltaX, deltaY, result);
+				raycastChild(acrossY, x, y, deltaX, deltaY, result);
+			} else {
+				raycastChild(acrossY, x, y, deltaX, deltaY, result);
+				raycastChild(acrossX, x, y, deltaX, deltaY, result);
+			}
+			raycastChild(far, x, y, deltaX, deltaY, result);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void raycastChild(ConcurrentPointQuadTree<T> child, float x, float y, float deltaX, float deltaY,
+			RaycastHit<T> result) {
+		if (result.isCloser(child.getRayEntry(x, y, deltaX, deltaY))) {
+			child.raycastQuad(x, y, deltaX, deltaY, result);
+		}
+	}
+
+	/**
+	 * Tests a ray against the elements stored in this quad. Called while the
+	 * read lock is held.
+	 * 
+	 * @param result
+	 *            The {@link RaycastHit} to store the closest hit in
+	 */
+	protected void raycastElements(RaycastHit<T> result) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null) {
+				result.test(element, element.getX(), element.getY());
+			}
+		}
+	}
+
+	/**
+	 * Returns where a ray enters this quad
+	 * 
+	 * @return The fraction (0 to 1) of the ray where it enters this quad or -1
+	 *         if it misses this quad
+	 */
+	protected float getRayEntry(float x, float y, float deltaX, float deltaY) {
+		return IntersectionKernels.raycastAabb(x, y, deltaX, deltaY, getMinX(), getMinY(), getMaxX(), getMaxY());
+	}
+
+	/**
+	 * Returns the elements nearest to a point
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param k
+	 *            The maximum number of elements to return
+	 * @return A new {@link List} containing up to k elements in order of
+	 *         increasing distance
+	 */
+	public List<T> getNearest(float x, float y, int k) {
+		List<T> result = new ArrayList<T>();
+		getNearest(x, y, k, result);
+		return result;
+	}
+
+	/**
+	 * Finds the elements nearest to a point using a depth-first traversal.
+	 * Child quads are visited nearest first while the read locks of their
+	 * ancestors are held, so a concurrent merge cannot move elements out of
+	 * quads that are yet to be visited. Quads further away than the k-th
+	 * nearest element found are skipped.
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param k
+	 *            The maximum number of elements to find
+	 * @param result
+	 *            The {@link Collection} to add up to k elements to in order of
+	 *            increasing distance
+	 */
+	public void getNearest(float x, float y, int k, Collection<T> result) {
+		if (k <= 0) {
+			return;
+		}
+		NearestSearch threadSearch = NEAREST_SEARCHES.get();
+		boolean ownsSearch = !threadSearch.inUse;
+		NearestSearch search = ownsSearch ? threadSearch : new NearestSearch();
+		search.inUse = true;
+		try {
+			search.begin(k);
+			collectNearest(search, x, y);
+			search.drain(result);
+		} finally {
+			search.clear();
+			if (ownsSearch) {
+				search.inUse = false;
+			}
+		}
+	}
+
+	private void collectNearest(NearestSearch search, float x, float y) {
+		lock.readLock().lock();
+		try {
+			if (elements != null) {
+				for (int i = elements.size() - 1; i >= 0; i--) {
+					T element = elements.get(i);
+					if (element == null) {
+						continue;
+					}
+					float distanceSquared = getDistanceSquared(element, x, y);
+					if (search.isCandidate(distanceSquared)) {
+						search.offerElement(element, distanceSquared);
+					}
+				}
+			}
+			if (topLeft == null) {
+				return;
+			}
+			float topLeftDistance = topLeft.getBoundsDistanceSquared(x, y);
+			float topRightDistance = topRight.getBoundsDistanceSquared(x, y);
+			float bottomLeftDistance = bottomLeft.getBoundsDistanceSquared(x, y);
+			float bottomRightDistance = bottomRight.getBoundsDistanceSquared(x, y);
+
+			//Visit the nearest unvisited child until none can contain a candidate
+			int visited = 0;
+			while (true) {
+				int nearest = 0;
+				float nearestDistance = Float.POSITIVE_INFINITY;
+				if ((visited & 1) == 0 && topLeftDistance <= nearestDistance) {
+					nearest = 1;
+					nearestDistance = topLeftDistance;
+				}
+				if ((visited & 2) == 0 && topRightDistance <= nearestDistance) {
+					nearest = 2;
+					nearestDistance = topRightDistance;
+				}
+				if ((visited & 4) == 0 && bottomLeftDistance <= nearestDistance) {
+					nearest = 4;
+					nearestDistance = bottomLeftDistance;
+				}
+				if ((visited & 8) == 0 && bottomRightDistance <= nearestDistance) {
+					nearest = 8;
+					nearestDistance = bottomRightDistance;
+				}
+				if (nearest == 0 || !search.isCandidate(nearestDistance)) {
+					return;
+				}
+				visited |= nearest;
+
+				switch (nearest) {
+				case 1:
+					topLeft.collectNearest(search, x, y);
+					break;
+				case 2:
+					topRight.collectNearest(search, x, y);
+					break;
+				case 4:
+					bottomLeft.collectNearest(search, x, y);
+					break;
+				default:
+					bottomRight.collectNearest(search, x, y);
+					break;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns all elements within a distance of a point
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param radius
+	 *            The maximum distance from the point
+	 * @return A new {@link List} containing the elements
+	 */
+	public List<T> getWithinRadius(float x, float y, float radius) {
+		List<T> result = new ArrayList<T>();
+		getWithinRadius(x, y, radius, result);
+		return result;
+	}
+
+	/**
+	 * Finds all elements within a distance of a point. Distances are compared
+	 * squared so no square roots are calculated.
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param radius
+	 *            The maximum distance from the point
+	 * @param result
+	 *            The {@link Collection} to add the elements to
+	 */
+	public void getWithinRadius(float x, float y, float radius, Collection<T> result) {
+		if (radius < 0f || getBoundsDistanceSquared(x, y) > radius * radius) {
+			return;
+		}
+		collectWithinRadius(x, y, radius * radius, result);
+	}
+
+	private void collectWithinRadius(float x, float y, float radiusSquared, Collection<T> result) {
+		lock.readLock().lock();
+		try {
+			if (elements != null) {
+				for (int i = elements.size() - 1; i >= 0; i--) {
+					T element = elements.get(i);
+					if (element != null && getDistanceSquared(element, x, y) <= radiusSquared) {
+						result.add(element);
+					}
+				}
+			}
+			if (topLeft != null) {
+				if (topLeft.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+					topLeft.collectWithinRadius(x, y, radiusSquared, result);
+				}
+				if (topRight.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+					topRight.collectWithinRadius(x, y, radiusSquared, result);
+				}
+				if (bottomLeft.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+					bottomLeft.collectWithinRadius(x, y, radiusSquared, result);
+				}
+				if (bottomRight.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+					bottomRight.collectWithinRadius(x, y, radiusSquared, result);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the squared distance from a point to an element
+	 * 
+	 * @param element
+	 *            The element stored in this quad
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 */
+	protected float getDistanceSquared(T element, float x, float y) {
+		float deltaX = element.getX() - x;
+		float deltaY = element.getY() - y;
+		return (deltaX * deltaX) + (deltaY * deltaY);
+	}
+
+	/**
+	 * Returns the squared distance from a point to the closest point within
+	 * this quad's bounds
+	 * 
+	 * @return 0 if the point is inside this quad
+	 */
+	protected float getBoundsDistanceSquared(float x, float y) {
+		return IntersectionKernels.distanceSquaredAabbPoint(getMinX(), getMinY(), getMaxX(), getMaxY(), x, y);
+	}
+
 	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
 		List<T> result = new ArrayList<T>();
 		getElementsIntersectingLineSegment(result, lineSegment);
@@ -631,6 +1182,10 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 
 	@Override
 	public void positionChanged(T moved) {
+		if (deferredUpdates) {
+			addPendingMove(moved);
+			return;
+		}
 		if (this.contains(moved.getX(), moved.getY()))
 			return;
 
@@ -645,6 +1200,155 @@ public class ConcurrentPointQuadTree<T extends Positionable> extends Rectangle i
 		}
 	}
 
+	@Override
+	public void setDeferredUpdates(boolean deferredUpdates) {
+		applyDeferredUpdates(deferredUpdates);
+		if (!deferredUpdates) {
+			flushMoves();
+		}
+	}
+
+	private void applyDeferredUpdates(boolean deferredUpdates) {
+		lock.readLock().lock();
+		this.deferredUpdates = deferredUpdates;
+		if (topLeft != null) {
+			topLeft.applyDeferredUpdates(deferredUpdates);
+			topRight.applyDeferredUpdates(deferredUpdates);
+			bottomLeft.applyDeferredUpdates(deferredUpdates);
+			bottomRight.applyDeferredUpdates(deferredUpdates);
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	public boolean isDeferredUpdates() {
+		return deferredUpdates;
+	}
+
+	@Override
+	public void flushMoves() {
+		if (hasPendingMoves) {
+			hasPendingMoves = false;
+
+			lock.readLock().lock();
+			ConcurrentPointQuadTree<T> topLeft = this.topLeft;
+			ConcurrentPointQuadTree<T> topRight = this.topRight;
+			ConcurrentPointQuadTree<T> bottomLeft = this.bottomLeft;
+			ConcurrentPointQuadTree<T> bottomRight = this.bottomRight;
+			lock.readLock().unlock();
+
+			if (topLeft != null) {
+				topLeft.flushMoves();
+				topRight.flushMoves();
+				bottomLeft.flushMoves();
+				bottomRight.flushMoves();
+			}
+
+			List<T> moved = null;
+			lock.writeLock().lock();
+			if (pendingMoves != null && !pendingMoves.isEmpty()) {
+				moved = new ArrayList<T>(pendingMoves);
+				clearPendingMoves();
+			}
+			lock.writeLock().unlock();
+
+			if (moved != null) {
+				for (int i = 0; i < moved.size(); i++) {
+					flushMove(moved.get(i));
+				}
+			}
+			clearTotalElementsCache();
+		}
+		if (orphanedMoves != null) {
+			T orphan = null;
+			while ((orphan = orphanedMoves.poll()) != null) {
+				add(orphan);
+			}
+		}
+	}
+
+	/**
+	 * Re-buckets a single element that moved while updates were deferred
+	 * 
+	 * @param moved
+	 *            The element that moved
+	 */
+	protected void flushMove(T moved) {
+		if (this.contains(moved.getX(), moved.getY()))
+			return;
+		if (!removeElement(moved))
+			return;
+
+		QuadTree<T> parentQuad = parent;
+		while (parentQuad != null) {
+			if (parentQuad.add(moved)) {
+				return;
+			}
+			parentQuad = parentQuad.getParent();
+		}
+	}
+
+	/**
+	 * Marks an element as moved so that it is re-bucketed on the next call
+	 * to {@link #flushMoves()}
+	 * 
+	 * @param moved
+	 *            The element that moved
+	 */
+	protected void addPendingMove(T moved) {
+		lock.writeLock().lock();
+		if (pendingMoves == null) {
+			pendingMoves = new ArrayList<T>(1);
+			pendingMoveInstances = PointQuadTree.createInstanceSet();
+		}
+		if (pendingMoveInstances.add(moved)) {
+			pendingMoves.add(moved);
+		}
+		lock.writeLock().unlock();
+
+		ConcurrentPointQuadTree<T> quad = this;
+		while (quad != null && !quad.hasPendingMoves) {
+			quad.hasPendingMoves = true;
+			quad = quad.parent;
+		}
+	}
+
+	/**
+	 * Clears the pending moves. The write lock must be held by the caller.
+	 */
+	protected void clearPendingMoves() {
+		if (pendingMoves != null) {
+			pendingMoves.clear();
+			pendingMoveInstances.clear();
+		}
+	}
+
+	private void takePendingMoves(ConcurrentPointQuadTree<T> child) {
+		child.lock.readLock().lock();
+		if (child.pendingMoves != null && !child.pendingMoves.isEmpty()) {
+			if (pendingMoves == null) {
+				pendingMoves = new ArrayList<T>(child.pendingMoves.size());
+				pendingMoveInstances = PointQuadTree.createInstanceSet();
+			}
+			for (int i = 0; i < child.pendingMoves.size(); i++) {
+				T element = child.pendingMoves.get(i);
+				if (pendingMoveInstances.add(element)) {
+					pendingMoves.add(element);
+				}
+			}
+			hasPendingMoves = true;
+		}
+		child.lock.readLock().unlock();
+	}
+
+	protected ConcurrentPointQuadTree<T> getRoot() {
+		ConcurrentPointQuadTree<T> result = this;
+		while (result.parent != null) {
+			result = result.parent;
+		}
+		return result;
+	}
+
 	public QuadTree<T> getParent() {
 		return parent;
 	}
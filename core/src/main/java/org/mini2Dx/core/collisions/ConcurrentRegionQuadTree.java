@@ -16,6 +16,8 @@ import java.util.Collection;
 import java.util.List;
 
 import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Parallelogram;
 import org.mini2Dx.core.geom.Point;
@@ -290,6 +292,9 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		if(elementsToRemove == null || elementsToRemove.isEmpty()) {
 			return;
 		}
+		if(parent == null && hasPendingMoves) {
+			elementsToRemove = removePendingMoves(elementsToRemove);
+		}
 		clearTotalElementsCache();
 		
 		List<T> elementsWithinQuad = new ArrayList<T>();
@@ -341,6 +346,9 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 	public boolean remove(T element) {
 		if (element == null)
 			return false;
+		if (parent == null && hasPendingMoves && removePendingMove(element)) {
+			return true;
+		}
 
 		if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
 			return false;
@@ -412,6 +420,21 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		lock.readLock().unlock();
 	}
 
+	@Override
+	protected boolean visitElements(Shape area, QuadTreeVisitor<T> visitor) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+				if (!visitor.visit(element)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public List<T> getElementsContainingPoint(Point point) {
 		List<T> result = new ArrayList<T>();
@@ -445,6 +468,63 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 		lock.readLock().unlock();
 	}
 
+	@Override
+	protected void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX,
+			float velocityY, float sweepMinX, float sweepMinY, float sweepMaxX, float sweepMaxY) {
+		lock.readLock().lock();
+		if (topLeft != null) {
+			if (topLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (topRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null) {
+				continue;
+			}
+			Shape elementShape = element.getShape();
+			if (Intersector.getTimeOfImpact(shape, velocityX, velocityY, elementShape.getMinX(),
+					elementShape.getMinY(), elementShape.getMaxX(), elementShape.getMaxY()) >= 0f) {
+				result.add(element);
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	@Override
+	protected void raycastElements(RaycastHit<T> result) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null) {
+				result.test(element, element.getShape());
+			}
+		}
+	}
+
+	/**
+	 * Returns the squared distance from a point to the closest point within
+	 * an element's bounds
+	 */
+	@Override
+	protected float getDistanceSquared(T element, float x, float y) {
+		Shape shape = element.getShape();
+		return IntersectionKernels.distanceSquaredAabbPoint(shape.getMinX(), shape.getMinY(), shape.getMaxX(),
+				shape.getMaxY(), x, y);
+	}
+
 	@Override
 	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
 		List<T> result = new ArrayList<T>();
@@ -524,6 +604,10 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 
 	@Override
 	public void positionChanged(T moved) {
+		if (deferredUpdates) {
+			addPendingMove(moved);
+			return;
+		}
 		if (this.contains(moved.getShape()))
 			return;
 
@@ -537,4 +621,18 @@ public class ConcurrentRegionQuadTree<T extends CollisionShape> extends Concurre
 			parentQuad = parentQuad.getParent();
 		}
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected void flushMove(T moved) {
+		if (this.contains(moved.getShape()))
+			return;
+		if (!removeElement(moved))
+			return;
+
+		ConcurrentPointQuadTree<T> quad = parent != null ? parent : this;
+		while (quad.parent != null && !quad.contains(moved.getShape())) {
+			quad = quad.parent;
+		}
+		quad.add(moved);
+	}
+}
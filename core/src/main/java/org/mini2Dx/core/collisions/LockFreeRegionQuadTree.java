@@ -0,0 +1,902 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Implements a thread-safe region quadtree where queries never block.
+ *
+ * The tree is stored as immutable node snapshots. Writers copy the path from
+ * the root to the modified node and publish the new root atomically, so
+ * readers always traverse a consistent snapshot without taking any locks.
+ * Writers are serialized with each other. Snapshots that are no longer
+ * referenced by any reader are reclaimed by the garbage collector, which acts
+ * as the grace period of an RCU scheme.
+ *
+ * @see <a href="http://en.wikipedia.org/wiki/Quadtree#The_region_quadtree">
+ *      Wikipedia: Region Quad Tree</a>
+ */
+public class LockFreeRegionQuadTree<T extends CollisionShape> extends Rectangle implements QuadTree<T> {
+	private static final long serialVersionUID = -6313476539612066342L;
+	private static final Object[] EMPTY_ELEMENTS = new Object[0];
+
+	public static Color QUAD_COLOR = new Color(1f, 0f, 0f, 0.5f);
+	public static Color ELEMENT_COLOR = new Color(0f, 0f, 1f, 0.5f);
+
+	private static final ThreadLocal<QueryStack> QUERY_STACKS = new ThreadLocal<QueryStack>() {
+		@Override
+		protected QueryStack initialValue() {
+			return new QueryStack();
+		}
+	};
+
+	protected final int elementLimitPerQuad;
+	protected final int mergeWatermark;
+
+	private final AtomicReference<Node> root;
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private final Map<T, Bounds> elementBounds = new IdentityHashMap<T, Bounds>();
+	private final List<T> pendingMoves = new ArrayList<T>();
+
+	private volatile boolean deferredUpdates = false;
+
+	/**
+	 * Constructs a {@link LockFreeRegionQuadTree} with a specified element
+	 * limit and watermark
+	 *
+	 * @param elementLimitPerQuad
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child quads
+	 * @param mergeWatermark
+	 *            When a quad's child quads' total elements go lower than this
+	 *            mark, the child quads will be merged back together
+	 * @param x
+	 *            The x coordinate of the {@link LockFreeRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link LockFreeRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link LockFreeRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link LockFreeRegionQuadTree}
+	 */
+	public LockFreeRegionQuadTree(int elementLimitPerQuad, int mergeWatermark, float x, float y, float width,
+			float height) {
+		super(x, y, width, height);
+
+		if (mergeWatermark >= elementLimitPerQuad) {
+			throw new QuadWatermarkException(elementLimitPerQuad, mergeWatermark);
+		}
+
+		this.elementLimitPerQuad = elementLimitPerQuad;
+		this.mergeWatermark = mergeWatermark;
+		this.root = new AtomicReference<Node>(new Node(x, y, width, height));
+	}
+
+	/**
+	 * Constructs a {@link LockFreeRegionQuadTree} with a specified element
+	 * limit and no merging watermark. As elements are removed, small sized
+	 * child quads will not be merged back together.
+	 *
+	 * @param elementLimitPerQuad
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child quads
+	 * @param x
+	 *            The x coordinate of the {@link LockFreeRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link LockFreeRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link LockFreeRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link LockFreeRegionQuadTree}
+	 */
+	public LockFreeRegionQuadTree(int elementLimitPerQuad, float x, float y, float width, float height) {
+		this(elementLimitPerQuad, 0, x, y, width, height);
+	}
+
+	@Override
+	public void debugRender(Graphics g) {
+		debugRender(g, root.get());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void debugRender(Graphics g, Node node) {
+		Color tmp = g.getColor();
+
+		if (node.topLeft != null) {
+			debugRender(g, node.topLeft);
+			debugRender(g, node.topRight);
+			debugRender(g, node.bottomLeft);
+			debugRender(g, node.bottomRight);
+		} else {
+			g.setColor(QUAD_COLOR);
+			g.drawRect(node.x, node.y, node.width, node.height);
+			g.setColor(tmp);
+		}
+
+		tmp = g.getColor();
+		g.setColor(ELEMENT_COLOR);
+		for (int i = 0; i < node.elements.length; i++) {
+			T element = (T) node.elements[i];
+			g.drawRect(element.getX(), element.getY(), element.getWidth(), element.getHeight());
+		}
+		g.setColor(tmp);
+	}
+
+	@Override
+	public boolean add(T element) {
+		if (element == null) {
+			return false;
+		}
+
+		writeLock.lock();
+		try {
+			if (elementBounds.containsKey(element)) {
+				return false;
+			}
+			if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
+				return false;
+			}
+			Bounds bounds = new Bounds(element);
+			root.set(insert(root.get(), element, bounds));
+			elementBounds.put(element, bounds);
+			element.addPostionChangeListener(this);
+			return true;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void addAll(List<T> elementsToAdd) {
+		if (elementsToAdd == null || elementsToAdd.isEmpty()) {
+			return;
+		}
+
+		writeLock.lock();
+		try {
+			Node result = root.get();
+			for (int i = 0; i < elementsToAdd.size(); i++) {
+				T element = elementsToAdd.get(i);
+				if (element == null || elementBounds.containsKey(element)) {
+					continue;
+				}
+				if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
+					continue;
+				}
+				Bounds bounds = new Bounds(element);
+				result = insert(result, element, bounds);
+				elementBounds.put(element, bounds);
+				element.addPostionChangeListener(this);
+			}
+			root.set(result);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null) {
+			return false;
+		}
+
+		writeLock.lock();
+		try {
+			Bounds bounds = elementBounds.remove(element);
+			if (bounds == null) {
+				return false;
+			}
+			root.set(remove(root.get(), element, bounds));
+			element.removePositionChangeListener(this);
+			return true;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void removeAll(List<T> elementsToRemove) {
+		if (elementsToRemove == null || elementsToRemove.isEmpty()) {
+			return;
+		}
+
+		writeLock.lock();
+		try {
+			Node result = root.get();
+			for (int i = 0; i < elementsToRemove.size(); i++) {
+				T element = elementsToRemove.get(i);
+				if (element == null) {
+					continue;
+				}
+				Bounds bounds = elementBounds.remove(element);
+				if (bounds == null) {
+					continue;
+				}
+				result = remove(result, element, bounds);
+				element.removePositionChangeListener(this);
+			}
+			root.set(result);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all elements from this {@link LockFreeRegionQuadTree}
+	 */
+	public void clear() {
+		writeLock.lock();
+		try {
+			for (T element : elementBounds.keySet()) {
+				element.removePositionChangeListener(this);
+			}
+			elementBounds.clear();
+			pendingMoves.clear();
+			root.set(new Node(getX(), getY(), getWidth(), getHeight()));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void positionChanged(T moved) {
+		writeLock.lock();
+		try {
+			Bounds bounds = elementBounds.get(moved);
+			if (bounds == null) {
+				return;
+			}
+			if (deferredUpdates) {
+				if (!bounds.pending) {
+					bounds.pending = true;
+					pendingMoves.add(moved);
+				}
+				return;
+			}
+			Node result = remove(root.get(), moved, bounds);
+			if (!this.intersects(moved.getShape()) && !this.contains(moved.getShape())) {
+				elementBounds.remove(moved);
+				moved.removePositionChangeListener(this);
+				root.set(result);
+				return;
+			}
+			bounds.set(moved);
+			root.set(insert(result, moved, bounds));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void setDeferredUpdates(boolean deferredUpdates) {
+		this.deferredUpdates = deferredUpdates;
+		if (!deferredUpdates) {
+			flushMoves();
+		}
+	}
+
+	@Override
+	public boolean isDeferredUpdates() {
+		return deferredUpdates;
+	}
+
+	/**
+	 * Re-buckets all elements that moved since the last flush and publishes
+	 * the result as a single new snapshot. Elements that still belong to the
+	 * same quad only have their bounds updated.
+	 */
+	@Override
+	public void flushMoves() {
+		writeLock.lock();
+		try {
+			if (pendingMoves.isEmpty()) {
+				return;
+			}
+			Node result = root.get();
+			Bounds updatedBounds = new Bounds();
+			for (int i = 0; i < pendingMoves.size(); i++) {
+				T moved = pendingMoves.get(i);
+				Bounds bounds = elementBounds.get(moved);
+				if (bounds == null || !bounds.pending) {
+					continue;
+				}
+				bounds.pending = false;
+
+				if (!this.intersects(moved.getShape()) && !this.contains(moved.getShape())) {
+					result = remove(result, moved, bounds);
+					elementBounds.remove(moved);
+					moved.removePositionChangeListener(this);
+					continue;
+				}
+				updatedBounds.set(moved);
+				if (findNode(result, bounds) == findNode(result, updatedBounds)) {
+					bounds.set(moved);
+					continue;
+				}
+				result = remove(result, moved, bounds);
+				bounds.set(moved);
+				result = insert(result, moved, bounds);
+			}
+			pendingMoves.clear();
+			root.set(result);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private Node findNode(Node node, Bounds bounds) {
+		while (node.topLeft != null) {
+			Node child = node.childContaining(bounds);
+			if (child == null) {
+				return node;
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	private Node insert(Node node, T element, Bounds bounds) {
+		if (node.topLeft != null) {
+			Node child = node.childContaining(bounds);
+			if (child != null) {
+				return node.replaceChild(child, insert(child, element, bounds));
+			}
+			return node.addElement(element);
+		}
+		Node result = node.addElement(element);
+		if (result.elements.length > elementLimitPerQuad && result.width >= 2f && result.height >= 2f) {
+			return subdivide(result);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Node subdivide(Node node) {
+		float halfWidth = node.width / 2f;
+		float halfHeight = node.height / 2f;
+
+		Node result = new Node(node.x, node.y, node.width, node.height, new Node(node.x, node.y, halfWidth, halfHeight),
+				new Node(node.x + halfWidth, node.y, halfWidth, halfHeight),
+				new Node(node.x, node.y + halfHeight, halfWidth, halfHeight),
+				new Node(node.x + halfWidth, node.y + halfHeight, halfWidth, halfHeight), EMPTY_ELEMENTS);
+		for (int i = 0; i < node.elements.length; i++) {
+			T element = (T) node.elements[i];
+			result = insert(result, element, elementBounds.containsKey(element) ? elementBounds.get(element)
+					: new Bounds(element));
+		}
+		return result;
+	}
+
+	private Node remove(Node node, T element, Bounds bounds) {
+		if (node.topLeft != null) {
+			Node child = node.childContaining(bounds);
+			if (child != null) {
+				Node updatedChild = remove(child, element, bounds);
+				if (updatedChild == child) {
+					return node;
+				}
+				Node result = node.replaceChild(child, updatedChild);
+				if (result.isMergable(mergeWatermark)) {
+					return result.merge();
+				}
+				return result;
+			}
+		}
+		return node.removeElement(element);
+	}
+
+	@Override
+	public List<T> getElementsWithinArea(Shape area) {
+		List<T> result = new ArrayList<T>();
+		getElementsWithinArea(result, area);
+		return result;
+	}
+
+	@Override
+	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		getElementsWithinArea(root.get(), result, area, area.getMinX(), area.getMinY(), area.getMaxX(),
+				area.getMaxY());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void getElementsWithinArea(Node node, Collection<T> result, Shape area, float minX, float minY,
+			float maxX, float maxY) {
+		if (node.topLeft != null) {
+			if (node.topLeft.overlaps(minX, minY, maxX, maxY)) {
+				getElementsWithinArea(node.topLeft, result, area, minX, minY, maxX, maxY);
+			}
+			if (node.topRight.overlaps(minX, minY, maxX, maxY)) {
+				getElementsWithinArea(node.topRight, result, area, minX, minY, maxX, maxY);
+			}
+			if (node.bottomLeft.overlaps(minX, minY, maxX, maxY)) {
+				getElementsWithinArea(node.bottomLeft, result, area, minX, minY, maxX, maxY);
+			}
+			if (node.bottomRight.overlaps(minX, minY, maxX, maxY)) {
+				getElementsWithinArea(node.bottomRight, result, area, minX, minY, maxX, maxY);
+			}
+		}
+		for (int i = node.elements.length - 1; i >= 0; i--) {
+			T element = (T) node.elements[i];
+			if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+				result.add(element);
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void query(Shape area, QuadTreeVisitor<T> visitor) {
+		float minX = area.getMinX();
+		float minY = area.getMinY();
+		float maxX = area.getMaxX();
+		float maxY = area.getMaxY();
+
+		QueryStack queryStack = QUERY_STACKS.get();
+		boolean ownsStack = !queryStack.inUse;
+		Node[] stack = ownsStack ? queryStack.nodes : new Node[QueryStack.INITIAL_CAPACITY];
+		queryStack.inUse = true;
+		try {
+			int size = 0;
+			stack[size++] = root.get();
+			while (size > 0) {
+				Node node = stack[--size];
+				stack[size] = null;
+
+				if (node.topLeft != null) {
+					if (size + 4 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+						if (ownsStack) {
+							queryStack.nodes = stack;
+						}
+					}
+					if (node.topLeft.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = node.topLeft;
+					}
+					if (node.topRight.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = node.topRight;
+					}
+					if (node.bottomLeft.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = node.bottomLeft;
+					}
+					if (node.bottomRight.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = node.bottomRight;
+					}
+				}
+				for (int i = node.elements.length - 1; i >= 0; i--) {
+					T element = (T) node.elements[i];
+					if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+						if (!visitor.visit(element)) {
+							Arrays.fill(stack, 0, size, null);
+							return;
+						}
+					}
+				}
+			}
+		} finally {
+			if (ownsStack) {
+				queryStack.inUse = false;
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElementsIntersectingSweep(Shape shape, float velocityX, float velocityY) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingSweep(result, shape, velocityX, velocityY);
+		return result;
+	}
+
+	@Override
+	public void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX, float velocityY) {
+		getElementsIntersectingSweep(root.get(), result, shape, velocityX, velocityY,
+				shape.getMinX() + Math.min(0f, velocityX), shape.getMinY() + Math.min(0f, velocityY),
+				shape.getMaxX() + Math.max(0f, velocityX), shape.getMaxY() + Math.max(0f, velocityY));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void getElementsIntersectingSweep(Node node, Collection<T> result, Shape shape, float velocityX,
+			float velocityY, float sweepMinX, float sweepMinY, float sweepMaxX, float sweepMaxY) {
+		if (node.topLeft != null) {
+			if (node.topLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				getElementsIntersectingSweep(node.topLeft, result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (node.topRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				getElementsIntersectingSweep(node.topRight, result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (node.bottomLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				getElementsIntersectingSweep(node.bottomLeft, result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (node.bottomRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				getElementsIntersectingSweep(node.bottomRight, result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+		}
+		for (int i = node.elements.length - 1; i >= 0; i--) {
+			Shape elementShape = ((T) node.elements[i]).getShape();
+			if (Intersector.getTimeOfImpact(shape, velocityX, velocityY, elementShape.getMinX(),
+					elementShape.getMinY(), elementShape.getMaxX(), elementShape.getMaxY()) >= 0f) {
+				result.add((T) node.elements[i]);
+			}
+		}
+	}
+
+	@Override
+	public boolean raycast(float x1, float y1, float x2, float y2, RaycastHit<T> result) {
+		result.begin(x1, y1, x2, y2);
+		raycast(root.get(), x1, y1, x2 - x1, y2 - y1, result);
+		return result.isHit();
+	}
+
+	@Override
+	public int raycast(float[] rays, int totalRays, RaycastHit<T>[] results) {
+		int result = 0;
+		for (int i = 0; i < totalRays; i++) {
+			int offset = i * 4;
+			if (raycast(rays[offset], rays[offset + 1], rays[offset + 2], rays[offset + 3], results[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void raycast(Node node, float x, float y, float deltaX, float deltaY, RaycastHit<T> result) {
+		if (!result.isCloser(IntersectionKernels.raycastAabb(x, y, deltaX, deltaY, node.x, node.y,
+				node.x + node.width, node.y + node.height))) {
+			return;
+		}
+		for (int i = node.elements.length - 1; i >= 0; i--) {
+			T element = (T) node.elements[i];
+			result.test(element, element.getShape());
+		}
+		if (node.topLeft == null) {
+			return;
+		}
+		Node near, far, acrossX, acrossY;
+		if (deltaX >= 0f) {
+			if (deltaY >= 0f) {
+				near = node.topLeft;
+				acrossX = node.topRight;
+				acrossY = node.bottomLeft;
+				far = node.bottomRight;
+			} else {
+				near = node.bottomLeft;
+				acrossX = node.bottomRight;
+				acrossY = node.topLeft;
+				far = node.topRight;
+			}
+		} else if (deltaY >= 0f) {
+			near = node.topRight;
+			acrossX = node.topLeft;
+			acrossY = node.bottomRight;
+			far = node.bottomLeft;
+		} else {
+			near = node.bottomRight;
+			acrossX = node.bottomLeft;
+			acrossY = node.topRight;
+			far = node.topLeft;
+		}
+		float crossX = deltaX == 0f ? Float.MAX_VALUE : (node.topRight.x - x) / deltaX;
+		float crossY = deltaY == 0f ? Float.MAX_VALUE : (node.bottomLeft.y - y) / deltaY;
+
+		raycast(near, x, y, deltaX, deltaY, result);
+		if (crossX <= crossY) {
+			raycast(acrossX, x, y, deltaX, deltaY, result);
+			raycast(acrossY, x, y, deltaX, deltaY, result);
+		} else {
+			raycast(acrossY, x, y, deltaX, deltaY, result);
+			raycast(acrossX, x, y, deltaX, deltaY, result);
+		}
+		raycast(far, x, y, deltaX, deltaY, result);
+	}
+
+	@Override
+	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingLineSegment(result, lineSegment);
+		return result;
+	}
+
+	@Override
+	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		getElementsIntersectingLineSegment(root.get(), result, lineSegment, lineSegment.getMinX(),
+				lineSegment.getMinY(), lineSegment.getMaxX(), lineSegment.getMaxY());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void getElementsIntersectingLineSegment(Node node, Collection<T> result, LineSegment lineSegment,
+			float minX, float minY, float maxX, float maxY) {
+		if (node.topLeft != null) {
+			if (node.topLeft.overlaps(minX, minY, maxX, maxY)) {
+				getElementsIntersectingLineSegment(node.topLeft, result, lineSegment, minX, minY, maxX, maxY);
+			}
+			if (node.topRight.overlaps(minX, minY, maxX, maxY)) {
+				getElementsIntersectingLineSegment(node.topRight, result, lineSegment, minX, minY, maxX, maxY);
+			}
+			if (node.bottomLeft.overlaps(minX, minY, maxX, maxY)) {
+				getElementsIntersectingLineSegment(node.bottomLeft, result, lineSegment, minX, minY, maxX, maxY);
+			}
+			if (node.bottomRight.overlaps(minX, minY, maxX, maxY)) {
+				getElementsIntersectingLineSegment(node.bottomRight, result, lineSegment, minX, minY, maxX, maxY);
+			}
+		}
+		for (int i = node.elements.length - 1; i >= 0; i--) {
+			T element = (T) node.elements[i];
+			if (element.intersects(lineSegment)) {
+				result.add(element);
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElementsContainingPoint(Point point) {
+		List<T> result = new ArrayList<T>();
+		getElementsContainingPoint(result, point);
+		return result;
+	}
+
+	@Override
+	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		getElementsContainingPoint(root.get(), result, point);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void getElementsContainingPoint(Node node, Collection<T> result, Point point) {
+		if (node.topLeft != null) {
+			if (node.topLeft.overlaps(point.x, point.y, point.x, point.y)) {
+				getElementsContainingPoint(node.topLeft, result, point);
+			}
+			if (node.topRight.overlaps(point.x, point.y, point.x, point.y)) {
+				getElementsContainingPoint(node.topRight, result, point);
+			}
+			if (node.bottomLeft.overlaps(point.x, point.y, point.x, point.y)) {
+				getElementsContainingPoint(node.bottomLeft, result, point);
+			}
+			if (node.bottomRight.overlaps(point.x, point.y, point.x, point.y)) {
+				getElementsContainingPoint(node.bottomRight, result, point);
+			}
+		}
+		for (int i = node.elements.length - 1; i >= 0; i--) {
+			T element = (T) node.elements[i];
+			if (element.contains(point)) {
+				result.add(element);
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElements() {
+		List<T> result = new ArrayList<T>();
+		getElements(result);
+		return result;
+	}
+
+	@Override
+	public void getElements(List<T> result) {
+		root.get().getElements(result);
+	}
+
+	@Override
+	public int getTotalQuads() {
+		return root.get().getTotalQuads();
+	}
+
+	@Override
+	public int getTotalElements() {
+		return root.get().totalElements;
+	}
+
+	@Override
+	public QuadTree<T> getParent() {
+		return null;
+	}
+
+	public int getElementLimitPerQuad() {
+		return elementLimitPerQuad;
+	}
+
+	public int getMergeWatermark() {
+		return mergeWatermark;
+	}
+
+	public boolean hasChildQuads() {
+		return root.get().topLeft != null;
+	}
+
+	/**
+	 * A per-thread traversal stack reused between queries
+	 */
+	private static class QueryStack {
+		static final int INITIAL_CAPACITY = 16;
+
+		Node[] nodes = new Node[INITIAL_CAPACITY];
+		boolean inUse;
+	}
+
+	/**
+	 * The axis-aligned bounds of an element at the time it was last placed in
+	 * the tree. Used by writers to find the element again after it has moved.
+	 */
+	private static class Bounds {
+		float minX, minY, maxX, maxY;
+		boolean pending;
+
+		Bounds() {
+		}
+
+		Bounds(CollisionShape element) {
+			set(element);
+		}
+
+		void set(CollisionShape element) {
+			minX = element.getMinX();
+			minY = element.getMinY();
+			maxX = element.getMaxX();
+			maxY = element.getMaxY();
+		}
+	}
+
+	/**
+	 * An immutable snapshot of a single quad
+	 */
+	private static class Node {
+		final float x, y, width, height;
+		final Node topLeft, topRight, bottomLeft, bottomRight;
+		final Object[] elements;
+		final int totalElements;
+
+		Node(float x, float y, float width, float height) {
+			this(x, y, width, height, null, null, null, null, EMPTY_ELEMENTS);
+		}
+
+		Node(float x, float y, float width, float height, Node topLeft, Node topRight, Node bottomLeft,
+				Node bottomRight, Object[] elements) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.topLeft = topLeft;
+			this.topRight = topRight;
+			this.bottomLeft = bottomLeft;
+			this.bottomRight = bottomRight;
+			this.elements = elements;
+
+			int total = elements.length;
+			if (topLeft != null) {
+				total += topLeft.totalElements + topRight.totalElements + bottomLeft.totalElements
+						+ bottomRight.totalElements;
+			}
+			this.totalElements = total;
+		}
+
+		boolean overlaps(float minX, float minY, float maxX, float maxY) {
+			return x <= maxX && minX <= x + width && y <= maxY && minY <= y + height;
+		}
+
+		boolean contains(Bounds bounds) {
+			return bounds.minX >= x && bounds.minY >= y && bounds.maxX <= x + width && bounds.maxY <= y + height;
+		}
+
+		Node childContaining(Bounds bounds) {
+			if (topLeft.contains(bounds)) {
+				return topLeft;
+			}
+			if (topRight.contains(bounds)) {
+				return topRight;
+			}
+			if (bottomLeft.contains(bounds)) {
+				return bottomLeft;
+			}
+			if (bottomRight.contains(bounds)) {
+				return bottomRight;
+			}
+			return null;
+		}
+
+		Node replaceChild(Node child, Node replacement) {
+			return new Node(x, y, width, height, topLeft == child ? replacement : topLeft,
+					topRight == child ? replacement : topRight, bottomLeft == child ? replacement : bottomLeft,
+					bottomRight == child ? replacement : bottomRight, elements);
+		}
+
+		Node addElement(Object element) {
+			Object[] result = new Object[elements.length + 1];
+			System.arraycopy(elements, 0, result, 0, elements.length);
+			result[elements.length] = element;
+			return new Node(x, y, width, height, topLeft, topRight, bottomLeft, bottomRight, result);
+		}
+
+		Node removeElement(Object element) {
+			int index = -1;
+			for (int i = 0; i < elements.length; i++) {
+				if (elements[i] == element) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0) {
+				return this;
+			}
+			if (elements.length == 1) {
+				return new Node(x, y, width, height, topLeft, topRight, bottomLeft, bottomRight, EMPTY_ELEMENTS);
+			}
+			Object[] result = new Object[elements.length - 1];
+			System.arraycopy(elements, 0, result, 0, index);
+			System.arraycopy(elements, index + 1, result, index, elements.length - index - 1);
+			return new Node(x, y, width, height, topLeft, topRight, bottomLeft, bottomRight, result);
+		}
+
+		boolean isMergable(int mergeWatermark) {
+			if (topLeft == null) {
+				return false;
+			}
+			if (mergeWatermark <= 0) {
+				return false;
+			}
+			if (topLeft.totalElements >= mergeWatermark || topRight.totalElements >= mergeWatermark
+					|| bottomLeft.totalElements >= mergeWatermark || bottomRight.totalElements >= mergeWatermark) {
+				return false;
+			}
+			return topLeft.totalElements + topRight.totalElements + bottomLeft.totalElements
+					+ bottomRight.totalElements < mergeWatermark;
+		}
+
+		Node merge() {
+			List<Object> result = new ArrayList<Object>(totalElements);
+			getElements(result);
+			return new Node(x, y, width, height, null, null, null, null, result.toArray());
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> void getElements(List<T> result) {
+			if (topLeft != null) {
+				topLeft.getElements(result);
+				topRight.getElements(result);
+				bottomLeft.getElements(result);
+				bottomRight.getElements(result);
+			}
+			for (int i = 0; i < elements.length; i++) {
+				result.add((T) elements[i]);
+			}
+		}
+
+		int getTotalQuads() {
+			if (topLeft == null) {
+				return 1;
+			}
+			return topLeft.getTotalQuads() + topRight.getTotalQuads() + bottomLeft.getTotalQuads()
+					+ bottomRight.getTotalQuads();
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.Shape;
+
+/**
+ * Implements a loose region quadtree. Each child quad accepts elements that
+ * fit within its bounds scaled by a looseness factor around its center, so
+ * elements straddling quad boundaries still descend to the deepest quad that
+ * loosely contains them instead of remaining at the root.
+ * 
+ * Elements are placed in the child quad containing their center. A looseness
+ * of 2 guarantees that any element no larger than a child quad descends into
+ * it.
+ * 
+ * @see <a href="http://www.tulrich.com/geekstuff/partitioning.html">Loose
+ *      Octrees</a>
+ */
+public class LooseRegionQuadTree<T extends CollisionShape> extends RegionQuadTree<T> {
+	private static final long serialVersionUID = 7167313623856434316L;
+
+	public static final float DEFAULT_LOOSENESS = 2f;
+
+	protected final float looseness;
+	protected final float looseMinX, looseMinY, looseMaxX, looseMaxY;
+
+	/**
+	 * Constructs a {@link LooseRegionQuadTree} with a specified element limit,
+	 * watermark and looseness
+	 * 
+	 * @param elementLimit
+	 *            The maximum number of elements in a
+	 *            {@link LooseRegionQuadTree} before it is split into 4 child
+	 *            quads
+	 * @param mergeWatermark
+	 *            When a parent {@link LooseRegionQuadTree}'s total elements go
+	 *            lower than this mark, the child {@link LooseRegionQuadTree}s
+	 *            will be merged back together
+	 * @param looseness
+	 *            The factor child quad bounds are scaled by when accepting
+	 *            elements. Must be 1 or greater.
+	 * @param x
+	 *            The x coordinate of the {@link LooseRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link LooseRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link LooseRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link LooseRegionQuadTree}
+	 */
+	public LooseRegionQuadTree(int elementLimit, int mergeWatermark, float looseness, float x, float y, float width,
+			float height) {
+		super(elementLimit, mergeWatermark, x, y, width, height);
+		if (looseness < 1f) {
+			throw new IllegalArgumentException("looseness must be 1 or greater");
+		}
+		this.looseness = looseness;
+		this.looseMinX = x;
+		this.looseMinY = y;
+		this.looseMaxX = x + width;
+		this.looseMaxY = y + height;
+	}
+
+	/**
+	 * Constructs a {@link LooseRegionQuadTree} with a specified element limit,
+	 * looseness and no merging watermark.
+	 * 
+	 * @param elementLimit
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child {@link LooseRegionQuadTree}s
+	 * @param looseness
+	 *            The factor child quad bounds are scaled by when accepting
+	 *            elements. Must be 1 or greater.
+	 * @param x
+	 *            The x coordinate of the {@link LooseRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link LooseRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link LooseRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link LooseRegionQuadTree}
+	 */
+	public LooseRegionQuadTree(int elementLimit, float looseness, float x, float y, float width, float height) {
+		this(elementLimit, 0, looseness, x, y, width, height);
+	}
+
+	/**
+	 * Constructs a {@link LooseRegionQuadTree} with a specified element limit,
+	 * the {@link #DEFAULT_LOOSENESS} and no merging watermark.
+	 * 
+	 * @param elementLimit
+	 *            The maximum number of elements in a quad before it is split
+	 *            into 4 child {@link LooseRegionQuadTree}s
+	 * @param x
+	 *            The x coordinate of the {@link LooseRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link LooseRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link LooseRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link LooseRegionQuadTree}
+	 */
+	public LooseRegionQuadTree(int elementLimit, float x, float y, float width, float height) {
+		this(elementLimit, 0, DEFAULT_LOOSENESS, x, y, width, height);
+	}
+
+	/**
+	 * Constructs a {@link LooseRegionQuadTree} as a child of another
+	 * {@link LooseRegionQuadTree}
+	 * 
+	 * @param parent
+	 *            The parent {@link LooseRegionQuadTree}
+	 * @param x
+	 *            The x coordinate of the {@link LooseRegionQuadTree}
+	 * @param y
+	 *            The y coordiante of the {@link LooseRegionQuadTree}
+	 * @param width
+	 *            The width of the {@link LooseRegionQuadTree}
+	 * @param height
+	 *            The height of the {@link LooseRegionQuadTree}
+	 */
+	public LooseRegionQuadTree(LooseRegionQuadTree<T> parent, float x, float y, float width, float height) {
+		super(parent, x, y, width, height);
+		this.looseness = parent.looseness;
+
+		float looseHalfWidth = width * looseness * 0.5f;
+		float looseHalfHeight = height * looseness * 0.5f;
+		float centerX = x + (width * 0.5f);
+		float centerY = y + (height * 0.5f);
+		this.looseMinX = centerX - looseHalfWidth;
+		this.looseMinY = centerY - looseHalfHeight;
+		this.looseMaxX = centerX + looseHalfWidth;
+		this.looseMaxY = centerY + looseHalfHeight;
+	}
+
+	@Override
+	protected int getChildIndex(T element) {
+		Shape shape = element.getShape();
+		float shapeMinX = shape.getMinX();
+		float shapeMinY = shape.getMinY();
+		float shapeMaxX = shape.getMaxX();
+		float shapeMaxY = shape.getMaxY();
+
+		int result = (shapeMinX + shapeMaxX) * 0.5f < topRight.getX() ? 0 : 1;
+		if ((shapeMinY + shapeMaxY) * 0.5f >= bottomLeft.getY()) {
+			result += 2;
+		}
+		if (!getChild(result).containsArea(shapeMinX, shapeMinY, shapeMaxX, shapeMaxY)) {
+			return -1;
+		}
+		return result;
+	}
+
+	@Override
+	protected void subdivide() {
+		if (topLeft != null)
+			return;
+		if (metrics != null) {
+			metrics.onSubdivide();
+		}
+		List<T> staleElements = removeStalePendingMoves();
+
+		float halfWidth = getWidth() / 2f;
+		float halfHeight = getHeight() / 2f;
+
+		topLeft = new LooseRegionQuadTree<T>(this, getX(), getY(), halfWidth, halfHeight);
+		topRight = new LooseRegionQuadTree<T>(this, getX() + halfWidth, getY(), halfWidth, halfHeight);
+		bottomLeft = new LooseRegionQuadTree<T>(this, getX(), getY() + halfHeight, halfWidth, halfHeight);
+		bottomRight = new LooseRegionQuadTree<T>(this, getX() + halfWidth, getY() + halfHeight, halfWidth,
+				halfHeight);
+
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			if (addElementToChild(elements.get(i))) {
+				removeElement(elements.get(i));
+			}
+		}
+		relocateFromParent(staleElements);
+	}
+
+	@Override
+	protected boolean overlaps(float minX, float minY, float maxX, float maxY) {
+		return (looseMinX <= maxX) & (minX <= looseMaxX) & (looseMinY <= maxY) & (minY <= looseMaxY);
+	}
+
+	@Override
+	protected boolean containsArea(float minX, float minY, float maxX, float maxY) {
+		return (looseMinX <= minX) & (maxX <= looseMaxX) & (looseMinY <= minY) & (maxY <= looseMaxY);
+	}
+
+	@Override
+	protected boolean containsPoint(float x, float y) {
+		return (looseMinX <= x) & (x <= looseMaxX) & (looseMinY <= y) & (y <= looseMaxY);
+	}
+
+	@Override
+	protected boolean intersectsSegment(float x1, float y1, float x2, float y2) {
+		return Intersector.intersectLineSegmentAabb(x1, y1, x2, y2, looseMinX, looseMinY, looseMaxX, looseMaxY);
+	}
+
+	@Override
+	protected float getBoundsDistanceSquared(float x, float y) {
+		return IntersectionKernels.distanceSquaredAabbPoint(looseMinX, looseMinY, looseMaxX, looseMaxY, x, y);
+	}
+
+	@Override
+	protected float getRayEntry(float x, float y, float deltaX, float deltaY) {
+		return IntersectionKernels.raycastAabb(x, y, deltaX, deltaY, looseMinX, looseMinY, looseMaxX, looseMaxY);
+	}
+
+	/**
+	 * Returns the total amount of elements stored directly in this quad,
+	 * excluding child quads
+	 * 
+	 * @return 0 if no elements are stored at this level
+	 */
+	public int getTotalElementsInQuad() {
+		return elements == null ? 0 : elements.size();
+	}
+
+	public float getLooseness() {
+		return looseness;
+	}
+}
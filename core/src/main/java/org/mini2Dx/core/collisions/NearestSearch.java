@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Reusable state for a best-first k-nearest-neighbour search. Holds a min-heap
+ * of quads keyed by their squared distance to the query point and a max-heap
+ * of the closest elements found so far. Both heaps are stored in primitive
+ * arrays that grow as needed and are reused between searches.
+ */
+class NearestSearch {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private float[] quadDistances = new float[INITIAL_CAPACITY];
+	private Object[] quads = new Object[INITIAL_CAPACITY];
+	private int totalQuads;
+
+	private float[] elementDistances = new float[INITIAL_CAPACITY];
+	private Object[] elements = new Object[INITIAL_CAPACITY];
+	private int totalElements;
+	private int limit;
+
+	boolean inUse;
+
+	/**
+	 * Starts a new search
+	 * 
+	 * @param limit
+	 *            The maximum number of elements to find
+	 */
+	void begin(int limit) {
+		this.limit = limit;
+		totalQuads = 0;
+		totalElements = 0;
+	}
+
+	/**
+	 * Returns if an element or quad at a squared distance could be one of the
+	 * nearest elements
+	 */
+	boolean isCandidate(float distanceSquared) {
+		return totalElements < limit || distanceSquared < elementDistances[0];
+	}
+
+	boolean hasQuads() {
+		return totalQuads > 0;
+	}
+
+	float peekQuadDistance() {
+		return quadDistances[0];
+	}
+
+	void pushQuad(Object quad, float distanceSquared) {
+		if (totalQuads == quads.length) {
+			quads = Arrays.copyOf(quads, totalQuads * 2);
+			quadDistances = Arrays.copyOf(quadDistances, totalQuads * 2);
+		}
+		int index = totalQuads++;
+		while (index > 0) {
+			int parentIndex = (index - 1) >>> 1;
+			if (quadDistances[parentIndex] <= distanceSquared) {
+				break;
+			}
+			quads[index] = quads[parentIndex];
+			quadDistances[index] = quadDistances[parentIndex];
+			index = parentIndex;
+		}
+		quads[index] = quad;
+		quadDistances[index] = distanceSquared;
+	}
+
+	Object popQuad() {
+		Object result = quads[0];
+		int last = --totalQuads;
+		Object lastQuad = quads[last];
+		float lastDistance = quadDistances[last];
+		quads[last] = null;
+
+		int index = 0;
+		int half = last >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			if (child + 1 < last && quadDistances[child + 1] < quadDistances[child]) {
+				child++;
+			}
+			if (lastDistance <= quadDistances[child]) {
+				break;
+			}
+			quads[index] = quads[child];
+			quadDistances[index] = quadDistances[child];
+			index = child;
+		}
+		if (last > 0) {
+			quads[index] = lastQuad;
+			quadDistances[index] = lastDistance;
+		}
+		return result;
+	}
+
+	/**
+	 * Adds an element to the nearest elements found, replacing the furthest
+	 * if the limit has been reached. Callers should check
+	 * {@link #isCandidate(float)} first.
+	 */
+	void offerElement(Object element, float distanceSquared) {
+		if (totalElements < limit) {
+			if (totalElements == elements.length) {
+				elements = Arrays.copyOf(elements, totalElements * 2);
+				elementDistances = Arrays.copyOf(elementDistances, totalElements * 2);
+			}
+			int index = totalElements++;
+			while (index > 0) {
+				int parentIndex = (index - 1) >>> 1;
+				if (elementDistances[parentIndex] >= distanceSquared) {
+					break;
+				}
+				elements[index] = elements[parentIndex];
+				elementDistances[index] = elementDistances[parentIndex];
+				index = parentIndex;
+			}
+			elements[index] = element;
+			elementDistances[index] = distanceSquared;
+			return;
+		}
+		siftDownElement(0, element, distanceSquared, totalElements);
+	}
+
+	private void siftDownElement(int index, Object element, float distanceSquared, int size) {
+		int half = size >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			if (child + 1 < size && elementDistances[child + 1] > elementDistances[child]) {
+				child++;
+			}
+			if (distanceSquared >= elementDistances[child]) {
+				break;
+			}
+			elements[index] = elements[child];
+			elementDistances[index] = elementDistances[child];
+			index = child;
+		}
+		elements[index] = element;
+		elementDistances[index] = distanceSquared;
+	}
+
+	/**
+	 * Adds the nearest elements found to a {@link Collection} in order of
+	 * increasing distance and clears all references held by this search
+	 */
+	@SuppressWarnings("unchecked")
+	<T> void drain(Collection<T> result) {
+		for (int size = totalElements - 1; size > 0; size--) {
+			Object furthest = elements[0];
+			float furthestDistance = elementDistances[0];
+			siftDownElement(0, elements[size], elementDistances[size], size);
+			elements[size] = furthest;
+			elementDistances[size] = furthestDistance;
+		}
+		for (int i = 0; i < totalElements; i++) {
+			result.add((T) elements[i]);
+		}
+		clear();
+	}
+
+	/**
+	 * Clears all references held by this search
+	 */
+	void clear() {
+		Arrays.fill(elements, 0, totalElements, null);
+		Arrays.fill(quads, 0, totalQuads, null);
+		totalElements = 0;
+		totalQuads = 0;
+	}
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+/**
+ * Tests candidate pairs from a {@link SweepAndPrune} broadphase in parallel on
+ * a {@link ForkJoinPool}.
+ * 
+ * {@link Shape} intersection methods share temporary state and are not safe to
+ * call from multiple threads, so the geometry of every element referenced by
+ * the candidate pairs is first copied on the calling thread. The pairs are
+ * then split across the pool and tested with {@link IntersectionKernels}.
+ * 
+ * By default colliding pairs are reported in the order workers finish. In
+ * deterministic mode they are reported in candidate order so that results are
+ * stable between runs and replays.
+ */
+public class ParallelNarrowphase<T extends CollisionShape> {
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	private static final byte SHAPE_AABB = 0;
+	private static final byte SHAPE_CIRCLE = 1;
+	private static final byte SHAPE_POLYGON = 2;
+
+	private static final ThreadLocal<int[]> HIT_BUFFERS = new ThreadLocal<int[]>();
+
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+	private final AtomicInteger totalHits = new AtomicInteger();
+
+	private boolean deterministic = false;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int snapshotStamp = 0;
+	private int[] snapshotStamps = new int[0];
+	private byte[] shapeTypes = new byte[0];
+	private float[] minX = new float[0];
+	private float[] minY = new float[0];
+	private float[] maxX = new float[0];
+	private float[] maxY = new float[0];
+	private float[] radius = new float[0];
+	private float[][] vertices = new float[0][];
+
+	private int[] candidates = new int[0];
+	private int[] hits = new int[0];
+	private byte[] hitFlags = new byte[0];
+
+	/**
+	 * Constructs a {@link ParallelNarrowphase} with its own
+	 * {@link ForkJoinPool}. Call {@link #dispose()} to shut the pool down.
+	 */
+	public ParallelNarrowphase() {
+		this(new ForkJoinPool(), true);
+	}
+
+	/**
+	 * Constructs a {@link ParallelNarrowphase} that runs on an existing
+	 * {@link ForkJoinPool}
+	 * 
+	 * @param pool
+	 *            The {@link ForkJoinPool} to run on
+	 */
+	public ParallelNarrowphase(ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	private ParallelNarrowphase(ForkJoinPool pool, boolean ownsPool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("pool cannot be null");
+		}
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/**
+	 * Tests candidate pairs and stores the pairs that collide. The result
+	 * buffer is cleared before any pairs are added.
+	 * 
+	 * @param broadphase
+	 *            The {@link SweepAndPrune} that produced the candidate pairs
+	 * @param candidatePairs
+	 *            The candidate pairs to test
+	 * @param result
+	 *            The buffer to store the colliding pairs in
+	 */
+	public void update(SweepAndPrune<T> broadphase, CollisionPairs candidatePairs, CollisionPairs result) {
+		result.clear();
+		int totalCandidates = candidatePairs.size();
+		if (totalCandidates == 0) {
+			return;
+		}
+		snapshot(broadphase, candidatePairs);
+
+		totalHits.set(0);
+		if (deterministic) {
+			if (hitFlags.length < totalCandidates) {
+				hitFlags = new byte[totalCandidates];
+			}
+		} else if (hits.length < totalCandidates) {
+			hits = new int[totalCandidates];
+		}
+		pool.invoke(new NarrowphaseTask(0, totalCandidates));
+
+		if (deterministic) {
+			for (int i = 0; i < totalCandidates; i++) {
+				if (hitFlags[i] == 0) {
+					continue;
+				}
+				result.add(candidates[i * 2], candidates[(i * 2) + 1]);
+			}
+		} else {
+			int total = totalHits.get();
+			for (int i = 0; i < total; i++) {
+				int candidate = hits[i];
+				result.add(candidates[candidate * 2], candidates[(candidate * 2) + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Shuts down the {@link ForkJoinPool} if it was created by this instance
+	 */
+	public void dispose() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns if colliding pairs are reported in candidate order
+	 * 
+	 * @return False by default
+	 */
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+
+	/**
+	 * Sets if colliding pairs are reported in candidate order
+	 * 
+	 * @param deterministic
+	 *            True if results should be stable between runs
+	 */
+	public void setDeterministic(boolean deterministic) {
+		this.deterministic = deterministic;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the amount of candidate pairs tested by a single task before work
+	 * is split across threads
+	 * 
+	 * @param batchSize
+	 *            A value greater than 0
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize must be greater than 0");
+		}
+		this.batchSize = batchSize;
+	}
+
+	private void snapshot(SweepAndPrune<T> broadphase, CollisionPairs candidatePairs) {
+		int totalCandidates = candidatePairs.size();
+		if (candidates.length < totalCandidates * 2) {
+			candidates = new int[totalCandidates * 2];
+		}
+		snapshotStamp++;
+		if (snapshotStamp == 0) {
+			Arrays.fill(snapshotStamps, 0);
+			snapshotStamp = 1;
+		}
+		for (int i = 0; i < totalCandidates; i++) {
+			int first = candidatePairs.getFirst(i);
+			int second = candidatePairs.getSecond(i);
+			candidates[i * 2] = first;
+			candidates[(i * 2) + 1] = second;
+			snapshot(broadphase, first);
+			snapshot(broadphase, second);
+		}
+	}
+
+	private void snapshot(SweepAndPrune<T> broadphase, int slot) {
+		if (slot >= snapshotStamps.length) {
+			ensureSnapshotCapacity(slot + 1);
+		}
+		if (snapshotStamps[slot] == snapshotStamp) {
+			return;
+		}
+		snapshotStamps[slot] = snapshotStamp;
+
+		Shape shape = broadphase.getElement(slot).getShape();
+		if (shape.isCircle()) {
+			Circle circle = (Circle) shape;
+			shapeTypes[slot] = SHAPE_CIRCLE;
+			minX[slot] = circle.getX();
+			minY[slot] = circle.getY();
+			radius[slot] = circle.getRadius();
+			return;
+		}
+		if (shape instanceof Rectangle && shape.getRotation() == 0f) {
+			shapeTypes[slot] = SHAPE_AABB;
+			minX[slot] = shape.getMinX();
+			minY[slot] = shape.getMinY();
+			maxX[slot] = shape.getMaxX();
+			maxY[slot] = shape.getMaxY();
+			return;
+		}
+		float[] shapeVertices = shape.getPolygon().getVertices();
+		float[] copy = vertices[slot];
+		if (copy == null || copy.length != shapeVertices.length) {
+			copy = new float[shapeVertices.length];
+			vertices[slot] = copy;
+		}
+		System.arraycopy(shapeVertices, 0, copy, 0, shapeVertices.length);
+		shapeTypes[slot] = SHAPE_POLYGON;
+		minX[slot] = shape.getMinX();
+		minY[slot] = shape.getMinY();
+		maxX[slot] = shape.getMaxX();
+		maxY[slot] = shape.getMaxY();
+	}
+
+	private void ensureSnapshotCapacity(int capacity) {
+		capacity = Math.max(capacity, snapshotStamps.length * 2);
+		snapshotStamps = Arrays.copyOf(snapshotStamps, capacity);
+		shapeTypes = Arrays.copyOf(shapeTypes, capacity);
+		minX = Arrays.copyOf(minX, capacity);
+		minY = Arrays.copyOf(minY, capacity);
+		maxX = Arrays.copyOf(maxX, capacity);
+		maxY = Arrays.copyOf(maxY, capacity);
+		radius = Arrays.copyOf(radius, capacity);
+		vertices = Arrays.copyOf(vertices, capacity);
+	}
+
+	private boolean intersects(int first, int second) {
+		byte firstType = shapeTypes[first];
+		byte secondType = shapeTypes[second];
+		if (firstType > secondType) {
+			int tmpSlot = first;
+			first = second;
+			second = tmpSlot;
+			byte tmpType = firstType;
+			firstType = secondType;
+			secondType = tmpType;
+		}
+
+		switch (firstType) {
+		case SHAPE_AABB:
+			switch (secondType) {
+			case SHAPE_AABB:
+				return IntersectionKernels.intersectAabbs(minX[first], minY[first], maxX[first], maxY[first],
+						minX[second], minY[second], maxX[second], maxY[second]);
+			case SHAPE_CIRCLE:
+				return IntersectionKernels.intersectAabbCircle(minX[first], minY[first], maxX[first], maxY[first],
+						minX[second], minY[second], radius[second]);
+			default:
+				if (!IntersectionKernels.intersectAabbs(minX[first], minY[first], maxX[first], maxY[first],
+						minX[second], minY[second], maxX[second], maxY[second])) {
+					return false;
+				}
+				return IntersectionKernels.intersectPolygonAabb(vertices[second], minX[first], minY[first],
+						maxX[first], maxY[first]);
+			}
+		case SHAPE_CIRCLE:
+			if (secondType == SHAPE_CIRCLE) {
+				return IntersectionKernels.intersectCircles(minX[first], minY[first], radius[first], minX[second],
+						minY[second], radius[second]);
+			}
+			return IntersectionKernels.intersectPolygonCircle(vertices[second], minX[first], minY[first],
+					radius[first]);
+		default:
+			if (!IntersectionKernels.intersectAabbs(minX[first], minY[first], maxX[first], maxY[first], minX[second],
+					minY[second], maxX[second], maxY[second])) {
+				return false;
+			}
+			return IntersectionKernels.intersectPolygons(vertices[first], vertices[second]);
+		}
+	}
+
+	private static int[] getHitBuffer(int capacity) {
+		int[] result = HIT_BUFFERS.get();
+		if (result == null || result.length < capacity) {
+			result = new int[capacity];
+			HIT_BUFFERS.set(result);
+		}
+		return result;
+	}
+
+	private class NarrowphaseTask extends RecursiveAction {
+		private static final long serialVersionUID = -2409245396307316548L;
+
+		private final int start, end;
+
+		public NarrowphaseTask(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > batchSize) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new NarrowphaseTask(start, middle), new NarrowphaseTask(middle, end));
+				return;
+			}
+			if (deterministic) {
+				for (int i = start; i < end; i++) {
+					hitFlags[i] = intersects(candidates[i * 2], candidates[(i * 2) + 1]) ? (byte) 1 : (byte) 0;
+				}
+				return;
+			}
+
+			int[] localHits = getHitBuffer(end - start);
+			int totalLocalHits = 0;
+			for (int i = start; i < end; i++) {
+				if (intersects(candidates[i * 2], candidates[(i * 2) + 1])) {
+					localHits[totalLocalHits++] = i;
+				}
+			}
+			if (totalLocalHits == 0) {
+				return;
+			}
+			int offset = totalHits.getAndAdd(totalLocalHits);
+			System.arraycopy(localHits, 0, hits, offset, totalLocalHits);
+		}
+	}
+}
@@ -12,10 +12,16 @@
 package org.mini2Dx.core.collisions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Parallelogram;
 import org.mini2Dx.core.geom.Point;
@@ -37,13 +43,32 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 
 	private static final long serialVersionUID = -2034928347848875105L;
 
+	private static final ThreadLocal<QueryStack> QUERY_STACKS = new ThreadLocal<QueryStack>() {
+		@Override
+		protected QueryStack initialValue() {
+			return new QueryStack();
+		}
+	};
+	private static final ThreadLocal<NearestSearch> NEAREST_SEARCHES = new ThreadLocal<NearestSearch>() {
+		@Override
+		protected NearestSearch initialValue() {
+			return new NearestSearch();
+		}
+	};
+
 	protected PointQuadTree<T> parent;
 	protected PointQuadTree<T> topLeft, topRight, bottomLeft, bottomRight;
 	protected List<T> elements;
+	protected List<T> pendingMoves;
+	protected Set<T> pendingMoveInstances;
 	protected final int elementLimitPerQuad;
 	protected final int mergeWatermark;
 
 	protected int totalElementsCache = -1;
+	protected boolean deferredUpdates = false;
+	protected boolean hasPendingMoves = false;
+	protected QuadTreeMetrics metrics;
+
 
 	/**
 	 * Constructs a {@link PointQuadTree} with a specified element limit and
@@ -116,6 +141,8 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 	public PointQuadTree(PointQuadTree<T> parent, float x, float y, float width, float height) {
 		this(parent.getElementLimitPerQuad(), parent.getMergeWatermark(), x, y, width, height);
 		this.parent = parent;
+		this.deferredUpdates = parent.deferredUpdates;
+		this.metrics = parent.metrics;
 	}
 
 	public void debugRender(Graphics g) {
@@ -141,6 +168,10 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		g.setColor(tmp);
 	}
 	
+	/**
+	 * Adds multiple elements. If this quad is empty the tree is built
+	 * top-down in a single pass, see {@link #buildFrom(List)}.
+	 */
 	public void addAll(List<T> elementsToAdd) {
 		if(elementsToAdd == null || elementsToAdd.isEmpty()) {
 			return;
@@ -148,13 +179,17 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		
 		List<T> elementsWithinQuad = new ArrayList<T>();
 		for(T element : elementsToAdd) {
-			if(this.contains(element.getX(), element.getY())) {
+			if(containsPoint(element.getX(), element.getY())) {
 				elementsWithinQuad.add(element);
 			}
 		}
 		
 		clearTotalElementsCache();
 		
+		if (isEmptyLeaf()) {
+			buildFrom(elementsWithinQuad);
+			return;
+		}
 		if (topLeft != null) {
 			for(T element : elementsWithinQuad) {
 				addElementToChild(element);
@@ -174,7 +209,7 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		if (element == null)
 			return false;
 
-		if (!this.contains(element.getX(), element.getY())) {
+		if (!containsPoint(element.getX(), element.getY())) {
 			return false;
 		}
 		clearTotalElementsCache();
@@ -207,10 +242,111 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		return false;
 	}
 
+	/**
+	 * Builds this quad and its children from a list of elements in a single
+	 * top-down pass. At each level the elements are partitioned by the child
+	 * quad they belong to, ordering them along a Z-order curve, and child
+	 * quads are only created once. Unlike repeated calls to {@link #add(Positionable)}
+	 * no quad is subdivided more than once and no element is re-inserted.
+	 * 
+	 * Note: This quad must not contain any elements or child quads
+	 * 
+	 * @param elementsToBuild
+	 *            The elements to add. All elements must belong inside this
+	 *            quad.
+	 */
+	protected void buildFrom(List<T> elementsToBuild) {
+		Object[] buffer = elementsToBuild.toArray();
+		build(buffer, new Object[buffer.length], new byte[buffer.length], 0, buffer.length);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void build(Object[] buffer, Object[] scratch, byte[] childIndices, int start, int end) {
+		clearTotalElementsCache();
+		if (end - start <= elementLimitPerQuad || getWidth() < 2f || getHeight() < 2f) {
+			for (int i = start; i < end; i++) {
+				T element = (T) buffer[i];
+				elements.add(element);
+				element.addPostionChangeListener(this);
+			}
+			return;
+		}
+		subdivide();
+
+		int[] offsets = new int[6];
+		for (int i = start; i < end; i++) {
+			byte childIndex = (byte) (getChildIndex((T) buffer[i]) + 1);
+			childIndices[i] = childIndex;
+			offsets[childIndex + 1]++;
+		}
+		offsets[0] = start;
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i - 1];
+		}
+		int[] positions = new int[] { offsets[0], offsets[1], offsets[2], offsets[3], offsets[4] };
+		for (int i = start; i < end; i++) {
+			scratch[positions[childIndices[i]]++] = buffer[i];
+		}
+		System.arraycopy(scratch, start, buffer, start, end - start);
+
+		for (int i = offsets[0]; i < offsets[1]; i++) {
+			T element = (T) buffer[i];
+			elements.add(element);
+			element.addPostionChangeListener(this);
+		}
+		for (int i = 0; i < 4; i++) {
+			getChild(i).build(buffer, scratch, childIndices, offsets[i + 1], offsets[i + 2]);
+		}
+	}
+
+	/**
+	 * Returns the index of the child quad an element should be stored in
+	 * 
+	 * @param element
+	 *            The element
+	 * @return 0 to 3 for top left, top right, bottom left and bottom right
+	 *         respectively, or -1 if the element should remain in this quad
+	 */
+	protected int getChildIndex(T element) {
+		int result = element.getX() <= topLeft.getX() + topLeft.getWidth() ? 0 : 1;
+		if (element.getY() > topLeft.getY() + topLeft.getHeight()) {
+			result += 2;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the child quad at an index returned by
+	 * {@link #getChildIndex(Positionable)}
+	 */
+	protected PointQuadTree<T> getChild(int index) {
+		switch (index) {
+		case 0:
+			return topLeft;
+		case 1:
+			return topRight;
+		case 2:
+			return bottomLeft;
+		default:
+			return bottomRight;
+		}
+	}
+
+	/**
+	 * Returns if this quad has no child quads, elements or pending moves
+	 */
+	protected boolean isEmptyLeaf() {
+		return topLeft == null && elements.isEmpty() && !hasPendingMoves;
+	}
+
 	protected void subdivide() {
 		if (topLeft != null) {
 			return;
 		}
+		if (metrics != null) {
+			metrics.onSubdivide();
+		}
+		List<T> staleElements = removeStalePendingMoves();
 
 		float halfWidth = getWidth() / 2f;
 		float halfHeight = getHeight() / 2f;
@@ -226,6 +362,7 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 			addElementToChild(element);
 		}
 		elements = null;
+		relocateFromParent(staleElements);
 	}
 
 	protected boolean isMergable() {
@@ -262,14 +399,17 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		if (topLeft == null) {
 			return;
 		}
+		if (metrics != null) {
+			metrics.onMerge();
+		}
 
-		elements = new ArrayList<>();
-		topLeft.getElements(elements);
-		topRight.getElements(elements);
-		bottomLeft.getElements(elements);
-		bottomRight.getElements(elements);
+		List<T> childElements = new ArrayList<T>();
+		topLeft.getElements(childElements);
+		topRight.getElements(childElements);
+		bottomLeft.getElements(childElements);
+		bottomRight.getElements(childElements);
 
-		for (T element : elements) {
+		for (T element : childElements) {
 			topLeft.elements.remove(element);
 			element.removePositionChangeListener(topLeft);
 			topRight.elements.remove(element);
@@ -280,6 +420,15 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 			element.removePositionChangeListener(bottomRight);
 			element.addPostionChangeListener(this);
 		}
+		if (elements == null) {
+			elements = childElements;
+		} else {
+			elements.addAll(childElements);
+		}
+		takePendingMoves(topLeft);
+		takePendingMoves(topRight);
+		takePendingMoves(bottomLeft);
+		takePendingMoves(bottomRight);
 
 		topLeft = null;
 		topRight = null;
@@ -291,10 +440,13 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		if(elementsToRemove == null || elementsToRemove.isEmpty()) {
 			return;
 		}
+		if(parent == null && hasPendingMoves) {
+			elementsToRemove = removePendingMoves(elementsToRemove);
+		}
 		
 		List<T> elementsWithinQuad = new ArrayList<T>();
 		for(T element : elementsToRemove) {
-			if(this.contains(element.getX(), element.getY())) {
+			if(containsPoint(element.getX(), element.getY())) {
 				elementsWithinQuad.add(element);
 			}
 		}
@@ -325,8 +477,11 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 	public boolean remove(T element) {
 		if (element == null)
 			return false;
+		if (parent == null && hasPendingMoves && removePendingMove(element)) {
+			return true;
+		}
 
-		if (!this.contains(element.getX(), element.getY())) {
+		if (!containsPoint(element.getX(), element.getY())) {
 			return false;
 		}
 		clearTotalElementsCache();
@@ -351,6 +506,8 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		} else {
 			elements.clear();
 		}
+		clearPendingMoves();
+		hasPendingMoves = false;
 	}
 
 	protected boolean removeElementFromChild(T element) {
@@ -365,6 +522,59 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		return false;
 	}
 
+	/**
+	 * Removes an element that moved since the last call to
+	 * {@link #flushMoves()} from the quad that still holds it. The element
+	 * may no longer be inside that quad, so it cannot be found by position.
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return False if the element has no pending move in this quad or its
+	 *         child quads
+	 */
+	protected boolean removePendingMove(T element) {
+		if (!hasPendingMoves) {
+			return false;
+		}
+		if (pendingMoveInstances != null && pendingMoveInstances.remove(element)) {
+			removeInstance(pendingMoves, element);
+			clearTotalElementsCache();
+			boolean result = elements != null && removeInstance(elements, element);
+			element.removePositionChangeListener(this);
+
+			if (parent != null && parent.isMergable()) {
+				parent.merge();
+			}
+			return result;
+		}
+		if (topLeft == null) {
+			return false;
+		}
+		if (topLeft.removePendingMove(element) || topRight.removePendingMove(element)
+				|| bottomLeft.removePendingMove(element) || bottomRight.removePendingMove(element)) {
+			clearTotalElementsCache();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the elements that have pending moves via
+	 * {@link #removePendingMove(Positionable)}
+	 * 
+	 * @return The elements that did not have pending moves
+	 */
+	protected List<T> removePendingMoves(List<T> elementsToRemove) {
+		List<T> result = new ArrayList<T>(elementsToRemove.size());
+		for (int i = 0; i < elementsToRemove.size(); i++) {
+			T element = elementsToRemove.get(i);
+			if (!removePendingMove(element)) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
 	protected boolean removeElement(T element) {
 		boolean result = elements.remove(element);
 		element.removePositionChangeListener(this);
@@ -387,11 +597,20 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 
 	@Override
 	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
 		if (topLeft != null) {
-			topLeft.getElementsWithinArea(result, area);
-			topRight.getElementsWithinArea(result, area);
-			bottomLeft.getElementsWithinArea(result, area);
-			bottomRight.getElementsWithinArea(result, area);
+			float areaMinX = area.getMinX();
+			float areaMinY = area.getMinY();
+			float areaMaxX = area.getMaxX();
+			float areaMaxY = area.getMaxY();
+			if (topLeft.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
+				topLeft.getElementsWithinArea(result, area);
+			if (topRight.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
+				topRight.getElementsWithinArea(result, area);
+			if (bottomLeft.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
+				bottomLeft.getElementsWithinArea(result, area);
+			if (bottomRight.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
+				bottomRight.getElementsWithinArea(result, area);
 		} else {
 			for (int i = elements.size() - 1; i >= 0; i--) {
 				T element = elements.get(i);
@@ -400,6 +619,153 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 				}
 			}
 		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void query(Shape area, QuadTreeVisitor<T> visitor) {
+		float minX = area.getMinX();
+		float minY = area.getMinY();
+		float maxX = area.getMaxX();
+		float maxY = area.getMaxY();
+
+		long queryStartTime = metrics == null ? 0L : metrics.beginQuery();
+		QueryStack queryStack = QUERY_STACKS.get();
+		boolean ownsStack = !queryStack.inUse;
+		Object[] stack = ownsStack ? queryStack.quads : new Object[QueryStack.INITIAL_CAPACITY];
+		queryStack.inUse = true;
+		try {
+			int size = 0;
+			stack[size++] = this;
+			while (size > 0) {
+				PointQuadTree<T> quad = (PointQuadTree<T>) stack[--size];
+				stack[size] = null;
+				if (metrics != null && quad != this) {
+					metrics.onQuadVisited();
+				}
+
+				if (quad.topLeft != null) {
+					if (size + 4 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+						if (ownsStack) {
+							queryStack.quads = stack;
+						}
+					}
+					if (quad.topLeft.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = quad.topLeft;
+					}
+					if (quad.topRight.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = quad.topRight;
+					}
+					if (quad.bottomLeft.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = quad.bottomLeft;
+					}
+					if (quad.bottomRight.overlaps(minX, minY, maxX, maxY)) {
+						stack[size++] = quad.bottomRight;
+					}
+				}
+				if (quad.elements != null && !quad.visitElements(area, visitor)) {
+					Arrays.fill(stack, 0, size, null);
+					return;
+				}
+			}
+		} finally {
+			if (ownsStack) {
+				queryStack.inUse = false;
+			}
+			if (metrics != null) {
+				metrics.endQuery(queryStartTime);
+			}
+		}
+	}
+
+	/**
+	 * Passes the elements stored in this quad that are within an area to a
+	 * {@link QuadTreeVisitor}
+	 * 
+	 * @param area
+	 *            The area to search
+	 * @param visitor
+	 *            The {@link QuadTreeVisitor} to pass elements to
+	 * @return False if the visitor terminated the query
+	 */
+	protected boolean visitElements(Shape area, QuadTreeVisitor<T> visitor) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null && area.contains(element.getX(), element.getY())) {
+				if (!visitor.visit(element)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns if this quad overlaps an axis-aligned area. Quads are never
+	 * rotated so node tests only need to compare bounds rather than go
+	 * through the {@link org.mini2Dx.core.geom.Polygon}.
+	 */
+	protected boolean overlaps(float minX, float minY, float maxX, float maxY) {
+		final float x = getX();
+		final float y = getY();
+		return (x <= maxX) & (minX <= x + getWidth()) & (y <= maxY) & (minY <= y + getHeight());
+	}
+
+	/**
+	 * Returns if this quad fully contains an axis-aligned area
+	 */
+	protected boolean containsArea(float minX, float minY, float maxX, float maxY) {
+		final float x = getX();
+		final float y = getY();
+		return (x <= minX) & (maxX <= x + getWidth()) & (y <= minY) & (maxY <= y + getHeight());
+	}
+
+	/**
+	 * Returns if this quad contains a point
+	 */
+	protected boolean containsPoint(float x, float y) {
+		final float minX = getX();
+		final float minY = getY();
+		return (minX <= x) & (x <= minX + getWidth()) & (minY <= y) & (y <= minY + getHeight());
+	}
+
+	/**
+	 * Returns if a line segment intersects or lies inside this quad
+	 */
+	protected boolean intersectsSegment(float x1, float y1, float x2, float y2) {
+		final float x = getX();
+		final float y = getY();
+		return Intersector.intersectLineSegmentAabb(x1, y1, x2, y2, x, y, x + getWidth(), y + getHeight());
+	}
+
+	/**
+	 * Records a visit to this quad with the {@link QuadTreeMetrics}. Visits
+	 * to the root quad start a new query.
+	 * 
+	 * @return The start time of the query if this is the root quad
+	 */
+	protected long beginQuadVisit() {
+		if (parent == null) {
+			return metrics.beginQuery();
+		}
+		metrics.onQuadVisited();
+		return 0L;
+	}
+
+	/**
+	 * Completes a quad visit started by {@link #beginQuadVisit()}
+	 * 
+	 * @param queryStartTime
+	 *            The value returned by {@link #beginQuadVisit()}
+	 */
+	protected void endQuadVisit(long queryStartTime) {
+		if (parent == null) {
+			metrics.endQuery(queryStartTime);
+		}
 	}
 
 	@Override
@@ -411,17 +777,18 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 
 	@Override
 	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
 		if (topLeft != null) {
-			if (topLeft.contains(point)) {
+			if (topLeft.containsPoint(point.x, point.y)) {
 				topLeft.getElementsContainingPoint(result, point);
 			}
-			if (topRight.contains(point)) {
+			if (topRight.containsPoint(point.x, point.y)) {
 				topRight.getElementsContainingPoint(result, point);
 			}
-			if (bottomLeft.contains(point)) {
+			if (bottomLeft.containsPoint(point.x, point.y)) {
 				bottomLeft.getElementsContainingPoint(result, point);
 			}
-			if (bottomRight.contains(point)) {
+			if (bottomRight.containsPoint(point.x, point.y)) {
 				bottomRight.getElementsContainingPoint(result, point);
 			}
 		} else {
@@ -439,6 +806,368 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 				result.add(element);
 			}
 		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	@Override
+	public List<T> getElementsIntersectingSweep(Shape shape, float velocityX, float velocityY) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingSweep(result, shape, velocityX, velocityY);
+		return result;
+	}
+
+	@Override
+	public void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX, float velocityY) {
+		getElementsIntersectingSweep(result, shape, velocityX, velocityY, shape.getMinX() + Math.min(0f, velocityX),
+				shape.getMinY() + Math.min(0f, velocityY), shape.getMaxX() + Math.max(0f, velocityX),
+				shape.getMaxY() + Math.max(0f, velocityY));
+	}
+
+	/**
+	 * Collects the elements touched by a moving {@link Shape}
+	 * 
+	 * @param sweepMinX
+	 *            The minimum x coordinate covered by the whole movement
+	 * @param sweepMinY
+	 *            The minimum y coordinate covered by the whole movement
+	 * @param sweepMaxX
+	 *            The maximum x coordinate covered by the whole movement
+	 * @param sweepMaxY
+	 *            The maximum y coordinate covered by the whole movement
+	 */
+	protected void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX,
+			float velocityY, float sweepMinX, float sweepMinY, float sweepMaxX, float sweepMaxY) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
+		if (topLeft != null) {
+			if (topLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (topRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+		} else {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element != null && Intersector.getTimeOfImpact(shape, velocityX, velocityY, element.getX(),
+						element.getY(), element.getX(), element.getY()) >= 0f) {
+					result.add(element);
+				}
+			}
+		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	@Override
+	public boolean raycast(float x1, float y1, float x2, float y2, RaycastHit<T> result) {
+		result.begin(x1, y1, x2, y2);
+		long queryStartTime = metrics == null ? 0L : metrics.beginQuery();
+		float deltaX = x2 - x1;
+		float deltaY = y2 - y1;
+		if (result.isCloser(getRayEntry(x1, y1, deltaX, deltaY))) {
+			raycastQuad(x1, y1, deltaX, deltaY, result);
+		}
+		if (metrics != null) {
+			metrics.endQuery(queryStartTime);
+		}
+		return result.isHit();
+	}
+
+	@Override
+	public int raycast(float[] rays, int totalRays, RaycastHit<T>[] results) {
+		int result = 0;
+		for (int i = 0; i < totalRays; i++) {
+			int offset = i * 4;
+			if (raycast(rays[offset], rays[offset + 1], rays[offset + 2], rays[offset + 3], results[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tests the elements in this quad and then visits the child quads in the
+	 * order the ray passes through them
+	 */
+	protected void raycastQuad(float x, float y, float deltaX, float deltaY, RaycastHit<T> result) {
+		if (elements != null) {
+			raycastElements(result);
+		}
+		if (topLeft == null) {
+			return;
+		}
+		PointQuadTree<T> near, far, acrossX, acrossY;
+		if (deltaX >= 0f) {
+			if (deltaY >= 0f) {
+				near = topLeft;
+				acrossX = topRight;
+				acrossY = bottomLeft;
+				far = bottomRight;
+			} else {
+				near = bottomLeft;
+				acrossX = bottomRight;
+				acrossY = topLeft;
+				far = topRight;
+			}
+		} else if (deltaY >= 0f) {
+			near = topRight;
+			acrossX = topLeft;
+			acrossY = bottomRight;
+			far = bottomLeft;
+		} else {
+			near = bottomRight;
+			acrossX = bottomLeft;
+			acrossY = topRight;
+			far = topLeft;
+		}
+		float crossX = deltaX == 0f ? Float.MAX_VALUE : (topRight.getX() - x) / deltaX;
+		float crossY = deltaY == 0f ? Float.MAX_VALUE : (bottomLeft.getY() - y) / deltaY;
+
+		raycastChild(near, x, y, deltaX, deltaY, result);
+		if (crossX <= crossY) {
+			raycastChild(acrossX, x, y, deltaX, deltaY, result);
+			raycastChild(acrossY, x, y, deltaX, deltaY, result);
+		} else {
+			raycastChild(acrossY, x, y, deltaX, deltaY, result);
+			raycastChild(acrossX, x, y, deltaX, deltaY, result);
+		}
+		raycastChild(far, x, y, deltaX, deltaY, result);
+	}
+
+	private void raycastChild(PointQuadTree<T> child, float x, float y, float deltaX, float deltaY,
+			RaycastHit<T> result) {
+		if (!result.isCloser(child.getRayEntry(x, y, deltaX, deltaY))) {
+			return;
+		}
+		if (metrics != null) {
+			metrics.onQuadVisited();
+		}
+		child.raycastQuad(x, y, deltaX, deltaY, result);
+	}
+
+	/**
+	 * Tests a ray against the elements stored in this quad
+	 * 
+	 * @param result
+	 *            The {@link RaycastHit} to store the closest hit in
+	 */
+	protected void raycastElements(RaycastHit<T> result) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null) {
+				result.test(element, element.getX(), element.getY());
+			}
+		}
+	}
+
+	/**
+	 * Returns where a ray enters this quad
+	 * 
+	 * @return The fraction (0 to 1) of the ray where it enters this quad or -1
+	 *         if it misses this quad
+	 */
+	protected float getRayEntry(float x, float y, float deltaX, float deltaY) {
+		final float minX = getX();
+		final float minY = getY();
+		return IntersectionKernels.raycastAabb(x, y, deltaX, deltaY, minX, minY, minX + getWidth(),
+				minY + getHeight());
+	}
+
+	/**
+	 * Returns the elements nearest to a point
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param k
+	 *            The maximum number of elements to return
+	 * @return A new {@link List} containing up to k elements in order of
+	 *         increasing distance
+	 */
+	public List<T> getNearest(float x, float y, int k) {
+		List<T> result = new ArrayList<T>();
+		getNearest(x, y, k, result);
+		return result;
+	}
+
+	/**
+	 * Finds the elements nearest to a point using a best-first traversal.
+	 * Quads are visited in order of distance and the search stops once the
+	 * next quad is further away than the k-th nearest element found.
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param k
+	 *            The maximum number of elements to find
+	 * @param result
+	 *            The {@link Collection} to add up to k elements to in order of
+	 *            increasing distance
+	 */
+	@SuppressWarnings("unchecked")
+	public void getNearest(float x, float y, int k, Collection<T> result) {
+		if (k <= 0) {
+			return;
+		}
+		long queryStartTime = metrics == null ? 0L : metrics.beginQuery();
+		NearestSearch threadSearch = NEAREST_SEARCHES.get();
+		boolean ownsSearch = !threadSearch.inUse;
+		NearestSearch search = ownsSearch ? threadSearch : new NearestSearch();
+		search.inUse = true;
+		try {
+			search.begin(k);
+			search.pushQuad(this, getBoundsDistanceSquared(x, y));
+			while (search.hasQuads() && search.isCandidate(search.peekQuadDistance())) {
+				PointQuadTree<T> quad = (PointQuadTree<T>) search.popQuad();
+				if (metrics != null && quad != this) {
+					metrics.onQuadVisited();
+				}
+				if (quad.elements != null) {
+					for (int i = quad.elements.size() - 1; i >= 0; i--) {
+						T element = quad.elements.get(i);
+						if (element == null) {
+							continue;
+						}
+						float distanceSquared = quad.getDistanceSquared(element, x, y);
+						if (search.isCandidate(distanceSquared)) {
+							search.offerElement(element, distanceSquared);
+						}
+					}
+				}
+				if (quad.topLeft != null) {
+					pushNearest(search, quad.topLeft, x, y);
+					pushNearest(search, quad.topRight, x, y);
+					pushNearest(search, quad.bottomLeft, x, y);
+					pushNearest(search, quad.bottomRight, x, y);
+				}
+			}
+			search.drain(result);
+		} finally {
+			search.clear();
+			if (ownsSearch) {
+				search.inUse = false;
+			}
+			if (metrics != null) {
+				metrics.endQuery(queryStartTime);
+			}
+		}
+	}
+
+	private static <T extends Positionable> void pushNearest(NearestSearch search, PointQuadTree<T> quad, float x,
+			float y) {
+		float distanceSquared = quad.getBoundsDistanceSquared(x, y);
+		if (search.isCandidate(distanceSquared)) {
+			search.pushQuad(quad, distanceSquared);
+		}
+	}
+
+	/**
+	 * Returns all elements within a distance of a point
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param radius
+	 *            The maximum distance from the point
+	 * @return A new {@link List} containing the elements
+	 */
+	public List<T> getWithinRadius(float x, float y, float radius) {
+		List<T> result = new ArrayList<T>();
+		getWithinRadius(x, y, radius, result);
+		return result;
+	}
+
+	/**
+	 * Finds all elements within a distance of a point. Distances are compared
+	 * squared so no square roots are calculated.
+	 * 
+	 * @param x
+	 *            The x coordinate to search from
+	 * @param y
+	 *            The y coordinate to search from
+	 * @param radius
+	 *            The maximum distance from the point
+	 * @param result
+	 *            The {@link Collection} to add the elements to
+	 */
+	public void getWithinRadius(float x, float y, float radius, Collection<T> result) {
+		if (radius < 0f || getBoundsDistanceSquared(x, y) > radius * radius) {
+			return;
+		}
+		collectWithinRadius(x, y, radius * radius, result);
+	}
+
+	private void collectWithinRadius(float x, float y, float radiusSquared, Collection<T> result) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
+		if (elements != null) {
+			for (int i = elements.size() - 1; i >= 0; i--) {
+				T element = elements.get(i);
+				if (element != null && getDistanceSquared(element, x, y) <= radiusSquared) {
+					result.add(element);
+				}
+			}
+		}
+		if (topLeft != null) {
+			if (topLeft.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+				topLeft.collectWithinRadius(x, y, radiusSquared, result);
+			}
+			if (topRight.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+				topRight.collectWithinRadius(x, y, radiusSquared, result);
+			}
+			if (bottomLeft.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+				bottomLeft.collectWithinRadius(x, y, radiusSquared, result);
+			}
+			if (bottomRight.getBoundsDistanceSquared(x, y) <= radiusSquared) {
+				bottomRight.collectWithinRadius(x, y, radiusSquared, result);
+			}
+		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	/**
+	 * Returns the squared distance from a point to an element
+	 * 
+	 * @param element
+	 *            The element stored in this quad
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 */
+	protected float getDistanceSquared(T element, float x, float y) {
+		float deltaX = element.getX() - x;
+		float deltaY = element.getY() - y;
+		return (deltaX * deltaX) + (deltaY * deltaY);
+	}
+
+	/**
+	 * Returns the squared distance from a point to the closest point within
+	 * this quad's bounds
+	 * 
+	 * @return 0 if the point is inside this quad
+	 */
+	protected float getBoundsDistanceSquared(float x, float y) {
+		final float minX = getX();
+		final float minY = getY();
+		return IntersectionKernels.distanceSquaredAabbPoint(minX, minY, minX + getWidth(), minY + getHeight(), x, y);
 	}
 
 	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
@@ -448,21 +1177,20 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 	}
 
 	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
 		if (topLeft != null) {
-			if (topLeft.intersects(lineSegment) || topLeft.contains(lineSegment.getPointA())
-					|| topLeft.contains(lineSegment.getPointB())) {
+			Point pointA = lineSegment.getPointA();
+			Point pointB = lineSegment.getPointB();
+			if (topLeft.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				topLeft.getElementsIntersectingLineSegment(result, lineSegment);
 			}
-			if (topRight.intersects(lineSegment) || topRight.contains(lineSegment.getPointA())
-					|| topRight.contains(lineSegment.getPointB())) {
+			if (topRight.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				topRight.getElementsIntersectingLineSegment(result, lineSegment);
 			}
-			if (bottomLeft.intersects(lineSegment) || bottomLeft.contains(lineSegment.getPointA())
-					|| bottomLeft.contains(lineSegment.getPointB())) {
+			if (bottomLeft.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				bottomLeft.getElementsIntersectingLineSegment(result, lineSegment);
 			}
-			if (bottomRight.intersects(lineSegment) || bottomRight.contains(lineSegment.getPointA())
-					|| bottomRight.contains(lineSegment.getPointB())) {
+			if (bottomRight.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				bottomRight.getElementsIntersectingLineSegment(result, lineSegment);
 			}
 		} else {
@@ -473,6 +1201,9 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 				}
 			}
 		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
 	}
 
 	public List<T> getElements() {
@@ -525,7 +1256,11 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 
 	@Override
 	public void positionChanged(T moved) {
-		if (this.contains(moved.getX(), moved.getY()))
+		if (deferredUpdates) {
+			addPendingMove(moved);
+			return;
+		}
+		if (containsPoint(moved.getX(), moved.getY()))
 			return;
 
 		removeElement(moved);
@@ -539,10 +1274,277 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 		}
 	}
 
+	@Override
+	public void setDeferredUpdates(boolean deferredUpdates) {
+		applyDeferredUpdates(deferredUpdates);
+		if (!deferredUpdates) {
+			flushMoves();
+		}
+	}
+
+	private void applyDeferredUpdates(boolean deferredUpdates) {
+		this.deferredUpdates = deferredUpdates;
+		if (topLeft != null) {
+			topLeft.applyDeferredUpdates(deferredUpdates);
+			topRight.applyDeferredUpdates(deferredUpdates);
+			bottomLeft.applyDeferredUpdates(deferredUpdates);
+			bottomRight.applyDeferredUpdates(deferredUpdates);
+		}
+	}
+
+	@Override
+	public boolean isDeferredUpdates() {
+		return deferredUpdates;
+	}
+
+	@Override
+	public void flushMoves() {
+		if (!hasPendingMoves) {
+			return;
+		}
+		List<T> escapedElements = new ArrayList<T>();
+		flushMoves(escapedElements);
+		for (int i = 0; i < escapedElements.size(); i++) {
+			relocate(this, escapedElements.get(i));
+		}
+	}
+
+	/**
+	 * Re-buckets all pending moves in this quad and its child quads in a
+	 * single bottom-up pass. Elements that still fit inside the quad they
+	 * were in are left untouched.
+	 * 
+	 * @param escapedElements
+	 *            Elements that no longer fit inside this quad are added to
+	 *            this list to be re-added by a parent quad
+	 */
+	protected void flushMoves(List<T> escapedElements) {
+		if (!hasPendingMoves) {
+			return;
+		}
+		hasPendingMoves = false;
+		clearTotalElementsCache();
+
+		if (topLeft != null) {
+			int firstEscapedIndex = escapedElements.size();
+			topLeft.flushMoves(escapedElements);
+			topRight.flushMoves(escapedElements);
+			bottomLeft.flushMoves(escapedElements);
+			bottomRight.flushMoves(escapedElements);
+
+			for (int i = escapedElements.size() - 1; i >= firstEscapedIndex; i--) {
+				T element = escapedElements.get(i);
+				if (!containsElement(element)) {
+					continue;
+				}
+				escapedElements.remove(i);
+				add(element);
+			}
+		}
+		if (pendingMoves != null) {
+			for (int i = pendingMoves.size() - 1; i >= 0; i--) {
+				T element = pendingMoves.get(i);
+				if (containsElement(element)) {
+					continue;
+				}
+				if (elements == null || !removeInstance(elements, element)) {
+					continue;
+				}
+				element.removePositionChangeListener(this);
+				escapedElements.add(element);
+			}
+			clearPendingMoves();
+		}
+		if (isMergable()) {
+			merge();
+		}
+	}
+
+	/**
+	 * Marks an element as moved so that it is re-bucketed on the next call
+	 * to {@link #flushMoves()}
+	 * 
+	 * @param moved
+	 *            The element that moved
+	 */
+	protected void addPendingMove(T moved) {
+		if (pendingMoves == null) {
+			pendingMoves = new ArrayList<T>(1);
+			pendingMoveInstances = createInstanceSet();
+		}
+		if (!pendingMoveInstances.add(moved)) {
+			return;
+		}
+		pendingMoves.add(moved);
+
+		PointQuadTree<T> quad = this;
+		while (quad != null && !quad.hasPendingMoves) {
+			quad.hasPendingMoves = true;
+			quad = quad.parent;
+		}
+	}
+
+	/**
+	 * Removes pending moves that no longer fit inside this quad. Called
+	 * before this quad's elements are redistributed.
+	 * 
+	 * @return Null if there were no elements removed
+	 */
+	protected List<T> removeStalePendingMoves() {
+		if (pendingMoves == null || pendingMoves.isEmpty()) {
+			return null;
+		}
+		List<T> result = null;
+		for (int i = pendingMoves.size() - 1; i >= 0; i--) {
+			T element = pendingMoves.get(i);
+			if (containsElement(element)) {
+				continue;
+			}
+			if (!removeInstance(elements, element)) {
+				continue;
+			}
+			element.removePositionChangeListener(this);
+			if (result == null) {
+				result = new ArrayList<T>(1);
+			}
+			result.add(element);
+		}
+		clearPendingMoves();
+		return result;
+	}
+
+	protected void clearPendingMoves() {
+		if (pendingMoves != null) {
+			pendingMoves.clear();
+			pendingMoveInstances.clear();
+		}
+	}
+
+	protected void relocateFromParent(List<T> staleElements) {
+		if (staleElements == null || parent == null) {
+			return;
+		}
+		for (int i = 0; i < staleElements.size(); i++) {
+			relocate(parent, staleElements.get(i));
+		}
+	}
+
+	private void relocate(PointQuadTree<T> quad, T element) {
+		while (quad.parent != null && !quad.containsElement(element)) {
+			quad = quad.parent;
+		}
+		quad.add(element);
+	}
+
+	/**
+	 * Elements may compare equal by position (e.g. {@link com.badlogic.gdx.math.Vector2}) so
+	 * pending moves are tracked by identity
+	 */
+	static <T> Set<T> createInstanceSet() {
+		return Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+	}
+
+	private static <T> int indexOfInstance(List<T> list, T element) {
+		for (int i = list.size() - 1; i >= 0; i--) {
+			if (list.get(i) == element) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	static <T> boolean removeInstance(List<T> list, T element) {
+		int index = indexOfInstance(list, element);
+		if (index < 0) {
+			return false;
+		}
+		list.remove(index);
+		return true;
+	}
+
+	private void takePendingMoves(PointQuadTree<T> child) {
+		if (child.pendingMoves == null || child.pendingMoves.isEmpty()) {
+			return;
+		}
+		if (pendingMoves == null) {
+			pendingMoves = new ArrayList<T>(child.pendingMoves.size());
+			pendingMoveInstances = createInstanceSet();
+		}
+		for (int i = 0; i < child.pendingMoves.size(); i++) {
+			T element = child.pendingMoves.get(i);
+			if (pendingMoveInstances.add(element)) {
+				pendingMoves.add(element);
+			}
+		}
+		hasPendingMoves = true;
+	}
+
+	/**
+	 * Returns if an element's current position is inside this quad
+	 * 
+	 * @param element
+	 *            The element to check
+	 * @return True if the element belongs inside this quad
+	 */
+	protected boolean containsElement(T element) {
+		return containsPoint(element.getX(), element.getY());
+	}
+
 	public QuadTree<T> getParent() {
 		return parent;
 	}
 
+	/**
+	 * Returns the {@link QuadTreeMetrics} this quad records to
+	 * 
+	 * @return Null if metrics are disabled
+	 */
+	public QuadTreeMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the {@link QuadTreeMetrics} to record subdivisions, merges and
+	 * queries to. Metrics are disabled by default and add no overhead beyond
+	 * a null check until enabled.
+	 * 
+	 * @param metrics
+	 *            The {@link QuadTreeMetrics} to record to, null to disable
+	 */
+	public void setMetrics(QuadTreeMetrics metrics) {
+		this.metrics = metrics;
+		if (topLeft == null) {
+			return;
+		}
+		topLeft.setMetrics(metrics);
+		topRight.setMetrics(metrics);
+		bottomLeft.setMetrics(metrics);
+		bottomRight.setMetrics(metrics);
+	}
+
+	/**
+	 * Returns a snapshot of the structure of this quad and its children along
+	 * with the current {@link QuadTreeMetrics} if enabled
+	 * 
+	 * @return A new {@link QuadTreeStatistics} instance
+	 */
+	public QuadTreeStatistics getStatistics() {
+		QuadTreeStatistics result = new QuadTreeStatistics(elementLimitPerQuad, metrics);
+		addStatistics(result, 0);
+		return result;
+	}
+
+	private void addStatistics(QuadTreeStatistics statistics, int depth) {
+		statistics.addQuad(depth, elements == null ? 0 : elements.size(), topLeft == null);
+		if (topLeft == null) {
+			return;
+		}
+		topLeft.addStatistics(statistics, depth + 1);
+		topRight.addStatistics(statistics, depth + 1);
+		bottomLeft.addStatistics(statistics, depth + 1);
+		bottomRight.addStatistics(statistics, depth + 1);
+	}
+
 	public int getElementLimitPerQuad() {
 		return elementLimitPerQuad;
 	}
@@ -554,4 +1556,14 @@ public class PointQuadTree<T extends Positionable> extends Rectangle implements
 	public boolean hasChildQuads() {
 		return topLeft != null;
 	}
+
+	/**
+	 * A per-thread traversal stack reused between queries
+	 */
+	private static class QueryStack {
+		static final int INITIAL_CAPACITY = 16;
+
+		Object[] quads = new Object[INITIAL_CAPACITY];
+		boolean inUse;
+	}
 }
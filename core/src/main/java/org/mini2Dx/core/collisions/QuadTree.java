@@ -40,10 +40,74 @@ public interface QuadTree<T extends Positionable> extends PositionChangeListener
 	
 	public void getElementsWithinArea(Collection<T> result, Shape area);
 	
+	/**
+	 * Visits all elements within an area without allocating a result
+	 * collection. The visitor must not modify this {@link QuadTree} or move
+	 * its elements. Concurrent implementations hold read locks while
+	 * visiting, so a visitor that moves an element will deadlock.
+	 * 
+	 * @param area
+	 *            The area to search
+	 * @param visitor
+	 *            The {@link QuadTreeVisitor} to pass each element to. Returning
+	 *            false from the visitor terminates the query early.
+	 */
+	public void query(Shape area, QuadTreeVisitor<T> visitor);
+	
 	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment);
 	
 	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment);
 	
+	/**
+	 * Returns all elements touched by a {@link Shape} as it moves by a
+	 * velocity. Only quads overlapping the bounds of the whole movement are
+	 * visited so fast moving shapes cannot tunnel past thin elements.
+	 * 
+	 * @param shape
+	 *            The {@link Shape} at its starting position
+	 * @param velocityX
+	 *            The distance the shape moves along the x axis
+	 * @param velocityY
+	 *            The distance the shape moves along the y axis
+	 * @return A new {@link List} containing the touched elements
+	 */
+	public List<T> getElementsIntersectingSweep(Shape shape, float velocityX, float velocityY);
+	
+	public void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX, float velocityY);
+	
+	/**
+	 * Finds the closest element hit by a ray. Quads are visited in ray order
+	 * and traversal stops once no remaining quad can contain a closer hit. No
+	 * objects are allocated.
+	 * 
+	 * @param x1
+	 *            The x coordinate the ray starts at
+	 * @param y1
+	 *            The y coordinate the ray starts at
+	 * @param x2
+	 *            The x coordinate the ray ends at
+	 * @param y2
+	 *            The y coordinate the ray ends at
+	 * @param result
+	 *            The {@link RaycastHit} to store the closest hit in
+	 * @return True if an element was hit
+	 */
+	public boolean raycast(float x1, float y1, float x2, float y2, RaycastHit<T> result);
+	
+	/**
+	 * Casts many rays against this {@link QuadTree}
+	 * 
+	 * @param rays
+	 *            The rays stored as consecutive <code>x1, y1, x2, y2</code>
+	 *            values
+	 * @param totalRays
+	 *            The number of rays to cast
+	 * @param results
+	 *            The {@link RaycastHit} to store each ray's closest hit in
+	 * @return The number of rays that hit an element
+	 */
+	public int raycast(float[] rays, int totalRays, RaycastHit<T>[] results);
+	
 	public List<T> getElementsContainingPoint(Point point);
 	
 	public void getElementsContainingPoint(Collection<T> result, Point point);
@@ -57,4 +121,23 @@ public interface QuadTree<T extends Positionable> extends PositionChangeListener
 	public int getTotalElements();
 	
 	public QuadTree<T> getParent();
+	
+	/**
+	 * Sets if element movement should be re-bucketed immediately or deferred
+	 * until {@link #flushMoves()} is called. Disabling deferred updates
+	 * flushes any pending moves.
+	 * 
+	 * @param deferredUpdates
+	 *            True if moves should be batched until {@link #flushMoves()}
+	 */
+	public void setDeferredUpdates(boolean deferredUpdates);
+	
+	public boolean isDeferredUpdates();
+	
+	/**
+	 * Re-buckets all elements that have moved since the last flush. Only has
+	 * an effect when deferred updates are enabled - typically this is called
+	 * once per update after all elements have moved.
+	 */
+	public void flushMoves();
 }
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.Arrays;
+
+/**
+ * Collects runtime metrics from a {@link PointQuadTree} or any of its
+ * subclasses. Metrics are opt-in; a tree only records to an instance set via
+ * {@link PointQuadTree#setMetrics(QuadTreeMetrics)}.
+ * 
+ * Query latencies are kept for the most recent queries only so that memory use
+ * stays constant. Use {@link PointQuadTree#getStatistics()} to take a loggable
+ * snapshot combining these metrics with the current tree structure.
+ * 
+ * Note: This class is not thread-safe
+ */
+public class QuadTreeMetrics {
+	public static final int DEFAULT_LATENCY_SAMPLES = 1024;
+
+	private final long[] latencySamples;
+	private long[] sortedLatencySamples;
+	private int totalLatencySamples = 0;
+	private int nextLatencySample = 0;
+
+	private long totalSubdivides = 0;
+	private long totalMerges = 0;
+	private long totalQueries = 0;
+	private long totalQuadsVisited = 0;
+	private int maxQuadsVisited = 0;
+	private int currentQuadsVisited = 0;
+
+	/**
+	 * Constructs a {@link QuadTreeMetrics} that keeps the latency of the last
+	 * {@link #DEFAULT_LATENCY_SAMPLES} queries
+	 */
+	public QuadTreeMetrics() {
+		this(DEFAULT_LATENCY_SAMPLES);
+	}
+
+	/**
+	 * Constructs a {@link QuadTreeMetrics}
+	 * 
+	 * @param latencySamples
+	 *            The amount of recent query latencies to keep for percentile
+	 *            calculations
+	 */
+	public QuadTreeMetrics(int latencySamples) {
+		if (latencySamples <= 0) {
+			throw new IllegalArgumentException("latencySamples must be greater than 0");
+		}
+		this.latencySamples = new long[latencySamples];
+	}
+
+	void onSubdivide() {
+		totalSubdivides++;
+	}
+
+	void onMerge() {
+		totalMerges++;
+	}
+
+	long beginQuery() {
+		currentQuadsVisited = 1;
+		return System.nanoTime();
+	}
+
+	void onQuadVisited() {
+		currentQuadsVisited++;
+	}
+
+	void endQuery(long startTime) {
+		long duration = System.nanoTime() - startTime;
+		latencySamples[nextLatencySample] = duration;
+		nextLatencySample = (nextLatencySample + 1) % latencySamples.length;
+		if (totalLatencySamples < latencySamples.length) {
+			totalLatencySamples++;
+		}
+
+		totalQueries++;
+		totalQuadsVisited += currentQuadsVisited;
+		maxQuadsVisited = Math.max(maxQuadsVisited, currentQuadsVisited);
+	}
+
+	/**
+	 * Returns the query latency at a percentile of the recent samples
+	 * 
+	 * @param percentile
+	 *            A value between 0 and 100
+	 * @return The latency in nanoseconds, 0 if no queries were recorded
+	 */
+	public long getLatencyPercentile(float percentile) {
+		if (totalLatencySamples == 0) {
+			return 0L;
+		}
+		if (sortedLatencySamples == null) {
+			sortedLatencySamples = new long[latencySamples.length];
+		}
+		System.arraycopy(latencySamples, 0, sortedLatencySamples, 0, totalLatencySamples);
+		Arrays.sort(sortedLatencySamples, 0, totalLatencySamples);
+
+		int index = (int) Math.ceil((percentile / 100f) * totalLatencySamples) - 1;
+		index = Math.max(0, Math.min(totalLatencySamples - 1, index));
+		return sortedLatencySamples[index];
+	}
+
+	/**
+	 * Clears all recorded metrics
+	 */
+	public void reset() {
+		totalLatencySamples = 0;
+		nextLatencySample = 0;
+		totalSubdivides = 0;
+		totalMerges = 0;
+		totalQueries = 0;
+		totalQuadsVisited = 0;
+		maxQuadsVisited = 0;
+		currentQuadsVisited = 0;
+	}
+
+	public long getTotalSubdivides() {
+		return totalSubdivides;
+	}
+
+	public long getTotalMerges() {
+		return totalMerges;
+	}
+
+	public long getTotalQueries() {
+		return totalQueries;
+	}
+
+	public long getTotalQuadsVisited() {
+		return totalQuadsVisited;
+	}
+
+	/**
+	 * Returns the average amount of quads visited per query
+	 * 
+	 * @return 0 if no queries were recorded
+	 */
+	public float getAverageQuadsVisited() {
+		if (totalQueries == 0) {
+			return 0f;
+		}
+		return totalQuadsVisited / (float) totalQueries;
+	}
+
+	public int getMaxQuadsVisited() {
+		return maxQuadsVisited;
+	}
+}
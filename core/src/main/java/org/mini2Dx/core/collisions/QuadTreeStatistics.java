@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the structure of a {@link PointQuadTree} and, if enabled, its
+ * {@link QuadTreeMetrics}. {@link #toString()} returns a multi-line summary
+ * suitable for logging.
+ */
+public class QuadTreeStatistics {
+	private int[] quadsPerDepth = new int[4];
+	private final int[] quadsPerElementCount;
+	private int totalQuads = 0;
+	private int totalLeafQuads = 0;
+	private int totalElements = 0;
+	private int elementsInNonLeafQuads = 0;
+	private int maxDepth = 0;
+
+	private final boolean metricsEnabled;
+	private long totalSubdivides, totalMerges, totalQueries;
+	private float averageQuadsVisited;
+	private int maxQuadsVisited;
+	private long latency50, latency90, latency99;
+
+	QuadTreeStatistics(int elementLimitPerQuad, QuadTreeMetrics metrics) {
+		quadsPerElementCount = new int[elementLimitPerQuad + 2];
+		metricsEnabled = metrics != null;
+		if (metrics == null) {
+			return;
+		}
+		totalSubdivides = metrics.getTotalSubdivides();
+		totalMerges = metrics.getTotalMerges();
+		totalQueries = metrics.getTotalQueries();
+		averageQuadsVisited = metrics.getAverageQuadsVisited();
+		maxQuadsVisited = metrics.getMaxQuadsVisited();
+		latency50 = metrics.getLatencyPercentile(50f);
+		latency90 = metrics.getLatencyPercentile(90f);
+		latency99 = metrics.getLatencyPercentile(99f);
+	}
+
+	void addQuad(int depth, int elements, boolean leaf) {
+		if (depth >= quadsPerDepth.length) {
+			quadsPerDepth = Arrays.copyOf(quadsPerDepth, Math.max(depth + 1, quadsPerDepth.length * 2));
+		}
+		quadsPerDepth[depth]++;
+		quadsPerElementCount[Math.min(elements, quadsPerElementCount.length - 1)]++;
+
+		totalQuads++;
+		totalElements += elements;
+		maxDepth = Math.max(maxDepth, depth);
+		if (leaf) {
+			totalLeafQuads++;
+		} else {
+			elementsInNonLeafQuads += elements;
+		}
+	}
+
+	/**
+	 * Returns the amount of quads at a depth of the tree
+	 * 
+	 * @param depth
+	 *            The depth, 0 being the root
+	 * @return 0 if the tree is not that deep
+	 */
+	public int getQuadsAtDepth(int depth) {
+		if (depth >= quadsPerDepth.length) {
+			return 0;
+		}
+		return quadsPerDepth[depth];
+	}
+
+	/**
+	 * Returns the amount of quads storing a certain amount of elements
+	 * 
+	 * @param elements
+	 *            The amount of elements. Values greater than the element
+	 *            limit per quad all fall into a single bucket.
+	 * @return The amount of quads
+	 */
+	public int getQuadsWithElements(int elements) {
+		return quadsPerElementCount[Math.min(elements, quadsPerElementCount.length - 1)];
+	}
+
+	public int getTotalQuads() {
+		return totalQuads;
+	}
+
+	public int getTotalLeafQuads() {
+		return totalLeafQuads;
+	}
+
+	public int getTotalElements() {
+		return totalElements;
+	}
+
+	/**
+	 * Returns the amount of elements stored in quads that have child quads,
+	 * i.e. elements that every query passing through those quads must test
+	 * 
+	 * @return 0 if all elements are stored in leaf quads
+	 */
+	public int getElementsInNonLeafQuads() {
+		return elementsInNonLeafQuads;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	public long getTotalSubdivides() {
+		return totalSubdivides;
+	}
+
+	public long getTotalMerges() {
+		return totalMerges;
+	}
+
+	public long getTotalQueries() {
+		return totalQueries;
+	}
+
+	public float getAverageQuadsVisited() {
+		return averageQuadsVisited;
+	}
+
+	public int getMaxQuadsVisited() {
+		return maxQuadsVisited;
+	}
+
+	/**
+	 * Returns the median query latency in nanoseconds
+	 */
+	public long getLatency50() {
+		return latency50;
+	}
+
+	/**
+	 * Returns the 90th percentile query latency in nanoseconds
+	 */
+	public long getLatency90() {
+		return latency90;
+	}
+
+	/**
+	 * Returns the 99th percentile query latency in nanoseconds
+	 */
+	public long getLatency99() {
+		return latency99;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append("QuadTreeStatistics [totalQuads=" + totalQuads + ", totalLeafQuads=" + totalLeafQuads
+				+ ", totalElements=" + totalElements + ", elementsInNonLeafQuads=" + elementsInNonLeafQuads
+				+ ", maxDepth=" + maxDepth + "]\n");
+		result.append("  quads per depth:");
+		for (int i = 0; i <= maxDepth; i++) {
+			result.append(" " + i + "=" + quadsPerDepth[i]);
+		}
+		result.append("\n  quads per element count:");
+		for (int i = 0; i < quadsPerElementCount.length; i++) {
+			if (quadsPerElementCount[i] == 0) {
+				continue;
+			}
+			result.append(" " + i + (i == quadsPerElementCount.length - 1 ? "+" : "") + "=" + quadsPerElementCount[i]);
+		}
+		if (metricsEnabled) {
+			result.append("\n  subdivides=" + totalSubdivides + ", merges=" + totalMerges + ", queries=" + totalQueries
+					+ ", avgQuadsVisited=" + averageQuadsVisited + ", maxQuadsVisited=" + maxQuadsVisited);
+			result.append("\n  latency p50=" + latency50 + "ns, p90=" + latency90 + "ns, p99=" + latency99 + "ns");
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Stores the closest element hit by a {@link QuadTree} raycast. Instances can
+ * be reused between raycasts to avoid allocation but must not be shared
+ * between threads.
+ * 
+ * @param <T>
+ *            The type of element stored in the {@link QuadTree}
+ */
+public class RaycastHit<T> {
+	private final Vector2 candidateNormal = new Vector2();
+
+	private T element;
+	private float originX, originY, deltaX, deltaY;
+	private float fraction, normalX, normalY;
+
+	/**
+	 * Resets this result to no hit
+	 */
+	public void reset() {
+		element = null;
+		fraction = 0f;
+		normalX = 0f;
+		normalY = 0f;
+	}
+
+	/**
+	 * Resets this result to no hit and stores the ray being cast
+	 */
+	void begin(float x1, float y1, float x2, float y2) {
+		reset();
+		originX = x1;
+		originY = y1;
+		deltaX = x2 - x1;
+		deltaY = y2 - y1;
+	}
+
+	/**
+	 * Returns if a quad entered at a fraction of the ray could contain a hit
+	 * closer than the current hit
+	 * 
+	 * @param entry
+	 *            The fraction of the ray where it enters the quad or -1 if it
+	 *            misses the quad
+	 */
+	boolean isCloser(float entry) {
+		return entry >= 0f && (element == null || entry < fraction);
+	}
+
+	/**
+	 * Tests the ray against an element's {@link Shape} and keeps it if it is
+	 * the closest hit so far
+	 */
+	void test(T element, Shape shape) {
+		float result = Intersector.raycast(shape, originX, originY, deltaX, deltaY, candidateNormal);
+		if (isCloser(result)) {
+			set(element, result, candidateNormal.x, candidateNormal.y);
+		}
+	}
+
+	/**
+	 * Tests the ray against a point element and keeps it if it is the closest
+	 * hit so far. Points are only hit if they lie exactly on the ray.
+	 */
+	void test(T element, float x, float y) {
+		float offsetX = x - originX;
+		float offsetY = y - originY;
+		if ((deltaX * offsetY) - (deltaY * offsetX) != 0f) {
+			return;
+		}
+		float lengthSquared = (deltaX * deltaX) + (deltaY * deltaY);
+		float result = lengthSquared == 0f ? 0f : ((offsetX * deltaX) + (offsetY * deltaY)) / lengthSquared;
+		if (result < 0f || result > 1f || !isCloser(result)) {
+			return;
+		}
+		if (result == 0f) {
+			set(element, result, 0f, 0f);
+			return;
+		}
+		float length = (float) Math.sqrt(lengthSquared);
+		set(element, result, -deltaX / length, -deltaY / length);
+	}
+
+	private void set(T element, float fraction, float normalX, float normalY) {
+		this.element = element;
+		this.fraction = fraction;
+		this.normalX = normalX;
+		this.normalY = normalY;
+	}
+
+	/**
+	 * Returns if the raycast hit an element
+	 * 
+	 * @return False if nothing was hit
+	 */
+	public boolean isHit() {
+		return element != null;
+	}
+
+	/**
+	 * Returns the closest element hit by the ray
+	 * 
+	 * @return Null if nothing was hit
+	 */
+	public T getElement() {
+		return element;
+	}
+
+	/**
+	 * Returns how far along the ray the hit occurred
+	 * 
+	 * @return A value between 0 (the start of the ray) and 1 (the end of the
+	 *         ray)
+	 */
+	public float getFraction() {
+		return fraction;
+	}
+
+	/**
+	 * Returns the distance from the start of the ray to the hit
+	 * 
+	 * @return 0 if nothing was hit or the ray started inside the element
+	 */
+	public float getDistance() {
+		return fraction * (float) Math.sqrt((deltaX * deltaX) + (deltaY * deltaY));
+	}
+
+	/**
+	 * Returns the x coordinate of the hit
+	 * 
+	 * @return The x coordinate the ray started at if nothing was hit
+	 */
+	public float getX() {
+		return originX + (deltaX * fraction);
+	}
+
+	/**
+	 * Returns the y coordinate of the hit
+	 * 
+	 * @return The y coordinate the ray started at if nothing was hit
+	 */
+	public float getY() {
+		return originY + (deltaY * fraction);
+	}
+
+	/**
+	 * Returns the x component of the unit surface normal at the hit
+	 * 
+	 * @return 0 if nothing was hit or the ray started inside the element
+	 */
+	public float getNormalX() {
+		return normalX;
+	}
+
+	/**
+	 * Returns the y component of the unit surface normal at the hit
+	 * 
+	 * @return 0 if nothing was hit or the ray started inside the element
+	 */
+	public float getNormalY() {
+		return normalY;
+	}
+
+	@Override
+	public String toString() {
+		return "RaycastHit [element=" + element + ", fraction=" + fraction + ", normalX=" + normalX + ", normalY="
+				+ normalY + "]";
+	}
+}
@@ -16,6 +16,8 @@ import java.util.Collection;
 import java.util.List;
 
 import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Parallelogram;
 import org.mini2Dx.core.geom.Point;
@@ -134,6 +136,10 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 			}
 		}
 		
+		if (isEmptyLeaf()) {
+			buildFrom(elementsWithinQuad);
+			return;
+		}
 		for (T element : elementsWithinQuad) {
 			if(topLeft == null) {
 				addElement(element);
@@ -151,7 +157,11 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 		if (element == null)
 			return false;
 
-		if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
+		Shape shape = element.getShape();
+		if (!overlaps(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY())) {
+			return false;
+		}
+		if (parent == null && !this.intersects(shape) && !this.contains(shape)) {
 			return false;
 		}
 		clearTotalElementsCache();
@@ -167,26 +177,43 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 
 	@Override
 	protected boolean addElementToChild(T element) {
+		int childIndex = getChildIndex(element);
+		if (childIndex < 0) {
+			return false;
+		}
+		return getChild(childIndex).add(element);
+	}
+
+	@Override
+	protected int getChildIndex(T element) {
 		Shape shape = element.getShape();
-		if (topLeft.contains(shape)) {
-			return topLeft.add(element);
+		float shapeMinX = shape.getMinX();
+		float shapeMinY = shape.getMinY();
+		float shapeMaxX = shape.getMaxX();
+		float shapeMaxY = shape.getMaxY();
+		if (topLeft.containsArea(shapeMinX, shapeMinY, shapeMaxX, shapeMaxY)) {
+			return 0;
 		}
-		if (topRight.contains(shape)) {
-			return topRight.add(element);
+		if (topRight.containsArea(shapeMinX, shapeMinY, shapeMaxX, shapeMaxY)) {
+			return 1;
 		}
-		if (bottomLeft.contains(shape)) {
-			return bottomLeft.add(element);
+		if (bottomLeft.containsArea(shapeMinX, shapeMinY, shapeMaxX, shapeMaxY)) {
+			return 2;
 		}
-		if (bottomRight.contains(shape)) {
-			return bottomRight.add(element);
+		if (bottomRight.containsArea(shapeMinX, shapeMinY, shapeMaxX, shapeMaxY)) {
+			return 3;
 		}
-		return false;
+		return -1;
 	}
 
 	@Override
 	protected void subdivide() {
 		if (topLeft != null)
 			return;
+		if (metrics != null) {
+			metrics.onSubdivide();
+		}
+		List<T> staleElements = removeStalePendingMoves();
 
 		float halfWidth = getWidth() / 2f;
 		float halfHeight = getHeight() / 2f;
@@ -201,14 +228,19 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 				removeElement(elements.get(i));
 			}
 		}
+		relocateFromParent(staleElements);
 	}
 
 	@Override
 	public boolean remove(T element) {
 		if (element == null)
 			return false;
+		if (parent == null && hasPendingMoves && removePendingMove(element)) {
+			return true;
+		}
 
-		if (!this.intersects(element.getShape()) && !this.contains(element.getShape())) {
+		Shape shape = element.getShape();
+		if (!overlaps(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY())) {
 			return false;
 		}
 		clearTotalElementsCache();
@@ -236,6 +268,8 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 			bottomRight = null;
 		}
 		elements.clear();
+		clearPendingMoves();
+		hasPendingMoves = false;
 	}
 	
 	@Override
@@ -247,14 +281,19 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 
 	@Override
 	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
 		if (topLeft != null) {
-			if (topLeft.contains(area) || topLeft.intersects(area))
+			float areaMinX = area.getMinX();
+			float areaMinY = area.getMinY();
+			float areaMaxX = area.getMaxX();
+			float areaMaxY = area.getMaxY();
+			if (topLeft.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
 				topLeft.getElementsWithinArea(result, area);
-			if (topRight.contains(area) || topRight.intersects(area))
+			if (topRight.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
 				topRight.getElementsWithinArea(result, area);
-			if (bottomLeft.contains(area) || bottomLeft.intersects(area))
+			if (bottomLeft.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
 				bottomLeft.getElementsWithinArea(result, area);
-			if (bottomRight.contains(area) || bottomRight.intersects(area))
+			if (bottomRight.overlaps(areaMinX, areaMinY, areaMaxX, areaMaxY))
 				bottomRight.getElementsWithinArea(result, area);
 		}
 		for (int i = elements.size() - 1; i >= 0; i--) {
@@ -265,6 +304,24 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 				result.add(element);
 			}
 		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	@Override
+	protected boolean visitElements(Shape area, QuadTreeVisitor<T> visitor) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null)
+				continue;
+			if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+				if (!visitor.visit(element)) {
+					return false;
+				}
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -276,14 +333,15 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 
 	@Override
 	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
 		if (topLeft != null) {
-			if (topLeft.contains(point))
+			if (topLeft.containsPoint(point.x, point.y))
 				topLeft.getElementsContainingPoint(result, point);
-			if (topRight.contains(point))
+			if (topRight.containsPoint(point.x, point.y))
 				topRight.getElementsContainingPoint(result, point);
-			if (bottomLeft.contains(point))
+			if (bottomLeft.containsPoint(point.x, point.y))
 				bottomLeft.getElementsContainingPoint(result, point);
-			if (bottomRight.contains(point))
+			if (bottomRight.containsPoint(point.x, point.y))
 				bottomRight.getElementsContainingPoint(result, point);
 		}
 		for (int i = elements.size() - 1; i >= 0; i--) {
@@ -292,6 +350,68 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 				result.add(element);
 			}
 		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	@Override
+	protected void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX,
+			float velocityY, float sweepMinX, float sweepMinY, float sweepMaxX, float sweepMaxY) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
+		if (topLeft != null) {
+			if (topLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (topRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				topRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomLeft.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomLeft.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+			if (bottomRight.overlaps(sweepMinX, sweepMinY, sweepMaxX, sweepMaxY)) {
+				bottomRight.getElementsIntersectingSweep(result, shape, velocityX, velocityY, sweepMinX, sweepMinY,
+						sweepMaxX, sweepMaxY);
+			}
+		}
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element == null) {
+				continue;
+			}
+			Shape elementShape = element.getShape();
+			if (Intersector.getTimeOfImpact(shape, velocityX, velocityY, elementShape.getMinX(),
+					elementShape.getMinY(), elementShape.getMaxX(), elementShape.getMaxY()) >= 0f) {
+				result.add(element);
+			}
+		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
+	}
+
+	@Override
+	protected void raycastElements(RaycastHit<T> result) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			T element = elements.get(i);
+			if (element != null) {
+				result.test(element, element.getShape());
+			}
+		}
+	}
+
+	/**
+	 * Returns the squared distance from a point to the closest point within
+	 * an element's bounds
+	 */
+	@Override
+	protected float getDistanceSquared(T element, float x, float y) {
+		Shape shape = element.getShape();
+		return IntersectionKernels.distanceSquaredAabbPoint(shape.getMinX(), shape.getMinY(), shape.getMaxX(),
+				shape.getMaxY(), x, y);
 	}
 
 	@Override
@@ -303,21 +423,20 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 
 	@Override
 	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		long queryStartTime = metrics == null ? 0L : beginQuadVisit();
 		if (topLeft != null) {
-			if (topLeft.intersects(lineSegment) || topLeft.contains(lineSegment.getPointA())
-					|| topLeft.contains(lineSegment.getPointB())) {
+			Point pointA = lineSegment.getPointA();
+			Point pointB = lineSegment.getPointB();
+			if (topLeft.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				topLeft.getElementsIntersectingLineSegment(result, lineSegment);
 			}
-			if (topRight.intersects(lineSegment) || topRight.contains(lineSegment.getPointA())
-					|| topRight.contains(lineSegment.getPointB())) {
+			if (topRight.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				topRight.getElementsIntersectingLineSegment(result, lineSegment);
 			}
-			if (bottomLeft.intersects(lineSegment) || bottomLeft.contains(lineSegment.getPointA())
-					|| bottomLeft.contains(lineSegment.getPointB())) {
+			if (bottomLeft.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				bottomLeft.getElementsIntersectingLineSegment(result, lineSegment);
 			}
-			if (bottomRight.intersects(lineSegment) || bottomRight.contains(lineSegment.getPointA())
-					|| bottomRight.contains(lineSegment.getPointB())) {
+			if (bottomRight.intersectsSegment(pointA.x, pointA.y, pointB.x, pointB.y)) {
 				bottomRight.getElementsIntersectingLineSegment(result, lineSegment);
 			}
 		}
@@ -327,6 +446,9 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 				result.add(element);
 			}
 		}
+		if (metrics != null) {
+			endQuadVisit(queryStartTime);
+		}
 	}
 
 	@Override
@@ -366,7 +488,11 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 
 	@Override
 	public void positionChanged(T moved) {
-		if (this.contains(moved.getShape()))
+		if (deferredUpdates) {
+			addPendingMove(moved);
+			return;
+		}
+		if (containsElement(moved))
 			return;
 
 		removeElement(moved);
@@ -379,4 +505,10 @@ public class RegionQuadTree<T extends CollisionShape> extends PointQuadTree<T> {
 			parentQuad = parentQuad.getParent();
 		}
 	}
+
+	@Override
+	protected boolean containsElement(T element) {
+		Shape shape = element.getShape();
+		return containsArea(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY());
+	}
 }
@@ -0,0 +1,721 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.IntersectionKernels;
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Implements a uniform grid broadphase as an alternative to a
+ * {@link RegionQuadTree} for maps where elements are densely and evenly
+ * distributed.
+ * 
+ * Element bounds and ids are stored in primitive arrays indexed by slot and
+ * each grid cell stores the slots of the elements that overlap it. Moved
+ * elements are looked up by {@link CollisionShape#getId()} and only the cells
+ * they enter or leave are updated.
+ * 
+ * Note: This implementation is not thread-safe
+ */
+public class SpatialHashGrid<T extends CollisionShape> extends Rectangle implements QuadTree<T> {
+	private static final long serialVersionUID = 2437816236431375522L;
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	public static Color CELL_COLOR = new Color(1f, 0f, 0f, 0.5f);
+	public static Color ELEMENT_COLOR = new Color(0f, 0f, 1f, 0.5f);
+
+	private final float cellSize;
+	private final float gridMinX, gridMinY, gridMaxX, gridMaxY;
+	private final int totalColumns, totalRows;
+
+	private final int[][] cellSlots;
+	private final int[] cellSizes;
+
+	private final IntIntMap slotsById = new IntIntMap();
+	private Object[] slotElements = new Object[INITIAL_CAPACITY];
+	private float[] slotMinX = new float[INITIAL_CAPACITY];
+	private float[] slotMinY = new float[INITIAL_CAPACITY];
+	private float[] slotMaxX = new float[INITIAL_CAPACITY];
+	private float[] slotMaxY = new float[INITIAL_CAPACITY];
+	private int[] slotCellMinX = new int[INITIAL_CAPACITY];
+	private int[] slotCellMinY = new int[INITIAL_CAPACITY];
+	private int[] slotCellMaxX = new int[INITIAL_CAPACITY];
+	private int[] slotCellMaxY = new int[INITIAL_CAPACITY];
+	private int[] slotQueryStamps = new int[INITIAL_CAPACITY];
+	private boolean[] slotPending = new boolean[INITIAL_CAPACITY];
+
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	private int totalFreeSlots = 0;
+	private int totalSlots = 0;
+	private int totalElements = 0;
+	private int queryStamp = 0;
+
+	private boolean deferredUpdates = false;
+	private int[] pendingSlots = new int[INITIAL_CAPACITY];
+	private int totalPendingSlots = 0;
+
+	/**
+	 * Constructs a {@link SpatialHashGrid}
+	 * 
+	 * @param cellSize
+	 *            The width and height of each grid cell
+	 * @param x
+	 *            The x coordinate of the {@link SpatialHashGrid}
+	 * @param y
+	 *            The y coordiante of the {@link SpatialHashGrid}
+	 * @param width
+	 *            The width of the {@link SpatialHashGrid}
+	 * @param height
+	 *            The height of the {@link SpatialHashGrid}
+	 */
+	public SpatialHashGrid(float cellSize, float x, float y, float width, float height) {
+		super(x, y, width, height);
+		if (cellSize <= 0f) {
+			throw new IllegalArgumentException("cellSize must be greater than 0");
+		}
+		this.cellSize = cellSize;
+		this.gridMinX = x;
+		this.gridMinY = y;
+		this.gridMaxX = x + width;
+		this.gridMaxY = y + height;
+		this.totalColumns = Math.max(1, (int) Math.ceil(width / cellSize));
+		this.totalRows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+		cellSlots = new int[totalColumns * totalRows][];
+		cellSizes = new int[totalColumns * totalRows];
+	}
+
+	@Override
+	public void debugRender(Graphics g) {
+		Color tmp = g.getColor();
+
+		g.setColor(CELL_COLOR);
+		for (int row = 0; row < totalRows; row++) {
+			for (int column = 0; column < totalColumns; column++) {
+				if (cellSizes[(row * totalColumns) + column] == 0) {
+					continue;
+				}
+				g.drawRect(gridMinX + (column * cellSize), gridMinY + (row * cellSize), cellSize, cellSize);
+			}
+		}
+
+		g.setColor(ELEMENT_COLOR);
+		for (int slot = 0; slot < totalSlots; slot++) {
+			if (slotElements[slot] == null) {
+				continue;
+			}
+			g.drawRect(slotMinX[slot], slotMinY[slot], slotMaxX[slot] - slotMinX[slot], slotMaxY[slot] - slotMinY[slot]);
+		}
+		g.setColor(tmp);
+	}
+
+	@Override
+	public boolean add(T element) {
+		if (element == null) {
+			return false;
+		}
+		if (slotsById.containsKey(element.getId())) {
+			return false;
+		}
+		if (!overlapsGrid(element.getMinX(), element.getMinY(), element.getMaxX(), element.getMaxY())) {
+			return false;
+		}
+
+		int slot = allocateSlot();
+		slotElements[slot] = element;
+		slotPending[slot] = false;
+		slotQueryStamps[slot] = 0;
+		storeBounds(slot, element);
+		addToCells(slot);
+		slotsById.put(element.getId(), slot);
+		totalElements++;
+
+		element.addPostionChangeListener(this);
+		return true;
+	}
+
+	@Override
+	public void addAll(List<T> elements) {
+		if (elements == null) {
+			return;
+		}
+		for (int i = 0; i < elements.size(); i++) {
+			add(elements.get(i));
+		}
+	}
+
+	@Override
+	public boolean remove(T element) {
+		if (element == null) {
+			return false;
+		}
+		int slot = slotsById.get(element.getId(), -1);
+		if (slot < 0 || slotElements[slot] != element) {
+			return false;
+		}
+		removeSlot(slot);
+		element.removePositionChangeListener(this);
+		return true;
+	}
+
+	@Override
+	public void removeAll(List<T> elements) {
+		if (elements == null) {
+			return;
+		}
+		for (int i = 0; i < elements.size(); i++) {
+			remove(elements.get(i));
+		}
+	}
+
+	/**
+	 * Removes all elements from this {@link SpatialHashGrid}
+	 */
+	@SuppressWarnings("unchecked")
+	public void clear() {
+		for (int slot = 0; slot < totalSlots; slot++) {
+			if (slotElements[slot] == null) {
+				continue;
+			}
+			((T) slotElements[slot]).removePositionChangeListener(this);
+			slotElements[slot] = null;
+		}
+		Arrays.fill(cellSizes, 0);
+		slotsById.clear();
+		totalSlots = 0;
+		totalFreeSlots = 0;
+		totalElements = 0;
+		totalPendingSlots = 0;
+	}
+
+	@Override
+	public void positionChanged(T moved) {
+		int slot = slotsById.get(moved.getId(), -1);
+		if (slot < 0 || slotElements[slot] != moved) {
+			return;
+		}
+		if (deferredUpdates) {
+			if (!slotPending[slot]) {
+				slotPending[slot] = true;
+				if (totalPendingSlots == pendingSlots.length) {
+					pendingSlots = Arrays.copyOf(pendingSlots, totalPendingSlots * 2);
+				}
+				pendingSlots[totalPendingSlots++] = slot;
+			}
+			return;
+		}
+		updateSlot(slot, moved);
+	}
+
+	@Override
+	public void setDeferredUpdates(boolean deferredUpdates) {
+		this.deferredUpdates = deferredUpdates;
+		if (!deferredUpdates) {
+			flushMoves();
+		}
+	}
+
+	@Override
+	public boolean isDeferredUpdates() {
+		return deferredUpdates;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void flushMoves() {
+		for (int i = 0; i < totalPendingSlots; i++) {
+			int slot = pendingSlots[i];
+			if (!slotPending[slot]) {
+				continue;
+			}
+			slotPending[slot] = false;
+			updateSlot(slot, (T) slotElements[slot]);
+		}
+		totalPendingSlots = 0;
+	}
+
+	@Override
+	public List<T> getElementsWithinArea(Shape area) {
+		List<T> result = new ArrayList<T>();
+		getElementsWithinArea(result, area);
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void getElementsWithinArea(Collection<T> result, Shape area) {
+		float minX = area.getMinX();
+		float minY = area.getMinY();
+		float maxX = area.getMaxX();
+		float maxY = area.getMaxY();
+		if (!overlapsGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int stamp = nextQueryStamp();
+		int cellMaxX = getColumn(maxX);
+		int cellMaxY = getRow(maxY);
+
+		for (int row = getRow(minY); row <= cellMaxY; row++) {
+			for (int column = getColumn(minX); column <= cellMaxX; column++) {
+				int cell = (row * totalColumns) + column;
+				int[] slots = cellSlots[cell];
+				for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+					int slot = slots[i];
+					if (slotQueryStamps[slot] == stamp) {
+						continue;
+					}
+					slotQueryStamps[slot] = stamp;
+					if (!overlapsSlot(slot, minX, minY, maxX, maxY)) {
+						continue;
+					}
+					T element = (T) slotElements[slot];
+					if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+						result.add(element);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void query(Shape area, QuadTreeVisitor<T> visitor) {
+		float minX = area.getMinX();
+		float minY = area.getMinY();
+		float maxX = area.getMaxX();
+		float maxY = area.getMaxY();
+		if (!overlapsGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int stamp = nextQueryStamp();
+		int cellMaxX = getColumn(maxX);
+		int cellMaxY = getRow(maxY);
+
+		for (int row = getRow(minY); row <= cellMaxY; row++) {
+			for (int column = getColumn(minX); column <= cellMaxX; column++) {
+				int cell = (row * totalColumns) + column;
+				int[] slots = cellSlots[cell];
+				for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+					int slot = slots[i];
+					if (slotQueryStamps[slot] == stamp) {
+						continue;
+					}
+					slotQueryStamps[slot] = stamp;
+					if (!overlapsSlot(slot, minX, minY, maxX, maxY)) {
+						continue;
+					}
+					T element = (T) slotElements[slot];
+					if (area.contains(element.getShape()) || area.intersects(element.getShape())) {
+						if (!visitor.visit(element)) {
+							return;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElementsIntersectingSweep(Shape shape, float velocityX, float velocityY) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingSweep(result, shape, velocityX, velocityY);
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void getElementsIntersectingSweep(Collection<T> result, Shape shape, float velocityX, float velocityY) {
+		float minX = shape.getMinX() + Math.min(0f, velocityX);
+		float minY = shape.getMinY() + Math.min(0f, velocityY);
+		float maxX = shape.getMaxX() + Math.max(0f, velocityX);
+		float maxY = shape.getMaxY() + Math.max(0f, velocityY);
+		if (!overlapsGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int stamp = nextQueryStamp();
+		int cellMaxX = getColumn(maxX);
+		int cellMaxY = getRow(maxY);
+
+		for (int row = getRow(minY); row <= cellMaxY; row++) {
+			for (int column = getColumn(minX); column <= cellMaxX; column++) {
+				int cell = (row * totalColumns) + column;
+				int[] slots = cellSlots[cell];
+				for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+					int slot = slots[i];
+					if (slotQueryStamps[slot] == stamp) {
+						continue;
+					}
+					slotQueryStamps[slot] = stamp;
+					if (!overlapsSlot(slot, minX, minY, maxX, maxY)) {
+						continue;
+					}
+					if (Intersector.getTimeOfImpact(shape, velocityX, velocityY, slotMinX[slot], slotMinY[slot],
+							slotMaxX[slot], slotMaxY[slot]) >= 0f) {
+						result.add((T) slotElements[slot]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Walks the grid cells in ray order using a DDA traversal. Traversal stops
+	 * once the closest hit found lies before the exit of the current cell.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean raycast(float x1, float y1, float x2, float y2, RaycastHit<T> result) {
+		result.begin(x1, y1, x2, y2);
+		float deltaX = x2 - x1;
+		float deltaY = y2 - y1;
+		float entry = IntersectionKernels.raycastAabb(x1, y1, deltaX, deltaY, gridMinX, gridMinY, gridMaxX,
+				gridMaxY);
+		if (entry < 0f) {
+			return false;
+		}
+		int column = getColumn(x1 + (deltaX * entry));
+		int row = getRow(y1 + (deltaY * entry));
+		int stepColumn = deltaX > 0f ? 1 : deltaX < 0f ? -1 : 0;
+		int stepRow = deltaY > 0f ? 1 : deltaY < 0f ? -1 : 0;
+		float nextColumnX = gridMinX + ((column + (stepColumn > 0 ? 1 : 0)) * cellSize);
+		float nextRowY = gridMinY + ((row + (stepRow > 0 ? 1 : 0)) * cellSize);
+		float nextColumnCross = stepColumn == 0 ? Float.MAX_VALUE : (nextColumnX - x1) / deltaX;
+		float nextRowCross = stepRow == 0 ? Float.MAX_VALUE : (nextRowY - y1) / deltaY;
+		float columnCrossDelta = stepColumn == 0 ? 0f : cellSize / Math.abs(deltaX);
+		float rowCrossDelta = stepRow == 0 ? 0f : cellSize / Math.abs(deltaY);
+
+		int stamp = nextQueryStamp();
+		while (true) {
+			int cell = (row * totalColumns) + column;
+			int[] slots = cellSlots[cell];
+			for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+				int slot = slots[i];
+				if (slotQueryStamps[slot] == stamp) {
+					continue;
+				}
+				slotQueryStamps[slot] = stamp;
+				T element = (T) slotElements[slot];
+				result.test(element, element.getShape());
+			}
+
+			float exit = Math.min(nextColumnCross, nextRowCross);
+			if (exit > 1f || (result.isHit() && result.getFraction() <= exit)) {
+				break;
+			}
+			if (nextColumnCross < nextRowCross) {
+				column += stepColumn;
+				nextColumnCross += columnCrossDelta;
+			} else {
+				row += stepRow;
+				nextRowCross += rowCrossDelta;
+			}
+			if (column < 0 || column >= totalColumns || row < 0 || row >= totalRows) {
+				break;
+			}
+		}
+		return result.isHit();
+	}
+
+	@Override
+	public int raycast(float[] rays, int totalRays, RaycastHit<T>[] results) {
+		int result = 0;
+		for (int i = 0; i < totalRays; i++) {
+			int offset = i * 4;
+			if (raycast(rays[offset], rays[offset + 1], rays[offset + 2], rays[offset + 3], results[i])) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public List<T> getElementsIntersectingLineSegment(LineSegment lineSegment) {
+		List<T> result = new ArrayList<T>();
+		getElementsIntersectingLineSegment(result, lineSegment);
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void getElementsIntersectingLineSegment(Collection<T> result, LineSegment lineSegment) {
+		float x1 = lineSegment.getPointA().x;
+		float y1 = lineSegment.getPointA().y;
+		float x2 = lineSegment.getPointB().x;
+		float y2 = lineSegment.getPointB().y;
+		float minX = Math.min(x1, x2);
+		float minY = Math.min(y1, y2);
+		float maxX = Math.max(x1, x2);
+		float maxY = Math.max(y1, y2);
+		if (!overlapsGrid(minX, minY, maxX, maxY)) {
+			return;
+		}
+		int stamp = nextQueryStamp();
+		int cellMaxX = getColumn(maxX);
+		int cellMaxY = getRow(maxY);
+
+		for (int row = getRow(minY); row <= cellMaxY; row++) {
+			float cellY = gridMinY + (row * cellSize);
+			for (int column = getColumn(minX); column <= cellMaxX; column++) {
+				float cellX = gridMinX + (column * cellSize);
+				if (!Intersector.intersectLineSegmentAabb(x1, y1, x2, y2, cellX, cellY, cellX + cellSize,
+						cellY + cellSize)) {
+					continue;
+				}
+				int cell = (row * totalColumns) + column;
+				int[] slots = cellSlots[cell];
+				for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+					int slot = slots[i];
+					if (slotQueryStamps[slot] == stamp) {
+						continue;
+					}
+					slotQueryStamps[slot] = stamp;
+					T element = (T) slotElements[slot];
+					if (element.intersects(lineSegment)) {
+						result.add(element);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElementsContainingPoint(Point point) {
+		List<T> result = new ArrayList<T>();
+		getElementsContainingPoint(result, point);
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void getElementsContainingPoint(Collection<T> result, Point point) {
+		if (!overlapsGrid(point.x, point.y, point.x, point.y)) {
+			return;
+		}
+		int cell = (getRow(point.y) * totalColumns) + getColumn(point.x);
+		int[] slots = cellSlots[cell];
+		for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+			int slot = slots[i];
+			if (!overlapsSlot(slot, point.x, point.y, point.x, point.y)) {
+				continue;
+			}
+			T element = (T) slotElements[slot];
+			if (element.contains(point)) {
+				result.add(element);
+			}
+		}
+	}
+
+	@Override
+	public List<T> getElements() {
+		List<T> result = new ArrayList<T>(totalElements);
+		getElements(result);
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void getElements(List<T> result) {
+		for (int slot = 0; slot < totalSlots; slot++) {
+			if (slotElements[slot] == null) {
+				continue;
+			}
+			result.add((T) slotElements[slot]);
+		}
+	}
+
+	/**
+	 * Returns the total amount of grid cells
+	 */
+	@Override
+	public int getTotalQuads() {
+		return totalColumns * totalRows;
+	}
+
+	@Override
+	public int getTotalElements() {
+		return totalElements;
+	}
+
+	@Override
+	public QuadTree<T> getParent() {
+		return null;
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	private void updateSlot(int slot, T element) {
+		if (!overlapsGrid(element.getMinX(), element.getMinY(), element.getMaxX(), element.getMaxY())) {
+			removeSlot(slot);
+			element.removePositionChangeListener(this);
+			return;
+		}
+		int previousMinX = slotCellMinX[slot];
+		int previousMinY = slotCellMinY[slot];
+		int previousMaxX = slotCellMaxX[slot];
+		int previousMaxY = slotCellMaxY[slot];
+		storeBounds(slot, element);
+
+		int cellMinX = slotCellMinX[slot];
+		int cellMinY = slotCellMinY[slot];
+		int cellMaxX = slotCellMaxX[slot];
+		int cellMaxY = slotCellMaxY[slot];
+		if (cellMinX == previousMinX && cellMinY == previousMinY && cellMaxX == previousMaxX
+				&& cellMaxY == previousMaxY) {
+			return;
+		}
+
+		for (int row = previousMinY; row <= previousMaxY; row++) {
+			for (int column = previousMinX; column <= previousMaxX; column++) {
+				if (column >= cellMinX && column <= cellMaxX && row >= cellMinY && row <= cellMaxY) {
+					continue;
+				}
+				removeFromCell((row * totalColumns) + column, slot);
+			}
+		}
+		for (int row = cellMinY; row <= cellMaxY; row++) {
+			for (int column = cellMinX; column <= cellMaxX; column++) {
+				if (column >= previousMinX && column <= previousMaxX && row >= previousMinY && row <= previousMaxY) {
+					continue;
+				}
+				addToCell((row * totalColumns) + column, slot);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void removeSlot(int slot) {
+		for (int row = slotCellMinY[slot]; row <= slotCellMaxY[slot]; row++) {
+			for (int column = slotCellMinX[slot]; column <= slotCellMaxX[slot]; column++) {
+				removeFromCell((row * totalColumns) + column, slot);
+			}
+		}
+		slotsById.remove(((T) slotElements[slot]).getId(), -1);
+		slotElements[slot] = null;
+		slotPending[slot] = false;
+		totalElements--;
+
+		if (totalFreeSlots == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, totalFreeSlots * 2);
+		}
+		freeSlots[totalFreeSlots++] = slot;
+	}
+
+	private void storeBounds(int slot, T element) {
+		slotMinX[slot] = element.getMinX();
+		slotMinY[slot] = element.getMinY();
+		slotMaxX[slot] = element.getMaxX();
+		slotMaxY[slot] = element.getMaxY();
+		slotCellMinX[slot] = getColumn(slotMinX[slot]);
+		slotCellMinY[slot] = getRow(slotMinY[slot]);
+		slotCellMaxX[slot] = getColumn(slotMaxX[slot]);
+		slotCellMaxY[slot] = getRow(slotMaxY[slot]);
+	}
+
+	private void addToCells(int slot) {
+		for (int row = slotCellMinY[slot]; row <= slotCellMaxY[slot]; row++) {
+			for (int column = slotCellMinX[slot]; column <= slotCellMaxX[slot]; column++) {
+				addToCell((row * totalColumns) + column, slot);
+			}
+		}
+	}
+
+	private void addToCell(int cell, int slot) {
+		int[] slots = cellSlots[cell];
+		int size = cellSizes[cell];
+		if (slots == null) {
+			slots = new int[INITIAL_CELL_CAPACITY];
+			cellSlots[cell] = slots;
+		} else if (size == slots.length) {
+			slots = Arrays.copyOf(slots, size * 2);
+			cellSlots[cell] = slots;
+		}
+		slots[size] = slot;
+		cellSizes[cell] = size + 1;
+	}
+
+	private void removeFromCell(int cell, int slot) {
+		int[] slots = cellSlots[cell];
+		int size = cellSizes[cell];
+		for (int i = 0; i < size; i++) {
+			if (slots[i] != slot) {
+				continue;
+			}
+			slots[i] = slots[size - 1];
+			cellSizes[cell] = size - 1;
+			return;
+		}
+	}
+
+	private int allocateSlot() {
+		if (totalFreeSlots > 0) {
+			return freeSlots[--totalFreeSlots];
+		}
+		if (totalSlots == slotElements.length) {
+			int capacity = totalSlots * 2;
+			slotElements = Arrays.copyOf(slotElements, capacity);
+			slotMinX = Arrays.copyOf(slotMinX, capacity);
+			slotMinY = Arrays.copyOf(slotMinY, capacity);
+			slotMaxX = Arrays.copyOf(slotMaxX, capacity);
+			slotMaxY = Arrays.copyOf(slotMaxY, capacity);
+			slotCellMinX = Arrays.copyOf(slotCellMinX, capacity);
+			slotCellMinY = Arrays.copyOf(slotCellMinY, capacity);
+			slotCellMaxX = Arrays.copyOf(slotCellMaxX, capacity);
+			slotCellMaxY = Arrays.copyOf(slotCellMaxY, capacity);
+			slotQueryStamps = Arrays.copyOf(slotQueryStamps, capacity);
+			slotPending = Arrays.copyOf(slotPending, capacity);
+		}
+		return totalSlots++;
+	}
+
+	private int nextQueryStamp() {
+		queryStamp++;
+		if (queryStamp == 0) {
+			Arrays.fill(slotQueryStamps, 0);
+			queryStamp = 1;
+		}
+		return queryStamp;
+	}
+
+	private boolean overlapsGrid(float minX, float minY, float maxX, float maxY) {
+		return (gridMinX <= maxX) & (minX <= gridMaxX) & (gridMinY <= maxY) & (minY <= gridMaxY);
+	}
+
+	private boolean overlapsSlot(int slot, float minX, float minY, float maxX, float maxY) {
+		return (slotMinX[slot] <= maxX) & (minX <= slotMaxX[slot]) & (slotMinY[slot] <= maxY)
+				& (minY <= slotMaxY[slot]);
+	}
+
+	private int getColumn(float x) {
+		return Math.min(totalColumns - 1, Math.max(0, (int) ((x - gridMinX) / cellSize)));
+	}
+
+	private int getRow(float y) {
+		return Math.min(totalRows - 1, Math.max(0, (int) ((y - gridMinY) / cellSize)));
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Implements a sort-and-sweep broadphase. Each call to
+ * {@link #update(CollisionPairs)} reports every pair of elements whose
+ * bounds overlap exactly once.
+ * 
+ * Elements are kept ordered along the x axis between updates and re-sorted
+ * with an insertion sort, which is close to linear when elements only move a
+ * small distance each tick.
+ * 
+ * Note: This implementation is not thread-safe
+ */
+public class SweepAndPrune<T extends CollisionShape> {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final IntIntMap slotsById = new IntIntMap();
+	private Object[] slotElements = new Object[INITIAL_CAPACITY];
+	private float[] slotMinX = new float[INITIAL_CAPACITY];
+	private float[] slotMinY = new float[INITIAL_CAPACITY];
+	private float[] slotMaxX = new float[INITIAL_CAPACITY];
+	private float[] slotMaxY = new float[INITIAL_CAPACITY];
+
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	private int totalFreeSlots = 0;
+	private int totalSlots = 0;
+
+	private int[] axisOrder = new int[INITIAL_CAPACITY];
+	private int totalElements = 0;
+
+	/**
+	 * Adds an element to the broadphase
+	 * 
+	 * @param element
+	 *            The element to add
+	 * @return False if the element is null or was already added
+	 */
+	public boolean add(T element) {
+		if (element == null) {
+			return false;
+		}
+		if (slotsById.containsKey(element.getId())) {
+			return false;
+		}
+		int slot = allocateSlot();
+		slotElements[slot] = element;
+		storeBounds(slot, element);
+		slotsById.put(element.getId(), slot);
+
+		if (totalElements == axisOrder.length) {
+			axisOrder = Arrays.copyOf(axisOrder, totalElements * 2);
+		}
+		axisOrder[totalElements++] = slot;
+		return true;
+	}
+
+	public void addAll(List<T> elements) {
+		if (elements == null) {
+			return;
+		}
+		for (int i = 0; i < elements.size(); i++) {
+			add(elements.get(i));
+		}
+	}
+
+	/**
+	 * Removes an element from the broadphase
+	 * 
+	 * @param element
+	 *            The element to remove
+	 * @return False if the element was not present
+	 */
+	public boolean remove(T element) {
+		if (element == null) {
+			return false;
+		}
+		int slot = slotsById.get(element.getId(), -1);
+		if (slot < 0 || slotElements[slot] != element) {
+			return false;
+		}
+		for (int i = 0; i < totalElements; i++) {
+			if (axisOrder[i] != slot) {
+				continue;
+			}
+			System.arraycopy(axisOrder, i + 1, axisOrder, i, totalElements - i - 1);
+			break;
+		}
+		totalElements--;
+
+		slotsById.remove(element.getId(), -1);
+		slotElements[slot] = null;
+		if (totalFreeSlots == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, totalFreeSlots * 2);
+		}
+		freeSlots[totalFreeSlots++] = slot;
+		return true;
+	}
+
+	public void removeAll(List<T> elements) {
+		if (elements == null) {
+			return;
+		}
+		for (int i = 0; i < elements.size(); i++) {
+			remove(elements.get(i));
+		}
+	}
+
+	/**
+	 * Removes all elements from the broadphase
+	 */
+	public void clear() {
+		Arrays.fill(slotElements, 0, totalSlots, null);
+		slotsById.clear();
+		totalSlots = 0;
+		totalFreeSlots = 0;
+		totalElements = 0;
+	}
+
+	/**
+	 * Reads the current bounds of all elements, re-sorts them along the x
+	 * axis and stores every overlapping pair in the result buffer. The buffer
+	 * is cleared before any pairs are added.
+	 * 
+	 * @param result
+	 *            The buffer to store the pairs in
+	 */
+	@SuppressWarnings("unchecked")
+	public void update(CollisionPairs result) {
+		result.clear();
+
+		for (int i = 0; i < totalElements; i++) {
+			int slot = axisOrder[i];
+			storeBounds(slot, (T) slotElements[slot]);
+		}
+		sortAxis();
+
+		for (int i = 0; i < totalElements; i++) {
+			int slot = axisOrder[i];
+			float maxX = slotMaxX[slot];
+			float minY = slotMinY[slot];
+			float maxY = slotMaxY[slot];
+
+			for (int j = i + 1; j < totalElements; j++) {
+				int otherSlot = axisOrder[j];
+				if (slotMinX[otherSlot] > maxX) {
+					break;
+				}
+				if ((slotMinY[otherSlot] <= maxY) & (minY <= slotMaxY[otherSlot])) {
+					result.add(slot, otherSlot);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the element stored in a slot
+	 * 
+	 * @param slot
+	 *            A slot reported by {@link CollisionPairs}
+	 * @return Null if the slot is not in use
+	 */
+	@SuppressWarnings("unchecked")
+	public T getElement(int slot) {
+		return (T) slotElements[slot];
+	}
+
+	/**
+	 * Returns the total amount of elements in the broadphase
+	 * 
+	 * @return 0 if there are no elements
+	 */
+	public int getTotalElements() {
+		return totalElements;
+	}
+
+	private void sortAxis() {
+		for (int i = 1; i < totalElements; i++) {
+			int slot = axisOrder[i];
+			float minX = slotMinX[slot];
+			int j = i - 1;
+			while (j >= 0 && slotMinX[axisOrder[j]] > minX) {
+				axisOrder[j + 1] = axisOrder[j];
+				j--;
+			}
+			axisOrder[j + 1] = slot;
+		}
+	}
+
+	private void storeBounds(int slot, T element) {
+		slotMinX[slot] = element.getMinX();
+		slotMinY[slot] = element.getMinY();
+		slotMaxX[slot] = element.getMaxX();
+		slotMaxY[slot] = element.getMaxY();
+	}
+
+	private int allocateSlot() {
+		if (totalFreeSlots > 0) {
+			return freeSlots[--totalFreeSlots];
+		}
+		if (totalSlots == slotElements.length) {
+			int capacity = totalSlots * 2;
+			slotElements = Arrays.copyOf(slotElements, capacity);
+			slotMinX = Arrays.copyOf(slotMinX, capacity);
+			slotMinY = Arrays.copyOf(slotMinY, capacity);
+			slotMaxX = Arrays.copyOf(slotMaxX, capacity);
+			slotMaxY = Arrays.copyOf(slotMaxY, capacity);
+		}
+		return totalSlots++;
+	}
+}
@@ -20,6 +20,7 @@ import org.mini2Dx.core.engine.Positionable;
 import org.mini2Dx.core.engine.SizeChangeListener;
 import org.mini2Dx.core.engine.Sizeable;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.IntersectionKernels;
 import org.mini2Dx.core.geom.Point;
 import org.mini2Dx.core.geom.Rectangle;
 import org.mini2Dx.core.geom.Shape;
@@ -471,6 +472,33 @@ public class CollisionBox extends Rectangle implements CollisionShape {
 		return renderRectangle.getRotation();
 	}
 
+	public float getPreviousX() {
+		return previousRectangle.getX();
+	}
+
+	public float getPreviousY() {
+		return previousRectangle.getY();
+	}
+
+	/**
+	 * Returns the time of impact between the movement of this
+	 * {@link CollisionBox} since {@link #preUpdate()} and a stationary
+	 * {@link Shape}. Both shapes are swept using their bounds so fast moving
+	 * boxes cannot tunnel through thin obstacles.
+	 * 
+	 * @param obstacle
+	 *            The stationary {@link Shape} to test against
+	 * @return The fraction (0 to 1) of this update's movement completed before
+	 *         touching the obstacle, 0 if the box started inside it or -1 if
+	 *         there is no impact
+	 */
+	public float getTimeOfImpact(Shape obstacle) {
+		return IntersectionKernels.sweepAabbs(previousRectangle.getMinX(), previousRectangle.getMinY(),
+				previousRectangle.getMaxX(), previousRectangle.getMaxY(), getX() - previousRectangle.getX(),
+				getY() - previousRectangle.getY(), obstacle.getMinX(), obstacle.getMinY(), obstacle.getMaxX(),
+				obstacle.getMaxY());
+	}
+
 	public int getId() {
 		return id;
 	}
@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.Arrays;
+
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.engine.Sizeable;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * A lightweight handle to an axis-aligned box stored in a
+ * {@link CollisionWorld}. All coordinates live in the world's arrays; the
+ * handle only holds its id, its slot, any listeners and a {@link Rectangle}
+ * kept in sync with its bounds.
+ * 
+ * Listeners are stored in copy-on-write arrays so notifying them requires no
+ * locking.
+ */
+public class CollisionBoxHandle implements CollisionShape {
+	private final CollisionWorld world;
+	private final int id;
+	int slot;
+
+	private volatile Object[] positionChangeListeners;
+	private volatile Object[] sizeChangeListeners;
+	private final Rectangle shape;
+
+	CollisionBoxHandle(CollisionWorld world, int id, int slot) {
+		this.world = world;
+		this.id = id;
+		this.slot = slot;
+		this.shape = new Rectangle(world.x[slot], world.y[slot], world.width[slot], world.height[slot]);
+	}
+
+	@Override
+	public void preUpdate() {
+		world.preUpdate(slot);
+	}
+
+	@Override
+	public void update(GameContainer gc, float delta) {
+	}
+
+	@Override
+	public void interpolate(GameContainer gc, float alpha) {
+		if (!world.interpolate[slot]) {
+			return;
+		}
+		world.interpolate(slot, alpha, 1f - alpha);
+	}
+
+	@Override
+	public <T extends Positionable> void addPostionChangeListener(PositionChangeListener<T> listener) {
+		synchronized (this) {
+			positionChangeListeners = add(positionChangeListeners, listener);
+		}
+	}
+
+	@Override
+	public <T extends Positionable> void removePositionChangeListener(PositionChangeListener<T> listener) {
+		synchronized (this) {
+			positionChangeListeners = remove(positionChangeListeners, listener);
+		}
+	}
+
+	@Override
+	public <T extends Sizeable> void addSizeChangeListener(SizeChangeListener<T> listener) {
+		synchronized (this) {
+			sizeChangeListeners = add(sizeChangeListeners, listener);
+		}
+	}
+
+	@Override
+	public <T extends Sizeable> void removeSizeChangeListener(SizeChangeListener<T> listener) {
+		synchronized (this) {
+			sizeChangeListeners = remove(sizeChangeListeners, listener);
+		}
+	}
+
+	private static Object[] add(Object[] listeners, Object listener) {
+		if (listeners == null) {
+			return new Object[] { listener };
+		}
+		Object[] result = Arrays.copyOf(listeners, listeners.length + 1);
+		result[listeners.length] = listener;
+		return result;
+	}
+
+	private static Object[] remove(Object[] listeners, Object listener) {
+		if (listeners == null) {
+			return null;
+		}
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] != listener) {
+				continue;
+			}
+			if (listeners.length == 1) {
+				return null;
+			}
+			Object[] result = new Object[listeners.length - 1];
+			System.arraycopy(listeners, 0, result, 0, i);
+			System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+			return result;
+		}
+		return listeners;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void notifyPositionChangeListeners() {
+		final Object[] listeners = positionChangeListeners;
+		if (listeners == null) {
+			return;
+		}
+		for (int i = listeners.length - 1; i >= 0; i--) {
+			((PositionChangeListener<CollisionBoxHandle>) listeners[i]).positionChanged(this);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void notifySizeChangeListeners() {
+		final Object[] listeners = sizeChangeListeners;
+		if (listeners == null) {
+			return;
+		}
+		for (int i = listeners.length - 1; i >= 0; i--) {
+			((SizeChangeListener<CollisionBoxHandle>) listeners[i]).sizeChanged(this);
+		}
+	}
+
+	/**
+	 * Sets the x and y coordinate of this box
+	 * 
+	 * @param x
+	 *            The x coordinate to set
+	 * @param y
+	 *            The y coordinate to set
+	 */
+	public void set(float x, float y) {
+		if (world.x[slot] == x && world.y[slot] == y) {
+			return;
+		}
+		world.x[slot] = x;
+		world.y[slot] = y;
+		world.interpolate[slot] = true;
+		shape.set(x, y);
+		notifyPositionChangeListeners();
+	}
+
+	/**
+	 * Sets the bounds of this box
+	 * 
+	 * @param x
+	 *            The x coordinate to set
+	 * @param y
+	 *            The y coordinate to set
+	 * @param width
+	 *            The width to set
+	 * @param height
+	 *            The height to set
+	 */
+	public void set(float x, float y, float width, float height) {
+		boolean notifyPositionListeners = x != world.x[slot] || y != world.y[slot];
+		boolean notifySizeListeners = width != world.width[slot] || height != world.height[slot];
+		if (!notifyPositionListeners && !notifySizeListeners) {
+			return;
+		}
+		world.x[slot] = x;
+		world.y[slot] = y;
+		world.width[slot] = width;
+		world.height[slot] = height;
+		world.interpolate[slot] = true;
+		shape.set(x, y, width, height);
+
+		if (notifyPositionListeners) {
+			notifyPositionChangeListeners();
+		}
+		if (notifySizeListeners) {
+			notifySizeChangeListeners();
+		}
+	}
+
+	@Override
+	public void setX(float x) {
+		set(x, world.y[slot]);
+	}
+
+	@Override
+	public void setY(float y) {
+		set(world.x[slot], y);
+	}
+
+	public void setWidth(float width) {
+		set(world.x[slot], world.y[slot], width, world.height[slot]);
+	}
+
+	public void setHeight(float height) {
+		set(world.x[slot], world.y[slot], world.width[slot], height);
+	}
+
+	public void setSize(float width, float height) {
+		set(world.x[slot], world.y[slot], width, height);
+	}
+
+	public void translate(float translateX, float translateY) {
+		set(world.x[slot] + translateX, world.y[slot] + translateY);
+	}
+
+	@Override
+	public void forceTo(float x, float y) {
+		forceTo(x, y, world.width[slot], world.height[slot]);
+	}
+
+	/**
+	 * Sets the current bounds to the specified bounds and force updates the
+	 * previous and rendering bounds to match
+	 * 
+	 * @param x
+	 *            The x coordinate to set
+	 * @param y
+	 *            The y coordinate to set
+	 * @param width
+	 *            The width to set
+	 * @param height
+	 *            The height to set
+	 */
+	public void forceTo(float x, float y, float width, float height) {
+		boolean notifyPositionListeners = x != world.x[slot] || y != world.y[slot];
+		boolean notifySizeListeners = width != world.width[slot] || height != world.height[slot];
+
+		world.x[slot] = x;
+		world.y[slot] = y;
+		world.width[slot] = width;
+		world.height[slot] = height;
+		world.preUpdate(slot);
+		world.storeRenderCoordinates(slot);
+		world.interpolate[slot] = false;
+		shape.set(x, y, width, height);
+
+		if (notifyPositionListeners) {
+			notifyPositionChangeListeners();
+		}
+		if (notifySizeListeners) {
+			notifySizeChangeListeners();
+		}
+	}
+
+	@Override
+	public float getX() {
+		return world.x[slot];
+	}
+
+	@Override
+	public float getY() {
+		return world.y[slot];
+	}
+
+	@Override
+	public float getWidth() {
+		return world.width[slot];
+	}
+
+	@Override
+	public float getHeight() {
+		return world.height[slot];
+	}
+
+	@Override
+	public float getMinX() {
+		final float width = world.width[slot];
+		return width < 0f ? world.x[slot] + width : world.x[slot];
+	}
+
+	@Override
+	public float getMinY() {
+		final float height = world.height[slot];
+		return height < 0f ? world.y[slot] + height : world.y[slot];
+	}
+
+	@Override
+	public float getMaxX() {
+		final float width = world.width[slot];
+		return width < 0f ? world.x[slot] : world.x[slot] + width;
+	}
+
+	@Override
+	public float getMaxY() {
+		final float height = world.height[slot];
+		return height < 0f ? world.y[slot] : world.y[slot] + height;
+	}
+
+	@Override
+	public int getRenderX() {
+		return world.renderX[slot];
+	}
+
+	@Override
+	public int getRenderY() {
+		return world.renderY[slot];
+	}
+
+	public int getRenderWidth() {
+		return world.renderWidth[slot];
+	}
+
+	public int getRenderHeight() {
+		return world.renderHeight[slot];
+	}
+
+	public float getPreviousX() {
+		return world.previousX[slot];
+	}
+
+	public float getPreviousY() {
+		return world.previousY[slot];
+	}
+
+	@Override
+	public float getDistanceTo(Positionable positionable) {
+		return getShape().getDistanceTo(positionable.getX(), positionable.getY());
+	}
+
+	@Override
+	public boolean contains(Shape shape) {
+		return getShape().contains(shape);
+	}
+
+	@Override
+	public boolean contains(Vector2 point) {
+		return getShape().contains(point);
+	}
+
+	@Override
+	public boolean intersects(Shape shape) {
+		return getShape().intersects(shape);
+	}
+
+	@Override
+	public boolean intersects(LineSegment lineSegment) {
+		return getShape().intersects(lineSegment);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
+		return getShape().intersectsLineSegment(pointA, pointB);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
+		return getShape().intersectsLineSegment(x1, y1, x2, y2);
+	}
+
+	/**
+	 * Returns a {@link Rectangle} matching the current bounds of this box. The
+	 * same instance is updated whenever this box is moved or resized and must
+	 * not be modified.
+	 */
+	@Override
+	public Shape getShape() {
+		return shape;
+	}
+
+	/**
+	 * Returns the {@link CollisionWorld} this box is stored in
+	 */
+	public CollisionWorld getWorld() {
+		return world;
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "CollisionBoxHandle [id=" + id + ", x=" + getX() + ", y=" + getY() + ", width=" + getWidth()
+				+ ", height=" + getHeight() + "]";
+	}
+}
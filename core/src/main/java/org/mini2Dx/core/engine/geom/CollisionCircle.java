@@ -22,6 +22,7 @@ import org.mini2Dx.core.engine.SizeChangeListener;
 import org.mini2Dx.core.engine.Sizeable;
 import org.mini2Dx.core.game.GameContainer;
 import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.IntersectionKernels;
 import org.mini2Dx.core.geom.Shape;
 import org.mini2Dx.core.graphics.Graphics;
 
@@ -283,6 +284,31 @@ public class CollisionCircle extends Circle implements CollisionShape {
 		return previousCircle.getRadius();
 	}
 
+	/**
+	 * Returns the time of impact between the movement of this
+	 * {@link CollisionCircle} since {@link #preUpdate()} and a stationary
+	 * {@link Shape}. Circles are swept exactly, all other obstacles are
+	 * treated as their bounds.
+	 * 
+	 * @param obstacle
+	 *            The stationary {@link Shape} to test against
+	 * @return The fraction (0 to 1) of this update's movement completed before
+	 *         touching the obstacle, 0 if the circle started inside it or -1 if
+	 *         there is no impact
+	 */
+	public float getTimeOfImpact(Shape obstacle) {
+		float velocityX = getX() - previousCircle.getX();
+		float velocityY = getY() - previousCircle.getY();
+		if (obstacle.isCircle()) {
+			Circle circle = (Circle) obstacle;
+			return IntersectionKernels.raycastCircle(previousCircle.getX(), previousCircle.getY(), velocityX,
+					velocityY, circle.getX(), circle.getY(), previousCircle.getRadius() + circle.getRadius());
+		}
+		return IntersectionKernels.sweepCircleAabb(previousCircle.getX(), previousCircle.getY(),
+				previousCircle.getRadius(), velocityX, velocityY, obstacle.getMinX(), obstacle.getMinY(),
+				obstacle.getMaxX(), obstacle.getMaxY());
+	}
+
 	public int getId() {
 		return id;
 	}
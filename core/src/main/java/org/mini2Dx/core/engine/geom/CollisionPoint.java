@@ -19,7 +19,11 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.mini2Dx.core.engine.PositionChangeListener;
 import org.mini2Dx.core.engine.Positionable;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.IntersectionKernels;
 import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
@@ -240,6 +244,41 @@ public class CollisionPoint extends Point implements Positionable {
 		return renderY;
 	}
 
+	public float getPreviousX() {
+		return previousPosition.x;
+	}
+
+	public float getPreviousY() {
+		return previousPosition.y;
+	}
+
+	/**
+	 * Returns the time of impact between the movement of this
+	 * {@link CollisionPoint} since {@link #preUpdate()} and a stationary
+	 * {@link Shape}
+	 * 
+	 * @param obstacle
+	 *            The stationary {@link Shape} to test against
+	 * @return The fraction (0 to 1) of this update's movement completed before
+	 *         touching the obstacle, 0 if the point started inside it or -1 if
+	 *         there is no impact
+	 */
+	public float getTimeOfImpact(Shape obstacle) {
+		float velocityX = x - previousPosition.x;
+		float velocityY = y - previousPosition.y;
+		if (obstacle.isCircle()) {
+			Circle circle = (Circle) obstacle;
+			return IntersectionKernels.raycastCircle(previousPosition.x, previousPosition.y, velocityX, velocityY,
+					circle.getX(), circle.getY(), circle.getRadius());
+		}
+		if (obstacle instanceof Rectangle && obstacle.getRotation() == 0f) {
+			return IntersectionKernels.raycastAabb(previousPosition.x, previousPosition.y, velocityX, velocityY,
+					obstacle.getMinX(), obstacle.getMinY(), obstacle.getMaxX(), obstacle.getMaxY());
+		}
+		return IntersectionKernels.raycastPolygon(previousPosition.x, previousPosition.y, velocityX, velocityY,
+				obstacle.getPolygon().getVertices());
+	}
+
 	public int getId() {
 		return id;
 	}
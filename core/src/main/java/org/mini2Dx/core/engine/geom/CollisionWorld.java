@@ -0,0 +1,286 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.Arrays;
+
+import org.mini2Dx.core.game.GameContainer;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * Stores the position, size, previous and render coordinates of many
+ * collision boxes in primitive arrays. Each box is accessed through a
+ * lightweight {@link CollisionBoxHandle} which implements
+ * {@link CollisionShape} and so can be stored in any
+ * {@link org.mini2Dx.core.collisions.QuadTree}.
+ * 
+ * {@link #preUpdate()} and {@link #interpolate(GameContainer, float)} process
+ * every box in a single pass over the arrays, replacing the per-object calls
+ * needed for {@link CollisionBox}es.
+ * 
+ * Creating and removing boxes is not thread-safe. Removing a box moves the
+ * last box into its slot so the arrays stay densely packed.
+ */
+public class CollisionWorld {
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private final IntIntMap slotsById;
+
+	CollisionBoxHandle[] handles;
+	float[] x, y, width, height;
+	float[] previousX, previousY, previousWidth, previousHeight;
+	int[] renderX, renderY, renderWidth, renderHeight;
+	boolean[] interpolate;
+	private int totalBoxes;
+
+	public CollisionWorld() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The number of boxes to allocate storage for
+	 */
+	public CollisionWorld(int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		slotsById = new IntIntMap(initialCapacity);
+		handles = new CollisionBoxHandle[initialCapacity];
+		x = new float[initialCapacity];
+		y = new float[initialCapacity];
+		width = new float[initialCapacity];
+		height = new float[initialCapacity];
+		previousX = new float[initialCapacity];
+		previousY = new float[initialCapacity];
+		previousWidth = new float[initialCapacity];
+		previousHeight = new float[initialCapacity];
+		renderX = new int[initialCapacity];
+		renderY = new int[initialCapacity];
+		renderWidth = new int[initialCapacity];
+		renderHeight = new int[initialCapacity];
+		interpolate = new boolean[initialCapacity];
+	}
+
+	/**
+	 * Creates a new box in this world
+	 * 
+	 * @param x
+	 *            The x coordinate
+	 * @param y
+	 *            The y coordinate
+	 * @param width
+	 *            The width
+	 * @param height
+	 *            The height
+	 * @return The {@link CollisionBoxHandle} for the new box
+	 */
+	public CollisionBoxHandle createBox(float x, float y, float width, float height) {
+		return createBox(CollisionIdSequence.nextId(), x, y, width, height);
+	}
+
+	/**
+	 * Creates a new box in this world with a specific id
+	 * 
+	 * @param id
+	 *            The unique id of the box
+	 * @param x
+	 *            The x coordinate
+	 * @param y
+	 *            The y coordinate
+	 * @param width
+	 *            The width
+	 * @param height
+	 *            The height
+	 * @return The {@link CollisionBoxHandle} for the new box
+	 * @throws IllegalArgumentException
+	 *             Thrown if a box with the same id already exists in this
+	 *             world
+	 */
+	public CollisionBoxHandle createBox(int id, float x, float y, float width, float height) {
+		if (slotsById.containsKey(id)) {
+			throw new IllegalArgumentException("A box with id " + id + " already exists");
+		}
+		if (totalBoxes == handles.length) {
+			ensureCapacity(totalBoxes * 2);
+		}
+		final int slot = totalBoxes++;
+		this.x[slot] = x;
+		this.y[slot] = y;
+		this.width[slot] = width;
+		this.height[slot] = height;
+		previousX[slot] = x;
+		previousY[slot] = y;
+		previousWidth[slot] = width;
+		previousHeight[slot] = height;
+		storeRenderCoordinates(slot);
+		interpolate[slot] = false;
+
+		CollisionBoxHandle result = new CollisionBoxHandle(this, id, slot);
+		handles[slot] = result;
+		slotsById.put(id, slot);
+		return result;
+	}
+
+	/**
+	 * Removes a box from this world. The {@link CollisionBoxHandle} must not
+	 * be used afterwards and should be removed from any
+	 * {@link org.mini2Dx.core.collisions.QuadTree} first.
+	 * 
+	 * @param box
+	 *            The {@link CollisionBoxHandle} to remove
+	 * @return False if the box did not belong to this world
+	 */
+	public boolean remove(CollisionBoxHandle box) {
+		final int slot = slotsById.get(box.getId(), -1);
+		if (slot < 0 || handles[slot] != box) {
+			return false;
+		}
+		final int lastSlot = --totalBoxes;
+		if (slot != lastSlot) {
+			x[slot] = x[lastSlot];
+			y[slot] = y[lastSlot];
+			width[slot] = width[lastSlot];
+			height[slot] = height[lastSlot];
+			previousX[slot] = previousX[lastSlot];
+			previousY[slot] = previousY[lastSlot];
+			previousWidth[slot] = previousWidth[lastSlot];
+			previousHeight[slot] = previousHeight[lastSlot];
+			renderX[slot] = renderX[lastSlot];
+			renderY[slot] = renderY[lastSlot];
+			renderWidth[slot] = renderWidth[lastSlot];
+			renderHeight[slot] = renderHeight[lastSlot];
+			interpolate[slot] = interpolate[lastSlot];
+
+			CollisionBoxHandle movedBox = handles[lastSlot];
+			handles[slot] = movedBox;
+			movedBox.slot = slot;
+			slotsById.put(movedBox.getId(), slot);
+		}
+		handles[lastSlot] = null;
+		slotsById.remove(box.getId(), -1);
+		box.slot = -1;
+		return true;
+	}
+
+	/**
+	 * Returns the box with the specified id
+	 * 
+	 * @param id
+	 *            The id of the box
+	 * @return Null if no box with the id exists in this world
+	 */
+	public CollisionBoxHandle getBox(int id) {
+		int slot = slotsById.get(id, -1);
+		return slot < 0 ? null : handles[slot];
+	}
+
+	/**
+	 * Stores the current coordinates of every box as their previous
+	 * coordinates. This needs to be called at the start of each frame before
+	 * any boxes are changed.
+	 */
+	public void preUpdate() {
+		System.arraycopy(x, 0, previousX, 0, totalBoxes);
+		System.arraycopy(y, 0, previousY, 0, totalBoxes);
+		System.arraycopy(width, 0, previousWidth, 0, totalBoxes);
+		System.arraycopy(height, 0, previousHeight, 0, totalBoxes);
+	}
+
+	/**
+	 * Interpolates the render coordinates of every box that has moved or
+	 * resized
+	 * 
+	 * @param gc
+	 *            The {@link GameContainer}
+	 * @param alpha
+	 *            The interpolation alpha
+	 */
+	public void interpolate(GameContainer gc, float alpha) {
+		final float inverseAlpha = 1f - alpha;
+		for (int i = 0; i < totalBoxes; i++) {
+			if (interpolate[i]) {
+				interpolate(i, alpha, inverseAlpha);
+			}
+		}
+	}
+
+	void preUpdate(int slot) {
+		previousX[slot] = x[slot];
+		previousY[slot] = y[slot];
+		previousWidth[slot] = width[slot];
+		previousHeight[slot] = height[slot];
+	}
+
+	void interpolate(int slot, float alpha, float inverseAlpha) {
+		renderX[slot] = MathUtils.round((previousX[slot] * inverseAlpha) + (x[slot] * alpha));
+		renderY[slot] = MathUtils.round((previousY[slot] * inverseAlpha) + (y[slot] * alpha));
+		if (previousWidth[slot] != width[slot]) {
+			renderWidth[slot] = MathUtils.round((previousWidth[slot] * inverseAlpha) + (width[slot] * alpha));
+		} else {
+			renderWidth[slot] = MathUtils.round(width[slot]);
+		}
+		if (previousHeight[slot] != height[slot]) {
+			renderHeight[slot] = MathUtils.round((previousHeight[slot] * inverseAlpha) + (height[slot] * alpha));
+		} else {
+			renderHeight[slot] = MathUtils.round(height[slot]);
+		}
+		if (renderX[slot] != MathUtils.round(x[slot])) {
+			return;
+		}
+		if (renderY[slot] != MathUtils.round(y[slot])) {
+			return;
+		}
+		if (renderWidth[slot] != MathUtils.round(width[slot])) {
+			return;
+		}
+		if (renderHeight[slot] != MathUtils.round(height[slot])) {
+			return;
+		}
+		interpolate[slot] = false;
+	}
+
+	void storeRenderCoordinates(int slot) {
+		renderX[slot] = MathUtils.round(x[slot]);
+		renderY[slot] = MathUtils.round(y[slot]);
+		renderWidth[slot] = MathUtils.round(width[slot]);
+		renderHeight[slot] = MathUtils.round(height[slot]);
+	}
+
+	private void ensureCapacity(int capacity) {
+		handles = Arrays.copyOf(handles, capacity);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		previousX = Arrays.copyOf(previousX, capacity);
+		previousY = Arrays.copyOf(previousY, capacity);
+		previousWidth = Arrays.copyOf(previousWidth, capacity);
+		previousHeight = Arrays.copyOf(previousHeight, capacity);
+		renderX = Arrays.copyOf(renderX, capacity);
+		renderY = Arrays.copyOf(renderY, capacity);
+		renderWidth = Arrays.copyOf(renderWidth, capacity);
+		renderHeight = Arrays.copyOf(renderHeight, capacity);
+		interpolate = Arrays.copyOf(interpolate, capacity);
+	}
+
+	/**
+	 * Returns the number of boxes in this world
+	 * 
+	 * @return 0 if there are no boxes
+	 */
+	public int getTotalBoxes() {
+		return totalBoxes;
+	}
+}
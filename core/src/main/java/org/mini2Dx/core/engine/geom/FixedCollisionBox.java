@@ -0,0 +1,422 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.engine.Sizeable;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.Fixed;
+import org.mini2Dx.core.geom.FixedRectangle;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * An implementation of {@link FixedRectangle} that can be stored in a
+ * {@link org.mini2Dx.core.collisions.RegionQuadTree} and allows for
+ * interpolation. The fixed-point values are the simulation state; the
+ * {@link Rectangle} returned by {@link #getShape()} is kept in sync for
+ * spatial queries and must not be modified directly.
+ */
+public class FixedCollisionBox extends FixedRectangle implements CollisionShape {
+	private static final long serialVersionUID = 5309124566431720934L;
+
+	private final int id;
+	private final ReentrantReadWriteLock positionChangeListenerLock;
+	private final ReentrantReadWriteLock sizeChangeListenerLock;
+	private final Rectangle shape;
+
+	private List<PositionChangeListener> positionChangeListeners;
+	private List<SizeChangeListener> sizeChangeListeners;
+
+	private FixedRectangle previousRectangle;
+	private FixedRectangle renderRectangle;
+	private int renderX, renderY, renderWidth, renderHeight;
+	private boolean interpolate = false;
+
+	public FixedCollisionBox() {
+		this(0, 0, Fixed.ONE, Fixed.ONE);
+	}
+
+	public FixedCollisionBox(int x, int y, int width, int height) {
+		this(CollisionIdSequence.nextId(), x, y, width, height);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            The unique id of this box
+	 * @param x
+	 *            The fixed-point x coordinate
+	 * @param y
+	 *            The fixed-point y coordinate
+	 * @param width
+	 *            The fixed-point width
+	 * @param height
+	 *            The fixed-point height
+	 */
+	public FixedCollisionBox(int id, int x, int y, int width, int height) {
+		super(x, y, width, height);
+		this.id = id;
+
+		positionChangeListenerLock = new ReentrantReadWriteLock();
+		sizeChangeListenerLock = new ReentrantReadWriteLock();
+		shape = toRectangle(new Rectangle());
+		previousRectangle = new FixedRectangle(x, y, width, height);
+		renderRectangle = new FixedRectangle(x, y, width, height);
+		storeRenderCoordinates();
+	}
+
+	private void storeRenderCoordinates() {
+		renderX = Fixed.round(renderRectangle.getFixedX());
+		renderY = Fixed.round(renderRectangle.getFixedY());
+		renderWidth = Fixed.round(renderRectangle.getFixedWidth());
+		renderHeight = Fixed.round(renderRectangle.getFixedHeight());
+	}
+
+	@Override
+	public void preUpdate() {
+		previousRectangle.set(this);
+	}
+
+	@Override
+	public void update(GameContainer gc, float delta) {
+	}
+
+	@Override
+	public void interpolate(GameContainer gc, float alpha) {
+		if (!interpolate) {
+			return;
+		}
+		renderRectangle.set(previousRectangle);
+		renderRectangle.lerp(this, Fixed.fromFloat(alpha));
+		storeRenderCoordinates();
+		if (renderX != Fixed.round(getFixedX())) {
+			return;
+		}
+		if (renderY != Fixed.round(getFixedY())) {
+			return;
+		}
+		if (renderWidth != Fixed.round(getFixedWidth())) {
+			return;
+		}
+		if (renderHeight != Fixed.round(getFixedHeight())) {
+			return;
+		}
+		interpolate = false;
+	}
+
+	@Override
+	public <T extends Positionable> void addPostionChangeListener(PositionChangeListener<T> listener) {
+		positionChangeListenerLock.writeLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListeners = new ArrayList<PositionChangeListener>(1);
+		}
+		positionChangeListeners.add(listener);
+		positionChangeListenerLock.writeLock().unlock();
+	}
+
+	@Override
+	public <T extends Positionable> void removePositionChangeListener(PositionChangeListener<T> listener) {
+		positionChangeListenerLock.readLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListenerLock.readLock().unlock();
+			return;
+		}
+		positionChangeListenerLock.readLock().unlock();
+
+		positionChangeListenerLock.writeLock().lock();
+		positionChangeListeners.remove(listener);
+		positionChangeListenerLock.writeLock().unlock();
+	}
+
+	private void notifyPositionChangeListeners() {
+		positionChangeListenerLock.readLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListenerLock.readLock().unlock();
+			return;
+		}
+		for (int i = positionChangeListeners.size() - 1; i >= 0; i--) {
+			if (i >= positionChangeListeners.size()) {
+				i = positionChangeListeners.size() - 1;
+			}
+			PositionChangeListener listener = positionChangeListeners.get(i);
+			positionChangeListenerLock.readLock().unlock();
+			listener.positionChanged(this);
+			positionChangeListenerLock.readLock().lock();
+		}
+		positionChangeListenerLock.readLock().unlock();
+	}
+
+	@Override
+	public <T extends Sizeable> void addSizeChangeListener(SizeChangeListener<T> listener) {
+		sizeChangeListenerLock.writeLock().lock();
+		if (sizeChangeListeners == null) {
+			sizeChangeListeners = new ArrayList<SizeChangeListener>(1);
+		}
+		sizeChangeListeners.add(listener);
+		sizeChangeListenerLock.writeLock().unlock();
+	}
+
+	@Override
+	public <T extends Sizeable> void removeSizeChangeListener(SizeChangeListener<T> listener) {
+		sizeChangeListenerLock.readLock().lock();
+		if (sizeChangeListeners == null) {
+			sizeChangeListenerLock.readLock().unlock();
+			return;
+		}
+		sizeChangeListenerLock.readLock().unlock();
+
+		sizeChangeListenerLock.writeLock().lock();
+		sizeChangeListeners.remove(listener);
+		sizeChangeListenerLock.writeLock().unlock();
+	}
+
+	private void notifySizeChangeListeners() {
+		sizeChangeListenerLock.readLock().lock();
+		if (sizeChangeListeners == null) {
+			sizeChangeListenerLock.readLock().unlock();
+			return;
+		}
+		for (int i = sizeChangeListeners.size() - 1; i >= 0; i--) {
+			if (i >= sizeChangeListeners.size()) {
+				i = sizeChangeListeners.size() - 1;
+			}
+			SizeChangeListener listener = sizeChangeListeners.get(i);
+			sizeChangeListenerLock.readLock().unlock();
+			listener.sizeChanged(this);
+			sizeChangeListenerLock.readLock().lock();
+		}
+		sizeChangeListenerLock.readLock().unlock();
+	}
+
+	@Override
+	public void set(int x, int y, int width, int height) {
+		boolean notifyPositionListeners = x != getFixedX() || y != getFixedY();
+		boolean notifySizeListeners = width != getFixedWidth() || height != getFixedHeight();
+		if (!notifyPositionListeners && !notifySizeListeners) {
+			return;
+		}
+		super.set(x, y, width, height);
+		toRectangle(shape);
+		interpolate = true;
+
+		if (notifyPositionListeners) {
+			notifyPositionChangeListeners();
+		}
+		if (notifySizeListeners) {
+			notifySizeChangeListeners();
+		}
+	}
+
+	@Override
+	public void set(int x, int y) {
+		if (x == getFixedX() && y == getFixedY()) {
+			return;
+		}
+		super.set(x, y);
+		toRectangle(shape);
+		interpolate = true;
+		notifyPositionChangeListeners();
+	}
+
+	@Override
+	public void setFixedX(int x) {
+		set(x, getFixedY());
+	}
+
+	@Override
+	public void setFixedY(int y) {
+		set(getFixedX(), y);
+	}
+
+	@Override
+	public void setFixedWidth(int width) {
+		set(getFixedX(), getFixedY(), width, getFixedHeight());
+	}
+
+	@Override
+	public void setFixedHeight(int height) {
+		set(getFixedX(), getFixedY(), getFixedWidth(), height);
+	}
+
+	@Override
+	public void forceTo(float x, float y) {
+		forceToFixed(Fixed.fromFloat(x), Fixed.fromFloat(y), getFixedWidth(), getFixedHeight());
+	}
+
+	/**
+	 * Sets the current bounds to the specified fixed-point bounds and force
+	 * updates the rendering bounds to match
+	 * 
+	 * @param x
+	 *            The fixed-point x coordinate to set
+	 * @param y
+	 *            The fixed-point y coordinate to set
+	 * @param width
+	 *            The fixed-point width to set
+	 * @param height
+	 *            The fixed-point height to set
+	 */
+	public void forceToFixed(int x, int y, int width, int height) {
+		boolean notifyPositionListeners = x != getFixedX() || y != getFixedY();
+		boolean notifySizeListeners = width != getFixedWidth() || height != getFixedHeight();
+
+		super.set(x, y, width, height);
+		toRectangle(shape);
+		previousRectangle.set(x, y, width, height);
+		renderRectangle.set(previousRectangle);
+		storeRenderCoordinates();
+		interpolate = false;
+
+		if (notifyPositionListeners) {
+			notifyPositionChangeListeners();
+		}
+		if (notifySizeListeners) {
+			notifySizeChangeListeners();
+		}
+	}
+
+	@Override
+	public float getX() {
+		return shape.getX();
+	}
+
+	@Override
+	public void setX(float x) {
+		setFixedX(Fixed.fromFloat(x));
+	}
+
+	@Override
+	public float getY() {
+		return shape.getY();
+	}
+
+	@Override
+	public void setY(float y) {
+		setFixedY(Fixed.fromFloat(y));
+	}
+
+	@Override
+	public float getWidth() {
+		return shape.getWidth();
+	}
+
+	@Override
+	public float getHeight() {
+		return shape.getHeight();
+	}
+
+	@Override
+	public float getMinX() {
+		return shape.getMinX();
+	}
+
+	@Override
+	public float getMinY() {
+		return shape.getMinY();
+	}
+
+	@Override
+	public float getMaxX() {
+		return shape.getMaxX();
+	}
+
+	@Override
+	public float getMaxY() {
+		return shape.getMaxY();
+	}
+
+	@Override
+	public float getDistanceTo(Positionable positionable) {
+		return shape.getDistanceTo(positionable.getX(), positionable.getY());
+	}
+
+	@Override
+	public boolean contains(Shape shape) {
+		return this.shape.contains(shape);
+	}
+
+	@Override
+	public boolean contains(Vector2 point) {
+		return shape.contains(point);
+	}
+
+	@Override
+	public boolean intersects(Shape shape) {
+		return this.shape.intersects(shape);
+	}
+
+	@Override
+	public boolean intersects(LineSegment lineSegment) {
+		return shape.intersects(lineSegment);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
+		return shape.intersectsLineSegment(pointA, pointB);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
+		return shape.intersectsLineSegment(x1, y1, x2, y2);
+	}
+
+	public int getRenderX() {
+		return renderX;
+	}
+
+	public int getRenderY() {
+		return renderY;
+	}
+
+	public int getRenderWidth() {
+		return renderWidth;
+	}
+
+	public int getRenderHeight() {
+		return renderHeight;
+	}
+
+	public int getPreviousFixedX() {
+		return previousRectangle.getFixedX();
+	}
+
+	public int getPreviousFixedY() {
+		return previousRectangle.getFixedY();
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public Shape getShape() {
+		return shape;
+	}
+
+	@Override
+	public String toString() {
+		return "FixedCollisionBox [id=" + id + ", x=" + getX() + ", y=" + getY() + ", width=" + getWidth()
+				+ ", height=" + getHeight() + "]";
+	}
+}
@@ -0,0 +1,383 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.engine.Sizeable;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Fixed;
+import org.mini2Dx.core.geom.FixedCircle;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * An implementation of {@link FixedCircle} that can be stored in a
+ * {@link org.mini2Dx.core.collisions.RegionQuadTree} and allows for
+ * interpolation. The fixed-point values are the simulation state; the
+ * {@link Circle} returned by {@link #getShape()} is kept in sync for spatial
+ * queries and must not be modified directly.
+ */
+public class FixedCollisionCircle extends FixedCircle implements CollisionShape {
+	private static final long serialVersionUID = -2257961462409640470L;
+
+	private final int id;
+	private final ReentrantReadWriteLock positionChangeListenerLock;
+	private final ReentrantReadWriteLock sizeChangeListenerLock;
+	private final Circle shape;
+
+	private List<PositionChangeListener> positionChangeListeners;
+	private List<SizeChangeListener> sizeChangeListeners;
+
+	private FixedCircle previousCircle;
+	private FixedCircle renderCircle;
+	private int renderX, renderY;
+	private boolean interpolate = false;
+
+	public FixedCollisionCircle(int radius) {
+		this(CollisionIdSequence.nextId(), 0, 0, radius);
+	}
+
+	public FixedCollisionCircle(int centerX, int centerY, int radius) {
+		this(CollisionIdSequence.nextId(), centerX, centerY, radius);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            The unique id of this circle
+	 * @param centerX
+	 *            The fixed-point x coordinate of the center
+	 * @param centerY
+	 *            The fixed-point y coordinate of the center
+	 * @param radius
+	 *            The fixed-point radius
+	 */
+	public FixedCollisionCircle(int id, int centerX, int centerY, int radius) {
+		super(centerX, centerY, radius);
+		this.id = id;
+
+		positionChangeListenerLock = new ReentrantReadWriteLock();
+		sizeChangeListenerLock = new ReentrantReadWriteLock();
+		shape = toCircle(new Circle(0f));
+		previousCircle = new FixedCircle(centerX, centerY, radius);
+		renderCircle = new FixedCircle(centerX, centerY, radius);
+		storeRenderCoordinates();
+	}
+
+	private void storeRenderCoordinates() {
+		renderX = Fixed.round(renderCircle.getFixedX());
+		renderY = Fixed.round(renderCircle.getFixedY());
+	}
+
+	@Override
+	public void preUpdate() {
+		previousCircle.set(this);
+	}
+
+	@Override
+	public void update(GameContainer gc, float delta) {
+	}
+
+	@Override
+	public void interpolate(GameContainer gc, float alpha) {
+		if (!interpolate) {
+			return;
+		}
+		renderCircle.set(previousCircle);
+		renderCircle.lerp(this, Fixed.fromFloat(alpha));
+		storeRenderCoordinates();
+		if (renderX != Fixed.round(getFixedX())) {
+			return;
+		}
+		if (renderY != Fixed.round(getFixedY())) {
+			return;
+		}
+		interpolate = false;
+	}
+
+	@Override
+	public <T extends Positionable> void addPostionChangeListener(PositionChangeListener<T> listener) {
+		positionChangeListenerLock.writeLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListeners = new ArrayList<PositionChangeListener>(1);
+		}
+		positionChangeListeners.add(listener);
+		positionChangeListenerLock.writeLock().unlock();
+	}
+
+	@Override
+	public <T extends Positionable> void removePositionChangeListener(PositionChangeListener<T> listener) {
+		positionChangeListenerLock.readLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListenerLock.readLock().unlock();
+			return;
+		}
+		positionChangeListenerLock.readLock().unlock();
+
+		positionChangeListenerLock.writeLock().lock();
+		positionChangeListeners.remove(listener);
+		positionChangeListenerLock.writeLock().unlock();
+	}
+
+	private void notifyPositionChangeListeners() {
+		positionChangeListenerLock.readLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListenerLock.readLock().unlock();
+			return;
+		}
+		for (int i = positionChangeListeners.size() - 1; i >= 0; i--) {
+			if (i >= positionChangeListeners.size()) {
+				i = positionChangeListeners.size() - 1;
+			}
+			PositionChangeListener listener = positionChangeListeners.get(i);
+			positionChangeListenerLock.readLock().unlock();
+			listener.positionChanged(this);
+			positionChangeListenerLock.readLock().lock();
+		}
+		positionChangeListenerLock.readLock().unlock();
+	}
+
+	@Override
+	public <T extends Sizeable> void addSizeChangeListener(SizeChangeListener<T> listener) {
+		sizeChangeListenerLock.writeLock().lock();
+		if (sizeChangeListeners == null) {
+			sizeChangeListeners = new ArrayList<SizeChangeListener>(1);
+		}
+		sizeChangeListeners.add(listener);
+		sizeChangeListenerLock.writeLock().unlock();
+	}
+
+	@Override
+	public <T extends Sizeable> void removeSizeChangeListener(SizeChangeListener<T> listener) {
+		sizeChangeListenerLock.readLock().lock();
+		if (sizeChangeListeners == null) {
+			sizeChangeListenerLock.readLock().unlock();
+			return;
+		}
+		sizeChangeListenerLock.readLock().unlock();
+
+		sizeChangeListenerLock.writeLock().lock();
+		sizeChangeListeners.remove(listener);
+		sizeChangeListenerLock.writeLock().unlock();
+	}
+
+	private void notifySizeChangeListeners() {
+		sizeChangeListenerLock.readLock().lock();
+		if (sizeChangeListeners == null) {
+			sizeChangeListenerLock.readLock().unlock();
+			return;
+		}
+		for (int i = sizeChangeListeners.size() - 1; i >= 0; i--) {
+			if (i >= sizeChangeListeners.size()) {
+				i = sizeChangeListeners.size() - 1;
+			}
+			SizeChangeListener listener = sizeChangeListeners.get(i);
+			sizeChangeListenerLock.readLock().unlock();
+			listener.sizeChanged(this);
+			sizeChangeListenerLock.readLock().lock();
+		}
+		sizeChangeListenerLock.readLock().unlock();
+	}
+
+	@Override
+	public void set(int centerX, int centerY) {
+		if (centerX == getFixedX() && centerY == getFixedY()) {
+			return;
+		}
+		super.set(centerX, centerY);
+		toCircle(shape);
+		interpolate = true;
+		notifyPositionChangeListeners();
+	}
+
+	@Override
+	public void setFixedX(int x) {
+		set(x, getFixedY());
+	}
+
+	@Override
+	public void setFixedY(int y) {
+		set(getFixedX(), y);
+	}
+
+	@Override
+	public void setFixedRadius(int radius) {
+		if (radius == getFixedRadius()) {
+			return;
+		}
+		super.setFixedRadius(radius);
+		toCircle(shape);
+		interpolate = true;
+		notifySizeChangeListeners();
+	}
+
+	@Override
+	public void forceTo(float x, float y) {
+		forceToFixed(Fixed.fromFloat(x), Fixed.fromFloat(y));
+	}
+
+	/**
+	 * Sets the current center to the specified fixed-point coordinates and
+	 * force updates the rendering position to match
+	 * 
+	 * @param centerX
+	 *            The fixed-point x coordinate to set
+	 * @param centerY
+	 *            The fixed-point y coordinate to set
+	 */
+	public void forceToFixed(int centerX, int centerY) {
+		boolean notifyPositionListeners = centerX != getFixedX() || centerY != getFixedY();
+
+		super.set(centerX, centerY);
+		toCircle(shape);
+		previousCircle.set(centerX, centerY);
+		renderCircle.set(centerX, centerY);
+		storeRenderCoordinates();
+		interpolate = false;
+
+		if (!notifyPositionListeners) {
+			return;
+		}
+		notifyPositionChangeListeners();
+	}
+
+	@Override
+	public float getX() {
+		return shape.getX();
+	}
+
+	@Override
+	public void setX(float x) {
+		setFixedX(Fixed.fromFloat(x));
+	}
+
+	@Override
+	public float getY() {
+		return shape.getY();
+	}
+
+	@Override
+	public void setY(float y) {
+		setFixedY(Fixed.fromFloat(y));
+	}
+
+	public float getRadius() {
+		return shape.getRadius();
+	}
+
+	@Override
+	public float getWidth() {
+		return shape.getRadius() * 2f;
+	}
+
+	@Override
+	public float getHeight() {
+		return shape.getRadius() * 2f;
+	}
+
+	@Override
+	public float getMinX() {
+		return shape.getMinX();
+	}
+
+	@Override
+	public float getMinY() {
+		return shape.getMinY();
+	}
+
+	@Override
+	public float getMaxX() {
+		return shape.getMaxX();
+	}
+
+	@Override
+	public float getMaxY() {
+		return shape.getMaxY();
+	}
+
+	@Override
+	public float getDistanceTo(Positionable positionable) {
+		return shape.getDistanceTo(positionable.getX(), positionable.getY());
+	}
+
+	@Override
+	public boolean contains(Shape shape) {
+		return this.shape.contains(shape);
+	}
+
+	@Override
+	public boolean contains(Vector2 point) {
+		return shape.contains(point);
+	}
+
+	@Override
+	public boolean intersects(Shape shape) {
+		return this.shape.intersects(shape);
+	}
+
+	@Override
+	public boolean intersects(LineSegment lineSegment) {
+		return shape.intersects(lineSegment);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
+		return shape.intersectsLineSegment(pointA, pointB);
+	}
+
+	@Override
+	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
+		return shape.intersectsLineSegment(x1, y1, x2, y2);
+	}
+
+	public int getRenderX() {
+		return renderX;
+	}
+
+	public int getRenderY() {
+		return renderY;
+	}
+
+	public int getPreviousFixedX() {
+		return previousCircle.getFixedX();
+	}
+
+	public int getPreviousFixedY() {
+		return previousCircle.getFixedY();
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public Shape getShape() {
+		return shape;
+	}
+
+	@Override
+	public String toString() {
+		return "FixedCollisionCircle [id=" + id + ", x=" + getX() + ", y=" + getY() + ", radius=" + getRadius()
+				+ "]";
+	}
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.geom.Fixed;
+import org.mini2Dx.core.geom.FixedPoint;
+
+/**
+ * An implementation of {@link FixedPoint} that can be stored in a
+ * {@link org.mini2Dx.core.collisions.PointQuadTree} and allows for
+ * interpolation
+ */
+public class FixedCollisionPoint extends FixedPoint implements Positionable {
+	private static final long serialVersionUID = 4423075328640532467L;
+
+	private final int id;
+	private final ReentrantReadWriteLock positionChangeListenerLock;
+
+	private List<PositionChangeListener> positionChangeListeners;
+
+	private FixedPoint previousPosition;
+	private FixedPoint renderPosition;
+	private int renderX, renderY;
+	private boolean interpolate = false;
+
+	public FixedCollisionPoint() {
+		this(0, 0);
+	}
+
+	public FixedCollisionPoint(int x, int y) {
+		this(CollisionIdSequence.nextId(), x, y);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 *            The unique id of this point
+	 * @param x
+	 *            The fixed-point x coordinate
+	 * @param y
+	 *            The fixed-point y coordinate
+	 */
+	public FixedCollisionPoint(int id, int x, int y) {
+		super(x, y);
+		this.id = id;
+
+		positionChangeListenerLock = new ReentrantReadWriteLock();
+		previousPosition = new FixedPoint(x, y);
+		renderPosition = new FixedPoint(x, y);
+		storeRenderCoordinates();
+	}
+
+	private void storeRenderCoordinates() {
+		renderX = Fixed.round(renderPosition.getFixedX());
+		renderY = Fixed.round(renderPosition.getFixedY());
+	}
+
+	/**
+	 * This method needs to be called at the start of each frame before any
+	 * changes are made to this object
+	 */
+	public void preUpdate() {
+		previousPosition.set(this);
+	}
+
+	@Override
+	public void update(GameContainer gc, float delta) {
+	}
+
+	@Override
+	public void interpolate(GameContainer gc, float alpha) {
+		if (!interpolate) {
+			return;
+		}
+		renderPosition.set(previousPosition);
+		renderPosition.lerp(this, Fixed.fromFloat(alpha));
+		storeRenderCoordinates();
+		if (renderX != Fixed.round(getFixedX())) {
+			return;
+		}
+		if (renderY != Fixed.round(getFixedY())) {
+			return;
+		}
+		interpolate = false;
+	}
+
+	@Override
+	public <T extends Positionable> void addPostionChangeListener(PositionChangeListener<T> listener) {
+		positionChangeListenerLock.writeLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListeners = new ArrayList<PositionChangeListener>(1);
+		}
+		positionChangeListeners.add(listener);
+		positionChangeListenerLock.writeLock().unlock();
+	}
+
+	@Override
+	public <T extends Positionable> void removePositionChangeListener(PositionChangeListener<T> listener) {
+		positionChangeListenerLock.readLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListenerLock.readLock().unlock();
+			return;
+		}
+		positionChangeListenerLock.readLock().unlock();
+
+		positionChangeListenerLock.writeLock().lock();
+		positionChangeListeners.remove(listener);
+		positionChangeListenerLock.writeLock().unlock();
+	}
+
+	private void notifyPositionChangeListeners() {
+		positionChangeListenerLock.readLock().lock();
+		if (positionChangeListeners == null) {
+			positionChangeListenerLock.readLock().unlock();
+			return;
+		}
+		for (int i = positionChangeListeners.size() - 1; i >= 0; i--) {
+			if (i >= positionChangeListeners.size()) {
+				i = positionChangeListeners.size() - 1;
+			}
+			PositionChangeListener listener = positionChangeListeners.get(i);
+			positionChangeListenerLock.readLock().unlock();
+			listener.positionChanged(this);
+			positionChangeListenerLock.readLock().lock();
+		}
+		positionChangeListenerLock.readLock().unlock();
+	}
+
+	@Override
+	public void set(int x, int y) {
+		if (x == getFixedX() && y == getFixedY()) {
+			return;
+		}
+		super.set(x, y);
+		interpolate = true;
+		notifyPositionChangeListeners();
+	}
+
+	@Override
+	public void setFixedX(int x) {
+		set(x, getFixedY());
+	}
+
+	@Override
+	public void setFixedY(int y) {
+		set(getFixedX(), y);
+	}
+
+	/**
+	 * Sets the current position to the specified fixed-point coordinates and
+	 * force updates the rendering position to match
+	 * 
+	 * @param x
+	 *            The fixed-point x coordinate to set
+	 * @param y
+	 *            The fixed-point y coordinate to set
+	 */
+	public void forceToFixed(int x, int y) {
+		boolean notifyPositionListeners = x != getFixedX() || y != getFixedY();
+
+		super.set(x, y);
+		previousPosition.set(x, y);
+		renderPosition.set(x, y);
+		storeRenderCoordinates();
+		interpolate = false;
+
+		if (!notifyPositionListeners) {
+			return;
+		}
+		notifyPositionChangeListeners();
+	}
+
+	@Override
+	public float getX() {
+		return Fixed.toFloat(getFixedX());
+	}
+
+	@Override
+	public void setX(float x) {
+		setFixedX(Fixed.fromFloat(x));
+	}
+
+	@Override
+	public float getY() {
+		return Fixed.toFloat(getFixedY());
+	}
+
+	@Override
+	public void setY(float y) {
+		setFixedY(Fixed.fromFloat(y));
+	}
+
+	@Override
+	public float getDistanceTo(Positionable positionable) {
+		float deltaX = positionable.getX() - getX();
+		float deltaY = positionable.getY() - getY();
+		return (float) Math.sqrt((deltaX * deltaX) + (deltaY * deltaY));
+	}
+
+	@Override
+	public int getRenderX() {
+		return renderX;
+	}
+
+	@Override
+	public int getRenderY() {
+		return renderY;
+	}
+
+	public int getPreviousFixedX() {
+		return previousPosition.getFixedX();
+	}
+
+	public int getPreviousFixedY() {
+		return previousPosition.getFixedY();
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "FixedCollisionPoint [id=" + id + ", x=" + getX() + ", y=" + getY() + "]";
+	}
+}
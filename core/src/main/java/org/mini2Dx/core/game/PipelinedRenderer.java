@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.mini2Dx.core.graphics.DeferredGraphics;
+import org.mini2Dx.core.graphics.Graphics;
+
+/**
+ * Pipelines rendering between a game thread and the thread that owns the GL
+ * context. The game thread records each frame into a {@link DeferredGraphics}
+ * via {@link #recordFrame()} while the GL thread replays the previously
+ * recorded frame via {@link #renderFrame(long)}, so slow game logic overlaps
+ * with rendering instead of adding to the frame time.
+ * 
+ * Frames are handed off in the order they were recorded. With
+ * {@link #DOUBLE_BUFFERED} the game thread can record one frame while another
+ * is rendered; {@link #TRIPLE_BUFFERED} allows one more frame to be queued at
+ * the cost of an extra frame of latency.
+ * 
+ * Colors, clips, sprites, texture regions and polygon arrays are copied into
+ * the frame when they are drawn, so the game thread may modify them while
+ * earlier frames are rendered. Fonts, nine patches, sprite caches, stages and
+ * particle effects cannot be copied and are read when the frame is rendered;
+ * drawing them is not supported unless the game thread leaves them unmodified
+ * while frames are queued.
+ */
+public class PipelinedRenderer {
+	public static final int DOUBLE_BUFFERED = 2;
+	public static final int TRIPLE_BUFFERED = 3;
+
+	private final GameContainer gameContainer;
+	private final Graphics target;
+	private final BlockingQueue<DeferredGraphics> freeFrames;
+	private final BlockingQueue<DeferredGraphics> recordedFrames;
+
+	private Graphics previousFrame;
+
+	private volatile long totalFramesRecorded, totalFramesRendered;
+	private volatile long recordingNanos, renderingNanos;
+	private volatile long recordWaitNanos, renderWaitNanos;
+
+	/**
+	 * Constructor. Must be called after the {@link GameContainer} has been
+	 * started.
+	 * 
+	 * @param gameContainer
+	 *            The {@link GameContainer} to record frames from
+	 * @param totalFrames
+	 *            The number of frame buffers, e.g. {@link #DOUBLE_BUFFERED}
+	 */
+	public PipelinedRenderer(GameContainer gameContainer, int totalFrames) {
+		this(gameContainer, gameContainer.graphics, totalFrames);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param gameContainer
+	 *            The {@link GameContainer} to record frames from
+	 * @param target
+	 *            The {@link Graphics} that frames are rendered to
+	 * @param totalFrames
+	 *            The number of frame buffers, e.g. {@link #DOUBLE_BUFFERED}
+	 */
+	public PipelinedRenderer(GameContainer gameContainer, Graphics target, int totalFrames) {
+		if (totalFrames < DOUBLE_BUFFERED) {
+			throw new IllegalArgumentException("PipelinedRenderer requires at least " + DOUBLE_BUFFERED + " frames");
+		}
+		this.gameContainer = gameContainer;
+		this.target = target;
+		this.previousFrame = target;
+
+		freeFrames = new ArrayBlockingQueue<DeferredGraphics>(totalFrames);
+		recordedFrames = new ArrayBlockingQueue<DeferredGraphics>(totalFrames);
+		for (int i = 0; i < totalFrames; i++) {
+			freeFrames.add(new DeferredGraphics());
+		}
+	}
+
+	/**
+	 * Records the next frame by calling
+	 * {@link GameContainer#render(Graphics)}. Called on the game thread after
+	 * updating and interpolating. Blocks while all frames are waiting to be
+	 * rendered.
+	 * 
+	 * @throws InterruptedException
+	 *             Thrown if the game thread is interrupted while waiting
+	 */
+	public void recordFrame() throws InterruptedException {
+		long startTime = System.nanoTime();
+		DeferredGraphics frame = freeFrames.take();
+		long recordTime = System.nanoTime();
+
+		frame.beginRecording(previousFrame, gameContainer.getWidth(), gameContainer.getHeight());
+		gameContainer.render(frame);
+		frame.endRecording();
+		previousFrame = frame;
+
+		long endTime = System.nanoTime();
+		recordWaitNanos += recordTime - startTime;
+		recordingNanos += endTime - recordTime;
+		totalFramesRecorded++;
+		recordedFrames.put(frame);
+	}
+
+	/**
+	 * Renders the oldest recorded frame. Called on the thread that owns the
+	 * GL context.
+	 * 
+	 * @param timeoutMillis
+	 *            The maximum time in milliseconds to wait for a frame
+	 * @return False if no frame was recorded before the timeout
+	 * @throws InterruptedException
+	 *             Thrown if the GL thread is interrupted while waiting
+	 */
+	public boolean renderFrame(long timeoutMillis) throws InterruptedException {
+		long startTime = System.nanoTime();
+		DeferredGraphics frame = recordedFrames.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+		long renderTime = System.nanoTime();
+		renderWaitNanos += renderTime - startTime;
+		if (frame == null) {
+			return false;
+		}
+
+		frame.replay(target);
+
+		renderingNanos += System.nanoTime() - renderTime;
+		totalFramesRendered++;
+		freeFrames.put(frame);
+		return true;
+	}
+
+	/**
+	 * Returns the total number of frames recorded
+	 * 
+	 * @return 0 if no frames have been recorded
+	 */
+	public long getTotalFramesRecorded() {
+		return totalFramesRecorded;
+	}
+
+	/**
+	 * Returns the total number of frames rendered
+	 * 
+	 * @return 0 if no frames have been rendered
+	 */
+	public long getTotalFramesRendered() {
+		return totalFramesRendered;
+	}
+
+	/**
+	 * Returns the total time the game thread spent recording frames
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getRecordingNanos() {
+		return recordingNanos;
+	}
+
+	/**
+	 * Returns the total time the GL thread spent rendering frames
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getRenderingNanos() {
+		return renderingNanos;
+	}
+
+	/**
+	 * Returns the total time the game thread waited for a frame to record
+	 * into. A high value means rendering is the bottleneck.
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getRecordWaitNanos() {
+		return recordWaitNanos;
+	}
+
+	/**
+	 * Returns the total time the GL thread waited for a recorded frame. A
+	 * high value means game logic is the bottleneck.
+	 * 
+	 * @return The time in nanoseconds
+	 */
+	public long getRenderWaitNanos() {
+		return renderWaitNanos;
+	}
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+/**
+ * Runs the same intersection test across many shapes stored as
+ * struct-of-arrays <code>float[]</code>s (e.g. <code>xs</code>,
+ * <code>ys</code>, <code>widths</code>, <code>heights</code>,
+ * <code>radii</code>) rather than as {@link Shape} instances.
+ * 
+ * Results are written into a <code>long[]</code> bitset where bit
+ * <code>i % 64</code> of word <code>i / 64</code> is set if shape
+ * <code>i</code> passed the test. Bits beyond the shape count are cleared.
+ * Each word is filled by a simple counted, branch-free loop so the JIT can
+ * unroll it and eliminate array bounds checks.
+ * 
+ * Rectangles are axis-aligned and given by their top-left corner, width and
+ * height. Circles are given by their center and radius. Results match the
+ * equivalent unrotated {@link Rectangle} and {@link Circle} methods.
+ */
+public class BatchIntersector {
+	private static final int BITS_PER_WORD = 64;
+
+	/**
+	 * Returns the number of <code>long</code>s required to store the results
+	 * for a number of shapes
+	 * 
+	 * @param count
+	 *            The number of shapes
+	 * @return The minimum length of the result bitset
+	 */
+	public static int getBitsetLength(int count) {
+		return (count + BITS_PER_WORD - 1) / BITS_PER_WORD;
+	}
+
+	/**
+	 * Returns if a shape's bit is set in a result bitset
+	 * 
+	 * @param bitset
+	 *            The result bitset
+	 * @param index
+	 *            The index of the shape
+	 * @return True if the shape passed the test
+	 */
+	public static boolean isSet(long[] bitset, int index) {
+		return (bitset[index / BITS_PER_WORD] & (1L << (index % BITS_PER_WORD))) != 0L;
+	}
+
+	/**
+	 * Returns the number of bits set in a result bitset
+	 * 
+	 * @param bitset
+	 *            The result bitset
+	 * @param count
+	 *            The number of shapes the bitset holds results for
+	 * @return The number of shapes that passed the test
+	 */
+	public static int getTotalSet(long[] bitset, int count) {
+		int result = 0;
+		for (int i = getBitsetLength(count) - 1; i >= 0; i--) {
+			result += Long.bitCount(bitset[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Tests which rectangles intersect a rectangle. Equivalent to
+	 * {@link Rectangle#intersects(Rectangle)}.
+	 * 
+	 * @param x
+	 *            The x coordinate of the rectangle to test against
+	 * @param y
+	 *            The y coordinate of the rectangle to test against
+	 * @param width
+	 *            The width of the rectangle to test against
+	 * @param height
+	 *            The height of the rectangle to test against
+	 * @param xs
+	 *            The x coordinates of the rectangles
+	 * @param ys
+	 *            The y coordinates of the rectangles
+	 * @param widths
+	 *            The widths of the rectangles
+	 * @param heights
+	 *            The heights of the rectangles
+	 * @param count
+	 *            The number of rectangles
+	 * @param result
+	 *            The bitset to store the results in
+	 */
+	public static void intersectRectangles(float x, float y, float width, float height, float[] xs, float[] ys,
+			float[] widths, float[] heights, int count, long[] result) {
+		checkBitset(count, result);
+		checkInput(xs, count);
+		checkInput(ys, count);
+		checkInput(widths, count);
+		checkInput(heights, count);
+		float maxX = x + width;
+		float maxY = y + height;
+		for (int offset = 0, word = 0; offset < count; offset += BITS_PER_WORD, word++) {
+			int length = Math.min(BITS_PER_WORD, count - offset);
+			long bits = 0L;
+			for (int i = 0; i < length; i++) {
+				int index = offset + i;
+				float otherX = xs[index];
+				float otherY = ys[index];
+				boolean overlaps = (otherX <= maxX) & (x <= otherX + widths[index]) & (otherY <= maxY)
+						& (y <= otherY + heights[index]);
+				bits |= (overlaps ? 1L : 0L) << i;
+			}
+			result[word] = bits;
+		}
+		clearUnused(count, result);
+	}
+
+	/**
+	 * Tests which rectangles contain a point. Equivalent to
+	 * {@link Rectangle#contains(float, float)}.
+	 * 
+	 * @param xs
+	 *            The x coordinates of the rectangles
+	 * @param ys
+	 *            The y coordinates of the rectangles
+	 * @param widths
+	 *            The widths of the rectangles
+	 * @param heights
+	 *            The heights of the rectangles
+	 * @param count
+	 *            The number of rectangles
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 * @param result
+	 *            The bitset to store the results in
+	 */
+	public static void rectanglesContain(float[] xs, float[] ys, float[] widths, float[] heights, int count,
+			float x, float y, long[] result) {
+		checkBitset(count, result);
+		checkInput(xs, count);
+		checkInput(ys, count);
+		checkInput(widths, count);
+		checkInput(heights, count);
+		for (int offset = 0, word = 0; offset < count; offset += BITS_PER_WORD, word++) {
+			int length = Math.min(BITS_PER_WORD, count - offset);
+			long bits = 0L;
+			for (int i = 0; i < length; i++) {
+				int index = offset + i;
+				float minX = xs[index];
+				float minY = ys[index];
+				boolean contains = (x >= minX) & (x <= minX + widths[index]) & (y >= minY)
+						& (y <= minY + heights[index]);
+				bits |= (contains ? 1L : 0L) << i;
+			}
+			result[word] = bits;
+		}
+		clearUnused(count, result);
+	}
+
+	/**
+	 * Tests which circles intersect a circle. Equivalent to
+	 * {@link Circle#intersects(Circle)}.
+	 * 
+	 * @param x
+	 *            The center x coordinate of the circle to test against
+	 * @param y
+	 *            The center y coordinate of the circle to test against
+	 * @param radius
+	 *            The radius of the circle to test against
+	 * @param xs
+	 *            The center x coordinates of the circles
+	 * @param ys
+	 *            The center y coordinates of the circles
+	 * @param radii
+	 *            The radii of the circles
+	 * @param count
+	 *            The number of circles
+	 * @param result
+	 *            The bitset to store the results in
+	 */
+	public static void intersectCircles(float x, float y, float radius, float[] xs, float[] ys, float[] radii,
+			int count, long[] result) {
+		checkBitset(count, result);
+		checkInput(xs, count);
+		checkInput(ys, count);
+		checkInput(radii, count);
+		for (int offset = 0, word = 0; offset < count; offset += BITS_PER_WORD, word++) {
+			int length = Math.min(BITS_PER_WORD, count - offset);
+			long bits = 0L;
+			for (int i = 0; i < length; i++) {
+				int index = offset + i;
+				float deltaX = xs[index] - x;
+				float deltaY = ys[index] - y;
+				float radiusSum = radii[index] + radius;
+				boolean overlaps = (deltaX * deltaX) + (deltaY * deltaY) <= radiusSum * radiusSum;
+				bits |= (overlaps ? 1L : 0L) << i;
+			}
+			result[word] = bits;
+		}
+		clearUnused(count, result);
+	}
+
+	/**
+	 * Tests which circles contain a point. Equivalent to
+	 * {@link Circle#contains(float, float)}.
+	 * 
+	 * @param xs
+	 *            The center x coordinates of the circles
+	 * @param ys
+	 *            The center y coordinates of the circles
+	 * @param radii
+	 *            The radii of the circles
+	 * @param count
+	 *            The number of circles
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 * @param result
+	 *            The bitset to store the results in
+	 */
+	public static void circlesContain(float[] xs, float[] ys, float[] radii, int count, float x, float y,
+			long[] result) {
+		checkBitset(count, result);
+		checkInput(xs, count);
+		checkInput(ys, count);
+		checkInput(radii, count);
+		for (int offset = 0, word = 0; offset < count; offset += BITS_PER_WORD, word++) {
+			int length = Math.min(BITS_PER_WORD, count - offset);
+			long bits = 0L;
+			for (int i = 0; i < length; i++) {
+				int index = offset + i;
+				float deltaX = x - xs[index];
+				float deltaY = y - ys[index];
+				float radius = radii[index];
+				boolean contains = (deltaX * deltaX) + (deltaY * deltaY) <= radius * radius;
+				bits |= (contains ? 1L : 0L) << i;
+			}
+			result[word] = bits;
+		}
+		clearUnused(count, result);
+	}
+
+	/**
+	 * Tests which circles intersect a rectangle. Equivalent to
+	 * {@link Circle#intersects(Rectangle)}.
+	 * 
+	 * @param xs
+	 *            The center x coordinates of the circles
+	 * @param ys
+	 *            The center y coordinates of the circles
+	 * @param radii
+	 *            The radii of the circles
+	 * @param count
+	 *            The number of circles
+	 * @param x
+	 *            The x coordinate of the rectangle
+	 * @param y
+	 *            The y coordinate of the rectangle
+	 * @param width
+	 *            The width of the rectangle
+	 * @param height
+	 *            The height of the rectangle
+	 * @param result
+	 *            The bitset to store the results in
+	 */
+	public static void circlesIntersectRectangle(float[] xs, float[] ys, float[] radii, int count, float x,
+			float y, float width, float height, long[] result) {
+		checkBitset(count, result);
+		checkInput(xs, count);
+		checkInput(ys, count);
+		checkInput(radii, count);
+		float maxX = x + width;
+		float maxY = y + height;
+		for (int offset = 0, word = 0; offset < count; offset += BITS_PER_WORD, word++) {
+			int length = Math.min(BITS_PER_WORD, count - offset);
+			long bits = 0L;
+			for (int i = 0; i < length; i++) {
+				int index = offset + i;
+				float circleX = xs[index];
+				float circleY = ys[index];
+				float radius = radii[index];
+				float closestX = circleX < x ? x : circleX > maxX ? maxX : circleX;
+				float closestY = circleY < y ? y : circleY > maxY ? maxY : circleY;
+				float deltaX = closestX - circleX;
+				float deltaY = closestY - circleY;
+				boolean overlaps = (deltaX * deltaX) + (deltaY * deltaY) < radius * radius;
+				bits |= (overlaps ? 1L : 0L) << i;
+			}
+			result[word] = bits;
+		}
+		clearUnused(count, result);
+	}
+
+	private static void checkBitset(int count, long[] result) {
+		if (count < 0) {
+			throw new IllegalArgumentException("count cannot be negative");
+		}
+		if (result.length < getBitsetLength(count)) {
+			throw new IllegalArgumentException("result must have a length of at least " + getBitsetLength(count));
+		}
+	}
+
+	private static void checkInput(float[] input, int count) {
+		if (input.length < count) {
+			throw new IllegalArgumentException("Input arrays must have a length of at least " + count);
+		}
+	}
+
+	private static void clearUnused(int count, long[] result) {
+		for (int i = getBitsetLength(count); i < result.length; i++) {
+			result[i] = 0L;
+		}
+	}
+}
@@ -14,7 +14,6 @@ package org.mini2Dx.core.geom;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.core.util.EdgeIterator;
 
-import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 
@@ -24,9 +23,6 @@ import com.badlogic.gdx.math.Vector2;
 public class Circle extends Shape {
 	private static final long serialVersionUID = 7900371446650127192L;
 	
-	private final Vector2 centerTmp = new Vector2();
-	private final Vector2 tmp1 = new Vector2();
-	private final Vector2 tmp2 = new Vector2();
 	private final Rectangle boundingBox = new Rectangle();
 	
 	private final CircleEdgeIterator edgeIterator = new CircleEdgeIterator();
@@ -153,21 +149,20 @@ public class Circle extends Shape {
 		if(shape.isCircle()) {
 			return intersects((Circle) shape);
 		}
+		if(shape instanceof Rectangle) {
+			return ((Rectangle) shape).intersects(this);
+		}
 		return shape.getPolygon().intersects(this);
 	}
 	
 	@Override
 	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
-		centerTmp.set(circle.x, circle.y);
-		return Intersector.intersectSegmentCircle(pointA, pointB, centerTmp, circle.radius * circle.radius);
+		return intersectsLineSegment(pointA.x, pointA.y, pointB.x, pointB.y);
 	}
 
 	@Override
 	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
-		tmp1.set(x1, y1);
-		tmp2.set(x2, y2);
-		centerTmp.set(circle.x, circle.y);
-		return Intersector.intersectSegmentCircle(tmp1, tmp2, centerTmp, circle.radius * circle.radius);
+		return IntersectionKernels.intersectSegmentCircle(x1, y1, x2, y2, circle.x, circle.y, circle.radius);
 	}
 	
 	/**
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+/**
+ * Stores the result of a narrowphase collision check. Instances can be reused
+ * between checks to avoid allocation.
+ * 
+ * The minimum translation vector is the shortest translation to apply to the
+ * first {@link Shape} in the check to separate it from the second.
+ */
+public class CollisionResult {
+	private boolean colliding;
+	private float normalX, normalY, depth;
+	
+	/**
+	 * Sets this result to a collision
+	 * 
+	 * @param normalX
+	 *            The x component of the (unit length) contact normal
+	 * @param normalY
+	 *            The y component of the (unit length) contact normal
+	 * @param depth
+	 *            The penetration depth along the normal
+	 */
+	public void set(float normalX, float normalY, float depth) {
+		this.colliding = true;
+		this.normalX = normalX;
+		this.normalY = normalY;
+		this.depth = depth;
+	}
+	
+	/**
+	 * Resets this result to no collision
+	 */
+	public void reset() {
+		colliding = false;
+		normalX = 0f;
+		normalY = 0f;
+		depth = 0f;
+	}
+
+	/**
+	 * Returns if the last check found a collision
+	 * @return False if the shapes did not collide
+	 */
+	public boolean isColliding() {
+		return colliding;
+	}
+
+	/**
+	 * Returns the x component of the contact normal. This points away from
+	 * the second {@link Shape} in the check.
+	 * @return 0 if there was no collision
+	 */
+	public float getNormalX() {
+		return normalX;
+	}
+
+	/**
+	 * Returns the y component of the contact normal. This points away from
+	 * the second {@link Shape} in the check.
+	 * @return 0 if there was no collision
+	 */
+	public float getNormalY() {
+		return normalY;
+	}
+
+	/**
+	 * Returns the penetration depth along the contact normal
+	 * @return 0 if there was no collision
+	 */
+	public float getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * Returns the x component of the minimum translation vector
+	 * @return 0 if there was no collision
+	 */
+	public float getTranslationX() {
+		return normalX * depth;
+	}
+	
+	/**
+	 * Returns the y component of the minimum translation vector
+	 * @return 0 if there was no collision
+	 */
+	public float getTranslationY() {
+		return normalY * depth;
+	}
+
+	@Override
+	public String toString() {
+		return "CollisionResult [colliding=" + colliding + ", normalX=" + normalX + ", normalY=" + normalY
+				+ ", depth=" + depth + "]";
+	}
+}
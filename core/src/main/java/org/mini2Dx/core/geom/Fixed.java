@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+/**
+ * 16.16 fixed-point arithmetic on <code>int</code> values. Every operation
+ * uses integer arithmetic only so results are identical on every JVM and
+ * platform regardless of evaluation order, making these values suitable for
+ * lockstep simulation and replays.
+ * 
+ * Values cover roughly -32768 to 32767 with a precision of 1/65536. Products
+ * of two differences are computed as <code>long</code>s, so intersection
+ * tests in {@link FixedIntersectionKernels} are exact as long as shapes are
+ * smaller than 16384 units across.
+ */
+public class Fixed {
+	public static final int FRACTION_BITS = 16;
+	public static final int ONE = 1 << FRACTION_BITS;
+	public static final int HALF = ONE >> 1;
+	public static final int ZERO = 0;
+	public static final int MAX_VALUE = Integer.MAX_VALUE;
+	public static final int MIN_VALUE = Integer.MIN_VALUE;
+
+	private static final float TO_FLOAT = 1f / ONE;
+
+	/**
+	 * Converts an integer to a fixed-point value
+	 */
+	public static int fromInt(int value) {
+		return value << FRACTION_BITS;
+	}
+
+	/**
+	 * Converts a float to the nearest fixed-point value. The conversion itself
+	 * is deterministic but floats computed on different machines may not be,
+	 * so simulations should only convert constants and input.
+	 */
+	public static int fromFloat(float value) {
+		return Math.round(value * ONE);
+	}
+
+	/**
+	 * Converts a fixed-point value to a float, e.g. for rendering
+	 */
+	public static float toFloat(int value) {
+		return value * TO_FLOAT;
+	}
+
+	/**
+	 * Returns the largest integer less than or equal to a fixed-point value
+	 */
+	public static int floor(int value) {
+		return value >> FRACTION_BITS;
+	}
+
+	/**
+	 * Returns the smallest integer greater than or equal to a fixed-point
+	 * value
+	 */
+	public static int ceil(int value) {
+		return (int) (((long) value + ONE - 1) >> FRACTION_BITS);
+	}
+
+	/**
+	 * Returns the integer closest to a fixed-point value, rounding halves up
+	 */
+	public static int round(int value) {
+		return (int) (((long) value + HALF) >> FRACTION_BITS);
+	}
+
+	/**
+	 * Multiplies two fixed-point values, rounding towards negative infinity
+	 */
+	public static int mul(int a, int b) {
+		return (int) (((long) a * b) >> FRACTION_BITS);
+	}
+
+	/**
+	 * Divides two fixed-point values, rounding towards zero
+	 * 
+	 * @throws ArithmeticException
+	 *             Thrown if the divisor is zero
+	 */
+	public static int div(int dividend, int divisor) {
+		return (int) (((long) dividend << FRACTION_BITS) / divisor);
+	}
+
+	/**
+	 * Returns the square root of a fixed-point value
+	 * 
+	 * @throws IllegalArgumentException
+	 *             Thrown if the value is negative
+	 */
+	public static int sqrt(int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Cannot compute the square root of a negative value");
+		}
+		return (int) isqrt((long) value << FRACTION_BITS);
+	}
+
+	/**
+	 * Returns the integer square root (rounded down) of a non-negative long.
+	 * Applied to a sum of squared fixed-point differences this returns a
+	 * fixed-point distance.
+	 */
+	public static long isqrt(long value) {
+		if (value < 0L) {
+			throw new IllegalArgumentException("Cannot compute the square root of a negative value");
+		}
+		long result = 0L;
+		long bit = 1L << 62;
+		while (bit > value) {
+			bit >>= 2;
+		}
+		while (bit != 0L) {
+			if (value >= result + bit) {
+				value -= result + bit;
+				result = (result >> 1) + bit;
+			} else {
+				result >>= 1;
+			}
+			bit >>= 2;
+		}
+		return result;
+	}
+
+	/**
+	 * Linearly interpolates between two fixed-point values
+	 * 
+	 * @param from
+	 *            The value at alpha 0
+	 * @param to
+	 *            The value at alpha {@link #ONE}
+	 * @param alpha
+	 *            The fixed-point interpolation amount
+	 * @return The interpolated value
+	 */
+	public static int lerp(int from, int to, int alpha) {
+		return (int) (from + ((((long) to - from) * alpha) >> FRACTION_BITS));
+	}
+
+	/**
+	 * Returns the squared distance between two points. The result is in
+	 * fixed-point squared units, i.e. scaled by {@link #ONE} twice.
+	 */
+	public static long distanceSquared(int x1, int y1, int x2, int y2) {
+		long deltaX = (long) x2 - x1;
+		long deltaY = (long) y2 - y1;
+		return (deltaX * deltaX) + (deltaY * deltaY);
+	}
+
+	/**
+	 * Returns the distance between two points as a fixed-point value
+	 */
+	public static int distance(int x1, int y1, int x2, int y2) {
+		return (int) isqrt(distanceSquared(x1, y1, x2, y2));
+	}
+
+	/**
+	 * Returns a fixed-point value clamped between a minimum and maximum
+	 */
+	public static int clamp(int value, int min, int max) {
+		return value < min ? min : (value > max ? max : value);
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.io.Serializable;
+
+/**
+ * A deterministic circle whose center and radius are 16.16 {@link Fixed}
+ * values
+ */
+public class FixedCircle implements Serializable {
+	private static final long serialVersionUID = 6405367640287519186L;
+
+	private int x, y, radius;
+
+	public FixedCircle(int radius) {
+		this(0, 0, radius);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param centerX
+	 *            The fixed-point x coordinate of the center
+	 * @param centerY
+	 *            The fixed-point y coordinate of the center
+	 * @param radius
+	 *            The fixed-point radius
+	 */
+	public FixedCircle(int centerX, int centerY, int radius) {
+		this.x = centerX;
+		this.y = centerY;
+		this.radius = radius;
+	}
+
+	public FixedCircle(FixedCircle circle) {
+		this(circle.x, circle.y, circle.radius);
+	}
+
+	public FixedCircle copy() {
+		return new FixedCircle(this);
+	}
+
+	public boolean contains(int x, int y) {
+		return FixedIntersectionKernels.circleContains(this.x, this.y, radius, x, y);
+	}
+
+	public boolean contains(FixedPoint point) {
+		return contains(point.getFixedX(), point.getFixedY());
+	}
+
+	public boolean contains(FixedCircle circle) {
+		if (circle.radius > radius) {
+			return false;
+		}
+		return FixedIntersectionKernels.circleContains(x, y, radius - circle.radius, circle.x, circle.y);
+	}
+
+	public boolean contains(FixedRectangle rectangle) {
+		return contains(rectangle.getFixedMinX(), rectangle.getFixedMinY())
+				&& contains(rectangle.getFixedMaxX(), rectangle.getFixedMinY())
+				&& contains(rectangle.getFixedMaxX(), rectangle.getFixedMaxY())
+				&& contains(rectangle.getFixedMinX(), rectangle.getFixedMaxY());
+	}
+
+	public boolean intersects(FixedCircle circle) {
+		return FixedIntersectionKernels.intersectCircles(x, y, radius, circle.x, circle.y, circle.radius);
+	}
+
+	public boolean intersects(FixedRectangle rectangle) {
+		return FixedIntersectionKernels.intersectAabbCircle(rectangle.getFixedMinX(), rectangle.getFixedMinY(),
+				rectangle.getFixedMaxX(), rectangle.getFixedMaxY(), x, y, radius);
+	}
+
+	public boolean intersects(FixedLineSegment lineSegment) {
+		return intersectsLineSegment(lineSegment.getFixedX1(), lineSegment.getFixedY1(), lineSegment.getFixedX2(),
+				lineSegment.getFixedY2());
+	}
+
+	public boolean intersectsLineSegment(int x1, int y1, int x2, int y2) {
+		return FixedIntersectionKernels.intersectSegmentCircle(x1, y1, x2, y2, x, y, radius);
+	}
+
+	/**
+	 * Returns the squared distance between the center of this circle and a
+	 * point in fixed-point squared units
+	 */
+	public long getDistanceSquaredFromCenter(int x, int y) {
+		return Fixed.distanceSquared(this.x, this.y, x, y);
+	}
+
+	/**
+	 * Moves and resizes this circle towards a target {@link FixedCircle}
+	 * 
+	 * @param target
+	 *            The target {@link FixedCircle}
+	 * @param alpha
+	 *            The fixed-point interpolation amount ({@link Fixed#ONE} is
+	 *            the target)
+	 * @return This {@link FixedCircle}
+	 */
+	public FixedCircle lerp(FixedCircle target, int alpha) {
+		set(Fixed.lerp(x, target.x, alpha), Fixed.lerp(y, target.y, alpha));
+		setFixedRadius(Fixed.lerp(radius, target.radius, alpha));
+		return this;
+	}
+
+	/**
+	 * Writes the floating point equivalent of this circle into a
+	 * {@link Circle}
+	 * 
+	 * @param result
+	 *            The {@link Circle} to store the result in
+	 * @return The result
+	 */
+	public Circle toCircle(Circle result) {
+		result.set(Fixed.toFloat(x), Fixed.toFloat(y));
+		result.setRadius(Fixed.toFloat(radius));
+		return result;
+	}
+
+	public void translate(int translateX, int translateY) {
+		set(x + translateX, y + translateY);
+	}
+
+	public void set(int centerX, int centerY) {
+		this.x = centerX;
+		this.y = centerY;
+	}
+
+	public void set(FixedCircle circle) {
+		set(circle.x, circle.y);
+		setFixedRadius(circle.radius);
+	}
+
+	public int getFixedX() {
+		return x;
+	}
+
+	public void setFixedX(int x) {
+		this.x = x;
+	}
+
+	public int getFixedY() {
+		return y;
+	}
+
+	public void setFixedY(int y) {
+		this.y = y;
+	}
+
+	public int getFixedRadius() {
+		return radius;
+	}
+
+	public void setFixedRadius(int radius) {
+		this.radius = radius;
+	}
+
+	public int getFixedMinX() {
+		return x - radius;
+	}
+
+	public int getFixedMinY() {
+		return y - radius;
+	}
+
+	public int getFixedMaxX() {
+		return x + radius;
+	}
+
+	public int getFixedMaxY() {
+		return y + radius;
+	}
+
+	@Override
+	public String toString() {
+		return "FixedCircle [x=" + Fixed.toFloat(x) + ", y=" + Fixed.toFloat(y) + ", radius="
+				+ Fixed.toFloat(radius) + "]";
+	}
+}
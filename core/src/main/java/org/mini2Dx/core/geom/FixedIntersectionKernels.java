@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+/**
+ * Stateless intersection tests for 16.16 {@link Fixed} values. All
+ * arithmetic is integer arithmetic so results are bit-identical across JVMs.
+ * Touching shapes are considered to intersect.
+ * 
+ * Each test rejects by bounding box before multiplying coordinate
+ * differences, so only the size of the shapes involved (not their position)
+ * is limited to 16384 units.
+ */
+public class FixedIntersectionKernels {
+
+	/**
+	 * Returns if two axis-aligned bounding boxes overlap
+	 */
+	public static boolean intersectAabbs(int minX1, int minY1, int maxX1, int maxY1, int minX2, int minY2,
+			int maxX2, int maxY2) {
+		return (minX1 <= maxX2) & (minX2 <= maxX1) & (minY1 <= maxY2) & (minY2 <= maxY1);
+	}
+
+	/**
+	 * Returns if two circles overlap
+	 */
+	public static boolean intersectCircles(int x1, int y1, int radius1, int x2, int y2, int radius2) {
+		long radii = (long) radius1 + radius2;
+		long deltaX = (long) x2 - x1;
+		long deltaY = (long) y2 - y1;
+		if (deltaX > radii || -deltaX > radii || deltaY > radii || -deltaY > radii) {
+			return false;
+		}
+		return (deltaX * deltaX) + (deltaY * deltaY) <= radii * radii;
+	}
+
+	/**
+	 * Returns if an axis-aligned bounding box and a circle overlap
+	 */
+	public static boolean intersectAabbCircle(int minX, int minY, int maxX, int maxY, int circleX, int circleY,
+			int radius) {
+		long deltaX = (long) Fixed.clamp(circleX, minX, maxX) - circleX;
+		long deltaY = (long) Fixed.clamp(circleY, minY, maxY) - circleY;
+		if (deltaX > radius || -deltaX > radius || deltaY > radius || -deltaY > radius) {
+			return false;
+		}
+		return (deltaX * deltaX) + (deltaY * deltaY) <= (long) radius * radius;
+	}
+
+	/**
+	 * Returns if a circle contains a point
+	 */
+	public static boolean circleContains(int circleX, int circleY, int radius, int x, int y) {
+		long deltaX = (long) x - circleX;
+		long deltaY = (long) y - circleY;
+		if (deltaX > radius || -deltaX > radius || deltaY > radius || -deltaY > radius) {
+			return false;
+		}
+		return (deltaX * deltaX) + (deltaY * deltaY) <= (long) radius * radius;
+	}
+
+	/**
+	 * Returns the squared distance between a line segment and a point in
+	 * fixed-point squared units. The point is expected to lie near the
+	 * segment, e.g. after a bounding box check.
+	 */
+	public static long distanceSquaredSegmentPoint(int x1, int y1, int x2, int y2, int pointX, int pointY) {
+		long deltaX = (long) x2 - x1;
+		long deltaY = (long) y2 - y1;
+		long dot = (((long) pointX - x1) * deltaX) + (((long) pointY - y1) * deltaY);
+		if (dot <= 0L) {
+			return Fixed.distanceSquared(x1, y1, pointX, pointY);
+		}
+		long lengthSquared = (deltaX * deltaX) + (deltaY * deltaY);
+		if (dot >= lengthSquared) {
+			return Fixed.distanceSquared(x2, y2, pointX, pointY);
+		}
+		// Keep dot << FRACTION_BITS within a long, dot < lengthSquared here
+		while (lengthSquared >= (1L << 46)) {
+			lengthSquared >>= 1;
+			dot >>= 1;
+		}
+		long t = (dot << Fixed.FRACTION_BITS) / lengthSquared;
+		int closestX = (int) (x1 + ((deltaX * t) >> Fixed.FRACTION_BITS));
+		int closestY = (int) (y1 + ((deltaY * t) >> Fixed.FRACTION_BITS));
+		return Fixed.distanceSquared(closestX, closestY, pointX, pointY);
+	}
+
+	/**
+	 * Returns if a line segment intersects a circle
+	 */
+	public static boolean intersectSegmentCircle(int x1, int y1, int x2, int y2, int circleX, int circleY,
+			int radius) {
+		if (!intersectAabbs(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2),
+				circleX - radius, circleY - radius, circleX + radius, circleY + radius)) {
+			return false;
+		}
+		return distanceSquaredSegmentPoint(x1, y1, x2, y2, circleX, circleY) <= (long) radius * radius;
+	}
+
+	/**
+	 * Returns if two line segments touch or cross. Unlike
+	 * {@link IntersectionKernels#intersectSegments(float, float, float, float, float, float, float, float)}
+	 * this is exact, so overlapping collinear segments are also considered to
+	 * intersect.
+	 */
+	public static boolean intersectSegments(int x1, int y1, int x2, int y2, int x3, int y3, int x4, int y4) {
+		if (!intersectAabbs(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2), Math.min(x3, x4),
+				Math.min(y3, y4), Math.max(x3, x4), Math.max(y3, y4))) {
+			return false;
+		}
+		if (orientation(x1, y1, x2, y2, x3, y3) * orientation(x1, y1, x2, y2, x4, y4) > 0) {
+			return false;
+		}
+		return orientation(x3, y3, x4, y4, x1, y1) * orientation(x3, y3, x4, y4, x2, y2) <= 0;
+	}
+
+	/**
+	 * Returns if a line segment intersects an axis-aligned bounding box
+	 */
+	public static boolean intersectSegmentAabb(int x1, int y1, int x2, int y2, int minX, int minY, int maxX,
+			int maxY) {
+		if (!intersectAabbs(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2), minX, minY,
+				maxX, maxY)) {
+			return false;
+		}
+		if (x1 >= minX && x1 <= maxX && y1 >= minY && y1 <= maxY) {
+			return true;
+		}
+		if (x2 >= minX && x2 <= maxX && y2 >= minY && y2 <= maxY) {
+			return true;
+		}
+		return intersectSegments(x1, y1, x2, y2, minX, minY, maxX, minY)
+				|| intersectSegments(x1, y1, x2, y2, maxX, minY, maxX, maxY)
+				|| intersectSegments(x1, y1, x2, y2, maxX, maxY, minX, maxY)
+				|| intersectSegments(x1, y1, x2, y2, minX, maxY, minX, minY);
+	}
+
+	/**
+	 * Returns if a point lies on a line segment
+	 */
+	public static boolean segmentContains(int x1, int y1, int x2, int y2, int x, int y) {
+		if (x < Math.min(x1, x2) || x > Math.max(x1, x2) || y < Math.min(y1, y2) || y > Math.max(y1, y2)) {
+			return false;
+		}
+		return orientation(x1, y1, x2, y2, x, y) == 0;
+	}
+
+	/**
+	 * Returns which side of the line through a and b the point c lies on
+	 * 
+	 * @return 1 for counter-clockwise, -1 for clockwise and 0 if the points
+	 *         are collinear
+	 */
+	public static int orientation(int ax, int ay, int bx, int by, int cx, int cy) {
+		long cross = (((long) bx - ax) * ((long) cy - ay)) - (((long) by - ay) * ((long) cx - ax));
+		return cross > 0L ? 1 : (cross < 0L ? -1 : 0);
+	}
+}
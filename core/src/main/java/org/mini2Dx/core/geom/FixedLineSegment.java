@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.io.Serializable;
+
+/**
+ * A deterministic line segment whose end points are 16.16 {@link Fixed}
+ * values
+ */
+public class FixedLineSegment implements Serializable {
+	private static final long serialVersionUID = -1830361469436357917L;
+
+	private int x1, y1, x2, y2;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param x1
+	 *            The fixed-point x coordinate of the first point
+	 * @param y1
+	 *            The fixed-point y coordinate of the first point
+	 * @param x2
+	 *            The fixed-point x coordinate of the second point
+	 * @param y2
+	 *            The fixed-point y coordinate of the second point
+	 */
+	public FixedLineSegment(int x1, int y1, int x2, int y2) {
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+	}
+
+	public FixedLineSegment(FixedPoint pointA, FixedPoint pointB) {
+		this(pointA.getFixedX(), pointA.getFixedY(), pointB.getFixedX(), pointB.getFixedY());
+	}
+
+	public void set(int x1, int y1, int x2, int y2) {
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+	}
+
+	/**
+	 * Returns if a point lies exactly on this line segment
+	 */
+	public boolean contains(int x, int y) {
+		return FixedIntersectionKernels.segmentContains(x1, y1, x2, y2, x, y);
+	}
+
+	public boolean intersects(FixedLineSegment lineSegment) {
+		return intersectsLineSegment(lineSegment.x1, lineSegment.y1, lineSegment.x2, lineSegment.y2);
+	}
+
+	public boolean intersectsLineSegment(int segmentX1, int segmentY1, int segmentX2, int segmentY2) {
+		return FixedIntersectionKernels.intersectSegments(x1, y1, x2, y2, segmentX1, segmentY1, segmentX2,
+				segmentY2);
+	}
+
+	public boolean intersects(FixedRectangle rectangle) {
+		return rectangle.intersects(this);
+	}
+
+	public boolean intersects(FixedCircle circle) {
+		return circle.intersects(this);
+	}
+
+	/**
+	 * Returns the fixed-point length of this line segment
+	 */
+	public int getLength() {
+		return Fixed.distance(x1, y1, x2, y2);
+	}
+
+	/**
+	 * Writes the floating point equivalent of this line segment into a
+	 * {@link LineSegment}
+	 * 
+	 * @param result
+	 *            The {@link LineSegment} to store the result in
+	 * @return The result
+	 */
+	public LineSegment toLineSegment(LineSegment result) {
+		result.set(Fixed.toFloat(x1), Fixed.toFloat(y1), Fixed.toFloat(x2), Fixed.toFloat(y2));
+		return result;
+	}
+
+	public int getFixedX1() {
+		return x1;
+	}
+
+	public int getFixedY1() {
+		return y1;
+	}
+
+	public int getFixedX2() {
+		return x2;
+	}
+
+	public int getFixedY2() {
+		return y2;
+	}
+
+	public int getFixedMinX() {
+		return Math.min(x1, x2);
+	}
+
+	public int getFixedMinY() {
+		return Math.min(y1, y2);
+	}
+
+	public int getFixedMaxX() {
+		return Math.max(x1, x2);
+	}
+
+	public int getFixedMaxY() {
+		return Math.max(y1, y2);
+	}
+
+	@Override
+	public String toString() {
+		return "FixedLineSegment [x1=" + Fixed.toFloat(x1) + ", y1=" + Fixed.toFloat(y1) + ", x2="
+				+ Fixed.toFloat(x2) + ", y2=" + Fixed.toFloat(y2) + "]";
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.io.Serializable;
+
+/**
+ * A deterministic point whose coordinates are 16.16 {@link Fixed} values
+ */
+public class FixedPoint implements Serializable {
+	private static final long serialVersionUID = 2931725385633283934L;
+
+	private int x, y;
+
+	public FixedPoint() {
+		this(0, 0);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param x
+	 *            The fixed-point x coordinate
+	 * @param y
+	 *            The fixed-point y coordinate
+	 */
+	public FixedPoint(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public FixedPoint(FixedPoint point) {
+		this(point.x, point.y);
+	}
+
+	public FixedPoint copy() {
+		return new FixedPoint(this);
+	}
+
+	/**
+	 * Returns the distance to another {@link FixedPoint}
+	 * 
+	 * @param point
+	 *            The {@link FixedPoint} to measure to
+	 * @return The fixed-point distance
+	 */
+	public int getDistanceTo(FixedPoint point) {
+		return Fixed.distance(x, y, point.x, point.y);
+	}
+
+	/**
+	 * Returns the squared distance to a point in fixed-point squared units
+	 */
+	public long getDistanceSquaredTo(int x, int y) {
+		return Fixed.distanceSquared(this.x, this.y, x, y);
+	}
+
+	/**
+	 * Moves this point towards a target {@link FixedPoint}
+	 * 
+	 * @param target
+	 *            The target {@link FixedPoint}
+	 * @param alpha
+	 *            The fixed-point interpolation amount ({@link Fixed#ONE} is
+	 *            the target)
+	 * @return This {@link FixedPoint}
+	 */
+	public FixedPoint lerp(FixedPoint target, int alpha) {
+		set(Fixed.lerp(x, target.x, alpha), Fixed.lerp(y, target.y, alpha));
+		return this;
+	}
+
+	public void translate(int translateX, int translateY) {
+		set(x + translateX, y + translateY);
+	}
+
+	public void set(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public void set(FixedPoint point) {
+		set(point.x, point.y);
+	}
+
+	public int getFixedX() {
+		return x;
+	}
+
+	public void setFixedX(int x) {
+		this.x = x;
+	}
+
+	public int getFixedY() {
+		return y;
+	}
+
+	public void setFixedY(int y) {
+		this.y = y;
+	}
+
+	@Override
+	public String toString() {
+		return "FixedPoint [x=" + Fixed.toFloat(x) + ", y=" + Fixed.toFloat(y) + "]";
+	}
+}
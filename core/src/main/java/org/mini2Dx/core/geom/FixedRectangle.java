@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.io.Serializable;
+
+/**
+ * A deterministic axis-aligned rectangle whose position and size are 16.16
+ * {@link Fixed} values. Unlike {@link Rectangle} it cannot be rotated, since
+ * rotation requires trigonometry that is not reproducible across platforms.
+ */
+public class FixedRectangle implements Serializable {
+	private static final long serialVersionUID = -4183279437416463818L;
+
+	private int x, y, width, height;
+
+	public FixedRectangle() {
+		this(0, 0, Fixed.ONE, Fixed.ONE);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param x
+	 *            The fixed-point x coordinate
+	 * @param y
+	 *            The fixed-point y coordinate
+	 * @param width
+	 *            The fixed-point width (must be non-negative)
+	 * @param height
+	 *            The fixed-point height (must be non-negative)
+	 */
+	public FixedRectangle(int x, int y, int width, int height) {
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	public FixedRectangle(FixedRectangle rectangle) {
+		this(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+	}
+
+	public FixedRectangle copy() {
+		return new FixedRectangle(this);
+	}
+
+	public boolean contains(int x, int y) {
+		return x >= this.x && x <= this.x + width && y >= this.y && y <= this.y + height;
+	}
+
+	public boolean contains(FixedPoint point) {
+		return contains(point.getFixedX(), point.getFixedY());
+	}
+
+	public boolean contains(FixedRectangle rectangle) {
+		return rectangle.x >= x && rectangle.y >= y && rectangle.x + rectangle.width <= x + width
+				&& rectangle.y + rectangle.height <= y + height;
+	}
+
+	public boolean contains(FixedCircle circle) {
+		return circle.getFixedMinX() >= x && circle.getFixedMinY() >= y && circle.getFixedMaxX() <= x + width
+				&& circle.getFixedMaxY() <= y + height;
+	}
+
+	public boolean intersects(FixedRectangle rectangle) {
+		return FixedIntersectionKernels.intersectAabbs(x, y, x + width, y + height, rectangle.x, rectangle.y,
+				rectangle.x + rectangle.width, rectangle.y + rectangle.height);
+	}
+
+	public boolean intersects(FixedCircle circle) {
+		return FixedIntersectionKernels.intersectAabbCircle(x, y, x + width, y + height, circle.getFixedX(),
+				circle.getFixedY(), circle.getFixedRadius());
+	}
+
+	public boolean intersects(FixedLineSegment lineSegment) {
+		return intersectsLineSegment(lineSegment.getFixedX1(), lineSegment.getFixedY1(), lineSegment.getFixedX2(),
+				lineSegment.getFixedY2());
+	}
+
+	public boolean intersectsLineSegment(int x1, int y1, int x2, int y2) {
+		return FixedIntersectionKernels.intersectSegmentAabb(x1, y1, x2, y2, x, y, x + width, y + height);
+	}
+
+	/**
+	 * Returns the squared distance between the closest point of this
+	 * rectangle and a point
+	 * 
+	 * @return 0 if the point is inside, otherwise the distance in fixed-point
+	 *         squared units
+	 */
+	public long getDistanceSquaredTo(int x, int y) {
+		return Fixed.distanceSquared(Fixed.clamp(x, this.x, this.x + width), Fixed.clamp(y, this.y, this.y + height),
+				x, y);
+	}
+
+	/**
+	 * Moves and resizes this rectangle towards a target {@link FixedRectangle}
+	 * 
+	 * @param target
+	 *            The target {@link FixedRectangle}
+	 * @param alpha
+	 *            The fixed-point interpolation amount ({@link Fixed#ONE} is
+	 *            the target)
+	 * @return This {@link FixedRectangle}
+	 */
+	public FixedRectangle lerp(FixedRectangle target, int alpha) {
+		set(Fixed.lerp(x, target.x, alpha), Fixed.lerp(y, target.y, alpha), Fixed.lerp(width, target.width, alpha),
+				Fixed.lerp(height, target.height, alpha));
+		return this;
+	}
+
+	/**
+	 * Writes the floating point equivalent of this rectangle into a
+	 * {@link Rectangle}
+	 * 
+	 * @param result
+	 *            The {@link Rectangle} to store the result in
+	 * @return The result
+	 */
+	public Rectangle toRectangle(Rectangle result) {
+		result.set(Fixed.toFloat(x), Fixed.toFloat(y), Fixed.toFloat(width), Fixed.toFloat(height));
+		return result;
+	}
+
+	public void translate(int translateX, int translateY) {
+		set(x + translateX, y + translateY);
+	}
+
+	public void set(int x, int y, int width, int height) {
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	public void set(FixedRectangle rectangle) {
+		set(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+	}
+
+	public void set(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public int getFixedX() {
+		return x;
+	}
+
+	public void setFixedX(int x) {
+		this.x = x;
+	}
+
+	public int getFixedY() {
+		return y;
+	}
+
+	public void setFixedY(int y) {
+		this.y = y;
+	}
+
+	public int getFixedWidth() {
+		return width;
+	}
+
+	public void setFixedWidth(int width) {
+		this.width = width;
+	}
+
+	public int getFixedHeight() {
+		return height;
+	}
+
+	public void setFixedHeight(int height) {
+		this.height = height;
+	}
+
+	public int getFixedMinX() {
+		return x;
+	}
+
+	public int getFixedMinY() {
+		return y;
+	}
+
+	public int getFixedMaxX() {
+		return x + width;
+	}
+
+	public int getFixedMaxY() {
+		return y + height;
+	}
+
+	public int getFixedCenterX() {
+		return x + (width >> 1);
+	}
+
+	public int getFixedCenterY() {
+		return y + (height >> 1);
+	}
+
+	@Override
+	public String toString() {
+		return "FixedRectangle [x=" + Fixed.toFloat(x) + ", y=" + Fixed.toFloat(y) + ", width="
+				+ Fixed.toFloat(width) + ", height=" + Fixed.toFloat(height) + "]";
+	}
+}
@@ -0,0 +1,647 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+/**
+ * Stateless intersection tests that operate on primitive values only. These
+ * hold no temporary state, do not allocate and are safe to call from multiple
+ * threads at once. The {@link Shape} implementations delegate their
+ * intersection checks to these methods.
+ * 
+ * Polygons are passed as <code>x,y</code> vertex arrays, e.g.
+ * {@link Polygon#getVertices()}.
+ */
+public class IntersectionKernels {
+
+	/**
+	 * Returns if two axis-aligned bounding boxes overlap
+	 */
+	public static boolean intersectAabbs(float minX1, float minY1, float maxX1, float maxY1, float minX2,
+			float minY2, float maxX2, float maxY2) {
+		return (minX1 <= maxX2) & (minX2 <= maxX1) & (minY1 <= maxY2) & (minY2 <= maxY1);
+	}
+
+	/**
+	 * Returns if two circles overlap
+	 */
+	public static boolean intersectCircles(float x1, float y1, float radius1, float x2, float y2, float radius2) {
+		float deltaX = x2 - x1;
+		float deltaY = y2 - y1;
+		float radii = radius1 + radius2;
+		return (deltaX * deltaX) + (deltaY * deltaY) <= radii * radii;
+	}
+
+	/**
+	 * Returns if an axis-aligned bounding box and a circle overlap
+	 */
+	public static boolean intersectAabbCircle(float minX, float minY, float maxX, float maxY, float circleX,
+			float circleY, float radius) {
+		float deltaX = Math.max(minX, Math.min(circleX, maxX)) - circleX;
+		float deltaY = Math.max(minY, Math.min(circleY, maxY)) - circleY;
+		return (deltaX * deltaX) + (deltaY * deltaY) < radius * radius;
+	}
+
+	/**
+	 * Returns if a point lies inside a polygon
+	 * 
+	 * @param vertices
+	 *            The polygon vertices
+	 * @param x
+	 *            The x coordinate of the point
+	 * @param y
+	 *            The y coordinate of the point
+	 * @return True if the point is inside the polygon
+	 */
+	public static boolean polygonContains(float[] vertices, float x, float y) {
+		boolean inside = false;
+		int length = vertices.length;
+		float previousX = vertices[length - 2];
+		float previousY = vertices[length - 1];
+		for (int i = 0; i < length; i += 2) {
+			float currentX = vertices[i];
+			float currentY = vertices[i + 1];
+			if (((currentY > y) != (previousY > y))
+					&& (x < (previousX - currentX) * (y - currentY) / (previousY - currentY) + currentX)) {
+				inside = !inside;
+			}
+			previousX = currentX;
+			previousY = currentY;
+		}
+		return inside;
+	}
+
+	/**
+	 * Returns if two polygons overlap. This is true if any of their edges
+	 * intersect or if either polygon contains the other.
+	 */
+	public static boolean intersectPolygons(float[] vertices1, float[] vertices2) {
+		int length1 = vertices1.length;
+		int length2 = vertices2.length;
+
+		float previousX1 = vertices1[length1 - 2];
+		float previousY1 = vertices1[length1 - 1];
+		for (int i = 0; i < length1; i += 2) {
+			float currentX1 = vertices1[i];
+			float currentY1 = vertices1[i + 1];
+
+			float previousX2 = vertices2[length2 - 2];
+			float previousY2 = vertices2[length2 - 1];
+			for (int j = 0; j < length2; j += 2) {
+				float currentX2 = vertices2[j];
+				float currentY2 = vertices2[j + 1];
+				if (Intersector.intersectLineSegments(previousX1, previousY1, currentX1, currentY1, previousX2,
+						previousY2, currentX2, currentY2)) {
+					return true;
+				}
+				previousX2 = currentX2;
+				previousY2 = currentY2;
+			}
+			previousX1 = currentX1;
+			previousY1 = currentY1;
+		}
+		return polygonContains(vertices1, vertices2[0], vertices2[1])
+				|| polygonContains(vertices2, vertices1[0], vertices1[1]);
+	}
+
+	/**
+	 * Returns if two convex polygons overlap using the separating axis
+	 * theorem. Polygons that touch are considered to overlap.
+	 * 
+	 * @param vertices1
+	 *            The vertices of the first convex polygon
+	 * @param vertices2
+	 *            The vertices of the second convex polygon
+	 * @return True if no separating axis exists between the polygons
+	 */
+	public static boolean intersectConvexPolygons(float[] vertices1, float[] vertices2) {
+		return !hasSeparatingAxis(vertices1, vertices2) && !hasSeparatingAxis(vertices2, vertices1);
+	}
+
+	/**
+	 * Returns if two convex polygons overlap using the separating axis theorem
+	 * and stores the minimum translation vector for the first polygon
+	 * 
+	 * @param vertices1
+	 *            The vertices of the first convex polygon
+	 * @param normals1
+	 *            The edge normals of the first polygon (see
+	 *            {@link #computeEdgeNormals(float[], float[])})
+	 * @param vertices2
+	 *            The vertices of the second convex polygon
+	 * @param normals2
+	 *            The edge normals of the second polygon
+	 * @param result
+	 *            The {@link CollisionResult} to store the minimum translation
+	 *            vector in. Reset if the polygons do not overlap.
+	 * @return True if no separating axis exists between the polygons
+	 */
+	public static boolean intersectConvexPolygons(float[] vertices1, float[] normals1, float[] vertices2,
+			float[] normals2, CollisionResult result) {
+		float minimumDepth = Float.MAX_VALUE;
+		float minimumNormalX = 0f;
+		float minimumNormalY = 0f;
+
+		for (int pass = 0; pass < 2; pass++) {
+			float[] normals = pass == 0 ? normals1 : normals2;
+			for (int i = 0; i < normals.length; i += 2) {
+				float axisX = normals[i];
+				float axisY = normals[i + 1];
+				if (axisX == 0f && axisY == 0f) {
+					continue;
+				}
+
+				float min1 = Float.MAX_VALUE;
+				float max1 = -Float.MAX_VALUE;
+				for (int j = 0; j < vertices1.length; j += 2) {
+					float projection = (vertices1[j] * axisX) + (vertices1[j + 1] * axisY);
+					min1 = Math.min(min1, projection);
+					max1 = Math.max(max1, projection);
+				}
+				float min2 = Float.MAX_VALUE;
+				float max2 = -Float.MAX_VALUE;
+				for (int j = 0; j < vertices2.length; j += 2) {
+					float projection = (vertices2[j] * axisX) + (vertices2[j + 1] * axisY);
+					min2 = Math.min(min2, projection);
+					max2 = Math.max(max2, projection);
+				}
+
+				float depthNegative = max1 - min2;
+				float depthPositive = max2 - min1;
+				if (depthNegative < 0f || depthPositive < 0f) {
+					result.reset();
+					return false;
+				}
+				if (depthNegative < depthPositive) {
+					if (depthNegative < minimumDepth) {
+						minimumDepth = depthNegative;
+						minimumNormalX = -axisX;
+						minimumNormalY = -axisY;
+					}
+				} else if (depthPositive < minimumDepth) {
+					minimumDepth = depthPositive;
+					minimumNormalX = axisX;
+					minimumNormalY = axisY;
+				}
+			}
+		}
+		if (minimumDepth == Float.MAX_VALUE) {
+			minimumDepth = 0f;
+		}
+		result.set(minimumNormalX, minimumNormalY, minimumDepth);
+		return true;
+	}
+
+	/**
+	 * Computes the unit length normal of each polygon edge. The normal for the
+	 * edge from vertex <code>i</code> to vertex <code>i + 1</code> is stored
+	 * at the same index as vertex <code>i</code>. Zero length edges have a
+	 * normal of 0,0.
+	 * 
+	 * @param vertices
+	 *            The polygon vertices
+	 * @param result
+	 *            The array to store the normals in. Must be at least the
+	 *            length of the vertices array.
+	 */
+	public static void computeEdgeNormals(float[] vertices, float[] result) {
+		int length = vertices.length;
+		for (int i = 0; i < length; i += 2) {
+			int next = (i + 2) % length;
+			float edgeX = vertices[next] - vertices[i];
+			float edgeY = vertices[next + 1] - vertices[i + 1];
+			float edgeLength = (float) Math.sqrt((edgeX * edgeX) + (edgeY * edgeY));
+			if (edgeLength == 0f) {
+				result[i] = 0f;
+				result[i + 1] = 0f;
+				continue;
+			}
+			result[i] = edgeY / edgeLength;
+			result[i + 1] = -edgeX / edgeLength;
+		}
+	}
+
+	private static boolean hasSeparatingAxis(float[] axisVertices, float[] otherVertices) {
+		int length = axisVertices.length;
+		float previousX = axisVertices[length - 2];
+		float previousY = axisVertices[length - 1];
+		for (int i = 0; i < length; i += 2) {
+			float currentX = axisVertices[i];
+			float currentY = axisVertices[i + 1];
+			float axisX = previousY - currentY;
+			float axisY = currentX - previousX;
+
+			float min1 = Float.MAX_VALUE;
+			float max1 = -Float.MAX_VALUE;
+			for (int j = 0; j < length; j += 2) {
+				float projection = (axisVertices[j] * axisX) + (axisVertices[j + 1] * axisY);
+				min1 = Math.min(min1, projection);
+				max1 = Math.max(max1, projection);
+			}
+			float min2 = Float.MAX_VALUE;
+			float max2 = -Float.MAX_VALUE;
+			for (int j = 0; j < otherVertices.length; j += 2) {
+				float projection = (otherVertices[j] * axisX) + (otherVertices[j + 1] * axisY);
+				min2 = Math.min(min2, projection);
+				max2 = Math.max(max2, projection);
+			}
+			if (max1 < min2 || max2 < min1) {
+				return true;
+			}
+			previousX = currentX;
+			previousY = currentY;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if any edge of one polygon crosses an edge of another. Unlike
+	 * {@link #intersectPolygons(float[], float[])} a polygon lying entirely
+	 * inside the other is not considered to intersect.
+	 * 
+	 * @param vertices1
+	 *            The vertices of the first polygon
+	 * @param vertices2
+	 *            The vertices of the second polygon
+	 * @return True if any edges cross
+	 */
+	public static boolean intersectPolygonEdges(float[] vertices1, float[] vertices2) {
+		int length = vertices1.length;
+		for (int i = 0; i < length; i += 2) {
+			int next = (i + 2) % length;
+			if (intersectSegmentPolygon(vertices1[i], vertices1[i + 1], vertices1[next], vertices1[next + 1],
+					vertices2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if any edge of a polygon intersects a circle. A circle lying
+	 * entirely inside the polygon is not considered to intersect.
+	 * 
+	 * @param vertices
+	 *            The polygon vertices
+	 * @param circleX
+	 *            The x coordinate of the circle center
+	 * @param circleY
+	 *            The y coordinate of the circle center
+	 * @param radius
+	 *            The circle radius
+	 * @return True if any edge intersects the circle
+	 */
+	public static boolean intersectPolygonEdgesCircle(float[] vertices, float circleX, float circleY, float radius) {
+		int length = vertices.length;
+		for (int i = 0; i < length; i += 2) {
+			int next = (i + 2) % length;
+			if (intersectSegmentCircle(vertices[i], vertices[i + 1], vertices[next], vertices[next + 1], circleX,
+					circleY, radius)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if a line segment crosses any edge of a polygon. A line segment
+	 * lying entirely inside the polygon is not considered to intersect.
+	 * 
+	 * @param x1
+	 *            The x coordinate of the first point
+	 * @param y1
+	 *            The y coordinate of the first point
+	 * @param x2
+	 *            The x coordinate of the second point
+	 * @param y2
+	 *            The y coordinate of the second point
+	 * @param vertices
+	 *            The polygon vertices
+	 * @return True if the line segment crosses an edge
+	 */
+	public static boolean intersectSegmentPolygon(float x1, float y1, float x2, float y2, float[] vertices) {
+		int length = vertices.length;
+		float previousX = vertices[length - 2];
+		float previousY = vertices[length - 1];
+		for (int i = 0; i < length; i += 2) {
+			float currentX = vertices[i];
+			float currentY = vertices[i + 1];
+			if (intersectSegments(x1, y1, x2, y2, previousX, previousY, currentX, currentY)) {
+				return true;
+			}
+			previousX = currentX;
+			previousY = currentY;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns if two line segments cross. Parallel line segments are not
+	 * considered to intersect.
+	 */
+	public static boolean intersectSegments(float x1, float y1, float x2, float y2, float x3, float y3, float x4,
+			float y4) {
+		float denominator = (y4 - y3) * (x2 - x1) - (x4 - x3) * (y2 - y1);
+		if (denominator == 0f) {
+			return false;
+		}
+		float deltaY = y1 - y3;
+		float deltaX = x1 - x3;
+		float ua = ((x4 - x3) * deltaY - (y4 - y3) * deltaX) / denominator;
+		if (ua < 0f || ua > 1f) {
+			return false;
+		}
+		float ub = ((x2 - x1) * deltaY - (y2 - y1) * deltaX) / denominator;
+		return ub >= 0f && ub <= 1f;
+	}
+
+	/**
+	 * Returns if a line segment intersects a circle. Touching the circle is
+	 * considered an intersection.
+	 */
+	public static boolean intersectSegmentCircle(float x1, float y1, float x2, float y2, float circleX,
+			float circleY, float radius) {
+		return distanceSquaredSegmentPoint(x1, y1, x2, y2, circleX, circleY) <= radius * radius;
+	}
+
+	/**
+	 * Returns the distance between the closest edge of a polygon and a point
+	 * 
+	 * @param vertices
+	 *            The polygon vertices
+	 * @param pointX
+	 *            The x coordinate of the point
+	 * @param pointY
+	 *            The y coordinate of the point
+	 * @return The distance to the closest edge
+	 */
+	public static float distancePolygonEdgesPoint(float[] vertices, float pointX, float pointY) {
+		int length = vertices.length;
+		float result = Float.MAX_VALUE;
+		float previousX = vertices[length - 2];
+		float previousY = vertices[length - 1];
+		for (int i = 0; i < length; i += 2) {
+			float currentX = vertices[i];
+			float currentY = vertices[i + 1];
+			result = Math.min(result,
+					distanceSquaredSegmentPoint(previousX, previousY, currentX, currentY, pointX, pointY));
+			previousX = currentX;
+			previousY = currentY;
+		}
+		return (float) Math.sqrt(result);
+	}
+
+	/**
+	 * Returns if a polygon and an axis-aligned bounding box overlap
+	 */
+	public static boolean intersectPolygonAabb(float[] vertices, float minX, float minY, float maxX, float maxY) {
+		int length = vertices.length;
+		float previousX = vertices[length - 2];
+		float previousY = vertices[length - 1];
+		for (int i = 0; i < length; i += 2) {
+			float currentX = vertices[i];
+			float currentY = vertices[i + 1];
+			if (Intersector.intersectLineSegmentAabb(previousX, previousY, currentX, currentY, minX, minY, maxX,
+					maxY)) {
+				return true;
+			}
+			previousX = currentX;
+			previousY = currentY;
+		}
+		return polygonContains(vertices, minX, minY);
+	}
+
+	/**
+	 * Returns if a polygon and a circle overlap
+	 */
+	public static boolean intersectPolygonCircle(float[] vertices, float circleX, float circleY, float radius) {
+		float radiusSquared = radius * radius;
+		int length = vertices.length;
+		float previousX = vertices[length - 2];
+		float previousY = vertices[length - 1];
+		for (int i = 0; i < length; i += 2) {
+			float currentX = vertices[i];
+			float currentY = vertices[i + 1];
+			if (distanceSquaredSegmentPoint(previousX, previousY, currentX, currentY, circleX,
+					circleY) < radiusSquared) {
+				return true;
+			}
+			previousX = currentX;
+			previousY = currentY;
+		}
+		return polygonContains(vertices, circleX, circleY);
+	}
+
+	/**
+	 * Returns the squared distance between an axis-aligned bounding box and a
+	 * point. Returns 0 if the point is inside the box.
+	 */
+	public static float distanceSquaredAabbPoint(float minX, float minY, float maxX, float maxY, float pointX,
+			float pointY) {
+		float deltaX = pointX < minX ? minX - pointX : pointX > maxX ? pointX - maxX : 0f;
+		float deltaY = pointY < minY ? minY - pointY : pointY > maxY ? pointY - maxY : 0f;
+		return (deltaX * deltaX) + (deltaY * deltaY);
+	}
+
+	/**
+	 * Returns the squared distance between a line segment and a point
+	 */
+	public static float distanceSquaredSegmentPoint(float x1, float y1, float x2, float y2, float pointX,
+			float pointY) {
+		float segmentX = x2 - x1;
+		float segmentY = y2 - y1;
+		float lengthSquared = (segmentX * segmentX) + (segmentY * segmentY);
+		float t = 0f;
+		if (lengthSquared > 0f) {
+			t = ((pointX - x1) * segmentX + (pointY - y1) * segmentY) / lengthSquared;
+			t = Math.max(0f, Math.min(1f, t));
+		}
+		float deltaX = x1 + (t * segmentX) - pointX;
+		float deltaY = y1 + (t * segmentY) - pointY;
+		return (deltaX * deltaX) + (deltaY * deltaY);
+	}
+
+	/**
+	 * Casts a ray against an axis-aligned bounding box
+	 * 
+	 * @param x
+	 *            The x coordinate the ray starts at
+	 * @param y
+	 *            The y coordinate the ray starts at
+	 * @param deltaX
+	 *            The distance the ray travels along the x axis
+	 * @param deltaY
+	 *            The distance the ray travels along the y axis
+	 * @return The fraction (0 to 1) of the delta travelled before the ray hits
+	 *         the bounding box, 0 if the ray starts inside it or -1 if there is
+	 *         no hit
+	 */
+	public static float raycastAabb(float x, float y, float deltaX, float deltaY, float minX, float minY,
+			float maxX, float maxY) {
+		float tMin = 0f;
+		float tMax = 1f;
+
+		if (deltaX == 0f) {
+			if (x < minX || x > maxX) {
+				return -1f;
+			}
+		} else {
+			float t1 = (minX - x) / deltaX;
+			float t2 = (maxX - x) / deltaX;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax) {
+				return -1f;
+			}
+		}
+
+		if (deltaY == 0f) {
+			if (y < minY || y > maxY) {
+				return -1f;
+			}
+		} else {
+			float t1 = (minY - y) / deltaY;
+			float t2 = (maxY - y) / deltaY;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax) {
+				return -1f;
+			}
+		}
+		return tMin;
+	}
+
+	/**
+	 * Casts a ray against a circle
+	 * 
+	 * @return The fraction (0 to 1) of the delta travelled before the ray hits
+	 *         the circle, 0 if the ray starts inside it or -1 if there is no
+	 *         hit
+	 * @see #raycastAabb(float, float, float, float, float, float, float, float)
+	 */
+	public static float raycastCircle(float x, float y, float deltaX, float deltaY, float circleX, float circleY,
+			float radius) {
+		float offsetX = x - circleX;
+		float offsetY = y - circleY;
+		float c = (offsetX * offsetX) + (offsetY * offsetY) - (radius * radius);
+		if (c <= 0f) {
+			return 0f;
+		}
+		float a = (deltaX * deltaX) + (deltaY * deltaY);
+		if (a == 0f) {
+			return -1f;
+		}
+		float b = (offsetX * deltaX) + (offsetY * deltaY);
+		if (b >= 0f) {
+			return -1f;
+		}
+		float discriminant = (b * b) - (a * c);
+		if (discriminant < 0f) {
+			return -1f;
+		}
+		float t = (-b - (float) Math.sqrt(discriminant)) / a;
+		return t <= 1f ? t : -1f;
+	}
+
+	/**
+	 * Casts a ray against a polygon
+	 * 
+	 * @param vertices
+	 *            The polygon vertices
+	 * @return The fraction (0 to 1) of the delta travelled before the ray hits
+	 *         an edge of the polygon, 0 if the ray starts inside it or -1 if
+	 *         there is no hit
+	 * @see #raycastAabb(float, float, float, float, float, float, float, float)
+	 */
+	public static float raycastPolygon(float x, float y, float deltaX, float deltaY, float[] vertices) {
+		if (polygonContains(vertices, x, y)) {
+			return 0f;
+		}
+		float result = -1f;
+		for (int i = 0; i < vertices.length; i += 2) {
+			int next = i + 2 < vertices.length ? i + 2 : 0;
+			float edgeX = vertices[next] - vertices[i];
+			float edgeY = vertices[next + 1] - vertices[i + 1];
+			float denominator = (deltaX * edgeY) - (deltaY * edgeX);
+			if (denominator == 0f) {
+				continue;
+			}
+			float offsetX = vertices[i] - x;
+			float offsetY = vertices[i + 1] - y;
+			float t = ((offsetX * edgeY) - (offsetY * edgeX)) / denominator;
+			if (t < 0f || t > 1f || (result >= 0f && t >= result)) {
+				continue;
+			}
+			float u = ((offsetX * deltaY) - (offsetY * deltaX)) / denominator;
+			if (u < 0f || u > 1f) {
+				continue;
+			}
+			result = t;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the time of impact between a moving axis-aligned bounding box
+	 * and a stationary one
+	 * 
+	 * @param velocityX
+	 *            The distance the first box moves along the x axis
+	 * @param velocityY
+	 *            The distance the first box moves along the y axis
+	 * @return The fraction (0 to 1) of the velocity travelled before the boxes
+	 *         touch, 0 if they already overlap or -1 if they never touch
+	 */
+	public static float sweepAabbs(float minX1, float minY1, float maxX1, float maxY1, float velocityX,
+			float velocityY, float minX2, float minY2, float maxX2, float maxY2) {
+		return raycastAabb(minX1, minY1, velocityX, velocityY, minX2 - (maxX1 - minX1), minY2 - (maxY1 - minY1),
+				maxX2, maxY2);
+	}
+
+	/**
+	 * Returns the time of impact between a moving circle and a stationary
+	 * axis-aligned bounding box
+	 * 
+	 * @param velocityX
+	 *            The distance the circle moves along the x axis
+	 * @param velocityY
+	 *            The distance the circle moves along the y axis
+	 * @return The fraction (0 to 1) of the velocity travelled before the circle
+	 *         touches the box, 0 if they already overlap or -1 if they never
+	 *         touch
+	 */
+	public static float sweepCircleAabb(float circleX, float circleY, float radius, float velocityX,
+			float velocityY, float minX, float minY, float maxX, float maxY) {
+		// The box grown by the radius is the union of two slabs and four
+		// corner circles
+		float result = minTimeOfImpact(-1f, raycastAabb(circleX, circleY, velocityX, velocityY, minX - radius, minY,
+				maxX + radius, maxY));
+		result = minTimeOfImpact(result, raycastAabb(circleX, circleY, velocityX, velocityY, minX, minY - radius,
+				maxX, maxY + radius));
+		if (result == 0f) {
+			return result;
+		}
+		result = minTimeOfImpact(result, raycastCircle(circleX, circleY, velocityX, velocityY, minX, minY, radius));
+		result = minTimeOfImpact(result, raycastCircle(circleX, circleY, velocityX, velocityY, maxX, minY, radius));
+		result = minTimeOfImpact(result, raycastCircle(circleX, circleY, velocityX, velocityY, minX, maxY, radius));
+		return minTimeOfImpact(result, raycastCircle(circleX, circleY, velocityX, velocityY, maxX, maxY, radius));
+	}
+
+	private static float minTimeOfImpact(float current, float timeOfImpact) {
+		if (timeOfImpact < 0f) {
+			return current;
+		}
+		if (current < 0f) {
+			return timeOfImpact;
+		}
+		return Math.min(current, timeOfImpact);
+	}
+}
@@ -140,6 +140,150 @@ public class Intersector {
 		return closestX + closestY < circle.getRadius() * circle.getRadius();
 	}
 
+	/**
+	 * Returns if a line segment intersects or lies inside an axis-aligned
+	 * bounding box
+	 * 
+	 * @param x1 The x coordinate of the first point
+	 * @param y1 The y coordinate of the first point
+	 * @param x2 The x coordinate of the second point
+	 * @param y2 The y coordinate of the second point
+	 * @param minX The minimum x coordinate of the bounding box
+	 * @param minY The minimum y coordinate of the bounding box
+	 * @param maxX The maximum x coordinate of the bounding box
+	 * @param maxY The maximum y coordinate of the bounding box
+	 * @return True if any part of the line segment is inside the bounding box
+	 */
+	public static boolean intersectLineSegmentAabb(float x1, float y1, float x2, float y2, float minX, float minY,
+			float maxX, float maxY) {
+		float tMin = 0f;
+		float tMax = 1f;
+
+		float deltaX = x2 - x1;
+		if (deltaX == 0f) {
+			if (x1 < minX || x1 > maxX) {
+				return false;
+			}
+		} else {
+			float t1 = (minX - x1) / deltaX;
+			float t2 = (maxX - x1) / deltaX;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax) {
+				return false;
+			}
+		}
+
+		float deltaY = y2 - y1;
+		if (deltaY == 0f) {
+			return y1 >= minY && y1 <= maxY;
+		}
+		float t1 = (minY - y1) / deltaY;
+		float t2 = (maxY - y1) / deltaY;
+		tMin = Math.max(tMin, Math.min(t1, t2));
+		tMax = Math.min(tMax, Math.max(t1, t2));
+		return tMin <= tMax;
+	}
+
+	/**
+	 * Returns the time of impact between a moving {@link Shape} and a
+	 * stationary axis-aligned bounding box. {@link Circle}s are swept exactly,
+	 * all other shapes are swept using their bounds.
+	 * 
+	 * @param shape The {@link Shape} at its starting position
+	 * @param velocityX The distance the shape moves along the x axis
+	 * @param velocityY The distance the shape moves along the y axis
+	 * @param minX The minimum x coordinate of the bounding box
+	 * @param minY The minimum y coordinate of the bounding box
+	 * @param maxX The maximum x coordinate of the bounding box
+	 * @param maxY The maximum y coordinate of the bounding box
+	 * @return The fraction (0 to 1) of the velocity travelled before the shape
+	 *         touches the bounding box, 0 if they already overlap or -1 if they
+	 *         never touch
+	 */
+	public static float getTimeOfImpact(Shape shape, float velocityX, float velocityY, float minX, float minY,
+			float maxX, float maxY) {
+		if (shape.isCircle()) {
+			Circle circle = (Circle) shape;
+			return IntersectionKernels.sweepCircleAabb(circle.getX(), circle.getY(), circle.getRadius(), velocityX,
+					velocityY, minX, minY, maxX, maxY);
+		}
+		return IntersectionKernels.sweepAabbs(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(),
+				velocityX, velocityY, minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Casts a ray against a {@link Shape}
+	 * 
+	 * @param shape The {@link Shape} to cast against
+	 * @param x The x coordinate the ray starts at
+	 * @param y The y coordinate the ray starts at
+	 * @param deltaX The distance the ray travels along the x axis
+	 * @param deltaY The distance the ray travels along the y axis
+	 * @param normal If not null, set to the unit surface normal at the hit
+	 *            point. Set to (0, 0) if the ray starts inside the shape.
+	 * @return The fraction (0 to 1) of the delta travelled before the ray hits
+	 *         the shape, 0 if the ray starts inside it or -1 if there is no hit
+	 */
+	public static float raycast(Shape shape, float x, float y, float deltaX, float deltaY, Vector2 normal) {
+		if (shape.isCircle()) {
+			Circle circle = (Circle) shape;
+			float result = IntersectionKernels.raycastCircle(x, y, deltaX, deltaY, circle.getX(), circle.getY(),
+					circle.getRadius());
+			if (result > 0f && normal != null) {
+				normal.set(x + (deltaX * result) - circle.getX(), y + (deltaY * result) - circle.getY()).nor();
+			}
+			return raycastResult(result, normal);
+		}
+		if (shape instanceof Rectangle && shape.getRotation() == 0f) {
+			float minX = shape.getMinX();
+			float minY = shape.getMinY();
+			float maxX = shape.getMaxX();
+			float maxY = shape.getMaxY();
+			float result = IntersectionKernels.raycastAabb(x, y, deltaX, deltaY, minX, minY, maxX, maxY);
+			if (result > 0f && normal != null) {
+				float entryX = deltaX > 0f ? (minX - x) / deltaX : deltaX < 0f ? (maxX - x) / deltaX : -1f;
+				float entryY = deltaY > 0f ? (minY - y) / deltaY : deltaY < 0f ? (maxY - y) / deltaY : -1f;
+				if (entryX >= entryY) {
+					normal.set(deltaX > 0f ? -1f : 1f, 0f);
+				} else {
+					normal.set(0f, deltaY > 0f ? -1f : 1f);
+				}
+			}
+			return raycastResult(result, normal);
+		}
+		float[] vertices = shape.getPolygon().getVertices();
+		float result = IntersectionKernels.raycastPolygon(x, y, deltaX, deltaY, vertices);
+		if (result > 0f && normal != null) {
+			float hitX = x + (deltaX * result);
+			float hitY = y + (deltaY * result);
+			int closestEdge = 0;
+			float closestDistance = Float.MAX_VALUE;
+			for (int i = 0; i < vertices.length; i += 2) {
+				int next = i + 2 < vertices.length ? i + 2 : 0;
+				float distance = IntersectionKernels.distanceSquaredSegmentPoint(vertices[i], vertices[i + 1],
+						vertices[next], vertices[next + 1], hitX, hitY);
+				if (distance < closestDistance) {
+					closestDistance = distance;
+					closestEdge = i;
+				}
+			}
+			int next = closestEdge + 2 < vertices.length ? closestEdge + 2 : 0;
+			normal.set(vertices[next + 1] - vertices[closestEdge + 1], vertices[closestEdge] - vertices[next]).nor();
+			if ((normal.x * deltaX) + (normal.y * deltaY) > 0f) {
+				normal.scl(-1f);
+			}
+		}
+		return raycastResult(result, normal);
+	}
+
+	private static float raycastResult(float result, Vector2 normal) {
+		if (result <= 0f && normal != null) {
+			normal.set(0f, 0f);
+		}
+		return result;
+	}
+
 	public static boolean containsPolygon(Polygon p1, Polygon p2) {
 		float[] polygonB = p2.getVertices();
 
@@ -16,8 +16,6 @@ import org.mini2Dx.core.exception.MdxException;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.core.util.EdgeIterator;
 
-import com.badlogic.gdx.math.EarClippingTriangulator;
-import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.ShortArray;
 
@@ -26,22 +24,19 @@ import com.badlogic.gdx.utils.ShortArray;
  * polygon implementation in LibGDX
  */
 public class Polygon extends Shape {
-	private final EarClippingTriangulator triangulator;
 	private final PolygonEdgeIterator edgeIterator = new PolygonEdgeIterator();
-	private final PolygonEdgeIterator internalEdgeIterator = new PolygonEdgeIterator();
-	
-	private final Vector2 tmp1 = new Vector2();
-	private final Vector2 tmp2 = new Vector2();
 
 	final com.badlogic.gdx.math.Polygon polygon;
 	
 	private int totalSidesCache = -1;
 	private float minX, minY, maxX, maxY;
 	private ShortArray triangles;
+	private float[] edgeNormals;
 	private float trackedRotation = 0f;
 	private boolean isRectangle;
-	private boolean minMaxDirty = true;
-	private boolean trianglesDirty = true;
+	private volatile boolean minMaxDirty = true;
+	private volatile boolean trianglesDirty = true;
+	private volatile boolean edgeNormalsDirty = true;
 
 	/**
 	 * Constructor. Note that vertices must be in a clockwise order for
@@ -53,7 +48,6 @@ public class Polygon extends Shape {
 	public Polygon(float[] vertices) {
 		polygon = new com.badlogic.gdx.math.Polygon(vertices);
 		polygon.setOrigin(vertices[0], vertices[1]);
-		triangulator = new EarClippingTriangulator();
 		getNumberOfSides();
 	}
 
@@ -142,9 +136,9 @@ public class Polygon extends Shape {
 
 	@Override
 	public boolean contains(Shape shape) {
-		if (shape.isCircle()) {
-			Rectangle circleBox = ((Circle) shape).getBoundingBox();
-			return contains(circleBox.getPolygon());
+		if (shape.isCircle() || (shape instanceof Rectangle && !((Rectangle) shape).isRotated())) {
+			return contains(shape.getMinX(), shape.getMinY()) && contains(shape.getMaxX(), shape.getMinY())
+					&& contains(shape.getMaxX(), shape.getMaxY()) && contains(shape.getMinX(), shape.getMaxY());
 		}
 		return contains(shape.getPolygon());
 	}
@@ -158,6 +152,9 @@ public class Polygon extends Shape {
 		if (shape.isCircle()) {
 			return intersects((Circle) shape);
 		}
+		if (shape instanceof Rectangle) {
+			return ((Rectangle) shape).intersects(this);
+		}
 		return intersects(shape.getPolygon());
 	}
 
@@ -199,18 +196,32 @@ public class Polygon extends Shape {
 		if (polygon.maxY < minY) {
 			return false;
 		}
-		boolean result = false;
+		return IntersectionKernels.intersectPolygonEdges(this.polygon.getTransformedVertices(),
+				polygon.polygon.getTransformedVertices());
+	}
 
-		internalEdgeIterator.begin();
-		while (internalEdgeIterator.hasNext()) {
-			internalEdgeIterator.next();
-			if (polygon.intersects(internalEdgeIterator.getEdgeLineSegment())) {
-				result = true;
-				break;
-			}
+	/**
+	 * Returns if this convex {@link Polygon} intersects another convex
+	 * {@link Polygon} using the separating axis theorem. Unlike
+	 * {@link #intersects(Polygon)} this also detects when one polygon contains
+	 * the other.
+	 * 
+	 * @param polygon
+	 *            The other convex {@link Polygon}
+	 * @param result
+	 *            Stores the minimum translation vector that moves this
+	 *            {@link Polygon} out of the other. Reset if they do not
+	 *            intersect.
+	 * @return True if the two {@link Polygon}s intersect
+	 */
+	public boolean intersects(Polygon polygon, CollisionResult result) {
+		if (polygon.getMinX() > getMaxX() || polygon.getMaxX() < getMinX() || polygon.getMinY() > getMaxY()
+				|| polygon.getMaxY() < getMinY()) {
+			result.reset();
+			return false;
 		}
-		internalEdgeIterator.end();
-		return result;
+		return IntersectionKernels.intersectConvexPolygons(this.polygon.getTransformedVertices(), getEdgeNormals(),
+				polygon.polygon.getTransformedVertices(), polygon.getEdgeNormals(), result);
 	}
 
 	/**
@@ -233,7 +244,7 @@ public class Polygon extends Shape {
 	 * @return True if this {@link Polygon} and {@link Rectangle} intersect
 	 */
 	public boolean intersects(Rectangle rectangle) {
-		return intersects(rectangle.polygon);
+		return rectangle.intersects(this);
 	}
 
 	public boolean intersects(Circle circle) {
@@ -262,19 +273,8 @@ public class Polygon extends Shape {
 			return closestX + closestY < circle.getRadius() * circle.getRadius();
 		}
 
-		boolean result = false;
-
-		internalEdgeIterator.begin();
-		while (internalEdgeIterator.hasNext()) {
-			internalEdgeIterator.next();
-			if (circle.intersectsLineSegment(internalEdgeIterator.getPointAX(), internalEdgeIterator.getPointAY(),
-					internalEdgeIterator.getPointBX(), internalEdgeIterator.getPointBY())) {
-				result = true;
-				break;
-			}
-		}
-		internalEdgeIterator.end();
-		return result;
+		return IntersectionKernels.intersectPolygonEdgesCircle(polygon.getTransformedVertices(), circle.getX(),
+				circle.getY(), circle.getRadius());
 	}
 
 	@Override
@@ -284,29 +284,17 @@ public class Polygon extends Shape {
 
 	@Override
 	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
-		return Intersector.intersectSegmentPolygon(pointA, pointB, polygon);
+		return intersectsLineSegment(pointA.x, pointA.y, pointB.x, pointB.y);
 	}
 
 	@Override
 	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
-		tmp1.set(x1, y1);
-		tmp2.set(x2, y2);
-		return Intersector.intersectSegmentPolygon(tmp1, tmp2, polygon);
+		return IntersectionKernels.intersectSegmentPolygon(x1, y1, x2, y2, polygon.getTransformedVertices());
 	}
 
 	@Override
 	public float getDistanceTo(float x, float y) {
-		float[] vertices = polygon.getTransformedVertices();
-		float result = Intersector.distanceSegmentPoint(vertices[vertices.length - 2], vertices[vertices.length - 1],
-				vertices[0], vertices[1], x, y);
-		for (int i = 0; i < vertices.length - 2; i += 2) {
-			float distance = Intersector.distanceSegmentPoint(vertices[i], vertices[i + 1], vertices[i + 2],
-					vertices[i + 3], x, y);
-			if (distance < result) {
-				result = distance;
-			}
-		}
-		return result;
+		return IntersectionKernels.distancePolygonEdgesPoint(polygon.getTransformedVertices(), x, y);
 	}
 
 	/**
@@ -553,7 +541,9 @@ public class Polygon extends Shape {
 
 	/**
 	 * Returns an array of vertex indices that the define the triangles which
-	 * make up this {@link Polygon}
+	 * make up this {@link Polygon}. The array is shared with other polygons
+	 * that have the same vertex layout (see {@link TriangulationCache}) and
+	 * must not be modified.
 	 * 
 	 * @return Array of triangle indices
 	 */
@@ -592,7 +582,7 @@ public class Polygon extends Shape {
 		}
 		polygon.setOrigin(x, getY());
 		polygon.setVertices(vertices);
-		setDirty();
+		translateMinMax(xDiff, 0f);
 	}
 
 	@Override
@@ -609,7 +599,7 @@ public class Polygon extends Shape {
 		}
 		polygon.setOrigin(getX(), y);
 		polygon.setVertices(vertices);
-		setDirty();
+		translateMinMax(0f, yDiff);
 	}
 
 	@Override
@@ -628,7 +618,7 @@ public class Polygon extends Shape {
 		}
 		polygon.setOrigin(x, y);
 		polygon.setVertices(vertices);
-		setDirty();
+		translateMinMax(xDiff, yDiff);
 	}
 	
 	public void set(Polygon polygon) {
@@ -650,7 +640,7 @@ public class Polygon extends Shape {
 		}
 		polygon.setOrigin(vertices[0], vertices[1]);
 		polygon.setVertices(vertices);
-		setDirty();
+		translateMinMax(translateX, translateY);
 	}
 
 	@Override
@@ -681,8 +671,25 @@ public class Polygon extends Shape {
 	}
 	
 	private void setDirty() {
+		polygon.getTransformedVertices();
 		minMaxDirty = true;
 		trianglesDirty = true;
+		edgeNormalsDirty = true;
+	}
+	
+	/**
+	 * Offsets the cached min/max coordinates after a translation. Triangle
+	 * indices are unaffected by translation so remain valid.
+	 */
+	private void translateMinMax(float translateX, float translateY) {
+		polygon.getTransformedVertices();
+		if(minMaxDirty) {
+			return;
+		}
+		minX += translateX;
+		minY += translateY;
+		maxX += translateX;
+		maxY += translateY;
 	}
 	
 	private void minMaxDirtyCheck() {
@@ -693,6 +700,24 @@ public class Polygon extends Shape {
 		minMaxDirty = false;
 	}
 	
+	/**
+	 * Returns the unit normal of each edge. These are only recomputed after
+	 * rotation or vertex changes, not translation.
+	 */
+	float[] getEdgeNormals() {
+		if (edgeNormalsDirty) {
+			float[] vertices = polygon.getTransformedVertices();
+			float[] normals = edgeNormals;
+			if (normals == null || normals.length != vertices.length) {
+				normals = new float[vertices.length];
+			}
+			IntersectionKernels.computeEdgeNormals(vertices, normals);
+			edgeNormals = normals;
+			edgeNormalsDirty = false;
+		}
+		return edgeNormals;
+	}
+	
 	private void trianglesDirtyCheck() {
 		if(!trianglesDirty) {
 			return;
@@ -702,7 +727,7 @@ public class Polygon extends Shape {
 	}
 	
 	private void computeTriangles(float[] vertices) {
-		triangles = triangulator.computeTriangles(vertices);
+		triangles = TriangulationCache.getTriangles(vertices);
 	}
 
 	private void calculateMinMaxXY(float[] vertices) {
@@ -14,19 +14,21 @@ package org.mini2Dx.core.geom;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.core.util.EdgeIterator;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 
 /**
- * Implements a rectangle.
+ * Implements a rectangle. Unrotated rectangles are stored as four floats and
+ * only create their backing {@link Polygon} when rotated or when
+ * {@link #getPolygon()} is called.
  */
 public class Rectangle extends Shape implements
 		Parallelogram {
 	private static final long serialVersionUID = 4016090439885217620L;
 	
-	final Polygon polygon;
-	private float width, height;
-	private Rectangle tmp = null;
-	private Vector2 [] tmpVectors = null;
+	private float x, y, width, height;
+	private Polygon polygon;
+	private boolean polygonDirty;
 	
 	/**
 	 * Default constructor. Creates a {@link Rectangle} at 0,0 with a width and
@@ -49,9 +51,10 @@ public class Rectangle extends Shape implements
 	 *            The height of the {@link Rectangle}
 	 */
 	public Rectangle(float x, float y, float width, float height) {
+		this.x = x;
+		this.y = y;
 		this.width = width;
 		this.height = height;
-		polygon = new Polygon(determineVertices(x, y, width, height));
 	}
 	
 	/**
@@ -59,9 +62,13 @@ public class Rectangle extends Shape implements
 	 * @param rectangle The {@link Rectangle} to copy
 	 */
 	public Rectangle(Rectangle rectangle) {
-		this.width = rectangle.getWidth();
-		this.height = rectangle.getHeight();
-		this.polygon = (Polygon) rectangle.polygon.copy();
+		this.x = rectangle.x;
+		this.y = rectangle.y;
+		this.width = rectangle.width;
+		this.height = rectangle.height;
+		if(rectangle.isRotated()) {
+			this.polygon = (Polygon) rectangle.polygon.copy();
+		}
 	}
 	
 	@Override
@@ -69,73 +76,147 @@ public class Rectangle extends Shape implements
 		return new Rectangle(this);
 	}
 	
-	private Vector2 [] determineVertices(float x, float y, float width, float height) {
-		if(tmpVectors == null) {
-			Vector2 topLeft = new Vector2(x, y);
-			Vector2 topRight = new Vector2(x + width, y);
-			Vector2 bottomLeft = new Vector2(x, y + height);
-			Vector2 bottomRight = new Vector2(x + width, y + height);
-			tmpVectors = new Vector2[] {
-					topLeft,
-					topRight,
-					bottomRight,
-					bottomLeft
-				};
-		} else {
-			tmpVectors[0].set(x, y);
-			tmpVectors[1].set(x + width, y);
-			tmpVectors[2].set(x + width, y + height);
-			tmpVectors[3].set(x, y + height);
+	private static float [] determineVertices(float x, float y, float width, float height) {
+		return new float[] {
+				x, y,
+				x + width, y,
+				x + width, y + height,
+				x, y + height
+			};
+	}
+	
+	/**
+	 * Returns if this {@link Rectangle} is rotated and backed by its
+	 * {@link Polygon}
+	 */
+	boolean isRotated() {
+		return polygon != null && polygon.getRotation() != 0f;
+	}
+	
+	/**
+	 * Returns if the backing {@link Polygon} has been created
+	 */
+	boolean isPolygonCreated() {
+		return polygon != null;
+	}
+	
+	/**
+	 * Marks the backing {@link Polygon} (if any) as out of date after an
+	 * unrotated change
+	 */
+	private void setPolygonDirty() {
+		if(polygon != null) {
+			polygonDirty = true;
+		}
+	}
+	
+	/**
+	 * Stores the position of the backing {@link Polygon} after a rotation has
+	 * returned this {@link Rectangle} to being axis-aligned
+	 */
+	private void rotationChanged() {
+		if(polygon.getRotation() != 0f) {
+			return;
 		}
-		return tmpVectors;
+		x = polygon.getX();
+		y = polygon.getY();
+		polygonDirty = true;
 	}
 	
 	@Override
 	public boolean contains(float x, float y) {
-		return polygon.contains(x, y);
+		if(isRotated()) {
+			return polygon.contains(x, y);
+		}
+		return x >= getMinX() && x <= getMaxX() && y >= getMinY() && y <= getMaxY();
 	}
 
 	@Override
 	public boolean contains(Vector2 point) {
-		return polygon.contains(point);
+		return contains(point.x, point.y);
 	}
 	
 	@Override
 	public boolean contains(Shape shape) {
-		return polygon.contains(shape);
+		if(shape instanceof Rectangle) {
+			return contains((Rectangle) shape);
+		}
+		if(shape.isCircle()) {
+			return contains((Circle) shape);
+		}
+		if(isRotated()) {
+			return polygon.contains(shape);
+		}
+		float [] vertices = shape.getPolygon().getVertices();
+		for(int i = 0; i < vertices.length; i += 2) {
+			if(!contains(vertices[i], vertices[i + 1])) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	public boolean contains(Parallelogram parallelogram) {
-		if(tmp == null) {
-			tmp = new Rectangle(parallelogram.getX(),
-					parallelogram.getY(), parallelogram.getWidth(),
-					parallelogram.getHeight());
-			tmp.setRotation(parallelogram.getRotation());
-		} else {
-			tmp.set(parallelogram.getX(),
-					parallelogram.getY(), parallelogram.getWidth(),
-					parallelogram.getHeight());
-			tmp.setRotation(parallelogram.getRotation());
+		final float x = parallelogram.getX();
+		final float y = parallelogram.getY();
+		final float width = parallelogram.getWidth();
+		final float height = parallelogram.getHeight();
+		final float rotation = parallelogram.getRotation();
+		if(rotation == 0f) {
+			return contains(x, y) && contains(x + width, y) && contains(x + width, y + height)
+					&& contains(x, y + height);
 		}
-		return contains(tmp);
+		final float cos = MathUtils.cosDeg(rotation);
+		final float sin = MathUtils.sinDeg(rotation);
+		return contains(x, y) && containsRotated(x, y, width, 0f, cos, sin)
+				&& containsRotated(x, y, width, height, cos, sin) && containsRotated(x, y, 0f, height, cos, sin);
+	}
+	
+	private boolean containsRotated(float originX, float originY, float offsetX, float offsetY, float cos,
+			float sin) {
+		float localX = (originX + offsetX) - originX;
+		float localY = (originY + offsetY) - originY;
+		return contains(((cos * localX) - (sin * localY)) + originX, ((sin * localX) + (cos * localY)) + originY);
 	}
 	
 	public boolean contains(Rectangle rectangle) {
-		return this.polygon.contains(rectangle.polygon);
+		if(rectangle.isRotated()) {
+			float [] vertices = rectangle.polygon.getVertices();
+			for(int i = 0; i < vertices.length; i += 2) {
+				if(!contains(vertices[i], vertices[i + 1])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if(isRotated()) {
+			return contains(rectangle.getMinX(), rectangle.getMinY()) && contains(rectangle.getMaxX(), rectangle.getMinY())
+					&& contains(rectangle.getMaxX(), rectangle.getMaxY()) && contains(rectangle.getMinX(), rectangle.getMaxY());
+		}
+		return rectangle.getMinX() >= getMinX() && rectangle.getMaxX() <= getMaxX()
+				&& rectangle.getMinY() >= getMinY() && rectangle.getMaxY() <= getMaxY();
 	}
 	
 	public boolean contains(Circle circle) {
-		return this.polygon.contains(circle.getBoundingBox());
+		return contains(circle.getMinX(), circle.getMinY()) && contains(circle.getMaxX(), circle.getMinY())
+				&& contains(circle.getMaxX(), circle.getMaxY()) && contains(circle.getMinX(), circle.getMaxY());
 	}
 
 	@Override
 	public boolean intersects(Shape shape) {
-		return polygon.intersects(shape);
+		if(shape instanceof Rectangle) {
+			return intersects((Rectangle) shape);
+		}
+		if(shape.isCircle()) {
+			return intersects((Circle) shape);
+		}
+		return intersects(shape.getPolygon());
 	}
 	
 	@Override
 	public boolean intersectsLineSegment(LineSegment lineSegment) {
-		return polygon.intersects(lineSegment);
+		return intersectsLineSegment(lineSegment.getPointA().x, lineSegment.getPointA().y,
+				lineSegment.getPointB().x, lineSegment.getPointB().y);
 	}
 	
 	/**
@@ -145,7 +226,8 @@ public class Rectangle extends Shape implements
 	 * @return True if the {@link Circle} intersects
 	 */
 	public boolean intersects(Circle circle) {
-		return polygon.intersects(circle);
+		return IntersectionKernels.intersectAabbCircle(getMinX(), getMinY(), getMaxX(), getMaxY(), circle.getX(),
+				circle.getY(), circle.getRadius());
 	}
 
 	/**
@@ -159,41 +241,49 @@ public class Rectangle extends Shape implements
 		boolean xAxisOverlaps = true;
 		boolean yAxisOverlaps = true;
 
-		if (polygon.getMaxX() < rectangle.getMinX())
+		if (getMaxX() < rectangle.getMinX())
 			xAxisOverlaps = false;
-		if (rectangle.getMaxX() < polygon.getMinX())
+		if (rectangle.getMaxX() < getMinX())
 			xAxisOverlaps = false;
-		if (polygon.getMaxY() < rectangle.getMinY())
+		if (getMaxY() < rectangle.getMinY())
 			yAxisOverlaps = false;
-		if (rectangle.getMaxY() < polygon.getMinY())
+		if (rectangle.getMaxY() < getMinY())
 			yAxisOverlaps = false;
 
 		return xAxisOverlaps && yAxisOverlaps;
 	}
 	
 	public boolean intersects(Parallelogram parallelogram) {
-		if(tmp == null) {
-			tmp = new Rectangle(parallelogram.getX(),
-					parallelogram.getY(), parallelogram.getWidth(),
-					parallelogram.getHeight());
-			tmp.setRotation(parallelogram.getRotation());
-		} else {
-			tmp.set(parallelogram.getX(),
-					parallelogram.getY(), parallelogram.getWidth(),
-					parallelogram.getHeight());
-			tmp.setRotation(parallelogram.getRotation());
+		final float x = parallelogram.getX();
+		final float y = parallelogram.getY();
+		final float width = parallelogram.getWidth();
+		final float height = parallelogram.getHeight();
+		final float rotation = parallelogram.getRotation();
+		if(rotation == 0f) {
+			return intersects(x, y, width, height);
 		}
-		return intersects(tmp);
+		final float cos = MathUtils.cosDeg(rotation);
+		final float sin = MathUtils.sinDeg(rotation);
+		
+		float minX = x, minY = y, maxX = x, maxY = y;
+		for(int i = 1; i < 4; i++) {
+			float localX = (i == 1 || i == 2) ? (x + width) - x : 0f;
+			float localY = i >= 2 ? (y + height) - y : 0f;
+			float cornerX = ((cos * localX) - (sin * localY)) + x;
+			float cornerY = ((sin * localX) + (cos * localY)) + y;
+			minX = Math.min(minX, cornerX);
+			minY = Math.min(minY, cornerY);
+			maxX = Math.max(maxX, cornerX);
+			maxY = Math.max(maxY, cornerY);
+		}
+		return IntersectionKernels.intersectAabbs(getMinX(), getMinY(), getMaxX(), getMaxY(), minX, minY, maxX,
+				maxY);
 	}
 	
 	@Override
 	public boolean intersects(float x, float y, float width, float height) {
-		if(tmp == null) {
-			tmp = new Rectangle(x, y, width, height);
-		} else {
-			tmp.set(x, y, width, height);
-		}
-		return intersects(tmp);
+		return IntersectionKernels.intersectAabbs(getMinX(), getMinY(), getMaxX(), getMaxY(), Math.min(x, x + width),
+				Math.min(y, y + height), Math.max(x, x + width), Math.max(y, y + height));
 	}
 	
 	/**
@@ -202,7 +292,7 @@ public class Rectangle extends Shape implements
 	 * @return True if this {@link Rectangle} and the {@link Triangle} intersect
 	 */
 	public boolean intersects(Triangle triangle) {
-		return polygon.intersects(triangle);
+		return intersects(triangle.polygon);
 	}
 	
 	/**
@@ -211,21 +301,49 @@ public class Rectangle extends Shape implements
 	 * @return True if this {@link Rectangle} and the {@link Polygon} intersect
 	 */
 	public boolean intersects(Polygon polygon) {
-		return this.polygon.intersects(polygon);
+		if(isRotated()) {
+			return this.polygon.intersects(polygon);
+		}
+		if(polygon.getMinX() > getMaxX() || polygon.getMaxX() < getMinX() || polygon.getMinY() > getMaxY()
+				|| polygon.getMaxY() < getMinY()) {
+			return false;
+		}
+		if(polygon.getNumberOfSides() == 4) {
+			return true;
+		}
+		final float minX = getMinX();
+		final float minY = getMinY();
+		final float maxX = getMaxX();
+		final float maxY = getMaxY();
+		final float [] vertices = polygon.getVertices();
+		return IntersectionKernels.intersectSegmentPolygon(minX, minY, maxX, minY, vertices)
+				|| IntersectionKernels.intersectSegmentPolygon(maxX, minY, maxX, maxY, vertices)
+				|| IntersectionKernels.intersectSegmentPolygon(maxX, maxY, minX, maxY, vertices)
+				|| IntersectionKernels.intersectSegmentPolygon(minX, maxY, minX, minY, vertices);
 	}
 
 	@Override
 	public boolean intersectsLineSegment(Vector2 pointA, Vector2 pointB) {
-		return polygon.intersectsLineSegment(pointA, pointB);
+		return intersectsLineSegment(pointA.x, pointA.y, pointB.x, pointB.y);
 	}
 
 	@Override
 	public boolean intersectsLineSegment(float x1, float y1, float x2, float y2) {
-		return polygon.intersectsLineSegment(x1, y1, x2, y2);
+		if(isRotated()) {
+			return polygon.intersectsLineSegment(x1, y1, x2, y2);
+		}
+		final float minX = getMinX();
+		final float minY = getMinY();
+		final float maxX = getMaxX();
+		final float maxY = getMaxY();
+		return IntersectionKernels.intersectSegments(x1, y1, x2, y2, minX, maxY, minX, minY)
+				|| IntersectionKernels.intersectSegments(x1, y1, x2, y2, minX, minY, maxX, minY)
+				|| IntersectionKernels.intersectSegments(x1, y1, x2, y2, maxX, minY, maxX, maxY)
+				|| IntersectionKernels.intersectSegments(x1, y1, x2, y2, maxX, maxY, minX, maxY);
 	}
 
 	public Rectangle intersection(Rectangle rect) {
-		if (polygon.getRotation() != 0f || rect.getRotation() != 0f)
+		if (getRotation() != 0f || rect.getRotation() != 0f)
 			throw new UnsupportedOperationException(
 					"Rectangle.intersection is not implemented to handle rotated rectangles");
 
@@ -249,12 +367,12 @@ public class Rectangle extends Shape implements
 	 */
 	@Override
 	public void draw(Graphics g) {
-		polygon.draw(g);
+		getPolygon().draw(g);
 	}
 	
 	@Override
 	public void fill(Graphics g) {
-		polygon.fill(g);
+		getPolygon().fill(g);
 	}
 	
 	public Rectangle lerp(Rectangle target, float alpha) {
@@ -285,52 +403,85 @@ public class Rectangle extends Shape implements
 	}
 	
 	public float getDistanceTo(float x, float y) {
-	    return polygon.getDistanceTo(x, y);
+		if(isRotated()) {
+			return polygon.getDistanceTo(x, y);
+		}
+		final float minX = getMinX();
+		final float minY = getMinY();
+		final float maxX = getMaxX();
+		final float maxY = getMaxY();
+		float result = IntersectionKernels.distanceSquaredSegmentPoint(minX, maxY, minX, minY, x, y);
+		result = Math.min(result, IntersectionKernels.distanceSquaredSegmentPoint(minX, minY, maxX, minY, x, y));
+		result = Math.min(result, IntersectionKernels.distanceSquaredSegmentPoint(maxX, minY, maxX, maxY, x, y));
+		result = Math.min(result, IntersectionKernels.distanceSquaredSegmentPoint(maxX, maxY, minX, maxY, x, y));
+		return (float) Math.sqrt(result);
 	}
 
 	@Override
 	public float getRotation() {
+		if(polygon == null) {
+			return 0f;
+		}
 		return polygon.getRotation();
 	}
 
 	@Override
 	public void setRotation(float degrees) {
-		polygon.setRotation(degrees);
+		if(degrees == getRotation()) {
+			return;
+		}
+		getPolygon().setRotation(degrees);
+		rotationChanged();
 	}
 
 	@Override
 	public void rotate(float degrees) {
-		polygon.rotate(degrees);
+		if(degrees == 0f) {
+			return;
+		}
+		getPolygon().rotate(degrees);
+		rotationChanged();
 	}
 	
 	@Override
 	public void rotateAround(float centerX, float centerY, float degrees) {
-		polygon.rotateAround(centerX, centerY, degrees);
+		if(degrees == 0f) {
+			return;
+		}
+		getPolygon().rotateAround(centerX, centerY, degrees);
+		rotationChanged();
 	}
 	
 	@Override
 	public void setRotationAround(Point center, float degrees) {
-		polygon.setRotationAround(center.x, center.y, degrees);
+		getPolygon().setRotationAround(center.x, center.y, degrees);
+		rotationChanged();
 	}
 
 	@Override
 	public void setRotationAround(float centerX, float centerY, float degrees) {
-		polygon.setRotationAround(centerX, centerY, degrees);
+		getPolygon().setRotationAround(centerX, centerY, degrees);
+		rotationChanged();
 	}
 
 	public Rectangle set(float x, float y, float width, float height) {
-		float rotation = polygon.getRotation();
-		if(rotation != 0f) {
-			polygon.setRotation(-rotation);
-		}
-		polygon.setVertices(determineVertices(x, y, width, height));
-		if(rotation != 0f) {
-			polygon.setRotation(rotation);
-		}
-		
+		setBounds(x, y, width, height);
+		return this;
+	}
+	
+	private void setBounds(float x, float y, float width, float height) {
+		this.x = x;
+		this.y = y;
 		this.width = width;
 		this.height = height;
-		return this;
+		
+		if(isRotated()) {
+			float rotation = polygon.getRotation();
+			polygon.setVertices(determineVertices(x, y, width, height));
+			polygon.setRotation(rotation);
+		} else {
+			setPolygonDirty();
+		}
 	}
 
 	public void set(Rectangle rectangle) {
@@ -339,29 +490,57 @@ public class Rectangle extends Shape implements
 	}
 	
 	public void set(float x, float y) {
-		polygon.set(x, y);
+		if(isRotated()) {
+			polygon.set(x, y);
+			return;
+		}
+		this.x = x;
+		this.y = y;
+		setPolygonDirty();
 	}
 	
 	public void set(Vector2 position) {
-		polygon.set(position.x, position.y);
+		if(isRotated()) {
+			polygon.set(position.x, position.y);
+			return;
+		}
+		this.x = position.x;
+		this.y = position.y;
+		setPolygonDirty();
 	}
 	
 	@Override
 	public float getX() {
-		return polygon.getX();
+		if(isRotated()) {
+			return polygon.getX();
+		}
+		return x;
 	}
 	
 	public void setX(float x) {
-		polygon.setX(x);
+		if(isRotated()) {
+			polygon.setX(x);
+			return;
+		}
+		this.x = x;
+		setPolygonDirty();
 	}
 	
 	@Override
 	public float getY() {
-		return polygon.getY();
+		if(isRotated()) {
+			return polygon.getY();
+		}
+		return y;
 	}
 	
 	public void setY(float y) {
-		polygon.setY(y);
+		if(isRotated()) {
+			polygon.setY(y);
+			return;
+		}
+		this.y = y;
+		setPolygonDirty();
 	}
 	
 	public float getWidth() {
@@ -369,11 +548,7 @@ public class Rectangle extends Shape implements
 	}
 
 	public Rectangle setWidth(float width) {
-		float rotation = polygon.getRotation();
-		polygon.setRotation(-rotation);
-		polygon.setVertices(determineVertices(getX(), getY(), width, getHeight()));
-		polygon.setRotation(rotation);
-		this.width = width;
+		setBounds(getX(), getY(), width, height);
 		return this;
 	}
 	
@@ -382,44 +557,34 @@ public class Rectangle extends Shape implements
 	}
 
 	public Rectangle setHeight(float height) {
-		float rotation = polygon.getRotation();
-		polygon.setRotation(-rotation);
-		polygon.setVertices(determineVertices(getX(), getY(), getWidth(), height));
-		polygon.setRotation(rotation);
-		this.height = height;
+		setBounds(getX(), getY(), width, height);
 		return this;
 	}
 
 	public Rectangle setSize(float width, float height) {
-		float rotation = polygon.getRotation();
-		polygon.setRotation(-rotation);
-		polygon.setVertices(determineVertices(getX(), getY(), getWidth(), height));
-		polygon.setRotation(rotation);
-		
-		this.width = width;
-		this.height = height;
+		setBounds(getX(), getY(), width, height);
 		return this;
 	}
 
 	public Rectangle setSize(float sizeXY) {
-		float rotation = polygon.getRotation();
-		polygon.setRotation(-rotation);
-		polygon.setVertices(determineVertices(getX(), getY(), sizeXY, sizeXY));
-		polygon.setRotation(rotation);
-		
-		this.width = sizeXY;
-		this.height = sizeXY;
+		setBounds(getX(), getY(), sizeXY, sizeXY);
 		return this;
 	}
 	
 	@Override
 	public void translate(float translateX, float translateY) {
-		polygon.translate(translateX, translateY);
+		if(isRotated()) {
+			polygon.translate(translateX, translateY);
+			return;
+		}
+		x += translateX;
+		y += translateY;
+		setPolygonDirty();
 	}
 	
 	@Override
 	public EdgeIterator edgeIterator() {
-		return polygon.edgeIterator();
+		return getPolygon().edgeIterator();
 	}
 
 	/**
@@ -446,7 +611,10 @@ public class Rectangle extends Shape implements
 	 * @return
 	 */
 	public float getMinX() {
-		return polygon.getMinX();
+		if(isRotated()) {
+			return polygon.getMinX();
+		}
+		return width < 0f ? x + width : x;
 	}
 
 	/**
@@ -455,7 +623,10 @@ public class Rectangle extends Shape implements
 	 * @return
 	 */
 	public float getMinY() {
-		return polygon.getMinY();
+		if(isRotated()) {
+			return polygon.getMinY();
+		}
+		return height < 0f ? y + height : y;
 	}
 
 	/**
@@ -464,7 +635,10 @@ public class Rectangle extends Shape implements
 	 * @return
 	 */
 	public float getMaxX() {
-		return polygon.getMaxX();
+		if(isRotated()) {
+			return polygon.getMaxX();
+		}
+		return width < 0f ? x : x + width;
 	}
 
 	/**
@@ -473,16 +647,25 @@ public class Rectangle extends Shape implements
 	 * @return
 	 */
 	public float getMaxY() {
-		return polygon.getMaxY();
+		if(isRotated()) {
+			return polygon.getMaxY();
+		}
+		return height < 0f ? y : y + height;
 	}
 	
 	@Override
 	public float getOriginX() {
+		if(polygon == null || polygonDirty) {
+			return x;
+		}
 		return polygon.getOriginX();
 	}
 	
 	@Override
 	public float getOriginY() {
+		if(polygon == null || polygonDirty) {
+			return y;
+		}
 		return polygon.getOriginY();
 	}
 	
@@ -491,12 +674,12 @@ public class Rectangle extends Shape implements
 	 * @return
 	 */
 	public float [] getVertices() {
-		return polygon.getVertices();
+		return getPolygon().getVertices();
 	}
 
 	@Override
 	public String toString() {
-		return "Rectangle [rotation=" + polygon.getRotation() + ", x=" + getX() + ", y=" + getY()
+		return "Rectangle [rotation=" + getRotation() + ", x=" + getX() + ", y=" + getY()
 				+ ", width=" + getWidth() + ", height=" + getHeight() + "]";
 	}
 
@@ -505,8 +688,19 @@ public class Rectangle extends Shape implements
 		return false;
 	}
 
+	/**
+	 * Returns the {@link Polygon} backing this {@link Rectangle}, creating it
+	 * on first use
+	 */
 	@Override
 	public Polygon getPolygon() {
+		if(polygon == null) {
+			polygon = new Polygon(determineVertices(x, y, width, height));
+			polygonDirty = false;
+		} else if(polygonDirty) {
+			polygon.setVertices(determineVertices(x, y, width, height));
+			polygonDirty = false;
+		}
 		return polygon;
 	}
 }
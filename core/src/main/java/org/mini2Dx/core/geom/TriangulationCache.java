@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.math.EarClippingTriangulator;
+import com.badlogic.gdx.utils.ShortArray;
+
+/**
+ * A shared, bounded cache of {@link Polygon} triangulations. Triangle indices
+ * only depend on the layout of the vertices relative to each other, so
+ * polygons with the same vertex count and relative layout (e.g. multiple
+ * instances of the same prefab) are only triangulated once.
+ * 
+ * The returned {@link ShortArray}s are shared and must not be modified.
+ */
+public class TriangulationCache {
+	/**
+	 * The default maximum number of triangulations to keep
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+	
+	private static final ThreadLocal<EarClippingTriangulator> TRIANGULATOR = new ThreadLocal<EarClippingTriangulator>() {
+		@Override
+		protected EarClippingTriangulator initialValue() {
+			return new EarClippingTriangulator();
+		}
+	};
+	private static final ThreadLocal<LayoutKey> LOOKUP_KEY = new ThreadLocal<LayoutKey>() {
+		@Override
+		protected LayoutKey initialValue() {
+			return new LayoutKey();
+		}
+	};
+	private static final LinkedHashMap<LayoutKey, ShortArray> CACHE = new LinkedHashMap<LayoutKey, ShortArray>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = -2718914342591577013L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<LayoutKey, ShortArray> eldest) {
+			return size() > capacity;
+		}
+	};
+	
+	private static int capacity = DEFAULT_CAPACITY;
+	private static long hits, misses;
+	
+	/**
+	 * Returns the triangle indices for a set of vertices, triangulating them
+	 * if no polygon with the same relative layout has been cached
+	 * 
+	 * @param vertices
+	 *            All points in x,y pairs. E.g. x1,y1,x2,y2,etc.
+	 * @return The shared triangle indices
+	 */
+	public static ShortArray getTriangles(float[] vertices) {
+		LayoutKey lookupKey = LOOKUP_KEY.get();
+		lookupKey.set(vertices);
+		synchronized (CACHE) {
+			ShortArray result = CACHE.get(lookupKey);
+			if (result != null) {
+				hits++;
+				return result;
+			}
+			misses++;
+		}
+		ShortArray result = new ShortArray(TRIANGULATOR.get().computeTriangles(vertices));
+		synchronized (CACHE) {
+			if (capacity > 0) {
+				CACHE.put(lookupKey.copy(), result);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Removes all cached triangulations and resets the hit/miss counters
+	 */
+	public static void clear() {
+		synchronized (CACHE) {
+			CACHE.clear();
+			hits = 0;
+			misses = 0;
+		}
+	}
+	
+	/**
+	 * Returns the maximum number of triangulations kept in the cache
+	 * @return {@link #DEFAULT_CAPACITY} by default
+	 */
+	public static int getCapacity() {
+		synchronized (CACHE) {
+			return capacity;
+		}
+	}
+	
+	/**
+	 * Sets the maximum number of triangulations kept in the cache. The least
+	 * recently used triangulations are removed when the capacity is exceeded.
+	 * 
+	 * @param capacity
+	 *            The maximum number of triangulations. 0 disables caching.
+	 */
+	public static void setCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity cannot be negative");
+		}
+		synchronized (CACHE) {
+			TriangulationCache.capacity = capacity;
+			while (CACHE.size() > capacity) {
+				CACHE.remove(CACHE.keySet().iterator().next());
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of triangulations currently cached
+	 * @return 0 if empty
+	 */
+	public static int getSize() {
+		synchronized (CACHE) {
+			return CACHE.size();
+		}
+	}
+	
+	/**
+	 * Returns the number of lookups that reused a cached triangulation
+	 * @return 0 if none
+	 */
+	public static long getHits() {
+		synchronized (CACHE) {
+			return hits;
+		}
+	}
+	
+	/**
+	 * Returns the number of lookups that required a new triangulation
+	 * @return 0 if none
+	 */
+	public static long getMisses() {
+		synchronized (CACHE) {
+			return misses;
+		}
+	}
+	
+	/**
+	 * Vertex positions relative to the first vertex
+	 */
+	private static class LayoutKey {
+		private float[] layout = new float[0];
+		private int length;
+		private int hash;
+		
+		void set(float[] vertices) {
+			if (layout.length < vertices.length) {
+				layout = new float[vertices.length];
+			}
+			length = vertices.length;
+			
+			float originX = vertices[0];
+			float originY = vertices[1];
+			int result = length;
+			for (int i = 0; i < length; i += 2) {
+				layout[i] = vertices[i] - originX;
+				layout[i + 1] = vertices[i + 1] - originY;
+				result = 31 * result + Float.floatToIntBits(layout[i]);
+				result = 31 * result + Float.floatToIntBits(layout[i + 1]);
+			}
+			hash = result;
+		}
+		
+		LayoutKey copy() {
+			LayoutKey result = new LayoutKey();
+			result.layout = Arrays.copyOf(layout, length);
+			result.length = length;
+			result.hash = hash;
+			return result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LayoutKey)) {
+				return false;
+			}
+			LayoutKey other = (LayoutKey) obj;
+			if (hash != other.hash || length != other.length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (Float.floatToIntBits(layout[i]) != Float.floatToIntBits(other.layout[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
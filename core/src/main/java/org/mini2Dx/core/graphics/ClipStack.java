@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Stores the clips saved by {@link Graphics#pushClip(Rectangle)} so that
+ * {@link Graphics#popClip()} can restore them
+ */
+class ClipStack {
+	private final Array<Rectangle> clips = new Array<Rectangle>(true, 4, Rectangle.class);
+
+	/**
+	 * Saves the current clip and returns the clip to apply
+	 * 
+	 * @param current
+	 *            The currently applied clip, may be null
+	 * @param clip
+	 *            The clip being pushed
+	 * @return The intersection of both clips, or the pushed clip if there is
+	 *         no current clip or either clip is rotated
+	 */
+	public Rectangle push(Rectangle current, Rectangle clip) {
+		clips.add(current);
+		if (current == null || current.getRotation() != 0f || clip.getRotation() != 0f) {
+			return clip;
+		}
+		Rectangle result = current.intersection(clip);
+		if (result.getWidth() < 0f || result.getHeight() < 0f) {
+			result.setSize(Math.max(0f, result.getWidth()), Math.max(0f, result.getHeight()));
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the most recently saved clip
+	 * 
+	 * @return The saved clip, null if there was no clip or the stack is empty
+	 */
+	public Rectangle pop() {
+		if (clips.size == 0) {
+			return null;
+		}
+		return clips.pop();
+	}
+
+	/**
+	 * Removes all saved clips
+	 */
+	public void clear() {
+		clips.clear();
+	}
+}
@@ -0,0 +1,1289 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import java.util.Arrays;
+
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * A {@link Graphics} implementation that records draw operations into
+ * primitive buffers and submits them to another {@link Graphics} instance
+ * sorted by layer, then shader, then texture. Only state that differs between
+ * consecutive operations is applied to the target, so interleaving textures
+ * from different atlases no longer causes a texture switch per draw.
+ * 
+ * Draw order is only kept between operations with the same layer, shader and
+ * texture. Use {@link #setLayer(int)} to order operations that overlap.
+ * Arguments are copied when an operation is recorded, including colors, clips,
+ * {@link Sprite} and {@link TextureRegion} instances and polygon arrays, so
+ * they can be modified while the frame is still recorded. Fonts, nine
+ * patches, {@link SpriteCache}, {@link Stage} and {@link ParticleEffect}
+ * instances cannot be copied and are read when the operations are submitted.
+ * 
+ * To render a single screen deferred, call {@link #begin(Graphics)} with the
+ * {@link Graphics} passed to the screen, render to this instance and then
+ * call {@link #end()}. To render a whole game deferred, construct this with
+ * the target {@link Graphics} and use {@link #preRender(int, int)} and
+ * {@link #postRender()}. To record a frame on a thread that does not own the
+ * GL context, use {@link #beginRecording(Graphics, int, int)} and
+ * {@link #endRecording()} and later call {@link #replay(Graphics)} on the GL
+ * thread.
+ */
+public class DeferredGraphics implements Graphics {
+	public static final int DEFAULT_INITIAL_CAPACITY = 256;
+	public static final int MIN_LAYER = Short.MIN_VALUE;
+	public static final int MAX_LAYER = Short.MAX_VALUE;
+
+	private static final int MAX_COMMANDS = 1 << 24;
+	private static final int MAX_SHADER_ID = 0xFF;
+	private static final int MAX_TEXTURE_ID = 0xFFFF;
+
+	private static final int FLOATS_PER_COMMAND = 6;
+	private static final int OBJECTS_PER_COMMAND = 2;
+	private static final int INTS_PER_COMMAND = 4;
+	private static final int FLOATS_PER_STATE = 7;
+	private static final int OBJECTS_PER_STATE = 5;
+	private static final int INTS_PER_STATE = 4;
+	private static final int COLORS_PER_STATE = 2;
+
+	private static final int DRAW_LINE_SEGMENT = 0;
+	private static final int DRAW_RECT = 1;
+	private static final int FILL_RECT = 2;
+	private static final int DRAW_CIRCLE = 3;
+	private static final int FILL_CIRCLE = 4;
+	private static final int DRAW_TRIANGLE = 5;
+	private static final int FILL_TRIANGLE = 6;
+	private static final int DRAW_POLYGON = 7;
+	private static final int FILL_POLYGON = 8;
+	private static final int DRAW_STRING = 9;
+	private static final int DRAW_STRING_ALIGNED = 10;
+	private static final int DRAW_TEXTURE = 11;
+	private static final int DRAW_TEXTURE_REGION = 12;
+	private static final int DRAW_SPRITE = 13;
+	private static final int DRAW_SPRITE_AT = 14;
+	private static final int DRAW_SPRITE_CACHE = 15;
+	private static final int DRAW_STAGE = 16;
+	private static final int DRAW_PARTICLE_EFFECT = 17;
+	private static final int DRAW_NINE_PATCH = 18;
+	private static final int DRAW_NINE_PATCH_DRAWABLE = 19;
+
+	private final ClipStack clipStack = new ClipStack();
+	private final ObjectIntMap<Texture> textureIds = new ObjectIntMap<Texture>();
+	private final ObjectIntMap<ShaderProgram> shaderIds = new ObjectIntMap<ShaderProgram>();
+	private final Array<Sprite> spriteCopies = new Array<Sprite>();
+	private final Array<TextureRegion> textureRegionCopies = new Array<TextureRegion>();
+	private final IntMap<float[]> vertexArrays = new IntMap<float[]>();
+	private final IntMap<short[]> triangleArrays = new IntMap<short[]>();
+
+	private Graphics target;
+	private boolean recording, copyInitialState;
+
+	private int totalCommands;
+	private int[] commandTypes, commandStates, commandInts;
+	private float[] commandFloats;
+	private Object[] commandObjects;
+	private long[] sortKeys;
+
+	private int totalSpriteCopies, totalTextureRegionCopies;
+	private int totalVertices, totalTriangles;
+	private float[] vertices;
+	private short[] triangles;
+
+	private int totalStates, appliedState;
+	private boolean stateChanged;
+	private float[] stateFloats;
+	private Object[] stateObjects;
+	private int[] stateInts;
+	private Color[] stateColors;
+	private Rectangle[] stateClips;
+	private Color appliedColor, appliedTint;
+	private Rectangle appliedClip;
+
+	private float translationX, translationY;
+	private float scaleX, scaleY;
+	private float rotation, rotationX, rotationY;
+	private int windowWidth, windowHeight;
+	private Color color, tint, backgroundColor;
+	private Rectangle clip;
+	private ShaderProgram shader;
+	private BitmapFont font;
+	private int lineHeight;
+	private int blendSrcFunc, blendDstFunc;
+	private boolean blending;
+	private int layer, shaderId;
+
+	private int totalSubmittedCommands, totalStateChanges;
+
+	/**
+	 * Constructor for use with {@link #begin(Graphics)}
+	 */
+	public DeferredGraphics() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param target
+	 *            The {@link Graphics} to submit operations to when used via
+	 *            {@link #preRender(int, int)} and {@link #postRender()}
+	 */
+	public DeferredGraphics(Graphics target) {
+		this(target, DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param target
+	 *            The {@link Graphics} to submit operations to when used via
+	 *            {@link #preRender(int, int)} and {@link #postRender()}
+	 * @param initialCapacity
+	 *            The number of operations to allocate buffers for. Buffers
+	 *            grow if more operations are recorded in a frame.
+	 */
+	public DeferredGraphics(Graphics target, int initialCapacity) {
+		this.target = target;
+
+		initialCapacity = Math.max(1, initialCapacity);
+		commandTypes = new int[initialCapacity];
+		commandStates = new int[initialCapacity];
+		commandInts = new int[initialCapacity * INTS_PER_COMMAND];
+		commandFloats = new float[initialCapacity * FLOATS_PER_COMMAND];
+		commandObjects = new Object[initialCapacity * OBJECTS_PER_COMMAND];
+		sortKeys = new long[initialCapacity];
+		vertices = new float[initialCapacity];
+		triangles = new short[initialCapacity];
+
+		int stateCapacity = Math.max(8, initialCapacity / 8);
+		stateFloats = new float[stateCapacity * FLOATS_PER_STATE];
+		stateObjects = new Object[stateCapacity * OBJECTS_PER_STATE];
+		stateInts = new int[stateCapacity * INTS_PER_STATE];
+		stateColors = new Color[stateCapacity * COLORS_PER_STATE];
+		stateClips = new Rectangle[stateCapacity];
+	}
+
+	/**
+	 * Starts recording operations for the given target. The current
+	 * transformation, clip, colors, font and shader of the target are used as
+	 * the starting state and are restored on {@link #end()}.
+	 * 
+	 * @param target
+	 *            The {@link Graphics} to submit operations to
+	 */
+	public void begin(Graphics target) {
+		if (recording) {
+			throw new IllegalStateException("DeferredGraphics.end() must be called before begin()");
+		}
+		this.target = target;
+		copyInitialState = false;
+
+		translationX = target.getTranslationX();
+		translationY = target.getTranslationY();
+		scaleX = target.getScaleX();
+		scaleY = target.getScaleY();
+		rotation = target.getRotation();
+		rotationX = target.getRotationX();
+		rotationY = target.getRotationY();
+		shader = target.getShaderProgram();
+		clip = target.removeClip();
+		if (clip != null) {
+			target.setClip(clip);
+		}
+		copyFrameState(target, target.getWindowWidth(), target.getWindowHeight());
+		startRecording();
+		appliedColor = color;
+		appliedTint = tint;
+		appliedClip = clip;
+	}
+
+	/**
+	 * Starts recording a frame without a target. The frame starts without
+	 * transformations, clip or shader, like a {@link Graphics} instance after
+	 * {@link #postRender()}.
+	 * 
+	 * @param previous
+	 *            The {@link Graphics} to copy the color, tint, font, line
+	 *            height and background color from, usually the previously
+	 *            recorded frame
+	 * @param windowWidth
+	 *            The window width to report while recording
+	 * @param windowHeight
+	 *            The window height to report while recording
+	 */
+	public void beginRecording(Graphics previous, int windowWidth, int windowHeight) {
+		if (recording) {
+			throw new IllegalStateException("DeferredGraphics.endRecording() must be called before beginRecording()");
+		}
+		this.target = null;
+		copyInitialState = true;
+
+		translationX = 0f;
+		translationY = 0f;
+		scaleX = 1f;
+		scaleY = 1f;
+		rotation = 0f;
+		rotationX = 0f;
+		rotationY = 0f;
+		shader = null;
+		clip = null;
+		copyFrameState(previous, windowWidth, windowHeight);
+		startRecording();
+	}
+
+	/**
+	 * Stops recording a frame started with
+	 * {@link #beginRecording(Graphics, int, int)}. The frame can then be
+	 * rendered with {@link #replay(Graphics)}.
+	 */
+	public void endRecording() {
+		if (!recording) {
+			throw new IllegalStateException("DeferredGraphics.beginRecording() must be called before endRecording()");
+		}
+		recording = false;
+	}
+
+	/**
+	 * Renders a frame recorded with {@link #beginRecording(Graphics, int, int)}
+	 * to the target, including the target's {@link #preRender(int, int)} and
+	 * {@link #postRender()} calls. This must be called on the thread that owns
+	 * the GL context.
+	 * 
+	 * @param target
+	 *            The {@link Graphics} to render the frame to
+	 */
+	public void replay(Graphics target) {
+		if (recording) {
+			throw new IllegalStateException("DeferredGraphics.endRecording() must be called before replay()");
+		}
+		this.target = target;
+		target.setBackgroundColor(backgroundColor);
+		target.preRender(windowWidth, windowHeight);
+		applyState(0, true);
+		submit();
+		target.postRender();
+		this.target = null;
+	}
+
+	private void copyFrameState(Graphics previous, int windowWidth, int windowHeight) {
+		this.windowWidth = windowWidth;
+		this.windowHeight = windowHeight;
+		color = previous.getColor();
+		tint = previous.getTint();
+		font = previous.getFont();
+		lineHeight = previous.getLineHeight();
+		backgroundColor = previous.getBackgroundColor();
+		blendSrcFunc = -1;
+		blendDstFunc = -1;
+		blending = true;
+	}
+
+	private void startRecording() {
+		recording = true;
+		layer = 0;
+
+		clipStack.clear();
+		textureIds.clear();
+		shaderIds.clear();
+		totalCommands = 0;
+		totalStates = 0;
+		totalSubmittedCommands = 0;
+		totalStateChanges = 0;
+
+		addState();
+		appliedState = 0;
+		stateChanged = false;
+	}
+
+	/**
+	 * Sorts and submits all recorded operations to the target and restores
+	 * the state the target had when {@link #begin(Graphics)} was called
+	 */
+	public void end() {
+		if (!recording || target == null) {
+			throw new IllegalStateException("DeferredGraphics.begin() must be called before end()");
+		}
+		submit();
+		recording = false;
+	}
+
+	@Override
+	public void preRender(int gameWidth, int gameHeight) {
+		target.preRender(gameWidth, gameHeight);
+		begin(target);
+	}
+
+	@Override
+	public void postRender() {
+		end();
+		target.postRender();
+	}
+
+	/**
+	 * Submits the recorded operations to the target in sorted order
+	 */
+	private void submit() {
+		Arrays.sort(sortKeys, 0, totalCommands);
+		for (int i = 0; i < totalCommands; i++) {
+			int index = (int) (sortKeys[i] & (MAX_COMMANDS - 1));
+			applyState(commandStates[index], false);
+			execute(index);
+		}
+		applyState(0, false);
+		if (!copyInitialState) {
+			restoreInitialObjects();
+		}
+
+		totalSubmittedCommands += totalCommands;
+		Arrays.fill(commandObjects, 0, totalCommands * OBJECTS_PER_COMMAND, null);
+		Arrays.fill(stateObjects, OBJECTS_PER_STATE, totalStates * OBJECTS_PER_STATE, null);
+		totalCommands = 0;
+		totalStates = 1;
+		stateChanged = true;
+		totalSpriteCopies = 0;
+		totalTextureRegionCopies = 0;
+		totalVertices = 0;
+		totalTriangles = 0;
+	}
+
+	private void execute(int index) {
+		int f = index * FLOATS_PER_COMMAND;
+		int o = index * OBJECTS_PER_COMMAND;
+		int i = index * INTS_PER_COMMAND;
+		float[] floats = commandFloats;
+
+		switch (commandTypes[index]) {
+		case DRAW_LINE_SEGMENT:
+			target.drawLineSegment(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+			break;
+		case DRAW_RECT:
+			target.drawRect(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+			break;
+		case FILL_RECT:
+			target.fillRect(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+			break;
+		case DRAW_CIRCLE:
+			target.drawCircle(floats[f], floats[f + 1], commandInts[i]);
+			break;
+		case FILL_CIRCLE:
+			target.fillCircle(floats[f], floats[f + 1], commandInts[i]);
+			break;
+		case DRAW_TRIANGLE:
+			target.drawTriangle(floats[f], floats[f + 1], floats[f + 2], floats[f + 3], floats[f + 4],
+					floats[f + 5]);
+			break;
+		case FILL_TRIANGLE:
+			target.fillTriangle(floats[f], floats[f + 1], floats[f + 2], floats[f + 3], floats[f + 4],
+					floats[f + 5]);
+			break;
+		case DRAW_POLYGON:
+			target.drawPolygon(getVertices(commandInts[i], commandInts[i + 1]));
+			break;
+		case FILL_POLYGON:
+			target.fillPolygon(getVertices(commandInts[i], commandInts[i + 1]),
+					getTriangles(commandInts[i + 2], commandInts[i + 3]));
+			break;
+		case DRAW_STRING:
+			target.drawString((String) commandObjects[o], floats[f], floats[f + 1]);
+			break;
+		case DRAW_STRING_ALIGNED:
+			target.drawString((String) commandObjects[o], floats[f], floats[f + 1], floats[f + 2],
+					commandInts[i]);
+			break;
+		case DRAW_TEXTURE:
+			target.drawTexture((Texture) commandObjects[o], floats[f], floats[f + 1], floats[f + 2],
+					floats[f + 3], commandInts[i] != 0);
+			break;
+		case DRAW_TEXTURE_REGION:
+			target.drawTextureRegion((TextureRegion) commandObjects[o], floats[f], floats[f + 1], floats[f + 2],
+					floats[f + 3]);
+			break;
+		case DRAW_SPRITE:
+			target.drawSprite((Sprite) commandObjects[o]);
+			break;
+		case DRAW_SPRITE_AT:
+			target.drawSprite((Sprite) commandObjects[o], floats[f], floats[f + 1]);
+			break;
+		case DRAW_SPRITE_CACHE:
+			target.drawSpriteCache((SpriteCache) commandObjects[o], commandInts[i]);
+			break;
+		case DRAW_STAGE:
+			target.drawStage((Stage) commandObjects[o]);
+			break;
+		case DRAW_PARTICLE_EFFECT:
+			target.drawParticleEffect((ParticleEffect) commandObjects[o]);
+			break;
+		case DRAW_NINE_PATCH:
+			target.drawNinePatch((NinePatch) commandObjects[o], floats[f], floats[f + 1], floats[f + 2],
+					floats[f + 3]);
+			break;
+		case DRAW_NINE_PATCH_DRAWABLE:
+			target.drawNinePatch((NinePatchDrawable) commandObjects[o], floats[f], floats[f + 1], floats[f + 2],
+					floats[f + 3]);
+			break;
+		}
+	}
+
+	/**
+	 * Applies the differences between the target's current state and the
+	 * given state record to the target
+	 * 
+	 * @param state
+	 *            The index of the state record
+	 * @param force
+	 *            True if all state should be applied regardless of
+	 *            differences
+	 */
+	private void applyState(int state, boolean force) {
+		if (state == appliedState && !force) {
+			return;
+		}
+		int fromF = appliedState * FLOATS_PER_STATE;
+		int toF = state * FLOATS_PER_STATE;
+		int fromO = appliedState * OBJECTS_PER_STATE;
+		int toO = state * OBJECTS_PER_STATE;
+		int fromI = appliedState * INTS_PER_STATE;
+		int toI = state * INTS_PER_STATE;
+		appliedState = state;
+
+		boolean changed = false;
+		if (force || stateFloats[fromF] != stateFloats[toF] || stateFloats[fromF + 1] != stateFloats[toF + 1]) {
+			target.setTranslation(stateFloats[toF], stateFloats[toF + 1]);
+			changed = true;
+		}
+		if (force || stateFloats[fromF + 2] != stateFloats[toF + 2] || stateFloats[fromF + 3] != stateFloats[toF + 3]) {
+			target.setScale(stateFloats[toF + 2], stateFloats[toF + 3]);
+			changed = true;
+		}
+		if (force || stateFloats[fromF + 4] != stateFloats[toF + 4] || stateFloats[fromF + 5] != stateFloats[toF + 5]
+				|| stateFloats[fromF + 6] != stateFloats[toF + 6]) {
+			target.setRotation(stateFloats[toF + 4], stateFloats[toF + 5], stateFloats[toF + 6]);
+			changed = true;
+		}
+		if (force || !isEqual((Color) stateObjects[fromO], (Color) stateObjects[toO])) {
+			applyColor((Color) stateObjects[toO]);
+			changed = true;
+		}
+		if (force || !isEqual((Color) stateObjects[fromO + 1], (Color) stateObjects[toO + 1])) {
+			applyTint((Color) stateObjects[toO + 1]);
+			changed = true;
+		}
+		if (force || !isEqual((Rectangle) stateObjects[fromO + 2], (Rectangle) stateObjects[toO + 2])) {
+			applyClip((Rectangle) stateObjects[toO + 2]);
+			changed = true;
+		}
+		if (force || stateObjects[fromO + 3] != stateObjects[toO + 3]) {
+			if (stateObjects[toO + 3] == null) {
+				target.clearShaderProgram();
+			} else {
+				target.setShaderProgram((ShaderProgram) stateObjects[toO + 3]);
+			}
+			changed = true;
+		}
+		if (force || stateObjects[fromO + 4] != stateObjects[toO + 4]) {
+			target.setFont((BitmapFont) stateObjects[toO + 4]);
+			changed = true;
+		}
+		if (force || stateInts[fromI] != stateInts[toI]) {
+			target.setLineHeight(stateInts[toI]);
+			changed = true;
+		}
+		if (force || stateInts[fromI + 1] != stateInts[toI + 1] || stateInts[fromI + 2] != stateInts[toI + 2]) {
+			if (stateInts[toI + 1] < 0) {
+				target.clearBlendFunction();
+			} else {
+				target.setBlendFunction(stateInts[toI + 1], stateInts[toI + 2]);
+			}
+			changed = true;
+		}
+		if (force || stateInts[fromI + 3] != stateInts[toI + 3]) {
+			if (stateInts[toI + 3] != 0) {
+				target.enableBlending();
+			} else {
+				target.disableBlending();
+			}
+			changed = true;
+		}
+		if (changed) {
+			totalStateChanges++;
+		}
+	}
+
+	/**
+	 * States recorded after {@link #begin(Graphics)} hold copies of the
+	 * colors and clip, hands the target back the instances it had before
+	 */
+	private void restoreInitialObjects() {
+		if (appliedColor != stateObjects[0]) {
+			applyColor((Color) stateObjects[0]);
+		}
+		if (appliedTint != stateObjects[1]) {
+			applyTint((Color) stateObjects[1]);
+		}
+		if (appliedClip != stateObjects[2]) {
+			applyClip((Rectangle) stateObjects[2]);
+		}
+	}
+
+	private void applyColor(Color color) {
+		target.setColor(color);
+		appliedColor = color;
+	}
+
+	private void applyTint(Color tint) {
+		if (tint == null) {
+			target.removeTint();
+		} else {
+			target.setTint(tint);
+		}
+		appliedTint = tint;
+	}
+
+	private void applyClip(Rectangle clip) {
+		if (clip == null) {
+			target.removeClip();
+		} else {
+			target.setClip(clip);
+		}
+		appliedClip = clip;
+	}
+
+	private boolean isEqual(Color color1, Color color2) {
+		if (color1 == color2) {
+			return true;
+		}
+		if (color1 == null || color2 == null) {
+			return false;
+		}
+		return color1.r == color2.r && color1.g == color2.g && color1.b == color2.b && color1.a == color2.a;
+	}
+
+	private boolean isEqual(Rectangle clip1, Rectangle clip2) {
+		if (clip1 == clip2) {
+			return true;
+		}
+		if (clip1 == null || clip2 == null) {
+			return false;
+		}
+		return clip1.getX() == clip2.getX() && clip1.getY() == clip2.getY() && clip1.getWidth() == clip2.getWidth()
+				&& clip1.getHeight() == clip2.getHeight() && clip1.getRotation() == clip2.getRotation();
+	}
+
+	/**
+	 * Appends a record of the current state
+	 */
+	private void addState() {
+		if ((totalStates + 1) * FLOATS_PER_STATE > stateFloats.length) {
+			int capacity = totalStates * 2;
+			stateFloats = Arrays.copyOf(stateFloats, capacity * FLOATS_PER_STATE);
+			stateObjects = Arrays.copyOf(stateObjects, capacity * OBJECTS_PER_STATE);
+			stateInts = Arrays.copyOf(stateInts, capacity * INTS_PER_STATE);
+			stateColors = Arrays.copyOf(stateColors, capacity * COLORS_PER_STATE);
+			stateClips = Arrays.copyOf(stateClips, capacity);
+		}
+		int f = totalStates * FLOATS_PER_STATE;
+		stateFloats[f] = translationX;
+		stateFloats[f + 1] = translationY;
+		stateFloats[f + 2] = scaleX;
+		stateFloats[f + 3] = scaleY;
+		stateFloats[f + 4] = rotation;
+		stateFloats[f + 5] = rotationX;
+		stateFloats[f + 6] = rotationY;
+
+		int o = totalStates * OBJECTS_PER_STATE;
+		if (totalStates == 0 && !copyInitialState) {
+			stateObjects[o] = color;
+			stateObjects[o + 1] = tint;
+			stateObjects[o + 2] = clip;
+		} else {
+			stateObjects[o] = copyColor(totalStates * COLORS_PER_STATE, color);
+			stateObjects[o + 1] = copyColor((totalStates * COLORS_PER_STATE) + 1, tint);
+			stateObjects[o + 2] = copyClip(totalStates, clip);
+		}
+		stateObjects[o + 3] = shader;
+		stateObjects[o + 4] = font;
+
+		int i = totalStates * INTS_PER_STATE;
+		stateInts[i] = lineHeight;
+		stateInts[i + 1] = blendSrcFunc;
+		stateInts[i + 2] = blendDstFunc;
+		stateInts[i + 3] = blending ? 1 : 0;
+
+		totalStates++;
+		shaderId = getId(shaderIds, shader, MAX_SHADER_ID);
+	}
+
+	private Color copyColor(int slot, Color color) {
+		if (color == null) {
+			return null;
+		}
+		if (stateColors[slot] == null) {
+			stateColors[slot] = new Color(color);
+		} else {
+			stateColors[slot].set(color);
+		}
+		return stateColors[slot];
+	}
+
+	private Rectangle copyClip(int slot, Rectangle clip) {
+		if (clip == null) {
+			return null;
+		}
+		if (stateClips[slot] == null) {
+			stateClips[slot] = new Rectangle(clip);
+		} else {
+			stateClips[slot].set(clip);
+		}
+		return stateClips[slot];
+	}
+
+	private Sprite copySprite(Sprite sprite) {
+		if (totalSpriteCopies == spriteCopies.size) {
+			spriteCopies.add(new Sprite());
+		}
+		Sprite result = spriteCopies.get(totalSpriteCopies++);
+		result.set(sprite);
+		return result;
+	}
+
+	private TextureRegion copyTextureRegion(TextureRegion textureRegion) {
+		if (totalTextureRegionCopies == textureRegionCopies.size) {
+			textureRegionCopies.add(new TextureRegion());
+		}
+		TextureRegion result = textureRegionCopies.get(totalTextureRegionCopies++);
+		result.setRegion(textureRegion);
+		return result;
+	}
+
+	/**
+	 * Copies an array of vertices into the vertex buffer
+	 * 
+	 * @return The offset of the vertices in the buffer
+	 */
+	private int copyVertices(float[] source) {
+		if (totalVertices + source.length > vertices.length) {
+			vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, totalVertices + source.length));
+		}
+		int offset = totalVertices;
+		System.arraycopy(source, 0, vertices, offset, source.length);
+		totalVertices += source.length;
+		return offset;
+	}
+
+	/**
+	 * Copies an array of triangle indices into the triangle buffer
+	 * 
+	 * @return The offset of the indices in the buffer
+	 */
+	private int copyTriangles(short[] source) {
+		if (totalTriangles + source.length > triangles.length) {
+			triangles = Arrays.copyOf(triangles, Math.max(triangles.length * 2, totalTriangles + source.length));
+		}
+		int offset = totalTriangles;
+		System.arraycopy(source, 0, triangles, offset, source.length);
+		totalTriangles += source.length;
+		return offset;
+	}
+
+	/**
+	 * Returns an array holding vertices from the vertex buffer. The array is
+	 * reused for the next polygon with the same number of vertices.
+	 */
+	private float[] getVertices(int offset, int length) {
+		float[] result = vertexArrays.get(length);
+		if (result == null) {
+			result = new float[length];
+			vertexArrays.put(length, result);
+		}
+		System.arraycopy(vertices, offset, result, 0, length);
+		return result;
+	}
+
+	/**
+	 * Returns an array holding indices from the triangle buffer. The array is
+	 * reused for the next polygon with the same number of indices.
+	 */
+	private short[] getTriangles(int offset, int length) {
+		short[] result = triangleArrays.get(length);
+		if (result == null) {
+			result = new short[length];
+			triangleArrays.put(length, result);
+		}
+		System.arraycopy(triangles, offset, result, 0, length);
+		return result;
+	}
+
+	/**
+	 * Appends an operation to the command buffer
+	 * 
+	 * @param type
+	 *            The operation type
+	 * @param texture
+	 *            The {@link Texture} used by the operation, null if unknown
+	 * @return The index of the operation in the command buffer
+	 */
+	private int addCommand(int type, Texture texture) {
+		if (!recording) {
+			throw new IllegalStateException("DeferredGraphics.begin() must be called before rendering");
+		}
+		if (totalCommands == MAX_COMMANDS) {
+			submit();
+		}
+		if (totalCommands == commandTypes.length) {
+			int capacity = Math.min(MAX_COMMANDS, totalCommands * 2);
+			commandTypes = Arrays.copyOf(commandTypes, capacity);
+			commandStates = Arrays.copyOf(commandStates, capacity);
+			commandInts = Arrays.copyOf(commandInts, capacity * INTS_PER_COMMAND);
+			commandFloats = Arrays.copyOf(commandFloats, capacity * FLOATS_PER_COMMAND);
+			commandObjects = Arrays.copyOf(commandObjects, capacity * OBJECTS_PER_COMMAND);
+			sortKeys = Arrays.copyOf(sortKeys, capacity);
+		}
+		if (stateChanged) {
+			addState();
+			stateChanged = false;
+		}
+		int index = totalCommands++;
+		commandTypes[index] = type;
+		commandStates[index] = totalStates - 1;
+		sortKeys[index] = ((long) layer << 48) | ((long) shaderId << 40)
+				| ((long) getId(textureIds, texture, MAX_TEXTURE_ID) << 24) | index;
+		return index;
+	}
+
+	private <T> int getId(ObjectIntMap<T> ids, T object, int maxId) {
+		if (object == null) {
+			return 0;
+		}
+		int result = ids.get(object, -1);
+		if (result < 0) {
+			result = Math.min(ids.size + 1, maxId);
+			ids.put(object, result);
+		}
+		return result;
+	}
+
+	private void setFloats(int index, float f0, float f1, float f2, float f3) {
+		int f = index * FLOATS_PER_COMMAND;
+		commandFloats[f] = f0;
+		commandFloats[f + 1] = f1;
+		commandFloats[f + 2] = f2;
+		commandFloats[f + 3] = f3;
+	}
+
+	private void setFloats(int index, float f0, float f1, float f2, float f3, float f4, float f5) {
+		setFloats(index, f0, f1, f2, f3);
+		int f = index * FLOATS_PER_COMMAND;
+		commandFloats[f + 4] = f4;
+		commandFloats[f + 5] = f5;
+	}
+
+	@Override
+	public void drawLineSegment(float x1, float y1, float x2, float y2) {
+		setFloats(addCommand(DRAW_LINE_SEGMENT, null), x1, y1, x2, y2);
+	}
+
+	@Override
+	public void drawRect(float x, float y, float width, float height) {
+		setFloats(addCommand(DRAW_RECT, null), x, y, width, height);
+	}
+
+	@Override
+	public void fillRect(float x, float y, float width, float height) {
+		setFloats(addCommand(FILL_RECT, null), x, y, width, height);
+	}
+
+	@Override
+	public void drawCircle(float centerX, float centerY, int radius) {
+		int index = addCommand(DRAW_CIRCLE, null);
+		setFloats(index, centerX, centerY, 0f, 0f);
+		commandInts[index * INTS_PER_COMMAND] = radius;
+	}
+
+	@Override
+	public void fillCircle(float centerX, float centerY, int radius) {
+		int index = addCommand(FILL_CIRCLE, null);
+		setFloats(index, centerX, centerY, 0f, 0f);
+		commandInts[index * INTS_PER_COMMAND] = radius;
+	}
+
+	@Override
+	public void drawTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		setFloats(addCommand(DRAW_TRIANGLE, null), x1, y1, x2, y2, x3, y3);
+	}
+
+	@Override
+	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		setFloats(addCommand(FILL_TRIANGLE, null), x1, y1, x2, y2, x3, y3);
+	}
+
+	@Override
+	public void drawPolygon(float[] vertices) {
+		int i = addCommand(DRAW_POLYGON, null) * INTS_PER_COMMAND;
+		commandInts[i] = copyVertices(vertices);
+		commandInts[i + 1] = vertices.length;
+	}
+
+	@Override
+	public void fillPolygon(float[] vertices, short[] triangles) {
+		int i = addCommand(FILL_POLYGON, null) * INTS_PER_COMMAND;
+		commandInts[i] = copyVertices(vertices);
+		commandInts[i + 1] = vertices.length;
+		commandInts[i + 2] = copyTriangles(triangles);
+		commandInts[i + 3] = triangles.length;
+	}
+
+	@Override
+	public void drawString(String text, float x, float y) {
+		if (font == null) {
+			return;
+		}
+		int index = addCommand(DRAW_STRING, font.getRegion().getTexture());
+		setFloats(index, x, y, 0f, 0f);
+		commandObjects[index * OBJECTS_PER_COMMAND] = text;
+	}
+
+	@Override
+	public void drawString(String text, float x, float y, float targetWidth) {
+		drawString(text, x, y, targetWidth, Align.left);
+	}
+
+	@Override
+	public void drawString(String text, float x, float y, float targetWidth, int horizontalAlign) {
+		if (font == null) {
+			return;
+		}
+		int index = addCommand(DRAW_STRING_ALIGNED, font.getRegion().getTexture());
+		setFloats(index, x, y, targetWidth, 0f);
+		commandInts[index * INTS_PER_COMMAND] = horizontalAlign;
+		commandObjects[index * OBJECTS_PER_COMMAND] = text;
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y) {
+		drawTexture(texture, x, y, texture.getWidth(), texture.getHeight());
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y, boolean flipY) {
+		drawTexture(texture, x, y, texture.getWidth(), texture.getHeight(), flipY);
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y, float width, float height) {
+		drawTexture(texture, x, y, width, height, true);
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y, float width, float height, boolean flipY) {
+		int index = addCommand(DRAW_TEXTURE, texture);
+		setFloats(index, x, y, width, height);
+		commandInts[index * INTS_PER_COMMAND] = flipY ? 1 : 0;
+		commandObjects[index * OBJECTS_PER_COMMAND] = texture;
+	}
+
+	@Override
+	public void drawTextureRegion(TextureRegion textureRegion, float x, float y) {
+		drawTextureRegion(textureRegion, x, y, textureRegion.getRegionWidth(), textureRegion.getRegionHeight());
+	}
+
+	@Override
+	public void drawTextureRegion(TextureRegion textureRegion, float x, float y, float width, float height) {
+		int index = addCommand(DRAW_TEXTURE_REGION, textureRegion.getTexture());
+		setFloats(index, x, y, width, height);
+		commandObjects[index * OBJECTS_PER_COMMAND] = copyTextureRegion(textureRegion);
+	}
+
+	@Override
+	public void drawShape(Shape shape) {
+		shape.draw(this);
+	}
+
+	@Override
+	public void fillShape(Shape shape) {
+		shape.fill(this);
+	}
+
+	@Override
+	public void drawSprite(Sprite sprite) {
+		int index = addCommand(DRAW_SPRITE, sprite.getTexture());
+		commandObjects[index * OBJECTS_PER_COMMAND] = copySprite(sprite);
+	}
+
+	@Override
+	public void drawSprite(Sprite sprite, float x, float y) {
+		int index = addCommand(DRAW_SPRITE_AT, sprite.getTexture());
+		setFloats(index, x, y, 0f, 0f);
+		commandObjects[index * OBJECTS_PER_COMMAND] = copySprite(sprite);
+	}
+
+	@Override
+	public void drawSpriteCache(SpriteCache spriteCache, int cacheId) {
+		int index = addCommand(DRAW_SPRITE_CACHE, null);
+		commandInts[index * INTS_PER_COMMAND] = cacheId;
+		commandObjects[index * OBJECTS_PER_COMMAND] = spriteCache;
+	}
+
+	@Override
+	public void drawStage(Stage stage) {
+		int index = addCommand(DRAW_STAGE, null);
+		commandObjects[index * OBJECTS_PER_COMMAND] = stage;
+	}
+
+	@Override
+	public void drawParticleEffect(ParticleEffect effect) {
+		int index = addCommand(DRAW_PARTICLE_EFFECT, null);
+		commandObjects[index * OBJECTS_PER_COMMAND] = effect;
+	}
+
+	@Override
+	public void drawNinePatch(NinePatch ninePatch, float x, float y, float width, float height) {
+		int index = addCommand(DRAW_NINE_PATCH, ninePatch.getTexture());
+		setFloats(index, x, y, width, height);
+		commandObjects[index * OBJECTS_PER_COMMAND] = ninePatch;
+	}
+
+	@Override
+	public void drawNinePatch(NinePatchDrawable ninePatchDrawable, float x, float y, float width, float height) {
+		int index = addCommand(DRAW_NINE_PATCH_DRAWABLE, ninePatchDrawable.getPatch().getTexture());
+		setFloats(index, x, y, width, height);
+		commandObjects[index * OBJECTS_PER_COMMAND] = ninePatchDrawable;
+	}
+
+	@Override
+	public void rotate(float degrees, float x, float y) {
+		this.rotation += degrees;
+		this.rotation = this.rotation % 360f;
+		this.rotationX = x;
+		this.rotationY = y;
+		stateChanged = true;
+	}
+
+	@Override
+	public void setRotation(float degrees, float x, float y) {
+		this.rotation = degrees;
+		this.rotation = this.rotation % 360f;
+		this.rotationX = x;
+		this.rotationY = y;
+		stateChanged = true;
+	}
+
+	@Override
+	public void scale(float scaleX, float scaleY) {
+		this.scaleX *= scaleX;
+		this.scaleY *= scaleY;
+		stateChanged = true;
+	}
+
+	@Override
+	public void setScale(float scaleX, float scaleY) {
+		this.scaleX = scaleX;
+		this.scaleY = scaleY;
+		stateChanged = true;
+	}
+
+	@Override
+	public void clearScaling() {
+		setScale(1f, 1f);
+	}
+
+	@Override
+	public void translate(float translateX, float translateY) {
+		this.translationX += translateX;
+		this.translationY += translateY;
+		stateChanged = true;
+	}
+
+	@Override
+	public void setTranslation(float translateX, float translateY) {
+		this.translationX = translateX;
+		this.translationY = translateY;
+		stateChanged = true;
+	}
+
+	@Override
+	public void setClip(float x, float y, float width, float height) {
+		setClip(new Rectangle(x, y, width, height));
+	}
+
+	@Override
+	public void setClip(Rectangle clip) {
+		this.clip = clip;
+		stateChanged = true;
+	}
+
+	@Override
+	public Rectangle removeClip() {
+		Rectangle result = clip;
+		setClip(null);
+		return result;
+	}
+
+	@Override
+	public void pushClip(Rectangle clip) {
+		setClip(clipStack.push(this.clip, clip));
+	}
+
+	@Override
+	public Rectangle popClip() {
+		Rectangle result = clip;
+		setClip(clipStack.pop());
+		return result;
+	}
+
+	@Override
+	public void setTint(Color tint) {
+		this.tint = tint;
+		stateChanged = true;
+	}
+
+	@Override
+	public void setFont(BitmapFont font) {
+		if (font != null) {
+			this.font = font;
+			stateChanged = true;
+		}
+	}
+
+	@Override
+	public void removeTint() {
+		setTint(null);
+	}
+
+	@Override
+	public void enableBlending() {
+		blending = true;
+		stateChanged = true;
+	}
+
+	@Override
+	public void disableBlending() {
+		blending = false;
+		stateChanged = true;
+	}
+
+	@Override
+	public void setShaderProgram(ShaderProgram shaderProgram) {
+		this.shader = shaderProgram;
+		stateChanged = true;
+	}
+
+	@Override
+	public ShaderProgram getShaderProgram() {
+		return shader;
+	}
+
+	@Override
+	public void clearShaderProgram() {
+		setShaderProgram(null);
+	}
+
+	@Override
+	public void setBlendFunction(int srcFunc, int dstFunc) {
+		this.blendSrcFunc = srcFunc;
+		this.blendDstFunc = dstFunc;
+		stateChanged = true;
+	}
+
+	@Override
+	public void clearBlendFunction() {
+		setBlendFunction(-1, -1);
+	}
+
+	/**
+	 * Submits all operations recorded so far to the target and flushes it
+	 */
+	@Override
+	public void flush() {
+		submit();
+		target.flush();
+	}
+
+	/**
+	 * Sets the layer for subsequent operations. Operations on lower layers
+	 * are drawn before operations on higher layers.
+	 * 
+	 * @param layer
+	 *            A value between {@link #MIN_LAYER} and {@link #MAX_LAYER}
+	 */
+	public void setLayer(int layer) {
+		if (layer < MIN_LAYER || layer > MAX_LAYER) {
+			throw new IllegalArgumentException("Layer must be between " + MIN_LAYER + " and " + MAX_LAYER);
+		}
+		this.layer = layer;
+	}
+
+	/**
+	 * Returns the layer applied to subsequent operations
+	 * 
+	 * @return 0 by default
+	 */
+	public int getLayer() {
+		return layer;
+	}
+
+	/**
+	 * Returns the number of operations submitted to the target since
+	 * {@link #begin(Graphics)} was called
+	 * 
+	 * @return 0 if nothing has been submitted
+	 */
+	public int getTotalSubmittedCommands() {
+		return totalSubmittedCommands;
+	}
+
+	/**
+	 * Returns the number of times state was changed on the target while
+	 * submitting operations since {@link #begin(Graphics)} was called,
+	 * including restoring the initial state
+	 * 
+	 * @return 0 if all operations used the initial state
+	 */
+	public int getTotalStateChanges() {
+		return totalStateChanges;
+	}
+
+	@Override
+	public int getLineHeight() {
+		return lineHeight;
+	}
+
+	@Override
+	public void setLineHeight(int lineHeight) {
+		if (lineHeight > 0) {
+			this.lineHeight = lineHeight;
+			stateChanged = true;
+		}
+	}
+
+	@Override
+	public Color getColor() {
+		return color;
+	}
+
+	@Override
+	public void setColor(Color color) {
+		if (color != null) {
+			this.color = color;
+			stateChanged = true;
+		}
+	}
+
+	@Override
+	public Color getBackgroundColor() {
+		return backgroundColor;
+	}
+
+	@Override
+	public void setBackgroundColor(Color backgroundColor) {
+		if (backgroundColor == null) {
+			return;
+		}
+		this.backgroundColor = backgroundColor;
+		if (target != null) {
+			target.setBackgroundColor(backgroundColor);
+		}
+	}
+
+	@Override
+	public BitmapFont getFont() {
+		return font;
+	}
+
+	@Override
+	public Color getTint() {
+		return tint;
+	}
+
+	@Override
+	public float getScaleX() {
+		return scaleX;
+	}
+
+	@Override
+	public float getScaleY() {
+		return scaleY;
+	}
+
+	@Override
+	public float getTranslationX() {
+		return translationX;
+	}
+
+	@Override
+	public float getTranslationY() {
+		return translationY;
+	}
+
+	@Override
+	public float getRotation() {
+		return rotation;
+	}
+
+	@Override
+	public float getRotationX() {
+		return rotationX;
+	}
+
+	@Override
+	public float getRotationY() {
+		return rotationY;
+	}
+
+	/**
+	 * Returns the projection matrix of the target, this does not include
+	 * transformations that have not been submitted yet. Returns an identity
+	 * matrix while recording without a target.
+	 */
+	@Override
+	public Matrix4 getProjectionMatrix() {
+		if (target == null) {
+			return new Matrix4();
+		}
+		return target.getProjectionMatrix();
+	}
+
+	@Override
+	public int getWindowWidth() {
+		return windowWidth;
+	}
+
+	@Override
+	public int getWindowHeight() {
+		return windowHeight;
+	}
+
+	@Override
+	public float getViewportWidth() {
+		return MathUtils.round(windowWidth / scaleX);
+	}
+
+	@Override
+	public float getViewportHeight() {
+		return MathUtils.round(windowHeight / scaleY);
+	}
+}
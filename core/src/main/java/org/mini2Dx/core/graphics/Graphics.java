@@ -486,6 +486,25 @@ public interface Graphics {
 	 */
 	public Rectangle removeClip();
 
+	/**
+	 * Saves the current clip and applies the intersection of it with the
+	 * given area. If there is no current clip, the given area is applied. If
+	 * either clip is rotated the given area is applied without intersecting.
+	 * 
+	 * @param clip
+	 *            The clip area
+	 */
+	public void pushClip(Rectangle clip);
+
+	/**
+	 * Restores the clip that was applied before the last
+	 * {@link #pushClip(Rectangle)} call. If the clip stack is empty, the
+	 * applied clip is removed.
+	 * 
+	 * @return The clip that was applied before this call
+	 */
+	public Rectangle popClip();
+
 	/**
 	 * Sets the {@link Color} to apply to draw operations
 	 * 
@@ -39,6 +39,7 @@ public class HeadlessGraphics implements Graphics {
 
 	private int lineHeight;
 	private Rectangle clip;
+	private final ClipStack clipStack = new ClipStack();
 	
 	public HeadlessGraphics() {
 
@@ -246,6 +247,18 @@ public class HeadlessGraphics implements Graphics {
 		return result;
 	}
 
+	@Override
+	public void pushClip(Rectangle clip) {
+		this.clip = clipStack.push(this.clip, clip);
+	}
+
+	@Override
+	public Rectangle popClip() {
+		Rectangle result = clip;
+		clip = clipStack.pop();
+		return result;
+	}
+
 	@Override
 	public void setTint(Color tint) {
 		this.tint = tint;
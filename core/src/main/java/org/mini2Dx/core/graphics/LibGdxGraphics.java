@@ -23,6 +23,7 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
@@ -38,6 +39,12 @@ import com.badlogic.gdx.utils.Align;
  * LibGDX implementation of {@link Graphics}
  */
 public class LibGdxGraphics implements Graphics {
+	/**
+	 * Number of floats in a {@link SpriteBatch} quad, 4 vertices of x, y,
+	 * color, u and v
+	 */
+	private static final int SHAPE_QUAD_SIZE = 20;
+
 	private final SpriteBatch spriteBatch;
 	private final ShapeTextureCache colorTextureCache;
 	private final ShapeRenderer shapeRenderer;
@@ -56,14 +63,24 @@ public class LibGdxGraphics implements Graphics {
 
 	private int defaultBlendSrcFunc = GL20.GL_SRC_ALPHA, defaultBlendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
 	private int lineHeight;
-	private boolean rendering, renderingShapes;
+	private boolean rendering;
 	private Rectangle clip;
+	private final ClipStack clipStack = new ClipStack();
+	private boolean depthClipping, scissorClipping;
+	private int scissorX, scissorY, scissorWidth, scissorHeight;
+	private int batchFlushes;
 	
 	private float [] triangleVertices = new float[6];
-	//3 edge polygon by default, expanded as needed during rendering
-	private float [] polygonRenderData = new float[15];
+	private final float [] shapeVertices = new float[SHAPE_QUAD_SIZE];
+	private final Color shapeColor = new Color();
 
 	public LibGdxGraphics(SpriteBatch spriteBatch, PolygonSpriteBatch polygonSpriteBatch, ShapeRenderer shapeRenderer) {
+		/* Create Ortho camera so that 0,0 is in top-left */
+		this(spriteBatch, polygonSpriteBatch, shapeRenderer, new ShapeTextureCache(), new OrthographicCamera());
+	}
+
+	LibGdxGraphics(SpriteBatch spriteBatch, PolygonSpriteBatch polygonSpriteBatch, ShapeRenderer shapeRenderer,
+			ShapeTextureCache colorTextureCache, OrthographicCamera camera) {
 		this.spriteBatch = spriteBatch;
 		this.shapeRenderer = shapeRenderer;
 		this.polygonSpriteBatch = polygonSpriteBatch;
@@ -79,7 +96,7 @@ public class LibGdxGraphics implements Graphics {
 		lineHeight = 1;
 		color = Color.WHITE;
 		backgroundColor = Color.BLACK;
-		colorTextureCache = new ShapeTextureCache();
+		this.colorTextureCache = colorTextureCache;
 
 		translationX = 0;
 		translationY = 0;
@@ -89,8 +106,7 @@ public class LibGdxGraphics implements Graphics {
 		rotationX = 0f;
 		rotationY = 0f;
 
-		/* Create Ortho camera so that 0,0 is in top-left */
-		camera = new OrthographicCamera();
+		this.camera = camera;
 	}
 
 	@Override
@@ -102,6 +118,8 @@ public class LibGdxGraphics implements Graphics {
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_STENCIL_BUFFER_BIT);
 
 		rendering = false;
+		batchFlushes = 0;
+		clipStack.clear();
 
 		if (defaultShader == null) {
 			defaultShader = SpriteBatch.createDefaultShader();
@@ -111,6 +129,7 @@ public class LibGdxGraphics implements Graphics {
 	@Override
 	public void postRender() {
 		endRendering();
+		colorTextureCache.disposeEvictedTextures();
 		resetTransformations();
 		clearShaderProgram();
 		clearBlendFunction();
@@ -119,37 +138,30 @@ public class LibGdxGraphics implements Graphics {
 	@Override
 	public void drawLineSegment(float x1, float y1, float x2, float y2) {
 		beginRendering();
-		endRendering();
-
-		/* TODO: Move all shape rendering over to using ShapeRenderer */
-		renderingShapes = true;
-		shapeRenderer.begin(ShapeType.Filled);
-		Gdx.gl.glEnable(GL20.GL_BLEND);
-	    Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-		shapeRenderer.setColor(color);
-		shapeRenderer.rectLine(x1, y1, x2, y2, lineHeight);
-		shapeRenderer.end();
-
-		beginRendering();
+		drawLineQuad(colorTextureCache.getFilledRectangleTexture(), color.toFloatBits(), x1, y1, x2, y2);
 	}
 
 	@Override
 	public void drawRect(float x, float y, float width, float height) {
 		beginRendering();
-
-		int roundWidth = MathUtils.round(width);
-		int roundHeight = MathUtils.round(height);
-
-		spriteBatch.draw(colorTextureCache.getRectangleTexture(color, roundWidth, roundHeight, getLineHeight()), x, y,
-				0, 0, roundWidth, roundHeight, 1f, 1f, 0, 0, 0, roundWidth, roundHeight, false, false);
+		final Texture texture = colorTextureCache.getFilledRectangleTexture();
+		final float colorBits = getShapeColorBits();
+		if(lineHeight * 2 >= width || lineHeight * 2 >= height) {
+			drawRectQuad(texture, colorBits, x, y, width, height);
+			return;
+		}
+		//Draw the outline as four edges inside the rectangle's bounds
+		final float sideHeight = height - (lineHeight * 2);
+		drawRectQuad(texture, colorBits, x, y, width, lineHeight);
+		drawRectQuad(texture, colorBits, x, y + height - lineHeight, width, lineHeight);
+		drawRectQuad(texture, colorBits, x, y + lineHeight, lineHeight, sideHeight);
+		drawRectQuad(texture, colorBits, x + width - lineHeight, y + lineHeight, lineHeight, sideHeight);
 	}
 
 	@Override
 	public void fillRect(float x, float y, float width, float height) {
 		beginRendering();
-
-		spriteBatch.draw(colorTextureCache.getFilledRectangleTexture(color), x, y, 0, 0, width, height, 1f, 1f, 0, 0, 0,
-				1, 1, false, false);
+		drawRectQuad(colorTextureCache.getFilledRectangleTexture(), getShapeColorBits(), x, y, width, height);
 	}
 
 	@Override
@@ -159,21 +171,17 @@ public class LibGdxGraphics implements Graphics {
 		float renderX = (centerX - radius);
 		float renderY = (centerY - radius);
 
-		Texture texture = colorTextureCache.getCircleTexture(color, radius, getLineHeight());
-		spriteBatch.draw(texture, renderX, renderY, 0, 0, texture.getWidth(), texture.getHeight(), 1f, 1f, 0, 0, 0,
-				texture.getWidth(), texture.getHeight(), false, false);
+		drawShapeTexture(colorTextureCache.getCircleTexture(radius, getLineHeight()), renderX, renderY);
 	}
 
 	@Override
 	public void fillCircle(float centerX, float centerY, int radius) {
-		Texture texture = colorTextureCache.getFilledCircleTexture(color, radius);
+		beginRendering();
 
 		float renderX = (centerX - radius);
 		float renderY = (centerY - radius);
 
-		beginRendering();
-		spriteBatch.draw(texture, renderX, renderY, 0, 0, texture.getWidth(), texture.getHeight(), 1f, 1f, 0, 0, 0,
-				texture.getWidth(), texture.getHeight(), false, false);
+		drawShapeTexture(colorTextureCache.getFilledCircleTexture(radius), renderX, renderY);
 	}
 	
 	@Override
@@ -201,46 +209,94 @@ public class LibGdxGraphics implements Graphics {
 	@Override
 	public void drawPolygon(float[] vertices) {
 		beginRendering();
-		endRendering();
-
-		/* TODO: Move all shape rendering over to using ShapeRenderer */
-		renderingShapes = true;
-		shapeRenderer.begin(ShapeType.Line);
-		Gdx.gl.glEnable(GL20.GL_BLEND);
-	    Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-		shapeRenderer.setColor(color);
-		shapeRenderer.polygon(vertices);
-		shapeRenderer.end();
-
-		beginRendering();
+		final Texture texture = colorTextureCache.getFilledRectangleTexture();
+		final float colorBits = color.toFloatBits();
+		for(int i = 0; i < vertices.length; i += 2) {
+			int next = (i + 2) % vertices.length;
+			drawLineQuad(texture, colorBits, vertices[i], vertices[i + 1], vertices[next], vertices[next + 1]);
+		}
 	}
 	
 	@Override
 	public void fillPolygon(float [] vertices, short [] triangles) {
 		beginRendering();
-		endRendering();
-		
-		renderingShapes = true;
-		if(vertices.length * 5 > polygonRenderData.length) {
-			polygonRenderData = new float[vertices.length * 5];
+		final Texture texture = colorTextureCache.getFilledRectangleTexture();
+		final float colorBits = color.toFloatBits();
+		for(int i = 0; i < triangles.length; i += 3) {
+			int a = triangles[i] * 2;
+			int b = triangles[i + 1] * 2;
+			int c = triangles[i + 2] * 2;
+			//Each triangle is drawn as a quad with its last vertex repeated
+			drawQuad(texture, colorBits, vertices[a], vertices[a + 1], vertices[b], vertices[b + 1], vertices[c],
+					vertices[c + 1], vertices[c], vertices[c + 1]);
 		}
-		
-		int totalPoints = vertices.length / 2;
-		for(int i = 0; i < totalPoints; i++) {
-			int verticesIndex = i * 2;
-			int renderIndex = i * 5;
-			polygonRenderData[renderIndex] = vertices[verticesIndex];
-			polygonRenderData[renderIndex + 1] = vertices[verticesIndex + 1];
-			polygonRenderData[renderIndex + 2] = color.toFloatBits();
-			polygonRenderData[renderIndex + 3] = vertices[verticesIndex];
-			polygonRenderData[renderIndex + 4] = vertices[verticesIndex + 1];
+	}
+
+	/**
+	 * Returns the current {@link Color} multiplied by the tint, matching how
+	 * the {@link SpriteBatch} tints textures
+	 */
+	private float getShapeColorBits() {
+		if(tint == null) {
+			return color.toFloatBits();
 		}
-		
-		polygonSpriteBatch.begin();
-		polygonSpriteBatch.draw(colorTextureCache.getFilledRectangleTexture(color), polygonRenderData, 0, vertices.length * 5, triangles, 0, triangles.length);
-		polygonSpriteBatch.end();
-		
-		beginRendering();
+		return shapeColor.set(color).mul(tint).toFloatBits();
+	}
+
+	/**
+	 * Draws a white shape texture in the current {@link Color}
+	 */
+	private void drawShapeTexture(Texture texture, float x, float y) {
+		final float batchColor = spriteBatch.getPackedColor();
+		spriteBatch.setColor(getShapeColorBits());
+		spriteBatch.draw(texture, x, y, 0, 0, texture.getWidth(), texture.getHeight(), 1f, 1f, 0, 0, 0,
+				texture.getWidth(), texture.getHeight(), false, false);
+		spriteBatch.setColor(batchColor);
+	}
+
+	/**
+	 * Draws an axis-aligned rectangle as a quad
+	 */
+	private void drawRectQuad(Texture texture, float colorBits, float x, float y, float width, float height) {
+		drawQuad(texture, colorBits, x, y, x, y + height, x + width, y + height, x + width, y);
+	}
+
+	/**
+	 * Draws a line between two points as a quad {@link #getLineHeight()} wide
+	 */
+	private void drawLineQuad(Texture texture, float colorBits, float x1, float y1, float x2, float y2) {
+		final float deltaX = x2 - x1;
+		final float deltaY = y2 - y1;
+		final float length = (float) Math.sqrt((deltaX * deltaX) + (deltaY * deltaY));
+		if(length == 0f) {
+			return;
+		}
+		final float offsetX = (-deltaY / length) * lineHeight * 0.5f;
+		final float offsetY = (deltaX / length) * lineHeight * 0.5f;
+		drawQuad(texture, colorBits, x1 + offsetX, y1 + offsetY, x1 - offsetX, y1 - offsetY, x2 - offsetX,
+				y2 - offsetY, x2 + offsetX, y2 + offsetY);
+	}
+
+	/**
+	 * Draws a solid colored quad into the {@link SpriteBatch} so that shapes
+	 * share the batch with sprites rather than interrupting it
+	 */
+	private void drawQuad(Texture texture, float colorBits, float x1, float y1, float x2, float y2, float x3,
+			float y3, float x4, float y4) {
+		shapeVertices[0] = x1;
+		shapeVertices[1] = y1;
+		shapeVertices[5] = x2;
+		shapeVertices[6] = y2;
+		shapeVertices[10] = x3;
+		shapeVertices[11] = y3;
+		shapeVertices[15] = x4;
+		shapeVertices[16] = y4;
+		for(int i = 0; i < SHAPE_QUAD_SIZE; i += 5) {
+			shapeVertices[i + 2] = colorBits;
+			shapeVertices[i + 3] = 0.5f;
+			shapeVertices[i + 4] = 0.5f;
+		}
+		spriteBatch.draw(texture, shapeVertices, 0, SHAPE_QUAD_SIZE);
 	}
 
 	@Override
@@ -444,33 +500,107 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void setClip(float x, float y, float width, float height) {
-		if (rendering) {
-			endRendering();
-		}
-
-		clip = new Rectangle(x, y, width, height);
+		applyClip(new Rectangle(x, y, width, height));
 	}
 
 	@Override
 	public void setClip(Rectangle clip) {
-		if (rendering) {
-			endRendering();
-		}
-
-		this.clip = clip;
+		applyClip(clip);
 	}
 
 	@Override
 	public Rectangle removeClip() {
-		if (rendering) {
-			endRendering();
-		}
+		Rectangle result = clip;
+		applyClip(null);
+		return result;
+	}
 
+	@Override
+	public void pushClip(Rectangle clip) {
+		applyClip(clipStack.push(this.clip, clip));
+	}
+
+	@Override
+	public Rectangle popClip() {
 		Rectangle result = clip;
-		clip = null;
+		applyClip(clipStack.pop());
 		return result;
 	}
 
+	/**
+	 * Changes the clip. While rendering with scissor clipping the batch is
+	 * only flushed if the scissor area changes; switching to or from depth
+	 * clipping ends rendering.
+	 * 
+	 * @param clip
+	 *            The new clip, null to remove the clip
+	 */
+	private void applyClip(Rectangle clip) {
+		this.clip = clip;
+		if (!rendering) {
+			return;
+		}
+		if (depthClipping || !isScissorClip()) {
+			endRendering();
+			return;
+		}
+		applyScissor();
+	}
+
+	/**
+	 * Returns if the current clip can be applied with the scissor test. This
+	 * requires that neither the clip nor the graphics context is rotated or
+	 * scaled.
+	 * 
+	 * @return True if there is no clip or the clip is axis-aligned on screen
+	 */
+	private boolean isScissorClip() {
+		if (clip == null) {
+			return true;
+		}
+		return clip.getRotation() == 0f && rotation == 0f && scaleX == 1f && scaleY == 1f;
+	}
+
+	/**
+	 * Enables, updates or disables the scissor test to match the current clip.
+	 * Flushes the {@link SpriteBatch} first if rendering and the scissor area
+	 * changes.
+	 */
+	private void applyScissor() {
+		if (clip == null) {
+			if (scissorClipping) {
+				if (rendering) {
+					flush();
+				}
+				Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+				scissorClipping = false;
+			}
+			return;
+		}
+		int x = MathUtils.round(clip.getX() - translationX);
+		int width = Math.max(0, MathUtils.round(clip.getWidth()));
+		int height = Math.max(0, MathUtils.round(clip.getHeight()));
+		/* Scissor coordinates start bottom-left, the camera is y-down */
+		int y = windowHeight - MathUtils.round(clip.getY() - translationY) - height;
+
+		if (scissorClipping && x == scissorX && y == scissorY && width == scissorWidth
+				&& height == scissorHeight) {
+			return;
+		}
+		if (rendering) {
+			flush();
+		}
+		if (!scissorClipping) {
+			Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+			scissorClipping = true;
+		}
+		HdpiUtils.glScissor(x, y, width, height);
+		scissorX = x;
+		scissorY = y;
+		scissorWidth = width;
+		scissorHeight = height;
+	}
+
 	@Override
 	public void setTint(Color tint) {
 		if (rendering) {
@@ -535,6 +665,7 @@ public class LibGdxGraphics implements Graphics {
 	@Override
 	public void flush() {
 		spriteBatch.flush();
+		batchFlushes++;
 	}
 
 	/**
@@ -545,10 +676,10 @@ public class LibGdxGraphics implements Graphics {
 		if (!rendering) {
 			applyTransformations();
 			
-			Gdx.gl.glClearDepthf(1f);
-			Gdx.gl.glClear(GL20.GL_DEPTH_BUFFER_BIT);
-			
-			if (clip != null) {
+			if (!isScissorClip()) {
+				Gdx.gl.glClearDepthf(1f);
+				Gdx.gl.glClear(GL20.GL_DEPTH_BUFFER_BIT);
+				
 				Gdx.gl.glDepthFunc(GL20.GL_LESS);
 				Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
 				
@@ -561,13 +692,16 @@ public class LibGdxGraphics implements Graphics {
 				shapeRenderer.rect(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight());
 				
 				shapeRenderer.end();
+				batchFlushes++;
 
 				spriteBatch.begin();
 				
 				Gdx.gl.glColorMask(true, true, true, true);
 				Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
 				Gdx.gl.glDepthFunc(GL20.GL_EQUAL);
+				depthClipping = true;
 			} else {
+				applyScissor();
 				spriteBatch.begin();
 			}
 
@@ -582,18 +716,20 @@ public class LibGdxGraphics implements Graphics {
 		if (rendering) {
 			undoTransformations();
 			spriteBatch.end();
-			if (renderingShapes) {
-				shapeRenderer.end();
-			}
+			batchFlushes++;
 
-			if (clip != null) {
+			if (depthClipping) {
 				Gdx.gl.glClearDepthf(1f);
 				Gdx.gl.glClear(GL20.GL_DEPTH_BUFFER_BIT);
 				Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+				depthClipping = false;
+			}
+			if (scissorClipping) {
+				Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+				scissorClipping = false;
 			}
 		}
 		rendering = false;
-		renderingShapes = false;
 	}
 
 	/**
@@ -649,6 +785,18 @@ public class LibGdxGraphics implements Graphics {
 		this.rotationY = 0f;
 	}
 
+	/**
+	 * Returns the number of times this {@link Graphics} instance has ended or
+	 * flushed a batch since the last {@link #preRender(int, int)} call. Flushes
+	 * caused by texture changes inside the {@link SpriteBatch} are not
+	 * included; see {@link SpriteBatch#renderCalls}.
+	 * 
+	 * @return 0 if no batches have been flushed this frame
+	 */
+	public int getBatchFlushes() {
+		return batchFlushes;
+	}
+
 	@Override
 	public int getLineHeight() {
 		return lineHeight;
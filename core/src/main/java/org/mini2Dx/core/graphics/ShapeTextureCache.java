@@ -11,58 +11,83 @@
  */
 package org.mini2Dx.core.graphics;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
 
 /**
- * Implements a cache of textures for shapes
+ * Implements a cache of textures for shapes.
+ * 
+ * Textures are baked in white so that one texture can be drawn in any
+ * {@link Color} by tinting it. Once the total texels of the cached textures
+ * exceed the texel budget, the least recently used textures are evicted.
+ * Evicted textures may still be referenced by an unflushed batch so they are
+ * only disposed when {@link #disposeEvictedTextures()} is called.
  */
 public class ShapeTextureCache {
-	private Map<Integer, Texture> filledRectangleTextures;
-	private Map<String, Texture> rectangleTextures;
-	private Map<String, Texture> circleTextures;
-	private Map<String, Texture> filledCircleTextures;
+	/**
+	 * The default texel budget (equivalent to one 1024x1024 texture)
+	 */
+	public static final int DEFAULT_TEXEL_BUDGET = 1024 * 1024;
+	/**
+	 * The maximum width, height, radius or line height of a cached texture
+	 */
+	public static final int MAX_DIMENSION = 0xFFFFF;
+
+	private static final long FILLED_RECTANGLE = 0L;
+	private static final long RECTANGLE = 1L;
+	private static final long CIRCLE = 2L;
+	private static final long FILLED_CIRCLE = 3L;
+
+	private final LongMap<Entry> entries = new LongMap<Entry>();
+	private final Array<Texture> evictedTextures = new Array<Texture>();
+	private final long texelBudget;
+
+	private Entry mostRecentlyUsed, leastRecentlyUsed;
+	private long totalTexels;
+	private long hits, misses, evictions;
 
 	/**
-	 * Constructor
+	 * Constructor using {@link #DEFAULT_TEXEL_BUDGET}
 	 */
 	public ShapeTextureCache() {
-		rectangleTextures = new HashMap<String, Texture>();
-		filledRectangleTextures = new HashMap<Integer, Texture>();
-		circleTextures = new HashMap<String, Texture>();
-		filledCircleTextures = new HashMap<String, Texture>();
+		this(DEFAULT_TEXEL_BUDGET);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param texelBudget
+	 *            The maximum total texels of cached textures before the least
+	 *            recently used textures are evicted
+	 */
+	public ShapeTextureCache(int texelBudget) {
+		if (texelBudget < 1) {
+			throw new IllegalArgumentException("texelBudget must be greater than 0");
+		}
+		this.texelBudget = texelBudget;
 	}
 
 	/**
-	 * Returns a filled rectangular texture for the provided {@link Color}
+	 * Returns a white 1x1 texture for drawing filled rectangles
 	 * 
-	 * @param color
-	 *            The {@link Color} to fetch a texture of
 	 * @return A new {@link Texture} if this is first time it has been
-	 *         requested, otherwise it will return a cached instance of the
-	 *         {@link Texture} for the given {@link Color}
+	 *         requested, otherwise it will return a cached instance
 	 */
-	public Texture getFilledRectangleTexture(Color color) {
-		int bits = color.toIntBits();
-		if (!filledRectangleTextures.containsKey(bits)) {
-			Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-			pixmap.setColor(color);
-			pixmap.fillRectangle(0, 0, 1, 1);
-			filledRectangleTextures.put(bits, new Texture(pixmap));
-			pixmap.dispose();
+	public Texture getFilledRectangleTexture() {
+		final long key = toKey(FILLED_RECTANGLE, 0, 0, 0);
+		final Entry entry = get(key);
+		if (entry != null) {
+			return entry.texture;
 		}
-		return filledRectangleTextures.get(bits);
+		return put(key, createFilledRectangleTexture(), 1);
 	}
 
 	/**
-	 * Returns a rectangular texture for the provided {@link Color}
+	 * Returns a white rectangular outline texture
 	 * 
-	 * @param color
-	 *            The {@link Color} to fetch a texture of
 	 * @param width
 	 *            The width of the rectangle
 	 * @param height
@@ -70,77 +95,255 @@ public class ShapeTextureCache {
 	 * @param lineHeight
 	 *            The line height of the rectangle
 	 * @return A new {@link Texture} if this is first time it has been
-	 *         requested, otherwise it will return a cached instance of the
-	 *         {@link Texture} for the given {@link Color}
+	 *         requested, otherwise it will return a cached instance
 	 */
-	public Texture getRectangleTexture(Color color, int width, int height,
-			int lineHeight) {
-		int bits = color.toIntBits();
-		String key = "" + bits + "," + width + "," + height + "," + lineHeight;
-		if (!rectangleTextures.containsKey(key)) {
-			Pixmap pixmap = new Pixmap(width + 1, height + 1,
-					Pixmap.Format.RGBA8888);
-			pixmap.setColor(color);
-			for (int i = 0; i < lineHeight; i++) {
-				pixmap.drawRectangle(i, i, width - (i * 2), height - (i * 2));
-			}
-			rectangleTextures.put(key, new Texture(pixmap));
-			pixmap.dispose();
+	public Texture getRectangleTexture(int width, int height, int lineHeight) {
+		final long key = toKey(RECTANGLE, width, height, lineHeight);
+		final Entry entry = get(key);
+		if (entry != null) {
+			return entry.texture;
 		}
-		return rectangleTextures.get(key);
+		return put(key, createRectangleTexture(width, height, lineHeight), (width + 1L) * (height + 1L));
 	}
 
 	/**
-	 * Returns a circle texture for the provided {@link Color}
+	 * Returns a white circle outline texture
 	 * 
-	 * @param color
-	 *            The {@link Color} to fetch a texture of
 	 * @param radius
 	 *            The radius of the circle
 	 * @param lineHeight
 	 *            The line height of the circle
 	 * @return A new {@link Texture} if this is first time it has been
-	 *         requested, otherwise it will return a cached instance of the
-	 *         {@link Texture} for the given {@link Color}
+	 *         requested, otherwise it will return a cached instance
 	 */
-	public Texture getCircleTexture(Color color, int radius, int lineHeight) {
-		int bits = color.toIntBits();
-		String key = "" + bits + "," + radius + "," + lineHeight;
-		if (!circleTextures.containsKey(key)) {
-			Pixmap pixmap = new Pixmap((radius * 2) + 1, (radius * 2) + 1,
-					Pixmap.Format.RGBA8888);
-			pixmap.setColor(color);
-			for (int i = 0; i < lineHeight; i++) {
-				pixmap.drawCircle(radius, radius, radius - i);
-			}
-			circleTextures.put(key, new Texture(pixmap));
-			pixmap.dispose();
+	public Texture getCircleTexture(int radius, int lineHeight) {
+		final long key = toKey(CIRCLE, radius, lineHeight, 0);
+		final Entry entry = get(key);
+		if (entry != null) {
+			return entry.texture;
 		}
-		return circleTextures.get(key);
+		final long size = (radius * 2L) + 1L;
+		return put(key, createCircleTexture(radius, lineHeight), size * size);
 	}
 
 	/**
-	 * Returns a filled circular texture for the provided {@link Color}
+	 * Returns a white filled circle texture
 	 * 
-	 * @param color
-	 *            The {@link Color} to fetch a texture of
 	 * @param radius
 	 *            The radius of the circle
 	 * @return A new {@link Texture} if this is first time it has been
-	 *         requested, otherwise it will return a cached instance of the
-	 *         {@link Texture} for the given {@link Color}
-	 */
-	public Texture getFilledCircleTexture(Color color, int radius) {
-		int bits = color.toIntBits();
-		String key = "" + bits + "," + radius;
-		if (!filledCircleTextures.containsKey(key)) {
-			Pixmap pixmap = new Pixmap((radius * 2) + 1, (radius * 2) + 1,
-					Pixmap.Format.RGBA8888);
-			pixmap.setColor(color);
-			pixmap.fillCircle(radius, radius, radius);
-			filledCircleTextures.put(key, new Texture(pixmap));
-			pixmap.dispose();
-		}
-		return filledCircleTextures.get(key);
+	 *         requested, otherwise it will return a cached instance
+	 */
+	public Texture getFilledCircleTexture(int radius) {
+		final long key = toKey(FILLED_CIRCLE, radius, 0, 0);
+		final Entry entry = get(key);
+		if (entry != null) {
+			return entry.texture;
+		}
+		final long size = (radius * 2L) + 1L;
+		return put(key, createFilledCircleTexture(radius), size * size);
+	}
+
+	protected Texture createFilledRectangleTexture() {
+		Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+		pixmap.setColor(Color.WHITE);
+		pixmap.fillRectangle(0, 0, 1, 1);
+		return createTexture(pixmap);
+	}
+
+	protected Texture createRectangleTexture(int width, int height, int lineHeight) {
+		Pixmap pixmap = new Pixmap(width + 1, height + 1, Pixmap.Format.RGBA8888);
+		pixmap.setColor(Color.WHITE);
+		for (int i = 0; i < lineHeight; i++) {
+			pixmap.drawRectangle(i, i, width - (i * 2), height - (i * 2));
+		}
+		return createTexture(pixmap);
+	}
+
+	protected Texture createCircleTexture(int radius, int lineHeight) {
+		Pixmap pixmap = new Pixmap((radius * 2) + 1, (radius * 2) + 1, Pixmap.Format.RGBA8888);
+		pixmap.setColor(Color.WHITE);
+		for (int i = 0; i < lineHeight; i++) {
+			pixmap.drawCircle(radius, radius, radius - i);
+		}
+		return createTexture(pixmap);
+	}
+
+	protected Texture createFilledCircleTexture(int radius) {
+		Pixmap pixmap = new Pixmap((radius * 2) + 1, (radius * 2) + 1, Pixmap.Format.RGBA8888);
+		pixmap.setColor(Color.WHITE);
+		pixmap.fillCircle(radius, radius, radius);
+		return createTexture(pixmap);
+	}
+
+	private Texture createTexture(Pixmap pixmap) {
+		Texture result = new Texture(pixmap);
+		pixmap.dispose();
+		return result;
+	}
+
+	private Entry get(long key) {
+		final Entry entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		if (entry != mostRecentlyUsed) {
+			unlink(entry);
+			link(entry);
+		}
+		return entry;
+	}
+
+	private Texture put(long key, Texture texture, long texels) {
+		final Entry entry = new Entry(key, texture, texels);
+		entries.put(key, entry);
+		link(entry);
+		totalTexels += texels;
+
+		// The newest texture is always kept, even if it exceeds the budget
+		while (totalTexels > texelBudget && leastRecentlyUsed != entry) {
+			final Entry evicted = leastRecentlyUsed;
+			unlink(evicted);
+			entries.remove(evicted.key);
+			totalTexels -= evicted.texels;
+			evictedTextures.add(evicted.texture);
+			evictions++;
+		}
+		return texture;
+	}
+
+	private void link(Entry entry) {
+		entry.previous = null;
+		entry.next = mostRecentlyUsed;
+		if (mostRecentlyUsed != null) {
+			mostRecentlyUsed.previous = entry;
+		}
+		mostRecentlyUsed = entry;
+		if (leastRecentlyUsed == null) {
+			leastRecentlyUsed = entry;
+		}
+	}
+
+	private void unlink(Entry entry) {
+		if (entry.previous != null) {
+			entry.previous.next = entry.next;
+		} else {
+			mostRecentlyUsed = entry.next;
+		}
+		if (entry.next != null) {
+			entry.next.previous = entry.previous;
+		} else {
+			leastRecentlyUsed = entry.previous;
+		}
+		entry.previous = null;
+		entry.next = null;
+	}
+
+	private static long toKey(long type, int a, int b, int c) {
+		return (type << 60) | ((long) checkDimension(a) << 40) | ((long) checkDimension(b) << 20)
+				| checkDimension(c);
+	}
+
+	private static int checkDimension(int value) {
+		if (value < 0 || value > MAX_DIMENSION) {
+			throw new IllegalArgumentException("Shape dimensions must be between 0 and " + MAX_DIMENSION);
+		}
+		return value;
+	}
+
+	/**
+	 * Disposes all textures that have been evicted from the cache. This should
+	 * only be called once any batch referencing them has been flushed.
+	 */
+	public void disposeEvictedTextures() {
+		for (int i = 0; i < evictedTextures.size; i++) {
+			evictedTextures.get(i).dispose();
+		}
+		evictedTextures.clear();
+	}
+
+	/**
+	 * Disposes all cached and evicted textures
+	 */
+	public void dispose() {
+		Entry entry = mostRecentlyUsed;
+		while (entry != null) {
+			entry.texture.dispose();
+			entry = entry.next;
+		}
+		entries.clear();
+		mostRecentlyUsed = null;
+		leastRecentlyUsed = null;
+		totalTexels = 0;
+		disposeEvictedTextures();
+	}
+
+	/**
+	 * Returns the number of texture requests served from the cache
+	 * 
+	 * @return 0 if no textures have been requested
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of texture requests that created a new texture
+	 * 
+	 * @return 0 if no textures have been requested
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of textures evicted to stay within the texel budget
+	 * 
+	 * @return 0 if no textures have been evicted
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the total texels of the textures currently cached
+	 * 
+	 * @return 0 if the cache is empty
+	 */
+	public long getTotalTexels() {
+		return totalTexels;
+	}
+
+	/**
+	 * Returns the maximum total texels before textures are evicted
+	 * 
+	 * @return The texel budget
+	 */
+	public long getTexelBudget() {
+		return texelBudget;
+	}
+
+	/**
+	 * Returns the number of textures currently cached
+	 * 
+	 * @return 0 if the cache is empty
+	 */
+	public int getTotalTextures() {
+		return entries.size;
+	}
+
+	private static class Entry {
+		final long key;
+		final Texture texture;
+		final long texels;
+		Entry previous, next;
+
+		Entry(long key, Texture texture, long texels) {
+			this.key = key;
+			this.texture = texture;
+			this.texels = texels;
+		}
 	}
 }
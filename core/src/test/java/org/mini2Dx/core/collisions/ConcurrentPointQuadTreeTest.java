@@ -12,6 +12,7 @@
 package org.mini2Dx.core.collisions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -208,4 +209,268 @@ public class ConcurrentPointQuadTreeTest {
 		Assert.assertEquals(false, CollisionPoints.contains(point3));
 		Assert.assertEquals(true, CollisionPoints.contains(point4));
 	}
+	
+	@Test
+	public void testDeferredUpdates() {
+		rootQuad.setDeferredUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferredUpdates());
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		point1.set(100f, 100f);
+		point1.set(96f, 96f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		List<CollisionPoint> collisionPoints = rootQuad.getElementsWithinArea(new Rectangle(64, 64, 64, 64));
+		Assert.assertEquals(1, collisionPoints.size());
+		Assert.assertEquals(true, collisionPoints.contains(point1));
+		
+		point1.set(-500f, -500f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.setDeferredUpdates(false);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(point1));
+	}
+	
+	@Test
+	public void testRemoveMovedBeforeFlush() {
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 8; i++) {
+			CollisionPoint point = new CollisionPoint(i * 16f, i * 16f);
+			points.add(point);
+			rootQuad.add(point);
+		}
+		rootQuad.setDeferredUpdates(true);
+		
+		CollisionPoint moved = points.get(0);
+		moved.forceTo(100f, 20f);
+		Assert.assertEquals(true, rootQuad.remove(moved));
+		points.get(1).forceTo(20f, 100f);
+		rootQuad.removeAll(Arrays.asList(points.get(1)));
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(moved));
+		Assert.assertEquals(false, rootQuad.getElements().contains(points.get(1)));
+		
+		moved.forceTo(0f, 0f);
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		rootQuad = new ConcurrentPointQuadTree<CollisionPoint>(4, 2, 0, 0, 128, 128);
+		rootQuad.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 100; i++) {
+			points.add(new CollisionPoint(random.nextInt(128), random.nextInt(128)));
+		}
+		rootQuad.addAll(points);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionPoint point : points) {
+				point.set(random.nextInt(128), random.nextInt(128));
+			}
+			rootQuad.flushMoves();
+			Assert.assertEquals(points.size(), rootQuad.getTotalElements());
+			for(CollisionPoint point : points) {
+				List<CollisionPoint> result = rootQuad.getElementsWithinArea(new Rectangle(point.getX() - 1f, point.getY() - 1f, 2f, 2f));
+				Assert.assertEquals(true, result.contains(point));
+			}
+		}
+	}
+	
+	@Test
+	public void testGetNearest() {
+		ConcurrentPointQuadTree<CollisionPoint> quadTree = new ConcurrentPointQuadTree<CollisionPoint>(4, 0, 0, 128, 128);
+		Random random = new Random(2048);
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 500; i++) {
+			points.add(new CollisionPoint(random.nextFloat() * 128f, random.nextFloat() * 128f));
+		}
+		quadTree.addAll(points);
+
+		for(int i = 0; i < 50; i++) {
+			float x = (random.nextFloat() * 160f) - 16f;
+			float y = (random.nextFloat() * 160f) - 16f;
+			float [] expected = new float[points.size()];
+			for(int j = 0; j < points.size(); j++) {
+				expected[j] = points.get(j).dst2(x, y);
+			}
+			Arrays.sort(expected);
+
+			List<CollisionPoint> nearest = quadTree.getNearest(x, y, 8);
+			Assert.assertEquals(8, nearest.size());
+			for(int j = 0; j < nearest.size(); j++) {
+				Assert.assertEquals(expected[j], nearest.get(j).dst2(x, y), 0.001f);
+			}
+		}
+		Assert.assertEquals(points.size(), quadTree.getNearest(64f, 64f, 1000).size());
+		Assert.assertEquals(0, quadTree.getNearest(64f, 64f, 0).size());
+	}
+
+	@Test
+	public void testGetWithinRadius() {
+		ConcurrentPointQuadTree<CollisionPoint> quadTree = new ConcurrentPointQuadTree<CollisionPoint>(4, 0, 0, 128, 128);
+		Random random = new Random(4096);
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 500; i++) {
+			points.add(new CollisionPoint(random.nextFloat() * 128f, random.nextFloat() * 128f));
+		}
+		quadTree.addAll(points);
+
+		for(int i = 0; i < 50; i++) {
+			float x = random.nextFloat() * 128f;
+			float y = random.nextFloat() * 128f;
+			float radius = random.nextFloat() * 32f;
+			int expected = 0;
+			for(CollisionPoint point : points) {
+				if(point.dst2(x, y) <= radius * radius) {
+					expected++;
+				}
+			}
+			List<CollisionPoint> result = quadTree.getWithinRadius(x, y, radius);
+			Assert.assertEquals(expected, result.size());
+			for(CollisionPoint point : result) {
+				Assert.assertEquals(true, point.dst2(x, y) <= radius * radius);
+			}
+		}
+	}
+
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			rootQuad.add(new CollisionPoint(random.nextInt(128), random.nextInt(128)));
+		}
+		final List<CollisionPoint> result = new ArrayList<CollisionPoint>();
+		QuadTreeVisitor<CollisionPoint> visitor = new QuadTreeVisitor<CollisionPoint>() {
+			@Override
+			public boolean visit(CollisionPoint element) {
+				result.add(element);
+				return true;
+			}
+		};
+		Rectangle area = new Rectangle(16, 16, 48, 48);
+		rootQuad.query(area, visitor);
+		List<CollisionPoint> expected = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+		
+		result.clear();
+		rootQuad.query(new Rectangle(0, 0, 128, 128), new QuadTreeVisitor<CollisionPoint>() {
+			@Override
+			public boolean visit(CollisionPoint element) {
+				result.add(element);
+				return result.size() < 10;
+			}
+		});
+		Assert.assertEquals(10, result.size());
+	}
+
+	@Test
+	public void testQueryDuringMerges() throws InterruptedException {
+		rootQuad = new ConcurrentPointQuadTree<CollisionPoint>(4, 3, 0, 0, 128, 128);
+		final CollisionPoint stable1 = new CollisionPoint(10, 10);
+		final CollisionPoint stable2 = new CollisionPoint(20, 20);
+		rootQuad.add(stable1);
+		rootQuad.add(stable2);
+
+		final Throwable[] writerError = new Throwable[1];
+		Thread writer = startMerging(writerError);
+		Rectangle area = new Rectangle(0, 0, 32, 32);
+		final int[] found = new int[1];
+		QuadTreeVisitor<CollisionPoint> visitor = new QuadTreeVisitor<CollisionPoint>() {
+			@Override
+			public boolean visit(CollisionPoint element) {
+				if(element == stable1 || element == stable2) {
+					found[0]++;
+				}
+				return true;
+			}
+		};
+		int misses = 0;
+		while(writer.isAlive()) {
+			found[0] = 0;
+			rootQuad.query(area, visitor);
+			if(found[0] != 2) {
+				misses++;
+			}
+		}
+		writer.join();
+		Assert.assertNull(writerError[0]);
+		Assert.assertEquals(0, misses);
+	}
+
+	@Test
+	public void testNearestDuringMerges() throws InterruptedException {
+		rootQuad = new ConcurrentPointQuadTree<CollisionPoint>(4, 3, 0, 0, 128, 128);
+		CollisionPoint stable1 = new CollisionPoint(10, 10);
+		CollisionPoint stable2 = new CollisionPoint(20, 20);
+		rootQuad.add(stable1);
+		rootQuad.add(stable2);
+
+		final Throwable[] writerError = new Throwable[1];
+		Thread writer = startMerging(writerError);
+		List<CollisionPoint> result = new ArrayList<CollisionPoint>();
+		int misses = 0;
+		while(writer.isAlive()) {
+			result.clear();
+			rootQuad.getWithinRadius(15, 15, 8, result);
+			if(!result.contains(stable1) || !result.contains(stable2)) {
+				misses++;
+			}
+			result.clear();
+			rootQuad.getNearest(100, 100, 2, result);
+			if(result.size() != 2) {
+				misses++;
+			}
+			result.clear();
+			rootQuad.getNearest(0, 0, 1, result);
+			if(result.size() != 1 || result.get(0) != stable1) {
+				misses++;
+			}
+		}
+		writer.join();
+		Assert.assertNull(writerError[0]);
+		Assert.assertEquals(0, misses);
+	}
+
+	/**
+	 * Starts a thread that repeatedly adds and removes points around (10,10)
+	 * and (20,20) so that the quads containing them subdivide and merge
+	 */
+	private Thread startMerging(final Throwable[] error) {
+		Thread result = new Thread() {
+			@Override
+			public void run() {
+				try {
+					List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+					for(int i = 0; i < 8; i++) {
+						points.add(new CollisionPoint(4 + (i * 3), 24));
+					}
+					for(int i = 0; i < 2000; i++) {
+						for(CollisionPoint point : points) {
+							rootQuad.add(point);
+						}
+						for(CollisionPoint point : points) {
+							rootQuad.remove(point);
+						}
+					}
+				} catch (Throwable e) {
+					error[0] = e;
+				}
+			}
+		};
+		result.start();
+		return result;
+	}
 }
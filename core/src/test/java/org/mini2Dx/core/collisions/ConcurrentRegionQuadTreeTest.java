@@ -12,6 +12,7 @@
 package org.mini2Dx.core.collisions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -19,8 +20,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mini2Dx.core.engine.geom.CollisionBox;
 import org.mini2Dx.core.engine.geom.CollisionPoint;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Intersector;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
 
 import junit.framework.Assert;
 
@@ -293,4 +297,212 @@ public class ConcurrentRegionQuadTreeTest {
 		Assert.assertEquals(1, collisionBoxs.size());
 		Assert.assertEquals(true, collisionBoxs.contains(box4));
 	}
+	
+	@Test
+	public void testDeferredUpdates() {
+		rootQuad.setDeferredUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferredUpdates());
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		box1.set(100f, 100f);
+		box1.set(96f, 96f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(112, 112)).size());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		box1.set(-500f, -500f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.setDeferredUpdates(false);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testRemoveMovedBeforeFlush() {
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 8; i++) {
+			CollisionBox box = new CollisionBox(i * 16f, i * 16f, 8f, 8f);
+			boxes.add(box);
+			rootQuad.add(box);
+		}
+		rootQuad.setDeferredUpdates(true);
+		
+		CollisionBox moved = boxes.get(0);
+		moved.forceTo(100f, 20f);
+		Assert.assertEquals(true, rootQuad.remove(moved));
+		boxes.get(1).forceTo(20f, 100f);
+		rootQuad.removeAll(Arrays.asList(boxes.get(1)));
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(moved));
+		Assert.assertEquals(false, rootQuad.getElements().contains(boxes.get(1)));
+		
+		moved.forceTo(0f, 0f);
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		rootQuad = new ConcurrentRegionQuadTree<CollisionBox>(4, 2, 0, 0, 128, 128);
+		rootQuad.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		rootQuad.addAll(boxes);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionBox box : boxes) {
+				box.set(random.nextInt(120), random.nextInt(120));
+			}
+			rootQuad.flushMoves();
+			Assert.assertEquals(boxes.size(), rootQuad.getTotalElements());
+			for(CollisionBox box : boxes) {
+				List<CollisionBox> result = rootQuad.getElementsContainingPoint(new Point(box.getX() + 2f, box.getY() + 2f));
+				Assert.assertEquals(true, result.contains(box));
+			}
+		}
+	}
+	
+	@Test
+	public void testGetElementsIntersectingSweep() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		Rectangle movingBox = new Rectangle(40, 10, 4, 4);
+		List<CollisionBox> collisions = rootQuad.getElementsIntersectingSweep(movingBox, 80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box2));
+
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, -80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+
+		movingBox.set(40, 40);
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, 60f, 60f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box4));
+
+		collisions = rootQuad.getElementsIntersectingSweep(new Circle(50, 64, 4), 0f, -60f);
+		Assert.assertEquals(0, collisions.size());
+	}
+
+	@Test
+	public void testRaycast() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		Assert.assertEquals(true, rootQuad.raycast(64f, 16f, 128f, 16f, hit));
+		Assert.assertEquals(box2, hit.getElement());
+		Assert.assertEquals(box2.getMinX(), hit.getX(), 0.001f);
+		Assert.assertEquals(16f, hit.getY(), 0.001f);
+		Assert.assertEquals(box2.getMinX() - 64f, hit.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, hit.getNormalX());
+		Assert.assertEquals(0f, hit.getNormalY());
+
+		Assert.assertEquals(true, rootQuad.raycast(16f, 140f, 16f, 0f, hit));
+		Assert.assertEquals(box3, hit.getElement());
+		Assert.assertEquals(1f, hit.getNormalY());
+
+		Assert.assertEquals(false, rootQuad.raycast(40f, 64f, 90f, 64f, hit));
+		Assert.assertEquals(null, hit.getElement());
+	}
+
+	@Test
+	public void testRaycastMatchesBruteForce() {
+		Random random = new Random(1024);
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextFloat() * 112f, random.nextFloat() * 112f, 1f + (random.nextFloat() * 15f), 1f + (random.nextFloat() * 15f)));
+		}
+		rootQuad.addAll(boxes);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			float x1 = random.nextFloat() * 128f;
+			float y1 = random.nextFloat() * 128f;
+			float x2 = random.nextFloat() * 128f;
+			float y2 = random.nextFloat() * 128f;
+
+			float expected = -1f;
+			for(CollisionBox box : boxes) {
+				float fraction = Intersector.raycast(box, x1, y1, x2 - x1, y2 - y1, null);
+				if(fraction >= 0f && (expected < 0f || fraction < expected)) {
+					expected = fraction;
+				}
+			}
+			Assert.assertEquals(expected >= 0f, rootQuad.raycast(x1, y1, x2, y2, hit));
+			if(expected >= 0f) {
+				Assert.assertEquals(expected, hit.getFraction(), 0.0001f);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRaycastBatch() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		float [] rays = new float[] { 64f, 16f, 128f, 16f, 40f, 64f, 90f, 64f, 64f, 112f, 0f, 112f };
+		RaycastHit<CollisionBox> [] hits = new RaycastHit[3];
+		for(int i = 0; i < hits.length; i++) {
+			hits[i] = new RaycastHit<CollisionBox>();
+		}
+		Assert.assertEquals(2, rootQuad.raycast(rays, 3, hits));
+		Assert.assertEquals(box2, hits[0].getElement());
+		Assert.assertEquals(false, hits[1].isHit());
+		Assert.assertEquals(box3, hits[2].getElement());
+	}
+
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			rootQuad.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeVisitor<CollisionBox> visitor = new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return true;
+			}
+		};
+		CollisionBox area = new CollisionBox(16, 16, 48, 48);
+		rootQuad.query(area, visitor);
+		List<CollisionBox> expected = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+		
+		result.clear();
+		rootQuad.query(new CollisionBox(0, 0, 128, 128), new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return result.size() < 10;
+			}
+		});
+		Assert.assertEquals(10, result.size());
+	}
 }
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.engine.geom.FixedCollisionBox;
+import org.mini2Dx.core.engine.geom.FixedCollisionCircle;
+import org.mini2Dx.core.geom.Fixed;
+import org.mini2Dx.core.geom.FixedCircle;
+import org.mini2Dx.core.geom.FixedRectangle;
+import org.mini2Dx.core.geom.Rectangle;
+
+/**
+ * Verifies that a simulation of {@link FixedCollisionBox}es and
+ * {@link FixedCollisionCircle}s stored in a {@link RegionQuadTree} produces
+ * bit-identical results regardless of insertion order, thread or JVM
+ */
+public class FixedDeterminismTest {
+	private static final int TOTAL_SHAPES = 200;
+	private static final int TOTAL_STEPS = 500;
+	private static final int WORLD_SIZE = 512;
+	/**
+	 * Checksum of {@link #simulate(long, boolean)} for seed 1. This must never
+	 * change between JVMs, platforms or evaluation orders.
+	 */
+	private static final long EXPECTED_CHECKSUM = 5458659222333814538L;
+
+	@Test
+	public void testRepeatable() {
+		Assert.assertEquals(simulate(1L, false), simulate(1L, false));
+		Assert.assertEquals(simulate(7L, false), simulate(7L, false));
+	}
+
+	@Test
+	public void testInsertionOrderIndependent() {
+		Assert.assertEquals(simulate(1L, false), simulate(1L, true));
+		Assert.assertEquals(simulate(7L, false), simulate(7L, true));
+	}
+
+	@Test
+	public void testThreadIndependent() throws InterruptedException {
+		final long[] results = new long[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					results[index] = simulate(1L, index % 2 == 0);
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		for (int i = 0; i < results.length; i++) {
+			Assert.assertEquals(EXPECTED_CHECKSUM, results[i]);
+		}
+	}
+
+	@Test
+	public void testGoldenChecksum() {
+		Assert.assertEquals(EXPECTED_CHECKSUM, simulate(1L, false));
+	}
+
+	private static long simulate(long seed, boolean reverseInsertion) {
+		Random random = new Random(seed);
+		List<CollisionShape> shapes = new ArrayList<CollisionShape>();
+		int[] velocityX = new int[TOTAL_SHAPES];
+		int[] velocityY = new int[TOTAL_SHAPES];
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			int x = Fixed.fromInt(16 + random.nextInt(WORLD_SIZE - 32));
+			int y = Fixed.fromInt(16 + random.nextInt(WORLD_SIZE - 32));
+			int size = Fixed.fromInt(2) + random.nextInt(Fixed.fromInt(8));
+			if (i % 2 == 0) {
+				shapes.add(new FixedCollisionBox(i, x, y, size, size));
+			} else {
+				shapes.add(new FixedCollisionCircle(i, x, y, size >> 1));
+			}
+			velocityX[i] = random.nextInt(Fixed.fromInt(4)) - Fixed.fromInt(2);
+			velocityY[i] = random.nextInt(Fixed.fromInt(4)) - Fixed.fromInt(2);
+		}
+
+		RegionQuadTree<CollisionShape> quadTree = new RegionQuadTree<CollisionShape>(8, 0f, 0f, WORLD_SIZE,
+				WORLD_SIZE);
+		List<CollisionShape> insertionOrder = new ArrayList<CollisionShape>(shapes);
+		if (reverseInsertion) {
+			Collections.reverse(insertionOrder);
+		}
+		quadTree.addAll(insertionOrder);
+
+		Comparator<CollisionShape> idComparator = new Comparator<CollisionShape>() {
+			@Override
+			public int compare(CollisionShape o1, CollisionShape o2) {
+				return o1.getId() - o2.getId();
+			}
+		};
+		List<CollisionShape> candidates = new ArrayList<CollisionShape>();
+		Rectangle area = new Rectangle();
+		long checksum = 0L;
+
+		for (int step = 0; step < TOTAL_STEPS; step++) {
+			for (int i = 0; i < TOTAL_SHAPES; i++) {
+				CollisionShape shape = shapes.get(i);
+				shape.preUpdate();
+				move(shape, i, velocityX, velocityY);
+			}
+			for (int i = 0; i < TOTAL_SHAPES; i++) {
+				CollisionShape shape = shapes.get(i);
+				candidates.clear();
+				area.set(shape.getMinX() - 1f, shape.getMinY() - 1f, shape.getWidth() + 2f, shape.getHeight() + 2f);
+				quadTree.getElementsWithinArea(candidates, area);
+				Collections.sort(candidates, idComparator);
+				for (int j = 0; j < candidates.size(); j++) {
+					CollisionShape other = candidates.get(j);
+					if (other.getId() <= shape.getId() || !intersects(shape, other)) {
+						continue;
+					}
+					int swapX = velocityX[i];
+					int swapY = velocityY[i];
+					velocityX[i] = velocityX[other.getId()];
+					velocityY[i] = velocityY[other.getId()];
+					velocityX[other.getId()] = swapX;
+					velocityY[other.getId()] = swapY;
+					checksum = (checksum * 31L) + (step * TOTAL_SHAPES) + other.getId();
+				}
+			}
+			for (int i = 0; i < TOTAL_SHAPES; i++) {
+				checksum = (checksum * 31L) + fixedX(shapes.get(i));
+				checksum = (checksum * 31L) + fixedY(shapes.get(i));
+			}
+		}
+		return checksum;
+	}
+
+	private static void move(CollisionShape shape, int index, int[] velocityX, int[] velocityY) {
+		int x = fixedX(shape) + velocityX[index];
+		int y = fixedY(shape) + velocityY[index];
+		int minBound = Fixed.fromInt(8);
+		int maxBound = Fixed.fromInt(WORLD_SIZE - 16);
+		if (x < minBound || x > maxBound) {
+			velocityX[index] = -velocityX[index];
+			x = Fixed.clamp(x, minBound, maxBound);
+		}
+		if (y < minBound || y > maxBound) {
+			velocityY[index] = -velocityY[index];
+			y = Fixed.clamp(y, minBound, maxBound);
+		}
+		if (shape instanceof FixedRectangle) {
+			((FixedRectangle) shape).set(x, y);
+		} else {
+			((FixedCircle) shape).set(x, y);
+		}
+	}
+
+	private static boolean intersects(CollisionShape shape1, CollisionShape shape2) {
+		if (shape1 instanceof FixedRectangle) {
+			if (shape2 instanceof FixedRectangle) {
+				return ((FixedRectangle) shape1).intersects((FixedRectangle) shape2);
+			}
+			return ((FixedRectangle) shape1).intersects((FixedCircle) shape2);
+		}
+		if (shape2 instanceof FixedRectangle) {
+			return ((FixedCircle) shape1).intersects((FixedRectangle) shape2);
+		}
+		return ((FixedCircle) shape1).intersects((FixedCircle) shape2);
+	}
+
+	private static int fixedX(CollisionShape shape) {
+		if (shape instanceof FixedRectangle) {
+			return ((FixedRectangle) shape).getFixedX();
+		}
+		return ((FixedCircle) shape).getFixedX();
+	}
+
+	private static int fixedY(CollisionShape shape) {
+		if (shape instanceof FixedRectangle) {
+			return ((FixedRectangle) shape).getFixedY();
+		}
+		return ((FixedCircle) shape).getFixedY();
+	}
+}
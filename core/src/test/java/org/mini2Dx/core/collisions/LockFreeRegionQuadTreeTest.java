@@ -0,0 +1,543 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link LockFreeRegionQuadTree}
+ */
+public class LockFreeRegionQuadTreeTest {
+	private LockFreeRegionQuadTree<CollisionBox> rootQuad;
+	private CollisionBox box1, box2, box3, box4;
+	
+	@Before
+	public void setup() {
+		rootQuad = new LockFreeRegionQuadTree<CollisionBox>(2, 0, 0, 128, 128);
+		
+		box1 = new CollisionBox(0, 0, 32, 32);
+		box2 = new CollisionBox(96, 0, 32, 32);
+		box3 = new CollisionBox(0, 96, 32, 32);
+		box4 = new CollisionBox(96, 96, 32, 32);
+	}
+	
+	@Test
+	public void testAdd() {
+		int totalElements = 100;
+		Random random = new Random();
+		long startTime = System.nanoTime();
+		for(int i = 0; i < totalElements; i++) {
+			CollisionBox rect = new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f);
+			Assert.assertEquals(true, rootQuad.add(rect));
+			Assert.assertEquals(i + 1, rootQuad.getElements().size());
+		}
+		long duration = System.nanoTime() - startTime;
+		System.out.println("Took " + duration + "ns to add " + totalElements + " elements individually to " + LockFreeRegionQuadTree.class.getSimpleName());
+	}
+	
+	@Test
+	public void testAddAll() {
+		int totalElements = 100;
+		Random random = new Random();
+		List<CollisionBox> rects = new ArrayList<CollisionBox>();
+		long startTime = System.nanoTime();
+		for(int i = 0; i < totalElements; i++) {
+			rects.add(new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f));
+		}
+		rects.add(new CollisionBox(-4f, -4f, 32f, 32f));
+		
+		rootQuad.addAll(rects);
+		long duration = System.nanoTime() - startTime;
+		System.out.println("Took " + duration + "ns to add " + totalElements + " elements in bulk to " + LockFreeRegionQuadTree.class.getSimpleName());
+		Assert.assertEquals(rects.size(), rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testRemove() {
+		Random random = new Random();
+		List<CollisionBox> CollisionBoxs = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 1000; i++) {
+			CollisionBoxs.add(new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+		
+		for(int i = 0; i < CollisionBoxs.size(); i++) {
+			rootQuad.add(CollisionBoxs.get(i));
+			Assert.assertEquals(i + 1, rootQuad.getElements().size());
+		}
+		
+		for(int i = CollisionBoxs.size() - 1; i >= 0 ; i--) {
+			Assert.assertEquals(i + 1, rootQuad.getElements().size());
+			rootQuad.remove(CollisionBoxs.get(i));
+			Assert.assertEquals(i, rootQuad.getElements().size());
+		}
+	}
+	
+	@Test
+	public void testRemoveAll() {
+		Random random = new Random();
+		List<CollisionBox> rects = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			rects.add(new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+		rootQuad.addAll(rects);
+		Assert.assertEquals(rects.size(), rootQuad.getTotalElements());
+		rootQuad.removeAll(rects);
+		Assert.assertEquals(0, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testSubdivide() {
+		rootQuad.add(box1);
+		Assert.assertEquals(1, rootQuad.getElements().size());
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		
+		rootQuad.add(box2);
+		Assert.assertEquals(2, rootQuad.getElements().size());
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		
+		rootQuad.add(box3);
+		Assert.assertEquals(3, rootQuad.getElements().size());
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		rootQuad.add(box4);
+		Assert.assertEquals(4, rootQuad.getElements().size());
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(5, rootQuad.getElements().size());
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		rootQuad.add(new CollisionBox(48, 48, 32, 32));
+		Assert.assertEquals(6, rootQuad.getElements().size());
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		rootQuad.add(new CollisionBox(12, 48, 8, 8));
+		Assert.assertEquals(7, rootQuad.getElements().size());
+		Assert.assertEquals(7, rootQuad.getTotalQuads());
+	}
+	
+	@Test
+	public void testMerge() {
+		rootQuad = new LockFreeRegionQuadTree<CollisionBox>(4, 3, 0, 0, 128, 128);
+		rootQuad.add(box1);
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		rootQuad.add(new CollisionBox(24, 24, 2, 2));
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		rootQuad.remove(box4);
+		rootQuad.remove(box3);
+		rootQuad.remove(box2);
+		Assert.assertEquals(1, rootQuad.getTotalQuads());
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(true, rootQuad.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testGetTotalElements() {
+		rootQuad.add(box1);
+		Assert.assertEquals(1, rootQuad.getTotalElements());
+		rootQuad.add(box2);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		rootQuad.add(box3);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.remove(box2);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		rootQuad.add(box4);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.add(box2);
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		rootQuad.add(new CollisionBox(48, 48, 32, 32));
+		Assert.assertEquals(5, rootQuad.getTotalElements());
+		rootQuad.add(new CollisionBox(12, 48, 8, 8));
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testGetElementsWithinRegion() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		List<CollisionBox> CollisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(48, 48, 32, 32));
+		Assert.assertEquals(0, CollisionBoxs.size());
+		
+		CollisionBox CollisionBox5 = new CollisionBox(24, 24, 2, 2);
+		CollisionBox CollisionBox6 = new CollisionBox(48, 48, 32, 32);
+		CollisionBox CollisionBox7 = new CollisionBox(12, 48, 8, 8);
+		
+		rootQuad.add(CollisionBox5);
+		rootQuad.add(CollisionBox6);
+		rootQuad.add(CollisionBox7);
+		
+		CollisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(0, 0, 128, 128));
+		Assert.assertEquals(rootQuad.getElements().size(), CollisionBoxs.size());
+		
+		CollisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(33, 33, 32, 32));
+		Assert.assertEquals(1, CollisionBoxs.size());
+		Assert.assertEquals(CollisionBox6, CollisionBoxs.get(0));
+		
+		CollisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(0, 0, 64, 64));
+		Assert.assertEquals(4, CollisionBoxs.size());
+		Assert.assertEquals(true, CollisionBoxs.contains(box1));
+		Assert.assertEquals(true, CollisionBoxs.contains(CollisionBox5));
+		Assert.assertEquals(true, CollisionBoxs.contains(CollisionBox6));
+		Assert.assertEquals(true, CollisionBoxs.contains(CollisionBox7));
+		
+		CollisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(16, 16, 24, 24));
+		Assert.assertEquals(2, CollisionBoxs.size());
+		Assert.assertEquals(true, CollisionBoxs.contains(box1));
+		Assert.assertEquals(true, CollisionBoxs.contains(CollisionBox5));
+		
+		CollisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(12, 40, 48, 8));
+		Assert.assertEquals(2, CollisionBoxs.size());
+		Assert.assertEquals(true, CollisionBoxs.contains(CollisionBox6));
+		Assert.assertEquals(true, CollisionBoxs.contains(CollisionBox7));
+	}
+	
+	@Test
+	public void testGetElementsIntersectingLineSegment() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(0,  0, 128, 128));
+		Assert.assertEquals(2, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+		
+		CollisionBox collisionBox5 = new CollisionBox(24, 24, 2, 2);
+		CollisionBox collisionBox6 = new CollisionBox(48, 48, 32, 32);
+		CollisionBox collisionBox7 = new CollisionBox(12, 48, 8, 8);
+		
+		rootQuad.add(collisionBox5);
+		rootQuad.add(collisionBox6);
+		rootQuad.add(collisionBox7);
+		
+		collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(0,  0, 128, 128));
+		Assert.assertEquals(4, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+		Assert.assertEquals(true, collisionBoxs.contains(collisionBox5));
+		Assert.assertEquals(true, collisionBoxs.contains(collisionBox6));
+		
+		collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(0, 0, 1, 1));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(-1, -1, 0, 0));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(31f, 31f, 32f, 32f));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(33f, 33f, 32f, 32f));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+	}
+	
+	@Test
+	public void testGetElementsIntersectingLineSegmentWithNegativeBox() {
+		rootQuad = new LockFreeRegionQuadTree<CollisionBox>(2, -128f, -128f, 256f, 256f);
+		rootQuad.add(new CollisionBox(-80f, -80f, 32f, 32f));
+		
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(-83f, -84f, -83f, -85f));
+		Assert.assertEquals(0, collisionBoxs.size());
+	}
+	
+	@Test
+	public void testGetElementsContainingPoint() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(new Point(16, 16));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 16));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box2));
+		
+		collisionBoxs = rootQuad.getElementsContainingPoint(new Point(16, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box3));
+		
+		collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+	}
+	
+	@Test
+	public void testPositionChanged() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		box1.set(100f, 100f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(16, 16)).size());
+		
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		box1.set(-500f, -500f);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testConcurrentReadsDuringWrites() throws InterruptedException {
+		final int totalElements = 200;
+		final List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		Random random = new Random();
+		for(int i = 0; i < totalElements; i++) {
+			boxes.add(new CollisionBox(random.nextInt(96), random.nextInt(96), 8f, 8f));
+		}
+		rootQuad.addAll(boxes);
+		
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicInteger errors = new AtomicInteger();
+		Thread [] readers = new Thread[4];
+		for(int i = 0; i < readers.length; i++) {
+			readers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					List<CollisionBox> result = new ArrayList<CollisionBox>();
+					while(running.get()) {
+						result.clear();
+						rootQuad.getElements(result);
+						if(result.size() != totalElements) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			});
+			readers[i].start();
+		}
+		
+		for(int i = 0; i < 1000; i++) {
+			CollisionBox box = boxes.get(random.nextInt(totalElements));
+			box.set(random.nextInt(120), random.nextInt(120));
+		}
+		running.set(false);
+		for(int i = 0; i < readers.length; i++) {
+			readers[i].join();
+		}
+		Assert.assertEquals(0, errors.get());
+		Assert.assertEquals(totalElements, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testDeferredUpdates() {
+		rootQuad.setDeferredUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferredUpdates());
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		box1.set(100f, 100f);
+		box1.set(96f, 96f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(112, 112)).size());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		box1.set(-500f, -500f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.setDeferredUpdates(false);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		rootQuad = new LockFreeRegionQuadTree<CollisionBox>(4, 2, 0, 0, 128, 128);
+		rootQuad.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		rootQuad.addAll(boxes);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionBox box : boxes) {
+				box.set(random.nextInt(120), random.nextInt(120));
+			}
+			rootQuad.flushMoves();
+			Assert.assertEquals(boxes.size(), rootQuad.getTotalElements());
+			for(CollisionBox box : boxes) {
+				List<CollisionBox> result = rootQuad.getElementsContainingPoint(new Point(box.getX() + 2f, box.getY() + 2f));
+				Assert.assertEquals(true, result.contains(box));
+			}
+		}
+	}
+	
+	@Test
+	public void testGetElementsIntersectingSweep() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		Rectangle movingBox = new Rectangle(40, 10, 4, 4);
+		List<CollisionBox> collisions = rootQuad.getElementsIntersectingSweep(movingBox, 80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box2));
+
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, -80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+
+		movingBox.set(40, 40);
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, 60f, 60f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box4));
+
+		collisions = rootQuad.getElementsIntersectingSweep(new Circle(50, 64, 4), 0f, -60f);
+		Assert.assertEquals(0, collisions.size());
+	}
+
+	@Test
+	public void testRaycast() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		Assert.assertEquals(true, rootQuad.raycast(64f, 16f, 128f, 16f, hit));
+		Assert.assertEquals(box2, hit.getElement());
+		Assert.assertEquals(box2.getMinX(), hit.getX(), 0.001f);
+		Assert.assertEquals(16f, hit.getY(), 0.001f);
+		Assert.assertEquals(box2.getMinX() - 64f, hit.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, hit.getNormalX());
+		Assert.assertEquals(0f, hit.getNormalY());
+
+		Assert.assertEquals(true, rootQuad.raycast(16f, 140f, 16f, 0f, hit));
+		Assert.assertEquals(box3, hit.getElement());
+		Assert.assertEquals(1f, hit.getNormalY());
+
+		Assert.assertEquals(false, rootQuad.raycast(40f, 64f, 90f, 64f, hit));
+		Assert.assertEquals(null, hit.getElement());
+	}
+
+	@Test
+	public void testRaycastMatchesBruteForce() {
+		Random random = new Random(1024);
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextFloat() * 112f, random.nextFloat() * 112f, 1f + (random.nextFloat() * 15f), 1f + (random.nextFloat() * 15f)));
+		}
+		rootQuad.addAll(boxes);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			float x1 = random.nextFloat() * 128f;
+			float y1 = random.nextFloat() * 128f;
+			float x2 = random.nextFloat() * 128f;
+			float y2 = random.nextFloat() * 128f;
+
+			float expected = -1f;
+			for(CollisionBox box : boxes) {
+				float fraction = Intersector.raycast(box, x1, y1, x2 - x1, y2 - y1, null);
+				if(fraction >= 0f && (expected < 0f || fraction < expected)) {
+					expected = fraction;
+				}
+			}
+			Assert.assertEquals(expected >= 0f, rootQuad.raycast(x1, y1, x2, y2, hit));
+			if(expected >= 0f) {
+				Assert.assertEquals(expected, hit.getFraction(), 0.0001f);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRaycastBatch() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		float [] rays = new float[] { 64f, 16f, 128f, 16f, 40f, 64f, 90f, 64f, 64f, 112f, 0f, 112f };
+		RaycastHit<CollisionBox> [] hits = new RaycastHit[3];
+		for(int i = 0; i < hits.length; i++) {
+			hits[i] = new RaycastHit<CollisionBox>();
+		}
+		Assert.assertEquals(2, rootQuad.raycast(rays, 3, hits));
+		Assert.assertEquals(box2, hits[0].getElement());
+		Assert.assertEquals(false, hits[1].isHit());
+		Assert.assertEquals(box3, hits[2].getElement());
+	}
+
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			rootQuad.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeVisitor<CollisionBox> visitor = new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return true;
+			}
+		};
+		CollisionBox area = new CollisionBox(16, 16, 48, 48);
+		rootQuad.query(area, visitor);
+		List<CollisionBox> expected = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+		
+		result.clear();
+		rootQuad.query(new CollisionBox(0, 0, 128, 128), new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return result.size() < 10;
+			}
+		});
+		Assert.assertEquals(10, result.size());
+	}
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link LooseRegionQuadTree}
+ */
+public class LooseRegionQuadTreeTest {
+	private LooseRegionQuadTree<CollisionBox> rootQuad;
+	private CollisionBox box1, box2, box3, box4;
+	
+	@Before
+	public void setup() {
+		rootQuad = new LooseRegionQuadTree<CollisionBox>(2, 0, 0, 128, 128);
+		
+		box1 = new CollisionBox(1, 1, 32, 32);
+		box2 = new CollisionBox(95, 1, 32, 32);
+		box3 = new CollisionBox(1, 95, 32, 32);
+		box4 = new CollisionBox(95, 95, 32, 32);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidLooseness() {
+		new LooseRegionQuadTree<CollisionBox>(2, 0.5f, 0, 0, 128, 128);
+	}
+	
+	@Test
+	public void testAdd() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			CollisionBox rect = new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f);
+			Assert.assertEquals(true, rootQuad.add(rect));
+			Assert.assertEquals(i + 1, rootQuad.getTotalElements());
+		}
+		Assert.assertEquals(false, rootQuad.add(new CollisionBox(-100f, -100f, 32f, 32f)));
+	}
+	
+	@Test
+	public void testStraddlingElementsDescend() {
+		RegionQuadTree<CollisionBox> regionQuadTree = new RegionQuadTree<CollisionBox>(2, 0, 0, 128, 128);
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 8; i++) {
+			boxes.add(new CollisionBox(56 + i, 56 + i, 16f, 16f));
+			boxes.add(new CollisionBox(8 + (i * 4), 56, 8f, 16f));
+		}
+		regionQuadTree.addAll(boxes);
+		rootQuad.addAll(boxes);
+		
+		Assert.assertEquals(boxes.size(), rootQuad.getTotalElements());
+		Assert.assertEquals(true, regionQuadTree.elements.size() > rootQuad.getTotalElementsInQuad());
+		Assert.assertEquals(0, rootQuad.getTotalElementsInQuad());
+	}
+	
+	@Test
+	public void testRemove() {
+		Random random = new Random();
+		List<CollisionBox> collisionBoxs = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 1000; i++) {
+			collisionBoxs.add(new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+		rootQuad.addAll(collisionBoxs);
+		
+		for(int i = collisionBoxs.size() - 1; i >= 0; i--) {
+			Assert.assertEquals(true, rootQuad.remove(collisionBoxs.get(i)));
+			Assert.assertEquals(i, rootQuad.getTotalElements());
+		}
+	}
+	
+	@Test
+	public void testGetElementsWithinRegion() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsWithinArea(new CollisionBox(0, 0, 64, 64));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), random.nextInt(40) + 1, random.nextInt(40) + 1));
+		}
+		rootQuad.addAll(boxes);
+		
+		CollisionBox area = new CollisionBox(20, 40, 50, 30);
+		collisionBoxs = rootQuad.getElementsWithinArea(area);
+		boxes.add(box1);
+		boxes.add(box2);
+		boxes.add(box3);
+		boxes.add(box4);
+		int expected = 0;
+		for(CollisionBox box : boxes) {
+			if(area.contains(box.getShape()) || area.intersects(box.getShape())) {
+				expected++;
+				Assert.assertEquals(true, collisionBoxs.contains(box));
+			}
+		}
+		Assert.assertEquals(expected, collisionBoxs.size());
+	}
+	
+	@Test
+	public void testGetElementsIntersectingLineSegment() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsIntersectingLineSegment(new LineSegment(0, 0, 128, 128));
+		Assert.assertEquals(2, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+	}
+	
+	@Test
+	public void testGetElementsContainingPoint() {
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), random.nextInt(40) + 1, random.nextInt(40) + 1));
+		}
+		rootQuad.addAll(boxes);
+		
+		Point point = new Point(63, 65);
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(point);
+		int expected = 0;
+		for(CollisionBox box : boxes) {
+			if(box.contains(point)) {
+				expected++;
+				Assert.assertEquals(true, collisionBoxs.contains(box));
+			}
+		}
+		Assert.assertEquals(expected, collisionBoxs.size());
+	}
+	
+	@Test
+	public void testPositionChanged() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+		
+		box1.set(96f, 96f);
+		Assert.assertEquals(4, rootQuad.getTotalElements());
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(16, 16)).size());
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(2, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+	}
+	
+	@Test
+	public void testRemoveMovedBeforeFlush() {
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 8; i++) {
+			CollisionBox box = new CollisionBox(i * 16f, i * 16f, 8f, 8f);
+			boxes.add(box);
+			rootQuad.add(box);
+		}
+		rootQuad.setDeferredUpdates(true);
+		
+		CollisionBox moved = boxes.get(0);
+		moved.forceTo(100f, 20f);
+		Assert.assertEquals(true, rootQuad.remove(moved));
+		boxes.get(1).forceTo(20f, 100f);
+		rootQuad.removeAll(Arrays.asList(boxes.get(1)));
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(moved));
+		Assert.assertEquals(false, rootQuad.getElements().contains(boxes.get(1)));
+		
+		moved.forceTo(0f, 0f);
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		rootQuad = new LooseRegionQuadTree<CollisionBox>(4, 2, 2f, 0, 0, 128, 128);
+		rootQuad.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		rootQuad.addAll(boxes);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionBox box : boxes) {
+				box.set(random.nextInt(120), random.nextInt(120));
+			}
+			rootQuad.flushMoves();
+			Assert.assertEquals(boxes.size(), rootQuad.getTotalElements());
+			for(CollisionBox box : boxes) {
+				List<CollisionBox> result = rootQuad.getElementsContainingPoint(new Point(box.getX() + 2f, box.getY() + 2f));
+				Assert.assertEquals(true, result.contains(box));
+			}
+		}
+	}
+	
+	@Test
+	public void testRaycast() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		Assert.assertEquals(true, rootQuad.raycast(64f, 16f, 128f, 16f, hit));
+		Assert.assertEquals(box2, hit.getElement());
+		Assert.assertEquals(box2.getMinX(), hit.getX(), 0.001f);
+		Assert.assertEquals(16f, hit.getY(), 0.001f);
+		Assert.assertEquals(box2.getMinX() - 64f, hit.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, hit.getNormalX());
+		Assert.assertEquals(0f, hit.getNormalY());
+
+		Assert.assertEquals(true, rootQuad.raycast(16f, 140f, 16f, 0f, hit));
+		Assert.assertEquals(box3, hit.getElement());
+		Assert.assertEquals(1f, hit.getNormalY());
+
+		Assert.assertEquals(false, rootQuad.raycast(40f, 64f, 90f, 64f, hit));
+		Assert.assertEquals(null, hit.getElement());
+	}
+
+	@Test
+	public void testRaycastMatchesBruteForce() {
+		Random random = new Random(1024);
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextFloat() * 112f, random.nextFloat() * 112f, 1f + (random.nextFloat() * 15f), 1f + (random.nextFloat() * 15f)));
+		}
+		rootQuad.addAll(boxes);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			float x1 = random.nextFloat() * 128f;
+			float y1 = random.nextFloat() * 128f;
+			float x2 = random.nextFloat() * 128f;
+			float y2 = random.nextFloat() * 128f;
+
+			float expected = -1f;
+			for(CollisionBox box : boxes) {
+				float fraction = Intersector.raycast(box, x1, y1, x2 - x1, y2 - y1, null);
+				if(fraction >= 0f && (expected < 0f || fraction < expected)) {
+					expected = fraction;
+				}
+			}
+			Assert.assertEquals(expected >= 0f, rootQuad.raycast(x1, y1, x2, y2, hit));
+			if(expected >= 0f) {
+				Assert.assertEquals(expected, hit.getFraction(), 0.0001f);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRaycastBatch() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		float [] rays = new float[] { 64f, 16f, 128f, 16f, 40f, 64f, 90f, 64f, 64f, 112f, 0f, 112f };
+		RaycastHit<CollisionBox> [] hits = new RaycastHit[3];
+		for(int i = 0; i < hits.length; i++) {
+			hits[i] = new RaycastHit<CollisionBox>();
+		}
+		Assert.assertEquals(2, rootQuad.raycast(rays, 3, hits));
+		Assert.assertEquals(box2, hits[0].getElement());
+		Assert.assertEquals(false, hits[1].isHit());
+		Assert.assertEquals(box3, hits[2].getElement());
+	}
+
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			rootQuad.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		CollisionBox area = new CollisionBox(16, 16, 48, 48);
+		rootQuad.query(area, new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return true;
+			}
+		});
+		List<CollisionBox> expected = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+	}
+}
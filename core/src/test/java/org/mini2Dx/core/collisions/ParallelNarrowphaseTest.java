@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionCircle;
+import org.mini2Dx.core.engine.geom.CollisionPolygon;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ParallelNarrowphase}
+ */
+public class ParallelNarrowphaseTest {
+	private SweepAndPrune<CollisionShape> broadphase;
+	private ParallelNarrowphase<CollisionShape> narrowphase;
+	private CollisionPairs candidates, result;
+	private List<CollisionShape> shapes;
+	
+	@Before
+	public void setup() {
+		broadphase = new SweepAndPrune<CollisionShape>();
+		narrowphase = new ParallelNarrowphase<CollisionShape>();
+		narrowphase.setBatchSize(16);
+		candidates = new CollisionPairs();
+		result = new CollisionPairs();
+		shapes = new ArrayList<CollisionShape>();
+		
+		Random random = new Random();
+		for(int i = 0; i < 300; i++) {
+			float x = random.nextInt(400);
+			float y = random.nextInt(400);
+			switch(i % 3) {
+			case 0:
+				shapes.add(new CollisionBox(x, y, random.nextInt(24) + 1, random.nextInt(24) + 1));
+				break;
+			case 1:
+				shapes.add(new CollisionCircle(x, y, random.nextInt(12) + 1));
+				break;
+			default:
+				shapes.add(new CollisionPolygon(new float[] { x, y, x + 20f, y, x + 10f, y + 16f }));
+				break;
+			}
+		}
+		broadphase.addAll(shapes);
+		broadphase.update(candidates);
+	}
+	
+	@After
+	public void teardown() {
+		narrowphase.dispose();
+	}
+	
+	@Test
+	public void testUpdate() {
+		narrowphase.update(broadphase, candidates, result);
+		
+		Set<String> expected = new HashSet<String>();
+		for(int i = 0; i < candidates.size(); i++) {
+			CollisionShape first = broadphase.getElement(candidates.getFirst(i));
+			CollisionShape second = broadphase.getElement(candidates.getSecond(i));
+			if(first instanceof CollisionPolygon || second instanceof CollisionPolygon) {
+				continue;
+			}
+			if(first.intersects(second.getShape())) {
+				expected.add(pairKey(first, second));
+			}
+		}
+		Set<String> actual = new HashSet<String>();
+		for(int i = 0; i < result.size(); i++) {
+			CollisionShape first = broadphase.getElement(result.getFirst(i));
+			CollisionShape second = broadphase.getElement(result.getSecond(i));
+			Assert.assertEquals(true, actual.add(pairKey(first, second)));
+			if(first instanceof CollisionPolygon || second instanceof CollisionPolygon) {
+				continue;
+			}
+			Assert.assertEquals(true, expected.contains(pairKey(first, second)));
+		}
+		for(String pair : expected) {
+			Assert.assertEquals(true, actual.contains(pair));
+		}
+	}
+	
+	@Test
+	public void testDeterministic() {
+		narrowphase.setDeterministic(true);
+		Assert.assertEquals(true, narrowphase.isDeterministic());
+		narrowphase.update(broadphase, candidates, result);
+		
+		CollisionPairs expected = new CollisionPairs();
+		narrowphase.setBatchSize(ParallelNarrowphase.DEFAULT_BATCH_SIZE);
+		narrowphase.update(broadphase, candidates, expected);
+		Assert.assertEquals(expected.size(), result.size());
+		
+		int candidate = 0;
+		for(int i = 0; i < result.size(); i++) {
+			Assert.assertEquals(expected.getFirst(i), result.getFirst(i));
+			Assert.assertEquals(expected.getSecond(i), result.getSecond(i));
+			
+			while(candidates.getFirst(candidate) != result.getFirst(i) || candidates.getSecond(candidate) != result.getSecond(i)) {
+				candidate++;
+			}
+		}
+		
+		narrowphase.setDeterministic(false);
+		narrowphase.update(broadphase, candidates, result);
+		Assert.assertEquals(expected.size(), result.size());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidBatchSize() {
+		narrowphase.setBatchSize(0);
+	}
+	
+	private String pairKey(CollisionShape a, CollisionShape b) {
+		return Math.min(a.getId(), b.getId()) + ":" + Math.max(a.getId(), b.getId());
+	}
+}
@@ -12,12 +12,15 @@
 package org.mini2Dx.core.collisions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mini2Dx.core.engine.geom.CollisionPoint;
+import org.mini2Dx.core.geom.Circle;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Rectangle;
 
@@ -200,4 +203,277 @@ public class PointQuadTreeTest {
 		Assert.assertEquals(false, CollisionPoints.contains(point3));
 		Assert.assertEquals(true, CollisionPoints.contains(point4));
 	}
+	
+	@Test
+	public void testDeferredUpdates() {
+		rootQuad.setDeferredUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferredUpdates());
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		point1.set(100f, 100f);
+		point1.set(96f, 96f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		List<CollisionPoint> collisionPoints = rootQuad.getElementsWithinArea(new Rectangle(64, 64, 64, 64));
+		Assert.assertEquals(1, collisionPoints.size());
+		Assert.assertEquals(true, collisionPoints.contains(point1));
+		
+		point1.set(-500f, -500f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.setDeferredUpdates(false);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(point1));
+	}
+	
+	@Test
+	public void testRemoveMovedBeforeFlush() {
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 8; i++) {
+			CollisionPoint point = new CollisionPoint(i * 16f, i * 16f);
+			points.add(point);
+			rootQuad.add(point);
+		}
+		rootQuad.setDeferredUpdates(true);
+		
+		CollisionPoint moved = points.get(0);
+		moved.forceTo(100f, 20f);
+		Assert.assertEquals(true, rootQuad.remove(moved));
+		points.get(1).forceTo(20f, 100f);
+		rootQuad.removeAll(Arrays.asList(points.get(1)));
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(moved));
+		Assert.assertEquals(false, rootQuad.getElements().contains(points.get(1)));
+		
+		moved.forceTo(0f, 0f);
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		rootQuad = new PointQuadTree<CollisionPoint>(4, 2, 0, 0, 128, 128);
+		rootQuad.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 100; i++) {
+			points.add(new CollisionPoint(random.nextInt(128), random.nextInt(128)));
+		}
+		rootQuad.addAll(points);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionPoint point : points) {
+				point.set(random.nextInt(128), random.nextInt(128));
+			}
+			rootQuad.flushMoves();
+			Assert.assertEquals(points.size(), rootQuad.getTotalElements());
+			for(CollisionPoint point : points) {
+				List<CollisionPoint> result = rootQuad.getElementsWithinArea(new Rectangle(point.getX() - 1f, point.getY() - 1f, 2f, 2f));
+				Assert.assertEquals(true, result.contains(point));
+			}
+		}
+	}
+	
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			rootQuad.add(new CollisionPoint(random.nextInt(128), random.nextInt(128)));
+		}
+		final List<CollisionPoint> result = new ArrayList<CollisionPoint>();
+		QuadTreeVisitor<CollisionPoint> visitor = new QuadTreeVisitor<CollisionPoint>() {
+			@Override
+			public boolean visit(CollisionPoint element) {
+				result.add(element);
+				return true;
+			}
+		};
+		Rectangle area = new Rectangle(16, 16, 48, 48);
+		rootQuad.query(area, visitor);
+		List<CollisionPoint> expected = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+		
+		result.clear();
+		rootQuad.query(new Rectangle(0, 0, 128, 128), new QuadTreeVisitor<CollisionPoint>() {
+			@Override
+			public boolean visit(CollisionPoint element) {
+				result.add(element);
+				return result.size() < 10;
+			}
+		});
+		Assert.assertEquals(10, result.size());
+	}
+	
+	@Test
+	public void testConcurrentQueries() throws InterruptedException {
+		Random random = new Random();
+		for(int i = 0; i < 500; i++) {
+			rootQuad.add(new CollisionPoint(random.nextInt(128), random.nextInt(128)));
+		}
+		final Rectangle area = new Rectangle(0, 0, 128, 128);
+		final int expected = rootQuad.getElementsWithinArea(area).size();
+		final AtomicInteger failures = new AtomicInteger();
+		
+		Thread [] readers = new Thread[4];
+		for(int i = 0; i < readers.length; i++) {
+			readers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					final int [] count = new int[1];
+					QuadTreeVisitor<CollisionPoint> visitor = new QuadTreeVisitor<CollisionPoint>() {
+						@Override
+						public boolean visit(CollisionPoint element) {
+							count[0]++;
+							return true;
+						}
+					};
+					for(int j = 0; j < 2000; j++) {
+						count[0] = 0;
+						rootQuad.query(area, visitor);
+						if(count[0] != expected) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			});
+			readers[i].start();
+		}
+		for(int i = 0; i < readers.length; i++) {
+			readers[i].join();
+		}
+		Assert.assertEquals(0, failures.get());
+	}
+	
+	@Test
+	public void testGetElementsIntersectingSweep() {
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+
+		Rectangle movingBox = new Rectangle(40, -2, 4, 4);
+		List<CollisionPoint> collisions = rootQuad.getElementsIntersectingSweep(movingBox, 100f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(point2));
+
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, -100f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(point1));
+
+		collisions = rootQuad.getElementsIntersectingSweep(new Circle(64, 64, 2), 70f, 70f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(point4));
+	}
+
+	@Test
+	public void testRaycast() {
+		rootQuad.add(point1);
+		rootQuad.add(point2);
+		rootQuad.add(point3);
+		rootQuad.add(point4);
+
+		RaycastHit<CollisionPoint> hit = new RaycastHit<CollisionPoint>();
+		Assert.assertEquals(true, rootQuad.raycast(64f, 0f, 200f, 0f, hit));
+		Assert.assertEquals(true, point2 == hit.getElement());
+		Assert.assertEquals(63f, hit.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, hit.getNormalX());
+
+		Assert.assertEquals(true, rootQuad.raycast(0f, 64f, 0f, -64f, hit));
+		Assert.assertEquals(true, point1 == hit.getElement());
+
+		Assert.assertEquals(false, rootQuad.raycast(64f, 1f, 200f, 1f, hit));
+	}
+
+	@Test
+	public void testGetNearest() {
+		PointQuadTree<CollisionPoint> quadTree = new PointQuadTree<CollisionPoint>(4, 0, 0, 128, 128);
+		Random random = new Random(2048);
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 500; i++) {
+			points.add(new CollisionPoint(random.nextFloat() * 128f, random.nextFloat() * 128f));
+		}
+		quadTree.addAll(points);
+
+		for(int i = 0; i < 50; i++) {
+			float x = (random.nextFloat() * 160f) - 16f;
+			float y = (random.nextFloat() * 160f) - 16f;
+			float [] expected = new float[points.size()];
+			for(int j = 0; j < points.size(); j++) {
+				expected[j] = points.get(j).dst2(x, y);
+			}
+			Arrays.sort(expected);
+
+			List<CollisionPoint> nearest = quadTree.getNearest(x, y, 8);
+			Assert.assertEquals(8, nearest.size());
+			for(int j = 0; j < nearest.size(); j++) {
+				Assert.assertEquals(expected[j], nearest.get(j).dst2(x, y), 0.001f);
+			}
+		}
+		Assert.assertEquals(points.size(), quadTree.getNearest(64f, 64f, 1000).size());
+		Assert.assertEquals(0, quadTree.getNearest(64f, 64f, 0).size());
+	}
+
+	@Test
+	public void testGetWithinRadius() {
+		PointQuadTree<CollisionPoint> quadTree = new PointQuadTree<CollisionPoint>(4, 0, 0, 128, 128);
+		Random random = new Random(4096);
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 500; i++) {
+			points.add(new CollisionPoint(random.nextFloat() * 128f, random.nextFloat() * 128f));
+		}
+		quadTree.addAll(points);
+
+		for(int i = 0; i < 50; i++) {
+			float x = random.nextFloat() * 128f;
+			float y = random.nextFloat() * 128f;
+			float radius = random.nextFloat() * 32f;
+			int expected = 0;
+			for(CollisionPoint point : points) {
+				if(point.dst2(x, y) <= radius * radius) {
+					expected++;
+				}
+			}
+			List<CollisionPoint> result = quadTree.getWithinRadius(x, y, radius);
+			Assert.assertEquals(expected, result.size());
+			for(CollisionPoint point : result) {
+				Assert.assertEquals(true, point.dst2(x, y) <= radius * radius);
+			}
+		}
+	}
+
+	@Test
+	public void testAddAllBuildsEmptyTree() {
+		PointQuadTree<CollisionPoint> quadTree = new PointQuadTree<CollisionPoint>(4, 0, 0, 128, 128);
+		Random random = new Random();
+		List<CollisionPoint> points = new ArrayList<CollisionPoint>();
+		for(int i = 0; i < 500; i++) {
+			points.add(new CollisionPoint(random.nextInt(128), random.nextInt(128)));
+		}
+		points.add(new CollisionPoint(200, 200));
+		quadTree.addAll(points);
+		
+		Assert.assertEquals(500, quadTree.getTotalElements());
+		QuadTreeStatistics statistics = quadTree.getStatistics();
+		Assert.assertEquals(0, statistics.getElementsInNonLeafQuads());
+		for(int i = 0; i < 500; i++) {
+			CollisionPoint point = points.get(i);
+			Assert.assertEquals(true, quadTree.getElementsWithinArea(new Rectangle(point.x, point.y, 1f, 1f)).contains(point));
+		}
+		
+		points.get(0).set(127.5f, 127.5f);
+		Assert.assertEquals(true, quadTree.getElementsWithinArea(new Rectangle(127.25f, 127.25f, 0.5f, 0.5f)).contains(points.get(0)));
+		Assert.assertEquals(true, quadTree.remove(points.get(0)));
+		for(CollisionPoint element : quadTree.getElements()) {
+			Assert.assertEquals(false, element == points.get(0));
+		}
+	}
 }
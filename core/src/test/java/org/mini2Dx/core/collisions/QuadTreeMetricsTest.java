@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link QuadTreeMetrics}
+ */
+public class QuadTreeMetricsTest {
+
+	@Test
+	public void testLatencyPercentile() {
+		QuadTreeMetrics metrics = new QuadTreeMetrics(4);
+		Assert.assertEquals(0L, metrics.getLatencyPercentile(50f));
+		
+		for(int i = 0; i < 6; i++) {
+			long startTime = metrics.beginQuery();
+			metrics.endQuery(startTime);
+		}
+		Assert.assertEquals(6, metrics.getTotalQueries());
+		Assert.assertEquals(true, metrics.getLatencyPercentile(0f) <= metrics.getLatencyPercentile(100f));
+	}
+	
+	@Test
+	public void testQuadsVisited() {
+		QuadTreeMetrics metrics = new QuadTreeMetrics();
+		long startTime = metrics.beginQuery();
+		metrics.onQuadVisited();
+		metrics.onQuadVisited();
+		metrics.endQuery(startTime);
+		
+		startTime = metrics.beginQuery();
+		metrics.endQuery(startTime);
+		
+		Assert.assertEquals(4, metrics.getTotalQuadsVisited());
+		Assert.assertEquals(3, metrics.getMaxQuadsVisited());
+		Assert.assertEquals(2f, metrics.getAverageQuadsVisited());
+		
+		metrics.reset();
+		Assert.assertEquals(0, metrics.getTotalQueries());
+		Assert.assertEquals(0f, metrics.getAverageQuadsVisited());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidLatencySamples() {
+		new QuadTreeMetrics(0);
+	}
+}
@@ -12,14 +12,18 @@
 package org.mini2Dx.core.collisions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Intersector;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
 
 import junit.framework.Assert;
 
@@ -267,4 +271,325 @@ public class RegionQuadTreeTest {
 		Assert.assertEquals(1, collisionBoxs.size());
 		Assert.assertEquals(true, collisionBoxs.contains(box4));
 	}
+	
+	@Test
+	public void testDeferredUpdates() {
+		rootQuad.setDeferredUpdates(true);
+		Assert.assertEquals(true, rootQuad.isDeferredUpdates());
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		Assert.assertEquals(4, rootQuad.getTotalQuads());
+		
+		box1.set(100f, 100f);
+		box1.set(96f, 96f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		Assert.assertEquals(0, rootQuad.getElementsContainingPoint(new Point(112, 112)).size());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		box1.set(-500f, -500f);
+		Assert.assertEquals(3, rootQuad.getTotalElements());
+		rootQuad.setDeferredUpdates(false);
+		Assert.assertEquals(2, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testRemoveMovedBeforeFlush() {
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 8; i++) {
+			CollisionBox box = new CollisionBox(i * 16f, i * 16f, 8f, 8f);
+			boxes.add(box);
+			rootQuad.add(box);
+		}
+		rootQuad.setDeferredUpdates(true);
+		
+		CollisionBox moved = boxes.get(0);
+		moved.forceTo(100f, 20f);
+		Assert.assertEquals(true, rootQuad.remove(moved));
+		boxes.get(1).forceTo(20f, 100f);
+		rootQuad.removeAll(Arrays.asList(boxes.get(1)));
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+		Assert.assertEquals(false, rootQuad.getElements().contains(moved));
+		Assert.assertEquals(false, rootQuad.getElements().contains(boxes.get(1)));
+		
+		moved.forceTo(0f, 0f);
+		rootQuad.flushMoves();
+		Assert.assertEquals(6, rootQuad.getTotalElements());
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		rootQuad = new RegionQuadTree<CollisionBox>(4, 2, 0, 0, 128, 128);
+		rootQuad.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		rootQuad.addAll(boxes);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionBox box : boxes) {
+				box.set(random.nextInt(120), random.nextInt(120));
+			}
+			rootQuad.flushMoves();
+			Assert.assertEquals(boxes.size(), rootQuad.getTotalElements());
+			for(CollisionBox box : boxes) {
+				List<CollisionBox> result = rootQuad.getElementsContainingPoint(new Point(box.getX() + 2f, box.getY() + 2f));
+				Assert.assertEquals(true, result.contains(box));
+			}
+		}
+	}
+	
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			rootQuad.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeVisitor<CollisionBox> visitor = new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return true;
+			}
+		};
+		CollisionBox area = new CollisionBox(16, 16, 48, 48);
+		rootQuad.query(area, visitor);
+		List<CollisionBox> expected = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+		
+		result.clear();
+		rootQuad.query(new CollisionBox(0, 0, 128, 128), new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return result.size() < 10;
+			}
+		});
+		Assert.assertEquals(10, result.size());
+	}
+	
+	@Test
+	public void testStatistics() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(new CollisionBox(48, 48, 32, 32));
+		
+		QuadTreeStatistics statistics = rootQuad.getStatistics();
+		Assert.assertEquals(false, statistics.isMetricsEnabled());
+		Assert.assertEquals(5, statistics.getTotalQuads());
+		Assert.assertEquals(4, statistics.getTotalLeafQuads());
+		Assert.assertEquals(4, statistics.getTotalElements());
+		Assert.assertEquals(1, statistics.getElementsInNonLeafQuads());
+		Assert.assertEquals(1, statistics.getMaxDepth());
+		Assert.assertEquals(1, statistics.getQuadsAtDepth(0));
+		Assert.assertEquals(4, statistics.getQuadsAtDepth(1));
+		Assert.assertEquals(0, statistics.getQuadsAtDepth(2));
+		Assert.assertEquals(1, statistics.getQuadsWithElements(0));
+		Assert.assertEquals(4, statistics.getQuadsWithElements(1));
+	}
+	
+	@Test
+	public void testMetrics() {
+		rootQuad = new RegionQuadTree<CollisionBox>(2, 1, 0, 0, 128, 128);
+		QuadTreeMetrics metrics = new QuadTreeMetrics();
+		rootQuad.setMetrics(metrics);
+		
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		Assert.assertEquals(1, metrics.getTotalSubdivides());
+		Assert.assertEquals(metrics, ((RegionQuadTree<CollisionBox>) rootQuad.topLeft).getMetrics());
+		
+		rootQuad.getElementsContainingPoint(new Point(16, 16));
+		Assert.assertEquals(1, metrics.getTotalQueries());
+		Assert.assertEquals(2, metrics.getMaxQuadsVisited());
+		
+		rootQuad.getElementsWithinArea(new CollisionBox(0, 0, 128, 128));
+		rootQuad.getElementsIntersectingLineSegment(new LineSegment(0, 0, 128, 128));
+		rootQuad.query(new CollisionBox(0, 0, 128, 128), new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				return true;
+			}
+		});
+		Assert.assertEquals(4, metrics.getTotalQueries());
+		Assert.assertEquals(5, metrics.getMaxQuadsVisited());
+		
+		rootQuad.remove(box1);
+		rootQuad.remove(box2);
+		rootQuad.remove(box3);
+		Assert.assertEquals(1, metrics.getTotalMerges());
+		
+		QuadTreeStatistics statistics = rootQuad.getStatistics();
+		Assert.assertEquals(true, statistics.isMetricsEnabled());
+		Assert.assertEquals(4, statistics.getTotalQueries());
+		Assert.assertEquals(true, statistics.getLatency99() >= statistics.getLatency50());
+		Assert.assertEquals(true, statistics.toString().contains("queries=4"));
+		
+		rootQuad.setMetrics(null);
+		rootQuad.getElementsContainingPoint(new Point(16, 16));
+		Assert.assertEquals(4, metrics.getTotalQueries());
+	}
+	
+	@Test
+	public void testGetElementsIntersectingSweep() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		Rectangle movingBox = new Rectangle(40, 10, 4, 4);
+		List<CollisionBox> collisions = rootQuad.getElementsIntersectingSweep(movingBox, 80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box2));
+
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, -80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+
+		movingBox.set(40, 40);
+		collisions = rootQuad.getElementsIntersectingSweep(movingBox, 60f, 60f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box4));
+
+		collisions = rootQuad.getElementsIntersectingSweep(new Circle(50, 64, 4), 0f, -60f);
+		Assert.assertEquals(0, collisions.size());
+	}
+
+	@Test
+	public void testRaycast() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		Assert.assertEquals(true, rootQuad.raycast(64f, 16f, 128f, 16f, hit));
+		Assert.assertEquals(box2, hit.getElement());
+		Assert.assertEquals(box2.getMinX(), hit.getX(), 0.001f);
+		Assert.assertEquals(16f, hit.getY(), 0.001f);
+		Assert.assertEquals(box2.getMinX() - 64f, hit.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, hit.getNormalX());
+		Assert.assertEquals(0f, hit.getNormalY());
+
+		Assert.assertEquals(true, rootQuad.raycast(16f, 140f, 16f, 0f, hit));
+		Assert.assertEquals(box3, hit.getElement());
+		Assert.assertEquals(1f, hit.getNormalY());
+
+		Assert.assertEquals(false, rootQuad.raycast(40f, 64f, 90f, 64f, hit));
+		Assert.assertEquals(null, hit.getElement());
+	}
+
+	@Test
+	public void testRaycastMatchesBruteForce() {
+		Random random = new Random(1024);
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextFloat() * 112f, random.nextFloat() * 112f, 1f + (random.nextFloat() * 15f), 1f + (random.nextFloat() * 15f)));
+		}
+		rootQuad.addAll(boxes);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			float x1 = random.nextFloat() * 128f;
+			float y1 = random.nextFloat() * 128f;
+			float x2 = random.nextFloat() * 128f;
+			float y2 = random.nextFloat() * 128f;
+
+			float expected = -1f;
+			for(CollisionBox box : boxes) {
+				float fraction = Intersector.raycast(box, x1, y1, x2 - x1, y2 - y1, null);
+				if(fraction >= 0f && (expected < 0f || fraction < expected)) {
+					expected = fraction;
+				}
+			}
+			Assert.assertEquals(expected >= 0f, rootQuad.raycast(x1, y1, x2, y2, hit));
+			if(expected >= 0f) {
+				Assert.assertEquals(expected, hit.getFraction(), 0.0001f);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRaycastBatch() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		float [] rays = new float[] { 64f, 16f, 128f, 16f, 40f, 64f, 90f, 64f, 64f, 112f, 0f, 112f };
+		RaycastHit<CollisionBox> [] hits = new RaycastHit[3];
+		for(int i = 0; i < hits.length; i++) {
+			hits[i] = new RaycastHit<CollisionBox>();
+		}
+		Assert.assertEquals(2, rootQuad.raycast(rays, 3, hits));
+		Assert.assertEquals(box2, hits[0].getElement());
+		Assert.assertEquals(false, hits[1].isHit());
+		Assert.assertEquals(box3, hits[2].getElement());
+	}
+
+	@Test
+	public void testGetNearest() {
+		rootQuad.add(box1);
+		rootQuad.add(box2);
+		rootQuad.add(box3);
+		rootQuad.add(box4);
+
+		List<CollisionBox> nearest = rootQuad.getNearest(40f, 20f, 2);
+		Assert.assertEquals(2, nearest.size());
+		Assert.assertEquals(box1, nearest.get(0));
+		Assert.assertEquals(box2, nearest.get(1));
+
+		nearest = rootQuad.getNearest(20f, 60f, 1);
+		Assert.assertEquals(1, nearest.size());
+		Assert.assertEquals(box1, nearest.get(0));
+		Assert.assertEquals(2, rootQuad.getWithinRadius(64f, 16f, 40f).size());
+	}
+
+	@Test
+	public void testAddAllBuildsEmptyTree() {
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 500; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), random.nextInt(16) + 1, random.nextInt(16) + 1));
+		}
+		RegionQuadTree<CollisionBox> incrementalQuad = new RegionQuadTree<CollisionBox>(4, 0, 0, 128, 128);
+		for(CollisionBox box : boxes) {
+			incrementalQuad.add(box);
+		}
+		rootQuad = new RegionQuadTree<CollisionBox>(4, 0, 0, 128, 128);
+		rootQuad.addAll(boxes);
+		
+		Assert.assertEquals(boxes.size(), rootQuad.getTotalElements());
+		Assert.assertEquals(true, rootQuad.getStatistics().getElementsInNonLeafQuads() <= incrementalQuad.getStatistics().getElementsInNonLeafQuads());
+		
+		CollisionBox area = new CollisionBox(20, 40, 50, 30);
+		List<CollisionBox> collisionBoxs = rootQuad.getElementsWithinArea(area);
+		Assert.assertEquals(incrementalQuad.getElementsWithinArea(area).size(), collisionBoxs.size());
+		for(CollisionBox box : boxes) {
+			if(area.contains(box.getShape()) || area.intersects(box.getShape())) {
+				Assert.assertEquals(true, collisionBoxs.contains(box));
+			}
+		}
+		for(CollisionBox box : boxes) {
+			Assert.assertEquals(true, rootQuad.remove(box));
+		}
+		Assert.assertEquals(0, rootQuad.getTotalElements());
+	}
 }
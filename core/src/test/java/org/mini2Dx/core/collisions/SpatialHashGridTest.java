@@ -0,0 +1,383 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Intersector;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link SpatialHashGrid}
+ */
+public class SpatialHashGridTest {
+	private SpatialHashGrid<CollisionBox> grid;
+	private CollisionBox box1, box2, box3, box4;
+	
+	@Before
+	public void setup() {
+		grid = new SpatialHashGrid<CollisionBox>(32f, 0, 0, 128, 128);
+		
+		box1 = new CollisionBox(1, 1, 32, 32);
+		box2 = new CollisionBox(95, 1, 32, 32);
+		box3 = new CollisionBox(1, 95, 32, 32);
+		box4 = new CollisionBox(95, 95, 32, 32);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidCellSize() {
+		new SpatialHashGrid<CollisionBox>(0f, 0, 0, 128, 128);
+	}
+	
+	@Test
+	public void testAdd() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			CollisionBox rect = new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f);
+			Assert.assertEquals(true, grid.add(rect));
+			Assert.assertEquals(i + 1, grid.getTotalElements());
+		}
+		Assert.assertEquals(false, grid.add(grid.getElements().get(0)));
+		Assert.assertEquals(false, grid.add(new CollisionBox(-100f, -100f, 32f, 32f)));
+		Assert.assertEquals(100, grid.getTotalElements());
+		Assert.assertEquals(16, grid.getTotalQuads());
+	}
+	
+	@Test
+	public void testAddAll() {
+		Random random = new Random();
+		List<CollisionBox> rects = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			rects.add(new CollisionBox(random.nextInt(96), random.nextInt(96), 32f, 32f));
+		}
+		rects.add(new CollisionBox(-4f, -4f, 32f, 32f));
+		
+		grid.addAll(rects);
+		Assert.assertEquals(rects.size(), grid.getTotalElements());
+	}
+	
+	@Test
+	public void testRemove() {
+		Random random = new Random();
+		List<CollisionBox> collisionBoxs = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 1000; i++) {
+			collisionBoxs.add(new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+		grid.addAll(collisionBoxs);
+		
+		for(int i = collisionBoxs.size() - 1; i >= 0; i--) {
+			Assert.assertEquals(true, grid.remove(collisionBoxs.get(i)));
+			Assert.assertEquals(i, grid.getTotalElements());
+		}
+		Assert.assertEquals(false, grid.remove(box1));
+		Assert.assertEquals(0, grid.getElementsWithinArea(new CollisionBox(0, 0, 128, 128)).size());
+	}
+	
+	@Test
+	public void testRemoveAll() {
+		Random random = new Random();
+		List<CollisionBox> collisionBoxs = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 1000; i++) {
+			collisionBoxs.add(new CollisionBox(random.nextInt(96), random.nextInt(96), random.nextInt(32), random.nextInt(32)));
+		}
+		grid.addAll(collisionBoxs);
+		grid.removeAll(collisionBoxs);
+		Assert.assertEquals(0, grid.getTotalElements());
+		Assert.assertEquals(0, grid.getElements().size());
+	}
+	
+	@Test
+	public void testGetElementsWithinRegion() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		
+		List<CollisionBox> collisionBoxs = grid.getElementsWithinArea(new CollisionBox(0, 0, 128, 128));
+		Assert.assertEquals(4, collisionBoxs.size());
+		
+		collisionBoxs = grid.getElementsWithinArea(new CollisionBox(0, 0, 64, 64));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		collisionBoxs = grid.getElementsWithinArea(new CollisionBox(64, 64, 64, 64));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), random.nextInt(40) + 1, random.nextInt(40) + 1));
+		}
+		grid.addAll(boxes);
+		boxes.add(box1);
+		boxes.add(box2);
+		boxes.add(box3);
+		boxes.add(box4);
+		
+		CollisionBox area = new CollisionBox(20, 40, 50, 30);
+		collisionBoxs = grid.getElementsWithinArea(area);
+		int expected = 0;
+		for(CollisionBox box : boxes) {
+			if(area.contains(box.getShape()) || area.intersects(box.getShape())) {
+				expected++;
+				Assert.assertEquals(true, collisionBoxs.contains(box));
+			}
+		}
+		Assert.assertEquals(expected, collisionBoxs.size());
+	}
+	
+	@Test
+	public void testGetElementsIntersectingLineSegment() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		
+		List<CollisionBox> collisionBoxs = grid.getElementsIntersectingLineSegment(new LineSegment(0, 0, 128, 128));
+		Assert.assertEquals(2, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+		
+		collisionBoxs = grid.getElementsIntersectingLineSegment(new LineSegment(0, 128, 128, 0));
+		Assert.assertEquals(2, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box2));
+		Assert.assertEquals(true, collisionBoxs.contains(box3));
+		
+		collisionBoxs = grid.getElementsIntersectingLineSegment(new LineSegment(64, 0, 64, 128));
+		Assert.assertEquals(0, collisionBoxs.size());
+	}
+	
+	@Test
+	public void testGetElementsContainingPoint() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+		
+		List<CollisionBox> collisionBoxs = grid.getElementsContainingPoint(new Point(16, 16));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		collisionBoxs = grid.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box4));
+		
+		collisionBoxs = grid.getElementsContainingPoint(new Point(64, 64));
+		Assert.assertEquals(0, collisionBoxs.size());
+	}
+	
+	@Test
+	public void testPositionChanged() {
+		grid.add(box1);
+		grid.add(box2);
+		
+		box1.set(96f, 96f);
+		Assert.assertEquals(2, grid.getTotalElements());
+		Assert.assertEquals(0, grid.getElementsContainingPoint(new Point(16, 16)).size());
+		List<CollisionBox> collisionBoxs = grid.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		box1.set(-500f, -500f);
+		Assert.assertEquals(1, grid.getTotalElements());
+		Assert.assertEquals(false, grid.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testDeferredUpdates() {
+		grid.setDeferredUpdates(true);
+		Assert.assertEquals(true, grid.isDeferredUpdates());
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		
+		box1.set(100f, 100f);
+		box1.set(96f, 96f);
+		Assert.assertEquals(3, grid.getTotalElements());
+		Assert.assertEquals(0, grid.getElementsContainingPoint(new Point(112, 112)).size());
+		
+		grid.flushMoves();
+		Assert.assertEquals(3, grid.getTotalElements());
+		List<CollisionBox> collisionBoxs = grid.getElementsContainingPoint(new Point(112, 112));
+		Assert.assertEquals(1, collisionBoxs.size());
+		Assert.assertEquals(true, collisionBoxs.contains(box1));
+		
+		box1.set(-500f, -500f);
+		Assert.assertEquals(3, grid.getTotalElements());
+		grid.setDeferredUpdates(false);
+		Assert.assertEquals(2, grid.getTotalElements());
+		Assert.assertEquals(false, grid.getElements().contains(box1));
+	}
+	
+	@Test
+	public void testFlushMoves() {
+		grid.setDeferredUpdates(true);
+		
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		grid.addAll(boxes);
+		
+		for(int tick = 0; tick < 20; tick++) {
+			for(CollisionBox box : boxes) {
+				box.set(random.nextInt(120), random.nextInt(120));
+			}
+			grid.flushMoves();
+			Assert.assertEquals(boxes.size(), grid.getTotalElements());
+			for(CollisionBox box : boxes) {
+				Assert.assertEquals(true, grid.getElementsContainingPoint(new Point(box.getX() + 2f, box.getY() + 2f)).contains(box));
+			}
+		}
+	}
+	
+	@Test
+	public void testGetElementsIntersectingSweep() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+
+		Rectangle movingBox = new Rectangle(40, 10, 4, 4);
+		List<CollisionBox> collisions = grid.getElementsIntersectingSweep(movingBox, 80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box2));
+
+		collisions = grid.getElementsIntersectingSweep(movingBox, -80f, 0f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box1));
+
+		movingBox.set(40, 40);
+		collisions = grid.getElementsIntersectingSweep(movingBox, 60f, 60f);
+		Assert.assertEquals(1, collisions.size());
+		Assert.assertEquals(true, collisions.contains(box4));
+
+		collisions = grid.getElementsIntersectingSweep(new Circle(50, 64, 4), 0f, -60f);
+		Assert.assertEquals(0, collisions.size());
+	}
+
+	@Test
+	public void testRaycast() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		Assert.assertEquals(true, grid.raycast(64f, 16f, 128f, 16f, hit));
+		Assert.assertEquals(box2, hit.getElement());
+		Assert.assertEquals(box2.getMinX(), hit.getX(), 0.001f);
+		Assert.assertEquals(16f, hit.getY(), 0.001f);
+		Assert.assertEquals(box2.getMinX() - 64f, hit.getDistance(), 0.001f);
+		Assert.assertEquals(-1f, hit.getNormalX());
+		Assert.assertEquals(0f, hit.getNormalY());
+
+		Assert.assertEquals(true, grid.raycast(16f, 140f, 16f, 0f, hit));
+		Assert.assertEquals(box3, hit.getElement());
+		Assert.assertEquals(1f, hit.getNormalY());
+
+		Assert.assertEquals(false, grid.raycast(40f, 64f, 90f, 64f, hit));
+		Assert.assertEquals(null, hit.getElement());
+	}
+
+	@Test
+	public void testRaycastMatchesBruteForce() {
+		Random random = new Random(1024);
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 100; i++) {
+			boxes.add(new CollisionBox(random.nextFloat() * 112f, random.nextFloat() * 112f, 1f + (random.nextFloat() * 15f), 1f + (random.nextFloat() * 15f)));
+		}
+		grid.addAll(boxes);
+
+		RaycastHit<CollisionBox> hit = new RaycastHit<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			float x1 = random.nextFloat() * 128f;
+			float y1 = random.nextFloat() * 128f;
+			float x2 = random.nextFloat() * 128f;
+			float y2 = random.nextFloat() * 128f;
+
+			float expected = -1f;
+			for(CollisionBox box : boxes) {
+				float fraction = Intersector.raycast(box, x1, y1, x2 - x1, y2 - y1, null);
+				if(fraction >= 0f && (expected < 0f || fraction < expected)) {
+					expected = fraction;
+				}
+			}
+			Assert.assertEquals(expected >= 0f, grid.raycast(x1, y1, x2, y2, hit));
+			if(expected >= 0f) {
+				Assert.assertEquals(expected, hit.getFraction(), 0.0001f);
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRaycastBatch() {
+		grid.add(box1);
+		grid.add(box2);
+		grid.add(box3);
+		grid.add(box4);
+
+		float [] rays = new float[] { 64f, 16f, 128f, 16f, 40f, 64f, 90f, 64f, 64f, 112f, 0f, 112f };
+		RaycastHit<CollisionBox> [] hits = new RaycastHit[3];
+		for(int i = 0; i < hits.length; i++) {
+			hits[i] = new RaycastHit<CollisionBox>();
+		}
+		Assert.assertEquals(2, grid.raycast(rays, 3, hits));
+		Assert.assertEquals(box2, hits[0].getElement());
+		Assert.assertEquals(false, hits[1].isHit());
+		Assert.assertEquals(box3, hits[2].getElement());
+	}
+
+	@Test
+	public void testQuery() {
+		Random random = new Random();
+		for(int i = 0; i < 100; i++) {
+			grid.add(new CollisionBox(random.nextInt(120), random.nextInt(120), 4f, 4f));
+		}
+		final List<CollisionBox> result = new ArrayList<CollisionBox>();
+		QuadTreeVisitor<CollisionBox> visitor = new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return true;
+			}
+		};
+		CollisionBox area = new CollisionBox(16, 16, 48, 48);
+		grid.query(area, visitor);
+		List<CollisionBox> expected = grid.getElementsWithinArea(area);
+		Assert.assertEquals(expected.size(), result.size());
+		Assert.assertEquals(true, result.containsAll(expected));
+		
+		result.clear();
+		grid.query(new CollisionBox(0, 0, 128, 128), new QuadTreeVisitor<CollisionBox>() {
+			@Override
+			public boolean visit(CollisionBox element) {
+				result.add(element);
+				return result.size() < 10;
+			}
+		});
+		Assert.assertEquals(10, result.size());
+	}
+}
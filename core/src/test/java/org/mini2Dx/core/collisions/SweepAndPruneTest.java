@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.collisions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link SweepAndPrune}
+ */
+public class SweepAndPruneTest {
+	private SweepAndPrune<CollisionBox> sweepAndPrune;
+	private CollisionPairs pairs;
+	private CollisionBox box1, box2, box3, box4;
+	
+	@Before
+	public void setup() {
+		sweepAndPrune = new SweepAndPrune<CollisionBox>();
+		pairs = new CollisionPairs(1);
+		
+		box1 = new CollisionBox(0, 0, 32, 32);
+		box2 = new CollisionBox(16, 16, 32, 32);
+		box3 = new CollisionBox(40, 0, 32, 32);
+		box4 = new CollisionBox(200, 200, 32, 32);
+	}
+	
+	@Test
+	public void testAdd() {
+		Assert.assertEquals(true, sweepAndPrune.add(box1));
+		Assert.assertEquals(false, sweepAndPrune.add(box1));
+		Assert.assertEquals(false, sweepAndPrune.add(null));
+		Assert.assertEquals(1, sweepAndPrune.getTotalElements());
+	}
+	
+	@Test
+	public void testRemove() {
+		sweepAndPrune.add(box1);
+		sweepAndPrune.add(box2);
+		Assert.assertEquals(true, sweepAndPrune.remove(box1));
+		Assert.assertEquals(false, sweepAndPrune.remove(box1));
+		Assert.assertEquals(1, sweepAndPrune.getTotalElements());
+		
+		sweepAndPrune.update(pairs);
+		Assert.assertEquals(0, pairs.size());
+		
+		sweepAndPrune.add(box3);
+		sweepAndPrune.update(pairs);
+		Assert.assertEquals(1, pairs.size());
+	}
+	
+	@Test
+	public void testUpdate() {
+		sweepAndPrune.add(box1);
+		sweepAndPrune.add(box2);
+		sweepAndPrune.add(box3);
+		sweepAndPrune.add(box4);
+		
+		sweepAndPrune.update(pairs);
+		Assert.assertEquals(2, pairs.size());
+		Set<String> reported = toPairSet(pairs);
+		Assert.assertEquals(true, reported.contains(pairKey(box1, box2)));
+		Assert.assertEquals(true, reported.contains(pairKey(box2, box3)));
+		
+		box4.set(10f, 10f);
+		sweepAndPrune.update(pairs);
+		Assert.assertEquals(5, pairs.size());
+		
+		box4.set(500f, 500f);
+		box3.set(500f, 0f);
+		sweepAndPrune.update(pairs);
+		Assert.assertEquals(1, pairs.size());
+		Assert.assertEquals(true, toPairSet(pairs).contains(pairKey(box1, box2)));
+	}
+	
+	@Test
+	public void testUpdateMatchesBruteForce() {
+		Random random = new Random();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for(int i = 0; i < 200; i++) {
+			boxes.add(new CollisionBox(random.nextInt(500), random.nextInt(500), random.nextInt(32) + 1, random.nextInt(32) + 1));
+		}
+		sweepAndPrune.addAll(boxes);
+		
+		for(int tick = 0; tick < 10; tick++) {
+			for(CollisionBox box : boxes) {
+				box.set(box.getX() + random.nextInt(21) - 10, box.getY() + random.nextInt(21) - 10);
+			}
+			sweepAndPrune.update(pairs);
+			
+			Set<String> expected = new HashSet<String>();
+			for(int i = 0; i < boxes.size(); i++) {
+				for(int j = i + 1; j < boxes.size(); j++) {
+					CollisionBox a = boxes.get(i);
+					CollisionBox b = boxes.get(j);
+					if(a.getMinX() <= b.getMaxX() && b.getMinX() <= a.getMaxX() && a.getMinY() <= b.getMaxY() && b.getMinY() <= a.getMaxY()) {
+						expected.add(pairKey(a, b));
+					}
+				}
+			}
+			Assert.assertEquals(expected.size(), pairs.size());
+			Assert.assertEquals(expected, toPairSet(pairs));
+		}
+	}
+	
+	private Set<String> toPairSet(CollisionPairs pairs) {
+		Set<String> result = new HashSet<String>();
+		for(int i = 0; i < pairs.size(); i++) {
+			result.add(pairKey(sweepAndPrune.getElement(pairs.getFirst(i)), sweepAndPrune.getElement(pairs.getSecond(i))));
+		}
+		return result;
+	}
+	
+	private String pairKey(CollisionBox a, CollisionBox b) {
+		return Math.min(a.getId(), b.getId()) + ":" + Math.max(a.getId(), b.getId());
+	}
+}
@@ -21,6 +21,7 @@ import org.mini2Dx.core.engine.PositionChangeListener;
 import org.mini2Dx.core.engine.SizeChangeListener;
 import org.mini2Dx.core.geom.LineSegment;
 import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
 
 /**
  * Unit tests for {@link CollisionBox}
@@ -277,6 +278,20 @@ public class CollisionBoxTest implements PositionChangeListener<CollisionBox>, S
 		Assert.assertEquals(true, rectangle2.intersects(rectangle1));
 	}
 
+	@Test
+	public void testGetTimeOfImpact() {
+		Rectangle wall = new Rectangle(20f, -50f, 2f, 100f);
+		rectangle1 = new CollisionBox(0f, 0f, 4f, 4f);
+		rectangle1.preUpdate();
+		rectangle1.set(100f, 0f);
+		Assert.assertEquals(false, rectangle1.intersects(wall));
+		Assert.assertEquals(0.16f, rectangle1.getTimeOfImpact(wall), 0.0001f);
+
+		rectangle1.preUpdate();
+		rectangle1.set(200f, 0f);
+		Assert.assertEquals(-1f, rectangle1.getTimeOfImpact(wall));
+	}
+
 	@Test
 	public void testIntersectsLineWhenNotRotated() {
 		rectangle1 = new CollisionBox(100f, 100f, 50f, 50f);
@@ -19,6 +19,7 @@ import org.mini2Dx.core.engine.PositionChangeListener;
 import org.mini2Dx.core.engine.SizeChangeListener;
 import org.mini2Dx.core.geom.Circle;
 import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Rectangle;
 
 /**
  * Unit tests for {@link CollisionCircle}
@@ -144,6 +145,16 @@ public class CollisionCircleTest implements PositionChangeListener<CollisionCirc
 		Assert.assertEquals(false, receivedSizeNotification);
 	}
 	
+	@Test
+	public void testGetTimeOfImpact() {
+		circle = new CollisionCircle(0f, 0f, 5f);
+		circle.preUpdate();
+		circle.set(100f, 0f);
+		Assert.assertEquals(0.15f, circle.getTimeOfImpact(new Rectangle(20f, -50f, 2f, 100f)), 0.0001f);
+		Assert.assertEquals(0.4f, circle.getTimeOfImpact(new Circle(50f, 0f, 5f)), 0.0001f);
+		Assert.assertEquals(-1f, circle.getTimeOfImpact(new Circle(50f, 20f, 5f)));
+	}
+
 	@Test
 	public void testSetRadiusWithNotification() {
 		circle.addPostionChangeListener(this);
@@ -15,6 +15,9 @@ import junit.framework.Assert;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mini2Dx.core.geom.Circle;
+import org.mini2Dx.core.geom.Polygon;
+import org.mini2Dx.core.geom.Rectangle;
 
 /**
  * Unit tests for {@link CollisionCollisionPoint}
@@ -105,6 +108,21 @@ public class CollisionPointTest {
 		Assert.assertEquals(false, point2.isOnLineBetween(point3, point1));
 	}
 	
+	@Test
+	public void testGetTimeOfImpact() {
+		point1 = new CollisionPoint(16f, -32f);
+		point1.preUpdate();
+		point1.set(16f, 96f);
+		Assert.assertEquals(0.25f, point1.getTimeOfImpact(new Rectangle(0f, 0f, 32f, 32f)));
+		Assert.assertEquals(0.5f, point1.getTimeOfImpact(new Circle(16f, 40f, 8f)), 0.0001f);
+
+		point1.forceTo(24f, 16f);
+		point1.set(88f, 16f);
+		Assert.assertEquals(0.375f,
+				point1.getTimeOfImpact(new Polygon(new float[] { 40f, 0f, 72f, 0f, 56f, 32f })), 0.0001f);
+		Assert.assertEquals(-1f, point1.getTimeOfImpact(new Rectangle(0f, 0f, 16f, 8f)));
+	}
+
 	@Test
 	public void testRotateAround() {
 		point1.set(0, 0);
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.geom.Rectangle;
+
+/**
+ * Unit tests for {@link CollisionWorld} and {@link CollisionBoxHandle}
+ */
+public class CollisionWorldTest implements PositionChangeListener<CollisionBoxHandle>, SizeChangeListener<CollisionBoxHandle> {
+	private CollisionWorld world;
+	private int positionNotificationReceived, sizeNotificationReceived;
+
+	@Before
+	public void setup() {
+		world = new CollisionWorld(2);
+		positionNotificationReceived = 0;
+		sizeNotificationReceived = 0;
+	}
+
+	@Test
+	public void testCreateBox() {
+		CollisionBoxHandle box1 = world.createBox(10f, 20f, 30f, 40f);
+		CollisionBoxHandle box2 = world.createBox(1f, 2f, 3f, 4f);
+		CollisionBoxHandle box3 = world.createBox(5f, 6f, 7f, 8f);
+		Assert.assertEquals(3, world.getTotalBoxes());
+		Assert.assertEquals(true, box1.getId() != box2.getId());
+		Assert.assertEquals(10f, box1.getX());
+		Assert.assertEquals(20f, box1.getY());
+		Assert.assertEquals(30f, box1.getWidth());
+		Assert.assertEquals(60f, box1.getMaxY());
+		Assert.assertEquals(box1, world.getBox(box1.getId()));
+		Assert.assertEquals(box3, world.getBox(box3.getId()));
+		Assert.assertEquals(5, box3.getRenderX());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testCreateBoxDuplicateId() {
+		world.createBox(5, 0f, 0f, 1f, 1f);
+		world.createBox(5, 0f, 0f, 1f, 1f);
+	}
+
+	@Test
+	public void testRemove() {
+		CollisionBoxHandle box1 = world.createBox(10f, 20f, 30f, 40f);
+		CollisionBoxHandle box2 = world.createBox(1f, 2f, 3f, 4f);
+		CollisionBoxHandle box3 = world.createBox(5f, 6f, 7f, 8f);
+
+		Assert.assertEquals(true, world.remove(box1));
+		Assert.assertEquals(false, world.remove(box1));
+		Assert.assertEquals(2, world.getTotalBoxes());
+		Assert.assertNull(world.getBox(box1.getId()));
+		Assert.assertEquals(box3, world.getBox(box3.getId()));
+		Assert.assertEquals(5f, box3.getX());
+		Assert.assertEquals(8f, box3.getHeight());
+		Assert.assertEquals(1f, box2.getX());
+
+		box3.set(50f, 60f);
+		Assert.assertEquals(50f, box3.getX());
+		Assert.assertEquals(1f, box2.getX());
+	}
+
+	@Test
+	public void testNotifications() {
+		CollisionBoxHandle box = world.createBox(0f, 0f, 10f, 10f);
+		box.addPostionChangeListener(this);
+		box.addSizeChangeListener(this);
+
+		box.set(0f, 0f);
+		Assert.assertEquals(0, positionNotificationReceived);
+		box.setX(5f);
+		Assert.assertEquals(1, positionNotificationReceived);
+		box.translate(1f, 1f);
+		Assert.assertEquals(2, positionNotificationReceived);
+		box.setSize(20f, 20f);
+		Assert.assertEquals(2, positionNotificationReceived);
+		Assert.assertEquals(1, sizeNotificationReceived);
+
+		box.removePositionChangeListener(this);
+		box.setX(100f);
+		Assert.assertEquals(2, positionNotificationReceived);
+	}
+
+	@Test
+	public void testPreUpdateAndInterpolate() {
+		List<CollisionBoxHandle> handles = new ArrayList<CollisionBoxHandle>();
+		List<CollisionBox> boxes = new ArrayList<CollisionBox>();
+		for (int i = 0; i < 10; i++) {
+			handles.add(world.createBox(i * 10f, i * 5f, 10f, 10f));
+			boxes.add(new CollisionBox(i * 10f, i * 5f, 10f, 10f));
+		}
+		for (int frame = 0; frame < 5; frame++) {
+			world.preUpdate();
+			for (int i = 0; i < boxes.size(); i++) {
+				boxes.get(i).preUpdate();
+			}
+			for (int i = 0; i < boxes.size(); i += 2) {
+				handles.get(i).set(handles.get(i).getX() + 7f, handles.get(i).getY() + 3f, 10f + frame, 10f);
+				boxes.get(i).set(boxes.get(i).getX() + 7f, boxes.get(i).getY() + 3f, 10f + frame, 10f);
+			}
+			world.interpolate(null, 0.5f);
+			for (int i = 0; i < boxes.size(); i++) {
+				CollisionBox box = boxes.get(i);
+				CollisionBoxHandle handle = handles.get(i);
+				box.interpolate(null, 0.5f);
+				Assert.assertEquals(box.getRenderX(), handle.getRenderX());
+				Assert.assertEquals(box.getRenderY(), handle.getRenderY());
+				Assert.assertEquals(box.getRenderWidth(), handle.getRenderWidth());
+				Assert.assertEquals(box.getRenderHeight(), handle.getRenderHeight());
+			}
+		}
+	}
+
+	@Test
+	public void testForceTo() {
+		CollisionBoxHandle box = world.createBox(0f, 0f, 10f, 10f);
+		box.preUpdate();
+		box.set(20f, 20f);
+		box.forceTo(50f, 60f);
+		Assert.assertEquals(50f, box.getPreviousX());
+		Assert.assertEquals(50, box.getRenderX());
+		Assert.assertEquals(60, box.getRenderY());
+		box.interpolate(null, 0.5f);
+		Assert.assertEquals(50, box.getRenderX());
+	}
+
+	@Test
+	public void testGetShapeTracksBounds() {
+		CollisionBoxHandle other = world.createBox(0f, 0f, 1f, 1f);
+		CollisionBoxHandle box = world.createBox(10f, 20f, 30f, 40f);
+		Rectangle shape = (Rectangle) box.getShape();
+		Assert.assertEquals(10f, shape.getX());
+		Assert.assertEquals(40f, shape.getHeight());
+
+		box.set(15f, 25f);
+		Assert.assertSame(shape, box.getShape());
+		Assert.assertEquals(15f, shape.getX());
+		Assert.assertEquals(25f, shape.getY());
+
+		box.setSize(5f, 6f);
+		Assert.assertEquals(5f, shape.getWidth());
+		Assert.assertEquals(6f, shape.getHeight());
+
+		box.forceTo(1f, 2f);
+		Assert.assertEquals(1f, shape.getX());
+		Assert.assertEquals(2f, shape.getY());
+		Assert.assertEquals(5f, shape.getWidth());
+
+		world.remove(other);
+		Assert.assertEquals(1f, box.getX());
+		Assert.assertEquals(1f, box.getShape().getX());
+	}
+
+	@Test
+	public void testRegionQuadTree() {
+		RegionQuadTree<CollisionBoxHandle> quadTree = new RegionQuadTree<CollisionBoxHandle>(2, 0f, 0f, 128f, 128f);
+		List<CollisionBoxHandle> handles = new ArrayList<CollisionBoxHandle>();
+		for (int i = 0; i < 12; i++) {
+			handles.add(world.createBox((i % 4) * 32f, (i / 4) * 32f, 16f, 16f));
+		}
+		quadTree.addAll(handles);
+		Assert.assertEquals(12, quadTree.getTotalElements());
+
+		List<CollisionBoxHandle> result = quadTree.getElementsWithinArea(new Rectangle(0f, 0f, 20f, 20f));
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(handles.get(0), result.get(0));
+
+		handles.get(11).set(2f, 2f);
+		result = quadTree.getElementsWithinArea(new Rectangle(0f, 0f, 20f, 20f));
+		Assert.assertEquals(2, result.size());
+		Assert.assertEquals(true, result.contains(handles.get(11)));
+		result = quadTree.getElementsWithinArea(new Rectangle(96f, 64f, 20f, 20f));
+		Assert.assertEquals(0, result.size());
+	}
+
+	@Override
+	public void positionChanged(CollisionBoxHandle moved) {
+		positionNotificationReceived++;
+	}
+
+	@Override
+	public void sizeChanged(CollisionBoxHandle changed) {
+		sizeNotificationReceived++;
+	}
+}
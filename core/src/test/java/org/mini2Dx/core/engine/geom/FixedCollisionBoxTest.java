@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.engine.geom;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.geom.Fixed;
+import org.mini2Dx.core.geom.FixedRectangle;
+import org.mini2Dx.core.geom.Rectangle;
+
+/**
+ * Unit tests for {@link FixedCollisionBox}
+ */
+public class FixedCollisionBoxTest implements PositionChangeListener<FixedCollisionBox>, SizeChangeListener<FixedCollisionBox> {
+	private FixedCollisionBox box;
+	private int positionNotificationReceived, sizeNotificationReceived;
+
+	@Before
+	public void setup() {
+		positionNotificationReceived = 0;
+		sizeNotificationReceived = 0;
+		box = new FixedCollisionBox(Fixed.fromInt(10), Fixed.fromInt(20), Fixed.fromInt(5), Fixed.fromInt(5));
+		box.addPostionChangeListener(this);
+		box.addSizeChangeListener(this);
+	}
+
+	@Test
+	public void testFloatView() {
+		Assert.assertEquals(10f, box.getX());
+		Assert.assertEquals(20f, box.getY());
+		Assert.assertEquals(5f, box.getWidth());
+		Assert.assertEquals(25f, box.getMaxY());
+
+		box.set(Fixed.fromFloat(1.5f), Fixed.fromFloat(2.5f));
+		Assert.assertEquals(1.5f, box.getX());
+		Assert.assertEquals(2.5f, box.getShape().getY());
+		Assert.assertEquals(true, box.intersects(new Rectangle(0f, 0f, 2f, 3f)));
+		Assert.assertEquals(false, box.intersects(new Rectangle(7f, 0f, 2f, 3f)));
+
+		box.setX(4.25f);
+		Assert.assertEquals(Fixed.fromFloat(4.25f), box.getFixedX());
+	}
+
+	@Test
+	public void testNotifications() {
+		box.setFixedX(Fixed.fromInt(11));
+		Assert.assertEquals(1, positionNotificationReceived);
+		box.setFixedX(Fixed.fromInt(11));
+		Assert.assertEquals(1, positionNotificationReceived);
+		box.translate(Fixed.ONE, Fixed.ONE);
+		Assert.assertEquals(2, positionNotificationReceived);
+		Assert.assertEquals(0, sizeNotificationReceived);
+
+		box.setFixedWidth(Fixed.fromInt(6));
+		Assert.assertEquals(2, positionNotificationReceived);
+		Assert.assertEquals(1, sizeNotificationReceived);
+
+		box.lerp(new FixedRectangle(0, 0, Fixed.fromInt(6), Fixed.fromInt(5)), Fixed.ONE);
+		Assert.assertEquals(3, positionNotificationReceived);
+		Assert.assertEquals(1, sizeNotificationReceived);
+		Assert.assertEquals(0f, box.getX());
+
+		box.forceToFixed(Fixed.fromInt(1), Fixed.fromInt(1), Fixed.fromInt(2), Fixed.fromInt(2));
+		Assert.assertEquals(4, positionNotificationReceived);
+		Assert.assertEquals(2, sizeNotificationReceived);
+	}
+
+	@Test
+	public void testInterpolate() {
+		box.preUpdate();
+		box.set(Fixed.fromInt(20), Fixed.fromInt(40));
+		box.interpolate(null, 0.5f);
+		Assert.assertEquals(15, box.getRenderX());
+		Assert.assertEquals(30, box.getRenderY());
+		Assert.assertEquals(Fixed.fromInt(10), box.getPreviousFixedX());
+		box.interpolate(null, 1f);
+		Assert.assertEquals(20, box.getRenderX());
+		Assert.assertEquals(40, box.getRenderY());
+	}
+
+	@Test
+	public void testForceTo() {
+		box.preUpdate();
+		box.forceTo(50f, 60f);
+		Assert.assertEquals(Fixed.fromInt(50), box.getFixedX());
+		Assert.assertEquals(Fixed.fromInt(60), box.getFixedY());
+		Assert.assertEquals(50, box.getRenderX());
+		Assert.assertEquals(60, box.getRenderY());
+		Assert.assertEquals(1, positionNotificationReceived);
+	}
+
+	@Override
+	public void positionChanged(FixedCollisionBox moved) {
+		positionNotificationReceived++;
+	}
+
+	@Override
+	public void sizeChanged(FixedCollisionBox changed) {
+		sizeNotificationReceived++;
+	}
+}
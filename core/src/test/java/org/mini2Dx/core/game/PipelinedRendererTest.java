@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.graphics.HeadlessGraphics;
+import org.mini2Dx.core.graphics.Sprite;
+
+import com.badlogic.gdx.graphics.Color;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link PipelinedRenderer}. Runs a game on a separate game
+ * thread and renders to {@link HeadlessGraphics} on the test thread.
+ */
+public class PipelinedRendererTest {
+	private static final int TOTAL_FRAMES = 20;
+	private static final long UPDATE_MILLIS = 10;
+	private static final long RENDER_MILLIS = 10;
+
+	private SlowGraphics target;
+	private SlowGame game;
+
+	@Before
+	public void setUp() {
+		target = new SlowGraphics();
+		game = new SlowGame();
+		game.start(target);
+	}
+
+	@Test
+	public void testFramesAreRenderedInOrder() throws Exception {
+		PipelinedRenderer renderer = new PipelinedRenderer(game, PipelinedRenderer.DOUBLE_BUFFERED);
+		Thread gameThread = startGameThread(renderer, TOTAL_FRAMES);
+		while (renderer.getTotalFramesRendered() < TOTAL_FRAMES) {
+			Assert.assertTrue(renderer.renderFrame(1000));
+		}
+		gameThread.join();
+
+		Assert.assertEquals(TOTAL_FRAMES, renderer.getTotalFramesRecorded());
+		Assert.assertEquals(TOTAL_FRAMES, target.renderedFrames.size());
+		for (int i = 0; i < TOTAL_FRAMES; i++) {
+			Assert.assertEquals((float) i, target.renderedFrames.get(i));
+		}
+		Assert.assertEquals(TOTAL_FRAMES, target.preRenders);
+		Assert.assertEquals(TOTAL_FRAMES, target.postRenders);
+	}
+
+	@Test
+	public void testRecordingBlocksWhenAllFramesAreQueued() throws Exception {
+		PipelinedRenderer renderer = new PipelinedRenderer(game, PipelinedRenderer.DOUBLE_BUFFERED);
+		Thread gameThread = startGameThread(renderer, 3);
+		Thread.sleep(200);
+		Assert.assertEquals(2, renderer.getTotalFramesRecorded());
+		Assert.assertEquals(0, target.renderedFrames.size());
+
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue(renderer.renderFrame(1000));
+		}
+		gameThread.join();
+		Assert.assertEquals(3, renderer.getTotalFramesRecorded());
+		Assert.assertFalse(renderer.renderFrame(1));
+	}
+
+	@Test
+	public void testStateCarriesOverBetweenFrames() throws Exception {
+		game.colorOnFirstFrame = Color.RED;
+		PipelinedRenderer renderer = new PipelinedRenderer(game, PipelinedRenderer.TRIPLE_BUFFERED);
+		Thread gameThread = startGameThread(renderer, 3);
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue(renderer.renderFrame(1000));
+		}
+		gameThread.join();
+
+		Assert.assertEquals(Color.WHITE, target.renderedColors.get(0));
+		Assert.assertEquals(Color.RED, target.renderedColors.get(1));
+		Assert.assertEquals(Color.RED, target.renderedColors.get(2));
+	}
+
+	@Test
+	public void testObjectsModifiedAfterRecordingAreNotRendered() throws Exception {
+		game.sprite = new Sprite();
+		game.sprite.setPosition(1f, 0f);
+		game.color = new Color(Color.RED);
+		PipelinedRenderer renderer = new PipelinedRenderer(game, PipelinedRenderer.DOUBLE_BUFFERED);
+		renderer.recordFrame();
+		game.sprite.setPosition(2f, 0f);
+		game.color.set(Color.BLUE);
+		Assert.assertTrue(renderer.renderFrame(1000));
+
+		Assert.assertEquals(1, target.renderedSprites.size());
+		Assert.assertEquals(1f, target.renderedSprites.get(0));
+		Assert.assertEquals(Color.RED, target.renderedColors.get(0));
+	}
+
+	@Test
+	public void testUpdatesOverlapRendering() throws Exception {
+		PipelinedRenderer renderer = new PipelinedRenderer(game, PipelinedRenderer.DOUBLE_BUFFERED);
+		long startTime = System.nanoTime();
+		Thread gameThread = startGameThread(renderer, TOTAL_FRAMES);
+		while (renderer.getTotalFramesRendered() < TOTAL_FRAMES) {
+			renderer.renderFrame(1000);
+		}
+		gameThread.join();
+		long elapsedNanos = System.nanoTime() - startTime;
+
+		long gameThreadNanos = game.updateNanos + renderer.getRecordingNanos();
+		long renderThreadNanos = renderer.getRenderingNanos();
+		long overlapNanos = gameThreadNanos + renderThreadNanos - elapsedNanos;
+		Assert.assertTrue(renderThreadNanos >= TOTAL_FRAMES * RENDER_MILLIS * 1000000L);
+		/* Serially this would take the sum of both threads */
+		Assert.assertTrue("Overlap was " + (overlapNanos / 1000000L) + "ms",
+				overlapNanos > Math.min(gameThreadNanos, renderThreadNanos) / 2);
+	}
+
+	private Thread startGameThread(final PipelinedRenderer renderer, final int totalFrames) {
+		Thread result = new Thread("Game Thread") {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < totalFrames; i++) {
+						game.update(0.01f);
+						game.interpolate(1f);
+						renderer.recordFrame();
+					}
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		result.start();
+		return result;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class SlowGame extends GameContainer {
+		private Color colorOnFirstFrame;
+		private Sprite sprite;
+		private Color color;
+		private int frame;
+		private long updateNanos;
+
+		@Override
+		public void initialise() {
+		}
+
+		@Override
+		public void update(float delta) {
+			long startTime = System.nanoTime();
+			sleep(UPDATE_MILLIS);
+			updateNanos += System.nanoTime() - startTime;
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void render(Graphics g) {
+			if (sprite != null) {
+				g.setColor(color);
+				g.drawSprite(sprite);
+			}
+			if (frame == 0 && colorOnFirstFrame != null) {
+				g.drawRect(frame, 0f, 1f, 1f);
+				g.setColor(colorOnFirstFrame);
+			} else {
+				g.drawRect(frame, 0f, 1f, 1f);
+			}
+			frame++;
+		}
+
+		@Override
+		public void onPause() {
+		}
+
+		@Override
+		public void onResume() {
+		}
+	}
+
+	private static class SlowGraphics extends HeadlessGraphics {
+		private final List<Float> renderedFrames = new ArrayList<Float>();
+		private final List<Color> renderedColors = new ArrayList<Color>();
+		private final List<Float> renderedSprites = new ArrayList<Float>();
+		private int preRenders, postRenders;
+
+		@Override
+		public void preRender(int gameWidth, int gameHeight) {
+			super.preRender(gameWidth, gameHeight);
+			preRenders++;
+		}
+
+		@Override
+		public void postRender() {
+			super.postRender();
+			postRenders++;
+		}
+
+		@Override
+		public void drawRect(float x, float y, float width, float height) {
+			sleep(RENDER_MILLIS);
+			renderedFrames.add(x);
+			renderedColors.add(new Color(getColor()));
+		}
+
+		@Override
+		public void drawSprite(Sprite sprite) {
+			renderedSprites.add(sprite.getX());
+		}
+	}
+}
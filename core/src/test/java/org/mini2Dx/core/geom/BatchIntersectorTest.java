@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BatchIntersector}
+ */
+public class BatchIntersectorTest {
+	private static final int TOTAL_SHAPES = 150;
+
+	private final float[] xs = new float[TOTAL_SHAPES];
+	private final float[] ys = new float[TOTAL_SHAPES];
+	private final float[] widths = new float[TOTAL_SHAPES];
+	private final float[] heights = new float[TOTAL_SHAPES];
+	private final long[] result = new long[BatchIntersector.getBitsetLength(TOTAL_SHAPES) + 1];
+
+	@Before
+	public void setUp() {
+		Random random = new Random(8128);
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			xs[i] = random.nextInt(200);
+			ys[i] = random.nextInt(200);
+			widths[i] = 1 + random.nextInt(40);
+			heights[i] = 1 + random.nextInt(40);
+		}
+		result[result.length - 1] = -1L;
+	}
+
+	@Test
+	public void testGetBitsetLength() {
+		Assert.assertEquals(0, BatchIntersector.getBitsetLength(0));
+		Assert.assertEquals(1, BatchIntersector.getBitsetLength(1));
+		Assert.assertEquals(1, BatchIntersector.getBitsetLength(64));
+		Assert.assertEquals(2, BatchIntersector.getBitsetLength(65));
+	}
+
+	@Test
+	public void testIntersectRectangles() {
+		Rectangle rectangle = new Rectangle(50f, 60f, 70f, 30f);
+		BatchIntersector.intersectRectangles(50f, 60f, 70f, 30f, xs, ys, widths, heights, TOTAL_SHAPES, result);
+
+		int expectedTotal = 0;
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			boolean expected = rectangle.intersects(new Rectangle(xs[i], ys[i], widths[i], heights[i]));
+			Assert.assertEquals(expected, BatchIntersector.isSet(result, i));
+			expectedTotal += expected ? 1 : 0;
+		}
+		Assert.assertEquals(expectedTotal, BatchIntersector.getTotalSet(result, TOTAL_SHAPES));
+		Assert.assertEquals(0L, result[result.length - 1]);
+	}
+
+	@Test
+	public void testRectanglesContain() {
+		BatchIntersector.rectanglesContain(xs, ys, widths, heights, TOTAL_SHAPES, 100f, 100f, result);
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			Rectangle rectangle = new Rectangle(xs[i], ys[i], widths[i], heights[i]);
+			Assert.assertEquals(rectangle.contains(100f, 100f), BatchIntersector.isSet(result, i));
+		}
+	}
+
+	@Test
+	public void testIntersectCircles() {
+		Circle circle = new Circle(100f, 100f, 25f);
+		BatchIntersector.intersectCircles(100f, 100f, 25f, xs, ys, widths, TOTAL_SHAPES, result);
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			Assert.assertEquals(circle.intersects(new Circle(xs[i], ys[i], widths[i])),
+					BatchIntersector.isSet(result, i));
+		}
+	}
+
+	@Test
+	public void testCirclesContain() {
+		BatchIntersector.circlesContain(xs, ys, widths, TOTAL_SHAPES, 100f, 100f, result);
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			Assert.assertEquals(new Circle(xs[i], ys[i], widths[i]).contains(100f, 100f),
+					BatchIntersector.isSet(result, i));
+		}
+	}
+
+	@Test
+	public void testCirclesIntersectRectangle() {
+		Rectangle rectangle = new Rectangle(50f, 60f, 70f, 30f);
+		BatchIntersector.circlesIntersectRectangle(xs, ys, widths, TOTAL_SHAPES, 50f, 60f, 70f, 30f, result);
+		for (int i = 0; i < TOTAL_SHAPES; i++) {
+			Assert.assertEquals(new Circle(xs[i], ys[i], widths[i]).intersects(rectangle),
+					BatchIntersector.isSet(result, i));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testResultTooShort() {
+		BatchIntersector.circlesContain(xs, ys, widths, TOTAL_SHAPES, 100f, 100f, new long[1]);
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link FixedCircle} and {@link FixedLineSegment}
+ */
+public class FixedCircleTest {
+
+	@Test
+	public void testContains() {
+		FixedCircle circle = circle(0, 0, 5);
+		for (int x = -6; x <= 6; x++) {
+			for (int y = -6; y <= 6; y++) {
+				Assert.assertEquals((x * x) + (y * y) <= 25, circle.contains(Fixed.fromInt(x), Fixed.fromInt(y)));
+			}
+		}
+		Assert.assertEquals(true, circle.contains(circle(1, 1, 2)));
+		Assert.assertEquals(false, circle.contains(circle(4, 0, 2)));
+		Assert.assertEquals(true, circle.contains(new FixedRectangle(-Fixed.fromInt(3), -Fixed.fromInt(3),
+				Fixed.fromInt(6), Fixed.fromInt(6))));
+	}
+
+	@Test
+	public void testIntersectsCircle() {
+		FixedCircle circle = circle(0, 0, 4);
+		Assert.assertEquals(false, circle.intersects(circle(20, 20, 4)));
+		Assert.assertEquals(true, circle.intersects(circle(5, 0, 4)));
+		Assert.assertEquals(true, circle.intersects(circle(8, 0, 4)));
+		Assert.assertEquals(false, circle.intersects(new FixedCircle(Fixed.fromInt(8) + 1, 0, Fixed.fromInt(4))));
+		// Far apart circles must not overflow
+		Assert.assertEquals(false, circle.intersects(circle(-30000, 30000, 4)));
+	}
+
+	@Test
+	public void testIntersectsLineSegment() {
+		FixedCircle circle = circle(0, 0, 5);
+		Assert.assertEquals(true, circle.intersects(segment(-10, 0, 10, 0)));
+		Assert.assertEquals(true, circle.intersects(segment(-10, 5, 10, 5)));
+		Assert.assertEquals(false, circle.intersects(segment(-10, 6, 10, 6)));
+		Assert.assertEquals(true, circle.intersects(segment(3, 3, 10, 10)));
+		Assert.assertEquals(false, circle.intersects(segment(4, 4, 10, 10)));
+		Assert.assertEquals(true, circle.intersects(segment(-3000, -2995, 3000, 3005)));
+		Assert.assertEquals(false, circle.intersects(segment(-3000, -2990, 3000, 3010)));
+	}
+
+	@Test
+	public void testLineSegmentIntersectsLineSegment() {
+		FixedLineSegment segment = segment(0, 0, 10, 10);
+		Assert.assertEquals(true, segment.intersects(segment(0, 10, 10, 0)));
+		Assert.assertEquals(true, segment.intersects(segment(10, 10, 20, 0)));
+		Assert.assertEquals(false, segment.intersects(segment(0, 1, 10, 11)));
+		Assert.assertEquals(true, segment.intersects(segment(5, 5, 15, 15)));
+		Assert.assertEquals(false, segment.intersects(segment(11, 11, 15, 15)));
+		Assert.assertEquals(true, segment.contains(Fixed.fromInt(3), Fixed.fromInt(3)));
+		Assert.assertEquals(false, segment.contains(Fixed.fromInt(3), Fixed.fromInt(3) + 1));
+		Assert.assertEquals(Fixed.distance(0, 0, Fixed.fromInt(10), Fixed.fromInt(10)), segment.getLength());
+	}
+
+	@Test
+	public void testLerp() {
+		FixedCircle circle = circle(0, 0, 2);
+		circle.lerp(circle(10, -10, 4), Fixed.HALF);
+		Assert.assertEquals(Fixed.fromInt(5), circle.getFixedX());
+		Assert.assertEquals(Fixed.fromInt(-5), circle.getFixedY());
+		Assert.assertEquals(Fixed.fromInt(3), circle.getFixedRadius());
+	}
+
+	private static FixedCircle circle(int x, int y, int radius) {
+		return new FixedCircle(Fixed.fromInt(x), Fixed.fromInt(y), Fixed.fromInt(radius));
+	}
+
+	private static FixedLineSegment segment(int x1, int y1, int x2, int y2) {
+		return new FixedLineSegment(Fixed.fromInt(x1), Fixed.fromInt(y1), Fixed.fromInt(x2), Fixed.fromInt(y2));
+	}
+}
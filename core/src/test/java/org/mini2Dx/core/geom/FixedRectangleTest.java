@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link FixedRectangle}
+ */
+public class FixedRectangleTest {
+
+	@Test
+	public void testContains() {
+		FixedRectangle rectangle = rectangle(0, 0, 10, 10);
+		Assert.assertEquals(true, rectangle.contains(0, 0));
+		Assert.assertEquals(true, rectangle.contains(Fixed.fromInt(10), Fixed.fromInt(10)));
+		Assert.assertEquals(false, rectangle.contains(Fixed.fromInt(10) + 1, Fixed.fromInt(5)));
+		Assert.assertEquals(true, rectangle.contains(rectangle(2, 2, 8, 8)));
+		Assert.assertEquals(false, rectangle.contains(rectangle(2, 2, 9, 8)));
+		Assert.assertEquals(true, rectangle.contains(new FixedCircle(Fixed.fromInt(5), Fixed.fromInt(5), Fixed.fromInt(5))));
+		Assert.assertEquals(false, rectangle.contains(new FixedCircle(Fixed.fromInt(5), Fixed.fromInt(5), Fixed.fromInt(5) + 1)));
+	}
+
+	@Test
+	public void testIntersectsRectangle() {
+		FixedRectangle rectangle = rectangle(0, 0, 10, 10);
+		Assert.assertEquals(true, rectangle.intersects(rectangle(5, 5, 10, 10)));
+		Assert.assertEquals(true, rectangle.intersects(rectangle(10, 10, 10, 10)));
+		Assert.assertEquals(false, rectangle.intersects(rectangle(11, 0, 10, 10)));
+		Assert.assertEquals(false, rectangle.intersects(new FixedRectangle(Fixed.fromInt(10) + 1, 0, Fixed.ONE, Fixed.ONE)));
+	}
+
+	@Test
+	public void testIntersectsCircle() {
+		FixedRectangle rectangle = rectangle(0, 0, 10, 10);
+		Assert.assertEquals(true, rectangle.intersects(new FixedCircle(Fixed.fromInt(5), Fixed.fromInt(5), Fixed.ONE)));
+		Assert.assertEquals(true, rectangle.intersects(new FixedCircle(Fixed.fromInt(12), Fixed.fromInt(5), Fixed.fromInt(2))));
+		Assert.assertEquals(false, rectangle.intersects(new FixedCircle(Fixed.fromInt(12), Fixed.fromInt(12), Fixed.fromInt(2))));
+		Assert.assertEquals(true, rectangle.intersects(new FixedCircle(Fixed.fromInt(13), Fixed.fromInt(14), Fixed.fromInt(5))));
+	}
+
+	@Test
+	public void testIntersectsLineSegment() {
+		FixedRectangle rectangle = rectangle(0, 0, 10, 10);
+		Assert.assertEquals(true, rectangle.intersects(segment(-5, 5, 15, 5)));
+		Assert.assertEquals(true, rectangle.intersects(segment(2, 2, 3, 3)));
+		Assert.assertEquals(true, rectangle.intersects(segment(-5, 15, 15, -5)));
+		Assert.assertEquals(true, rectangle.intersects(segment(-5, 10, 15, 10)));
+		Assert.assertEquals(false, rectangle.intersects(segment(-5, 11, 15, 11)));
+		Assert.assertEquals(false, rectangle.intersects(segment(11, -5, 20, 5)));
+	}
+
+	@Test
+	public void testGetDistanceSquaredTo() {
+		FixedRectangle rectangle = rectangle(0, 0, 10, 10);
+		Assert.assertEquals(0L, rectangle.getDistanceSquaredTo(Fixed.fromInt(5), Fixed.fromInt(5)));
+		Assert.assertEquals((long) Fixed.fromInt(5) * Fixed.fromInt(5),
+				rectangle.getDistanceSquaredTo(Fixed.fromInt(13), Fixed.fromInt(14)));
+	}
+
+	@Test
+	public void testLerp() {
+		FixedRectangle rectangle = rectangle(0, 0, 10, 10);
+		rectangle.lerp(rectangle(10, 20, 20, 10), Fixed.HALF);
+		Assert.assertEquals(Fixed.fromInt(5), rectangle.getFixedX());
+		Assert.assertEquals(Fixed.fromInt(10), rectangle.getFixedY());
+		Assert.assertEquals(Fixed.fromInt(15), rectangle.getFixedWidth());
+		Assert.assertEquals(Fixed.fromInt(10), rectangle.getFixedHeight());
+	}
+
+	@Test
+	public void testToRectangle() {
+		FixedRectangle rectangle = new FixedRectangle(Fixed.fromFloat(1.5f), Fixed.fromFloat(-2.25f),
+				Fixed.fromInt(10), Fixed.fromFloat(0.5f));
+		Rectangle result = rectangle.toRectangle(new Rectangle());
+		Assert.assertEquals(1.5f, result.getX());
+		Assert.assertEquals(-2.25f, result.getY());
+		Assert.assertEquals(10f, result.getWidth());
+		Assert.assertEquals(0.5f, result.getHeight());
+	}
+
+	private static FixedRectangle rectangle(int x, int y, int width, int height) {
+		return new FixedRectangle(Fixed.fromInt(x), Fixed.fromInt(y), Fixed.fromInt(width), Fixed.fromInt(height));
+	}
+
+	private static FixedLineSegment segment(int x1, int y1, int x2, int y2) {
+		return new FixedLineSegment(Fixed.fromInt(x1), Fixed.fromInt(y1), Fixed.fromInt(x2), Fixed.fromInt(y2));
+	}
+}
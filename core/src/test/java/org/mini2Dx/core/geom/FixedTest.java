@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Fixed}
+ */
+public class FixedTest {
+
+	@Test
+	public void testConversions() {
+		Assert.assertEquals(65536, Fixed.fromInt(1));
+		Assert.assertEquals(-196608, Fixed.fromInt(-3));
+		Assert.assertEquals(98304, Fixed.fromFloat(1.5f));
+		Assert.assertEquals(-32768, Fixed.fromFloat(-0.5f));
+		Assert.assertEquals(1.5f, Fixed.toFloat(Fixed.fromFloat(1.5f)));
+		Assert.assertEquals(-12.25f, Fixed.toFloat(Fixed.fromFloat(-12.25f)));
+	}
+
+	@Test
+	public void testFloorCeilRound() {
+		Assert.assertEquals(1, Fixed.floor(Fixed.fromFloat(1.5f)));
+		Assert.assertEquals(-2, Fixed.floor(Fixed.fromFloat(-1.5f)));
+		Assert.assertEquals(2, Fixed.ceil(Fixed.fromFloat(1.25f)));
+		Assert.assertEquals(-1, Fixed.ceil(Fixed.fromFloat(-1.25f)));
+		Assert.assertEquals(3, Fixed.ceil(Fixed.fromInt(3)));
+		Assert.assertEquals(2, Fixed.round(Fixed.fromFloat(1.5f)));
+		Assert.assertEquals(1, Fixed.round(Fixed.fromFloat(1.25f)));
+		Assert.assertEquals(-1, Fixed.round(Fixed.fromFloat(-1.5f)));
+	}
+
+	@Test
+	public void testMul() {
+		Assert.assertEquals(Fixed.fromInt(6), Fixed.mul(Fixed.fromInt(2), Fixed.fromInt(3)));
+		Assert.assertEquals(Fixed.fromFloat(-0.75f), Fixed.mul(Fixed.fromFloat(1.5f), Fixed.fromFloat(-0.5f)));
+		Assert.assertEquals(Fixed.fromInt(10000), Fixed.mul(Fixed.fromInt(100), Fixed.fromInt(100)));
+		// Rounds towards negative infinity
+		Assert.assertEquals(0, Fixed.mul(1, 1));
+		Assert.assertEquals(-1, Fixed.mul(-1, 1));
+	}
+
+	@Test
+	public void testDiv() {
+		Assert.assertEquals(Fixed.fromFloat(1.5f), Fixed.div(Fixed.fromInt(3), Fixed.fromInt(2)));
+		Assert.assertEquals(Fixed.fromFloat(-2.5f), Fixed.div(Fixed.fromInt(5), Fixed.fromInt(-2)));
+		Assert.assertEquals(21845, Fixed.div(Fixed.ONE, Fixed.fromInt(3)));
+	}
+
+	@Test(expected=ArithmeticException.class)
+	public void testDivByZero() {
+		Fixed.div(Fixed.ONE, 0);
+	}
+
+	@Test
+	public void testSqrt() {
+		Assert.assertEquals(Fixed.fromInt(3), Fixed.sqrt(Fixed.fromInt(9)));
+		Assert.assertEquals(Fixed.fromFloat(0.5f), Fixed.sqrt(Fixed.fromFloat(0.25f)));
+		Assert.assertEquals(92681, Fixed.sqrt(Fixed.fromInt(2)));
+		Assert.assertEquals(0, Fixed.sqrt(0));
+	}
+
+	@Test
+	public void testIsqrt() {
+		Assert.assertEquals(3L, Fixed.isqrt(9L));
+		Assert.assertEquals(0L, Fixed.isqrt(0L));
+		Assert.assertEquals(3037000499L, Fixed.isqrt(Long.MAX_VALUE));
+
+		for (long i = 0; i < 5000; i++) {
+			long value = i * i * 7919L;
+			long root = Fixed.isqrt(value);
+			Assert.assertTrue(root * root <= value);
+			Assert.assertTrue((root + 1) * (root + 1) > value);
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testSqrtNegative() {
+		Fixed.sqrt(-1);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testIsqrtNegative() {
+		Fixed.isqrt(-1L);
+	}
+
+	@Test
+	public void testDistance() {
+		Assert.assertEquals(Fixed.fromInt(5), Fixed.distance(0, 0, Fixed.fromInt(3), Fixed.fromInt(4)));
+		Assert.assertEquals(Fixed.fromInt(5), Fixed.distance(Fixed.fromInt(-1), Fixed.fromInt(-1),
+				Fixed.fromInt(-4), Fixed.fromInt(-5)));
+		Assert.assertEquals((long) Fixed.fromInt(5) * Fixed.fromInt(5),
+				Fixed.distanceSquared(0, 0, Fixed.fromInt(3), Fixed.fromInt(4)));
+	}
+
+	@Test
+	public void testLerp() {
+		Assert.assertEquals(Fixed.fromInt(5), Fixed.lerp(0, Fixed.fromInt(10), Fixed.HALF));
+		Assert.assertEquals(Fixed.fromInt(10), Fixed.lerp(0, Fixed.fromInt(10), Fixed.ONE));
+		Assert.assertEquals(Fixed.fromInt(-10), Fixed.lerp(Fixed.fromInt(-10), Fixed.fromInt(10), 0));
+		Assert.assertEquals(Fixed.fromInt(-5), Fixed.lerp(Fixed.fromInt(-10), Fixed.fromInt(10), Fixed.ONE / 4));
+	}
+}
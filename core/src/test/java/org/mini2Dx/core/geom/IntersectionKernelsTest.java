@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Implements unit tests for {@link IntersectionKernels}
+ */
+public class IntersectionKernelsTest {
+	private static final float [] SQUARE = new float[] { 0f, 0f, 32f, 0f, 32f, 32f, 0f, 32f };
+	private static final float [] TRIANGLE = new float[] { 40f, 0f, 72f, 0f, 56f, 32f };
+
+	@Test
+	public void testIntersectAabbs() {
+		Assert.assertEquals(true, IntersectionKernels.intersectAabbs(0f, 0f, 32f, 32f, 16f, 16f, 48f, 48f));
+		Assert.assertEquals(true, IntersectionKernels.intersectAabbs(0f, 0f, 32f, 32f, 32f, 32f, 48f, 48f));
+		Assert.assertEquals(false, IntersectionKernels.intersectAabbs(0f, 0f, 32f, 32f, 33f, 0f, 48f, 48f));
+	}
+	
+	@Test
+	public void testIntersectCircles() {
+		Assert.assertEquals(true, IntersectionKernels.intersectCircles(0f, 0f, 10f, 15f, 0f, 5f));
+		Assert.assertEquals(false, IntersectionKernels.intersectCircles(0f, 0f, 10f, 16f, 0f, 5f));
+	}
+	
+	@Test
+	public void testIntersectAabbCircle() {
+		Assert.assertEquals(true, IntersectionKernels.intersectAabbCircle(0f, 0f, 32f, 32f, 16f, 16f, 4f));
+		Assert.assertEquals(true, IntersectionKernels.intersectAabbCircle(0f, 0f, 32f, 32f, 36f, 16f, 5f));
+		Assert.assertEquals(false, IntersectionKernels.intersectAabbCircle(0f, 0f, 32f, 32f, 40f, 40f, 5f));
+	}
+	
+	@Test
+	public void testPolygonContains() {
+		Assert.assertEquals(true, IntersectionKernels.polygonContains(SQUARE, 16f, 16f));
+		Assert.assertEquals(false, IntersectionKernels.polygonContains(SQUARE, 48f, 16f));
+		Assert.assertEquals(true, IntersectionKernels.polygonContains(TRIANGLE, 56f, 8f));
+		Assert.assertEquals(false, IntersectionKernels.polygonContains(TRIANGLE, 42f, 30f));
+	}
+	
+	@Test
+	public void testIntersectPolygons() {
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygons(SQUARE, TRIANGLE));
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygons(SQUARE, new float[] { 24f, 8f, 48f, 8f, 36f, 24f }));
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygons(SQUARE, new float[] { 8f, 8f, 24f, 8f, 16f, 24f }));
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygons(new float[] { 8f, 8f, 24f, 8f, 16f, 24f }, SQUARE));
+	}
+	
+	@Test
+	public void testIntersectPolygonAabb() {
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygonAabb(TRIANGLE, 50f, 4f, 60f, 10f));
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygonAabb(TRIANGLE, 30f, -10f, 100f, 100f));
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygonAabb(TRIANGLE, 0f, 0f, 32f, 32f));
+	}
+	
+	@Test
+	public void testIntersectPolygonCircle() {
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygonCircle(TRIANGLE, 56f, 8f, 1f));
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygonCircle(TRIANGLE, 56f, -4f, 5f));
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygonCircle(TRIANGLE, 56f, -10f, 5f));
+	}
+	
+	@Test
+	public void testIntersectConvexPolygons() {
+		Assert.assertEquals(false, IntersectionKernels.intersectConvexPolygons(SQUARE, TRIANGLE));
+		Assert.assertEquals(true, IntersectionKernels.intersectConvexPolygons(SQUARE, new float[] { 24f, 8f, 48f, 8f, 36f, 24f }));
+		Assert.assertEquals(true, IntersectionKernels.intersectConvexPolygons(SQUARE, new float[] { 8f, 8f, 24f, 8f, 16f, 24f }));
+		Assert.assertEquals(true, IntersectionKernels.intersectConvexPolygons(SQUARE, new float[] { 32f, 0f, 48f, 0f, 40f, 16f }));
+		//Separated only along the triangle's diagonal edge
+		Assert.assertEquals(false, IntersectionKernels.intersectConvexPolygons(new float[] { 0f, 0f, 32f, 0f, 0f, 32f },
+				new float[] { 20f, 20f, 40f, 20f, 40f, 40f, 20f, 40f }));
+	}
+	
+	@Test
+	public void testIntersectPolygonEdges() {
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygonEdges(SQUARE, TRIANGLE));
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygonEdges(SQUARE, new float[] { 24f, 8f, 48f, 8f, 36f, 24f }));
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygonEdges(SQUARE, new float[] { 8f, 8f, 24f, 8f, 16f, 24f }));
+	}
+	
+	@Test
+	public void testIntersectPolygonEdgesCircle() {
+		Assert.assertEquals(true, IntersectionKernels.intersectPolygonEdgesCircle(SQUARE, 36f, 16f, 5f));
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygonEdgesCircle(SQUARE, 16f, 16f, 4f));
+		Assert.assertEquals(false, IntersectionKernels.intersectPolygonEdgesCircle(SQUARE, 48f, 16f, 4f));
+	}
+	
+	@Test
+	public void testIntersectSegmentPolygon() {
+		Assert.assertEquals(true, IntersectionKernels.intersectSegmentPolygon(-8f, 16f, 16f, 16f, SQUARE));
+		Assert.assertEquals(true, IntersectionKernels.intersectSegmentPolygon(-8f, 16f, 48f, 16f, SQUARE));
+		Assert.assertEquals(false, IntersectionKernels.intersectSegmentPolygon(8f, 16f, 24f, 16f, SQUARE));
+		Assert.assertEquals(false, IntersectionKernels.intersectSegmentPolygon(-8f, -8f, 48f, -8f, SQUARE));
+	}
+	
+	@Test
+	public void testIntersectSegments() {
+		Assert.assertEquals(true, IntersectionKernels.intersectSegments(0f, 0f, 10f, 10f, 0f, 10f, 10f, 0f));
+		Assert.assertEquals(true, IntersectionKernels.intersectSegments(0f, 0f, 10f, 10f, 10f, 10f, 20f, 0f));
+		Assert.assertEquals(false, IntersectionKernels.intersectSegments(0f, 0f, 10f, 10f, 11f, 0f, 20f, 0f));
+		Assert.assertEquals(false, IntersectionKernels.intersectSegments(0f, 0f, 10f, 0f, 0f, 0f, 10f, 0f));
+	}
+	
+	@Test
+	public void testIntersectSegmentCircle() {
+		Assert.assertEquals(true, IntersectionKernels.intersectSegmentCircle(0f, 0f, 20f, 0f, 10f, 5f, 5f));
+		Assert.assertEquals(true, IntersectionKernels.intersectSegmentCircle(0f, 0f, 20f, 0f, 25f, 0f, 5f));
+		Assert.assertEquals(false, IntersectionKernels.intersectSegmentCircle(0f, 0f, 20f, 0f, 10f, 6f, 5f));
+	}
+	
+	@Test
+	public void testDistancePolygonEdgesPoint() {
+		Assert.assertEquals(8f, IntersectionKernels.distancePolygonEdgesPoint(SQUARE, 40f, 16f), 0.0001f);
+		Assert.assertEquals(4f, IntersectionKernels.distancePolygonEdgesPoint(SQUARE, 16f, 4f), 0.0001f);
+		Assert.assertEquals(5f, IntersectionKernels.distancePolygonEdgesPoint(SQUARE, 35f, 36f), 0.0001f);
+	}
+	
+	@Test
+	public void testRaycastAabb() {
+		Assert.assertEquals(0.5f, IntersectionKernels.raycastAabb(0f, 16f, 64f, 0f, 32f, 0f, 64f, 32f));
+		Assert.assertEquals(0f, IntersectionKernels.raycastAabb(40f, 16f, 64f, 0f, 32f, 0f, 64f, 32f));
+		Assert.assertEquals(-1f, IntersectionKernels.raycastAabb(0f, 16f, 16f, 0f, 32f, 0f, 64f, 32f));
+		Assert.assertEquals(-1f, IntersectionKernels.raycastAabb(0f, 48f, 64f, 0f, 32f, 0f, 64f, 32f));
+	}
+
+	@Test
+	public void testRaycastCircle() {
+		Assert.assertEquals(0.25f, IntersectionKernels.raycastCircle(0f, 0f, 40f, 0f, 20f, 0f, 10f), 0.0001f);
+		Assert.assertEquals(0f, IntersectionKernels.raycastCircle(20f, 0f, 40f, 0f, 20f, 0f, 10f));
+		Assert.assertEquals(-1f, IntersectionKernels.raycastCircle(0f, 0f, -40f, 0f, 20f, 0f, 10f));
+		Assert.assertEquals(-1f, IntersectionKernels.raycastCircle(0f, 20f, 40f, 0f, 20f, 0f, 10f));
+	}
+
+	@Test
+	public void testRaycastPolygon() {
+		Assert.assertEquals(0.5f, IntersectionKernels.raycastPolygon(16f, -32f, 0f, 64f, SQUARE));
+		Assert.assertEquals(0f, IntersectionKernels.raycastPolygon(16f, 16f, 0f, 64f, SQUARE));
+		Assert.assertEquals(0.375f, IntersectionKernels.raycastPolygon(24f, 16f, 64f, 0f, TRIANGLE));
+		Assert.assertEquals(-1f, IntersectionKernels.raycastPolygon(16f, -32f, 0f, 16f, SQUARE));
+	}
+
+	@Test
+	public void testSweepAabbs() {
+		//A 4x4 box moving 100 units passes completely through a 2 unit wall
+		Assert.assertEquals(0.16f, IntersectionKernels.sweepAabbs(0f, 0f, 4f, 4f, 100f, 0f, 20f, -50f, 22f, 50f),
+				0.0001f);
+		Assert.assertEquals(0f, IntersectionKernels.sweepAabbs(19f, 0f, 23f, 4f, 100f, 0f, 20f, -50f, 22f, 50f));
+		Assert.assertEquals(-1f, IntersectionKernels.sweepAabbs(0f, 0f, 4f, 4f, 10f, 0f, 20f, -50f, 22f, 50f));
+		Assert.assertEquals(-1f, IntersectionKernels.sweepAabbs(0f, 60f, 4f, 64f, 100f, 0f, 20f, -50f, 22f, 50f));
+	}
+
+	@Test
+	public void testSweepCircleAabb() {
+		//Face hit
+		Assert.assertEquals(0.15f, IntersectionKernels.sweepCircleAabb(0f, 0f, 5f, 100f, 0f, 20f, -50f, 22f, 50f),
+				0.0001f);
+		//Misses the rounded corner that the expanded bounds would hit
+		Assert.assertEquals(-1f, IntersectionKernels.sweepCircleAabb(10f, 49f, 5f, 10f, 10f, 20f, -50f, 22f, 50f));
+		//Hits the rounded corner
+		Assert.assertEquals(0.16f, IntersectionKernels.sweepCircleAabb(0f, 53f, 5f, 100f, 0f, 20f, -50f, 22f, 50f),
+				0.0001f);
+		Assert.assertEquals(0f, IntersectionKernels.sweepCircleAabb(24f, 0f, 5f, 100f, 0f, 20f, -50f, 22f, 50f));
+	}
+
+	@Test
+	public void testIntersectConvexPolygonsWithResult() {
+		CollisionResult result = new CollisionResult();
+		float [] triangle = new float[] { 24f, 8f, 48f, 8f, 36f, 24f };
+		float [] squareNormals = new float[SQUARE.length];
+		float [] triangleNormals = new float[triangle.length];
+		IntersectionKernels.computeEdgeNormals(SQUARE, squareNormals);
+		IntersectionKernels.computeEdgeNormals(triangle, triangleNormals);
+		
+		Assert.assertEquals(true, IntersectionKernels.intersectConvexPolygons(SQUARE, squareNormals, triangle, triangleNormals, result));
+		Assert.assertEquals(8f, result.getDepth(), 0.0001f);
+		Assert.assertEquals(-1f, result.getNormalX(), 0.0001f);
+		Assert.assertEquals(0f, result.getNormalY(), 0.0001f);
+		
+		IntersectionKernels.computeEdgeNormals(TRIANGLE, triangleNormals);
+		Assert.assertEquals(false, IntersectionKernels.intersectConvexPolygons(SQUARE, squareNormals, TRIANGLE, triangleNormals, result));
+		Assert.assertEquals(false, result.isColliding());
+	}
+}
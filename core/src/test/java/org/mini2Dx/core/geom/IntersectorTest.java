@@ -33,6 +33,28 @@ public class IntersectorTest {
 		Assert.assertEquals(false, Intersector.intersectLines(line1Start, line1End, line2Start, line2End, new Vector2()));
 	}
 	
+	@Test
+	public void testRaycast() {
+		Vector2 normal = new Vector2();
+		Assert.assertEquals(0.25f, Intersector.raycast(new Rectangle(25f, 0f, 10f, 10f), 0f, 5f, 100f, 0f, normal));
+		Assert.assertEquals(-1f, normal.x);
+		Assert.assertEquals(0f, normal.y);
+
+		Assert.assertEquals(0.25f, Intersector.raycast(new Circle(20f, 20f, 10f), 20f, -20f, 0f, 120f, normal),
+				0.0001f);
+		Assert.assertEquals(0f, normal.x, 0.0001f);
+		Assert.assertEquals(-1f, normal.y, 0.0001f);
+
+		Polygon polygon = new Polygon(new float[] { 40f, 0f, 72f, 0f, 56f, 32f });
+		Assert.assertEquals(0.5f, Intersector.raycast(polygon, 56f, -16f, 0f, 32f, normal));
+		Assert.assertEquals(0f, normal.x, 0.0001f);
+		Assert.assertEquals(-1f, normal.y, 0.0001f);
+
+		Assert.assertEquals(0f, Intersector.raycast(polygon, 56f, 8f, 0f, 32f, normal));
+		Assert.assertEquals(0f, normal.len());
+		Assert.assertEquals(-1f, Intersector.raycast(polygon, 0f, -16f, 0f, 32f, normal));
+	}
+
 	@Test
 	public void testIntersectLinesWithIntersectingLines() {
 		Vector2 line1Start = new Vector2(0, 0);
@@ -11,11 +11,14 @@
  */
 package org.mini2Dx.core.geom;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 import org.mini2Dx.core.util.EdgeIterator;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.ShortArray;
 
 import junit.framework.Assert;
 
@@ -717,6 +720,127 @@ public class PolygonTest {
 		iterator.end();
 	}
 	
+	@Test
+	public void testTranslateDoesNotSetDirtyFlag() {
+		Polygon polygon = new Polygon(new Point [] {
+				new Point(10f, 0f),
+				new Point(20f, 0f),
+				new Point(25f, 10f),
+				new Point(15f, 15f),
+				new Point(5f, 10f),
+		});
+		clearDirtyBit(polygon);
+		ShortArray triangles = polygon.getTriangles();
+		
+		polygon.translate(5f, 10f);
+		polygon.setX(100f);
+		polygon.setY(200f);
+		polygon.set(50f, 60f);
+		Assert.assertEquals(false, polygon.isDirty());
+		Assert.assertSame(triangles, polygon.getTriangles());
+		Assert.assertEquals(45f, polygon.getMinX());
+		Assert.assertEquals(60f, polygon.getMinY());
+		Assert.assertEquals(65f, polygon.getMaxX());
+		Assert.assertEquals(75f, polygon.getMaxY());
+		
+		polygon.rotate(90f);
+		Assert.assertEquals(true, polygon.isDirty());
+	}
+	
+	@Test
+	public void testConcurrentIntersects() throws Exception {
+		final Polygon polygon = new Polygon(new Point [] {
+				new Point(10f, 0f),
+				new Point(20f, 0f),
+				new Point(25f, 10f),
+				new Point(15f, 15f),
+				new Point(5f, 10f),
+		});
+		polygon.rotate(30f);
+		final Polygon [] others = new Polygon[64];
+		final boolean [] expected = new boolean[others.length];
+		for(int i = 0; i < others.length; i++) {
+			others[i] = new Polygon(new float[] { i * 0.5f, 0f, (i * 0.5f) + 4f, 2f, i * 0.5f, 8f });
+			expected[i] = polygon.intersects(others[i]) | polygon.intersectsLineSegment(0f, i * 0.25f, 40f, i * 0.25f);
+		}
+		
+		final AtomicInteger failures = new AtomicInteger();
+		Thread [] threads = new Thread[4];
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for(int iteration = 0; iteration < 1000; iteration++) {
+						for(int j = 0; j < others.length; j++) {
+							boolean result = polygon.intersects(others[j])
+									| polygon.intersectsLineSegment(0f, j * 0.25f, 40f, j * 0.25f);
+							if(result != expected[j]) {
+								failures.incrementAndGet();
+							}
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for(int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		Assert.assertEquals(0, failures.get());
+	}
+	
+	@Test
+	public void testIntersectsWithCollisionResult() {
+		CollisionResult result = new CollisionResult();
+		Polygon polygon1 = new Polygon(new float[] { 0f, 0f, 10f, 0f, 10f, 10f, 0f, 10f });
+		Polygon polygon2 = new Polygon(new float[] { 8f, 2f, 18f, 2f, 18f, 12f, 8f, 12f });
+		
+		Assert.assertEquals(true, polygon1.intersects(polygon2, result));
+		Assert.assertEquals(true, result.isColliding());
+		Assert.assertEquals(2f, result.getDepth(), 0.0001f);
+		Assert.assertEquals(-2f, result.getTranslationX(), 0.0001f);
+		Assert.assertEquals(0f, result.getTranslationY(), 0.0001f);
+		
+		Assert.assertEquals(true, polygon2.intersects(polygon1, result));
+		Assert.assertEquals(2f, result.getTranslationX(), 0.0001f);
+		
+		polygon2.translate(10f, 0f);
+		Assert.assertEquals(false, polygon1.intersects(polygon2, result));
+		Assert.assertEquals(false, result.isColliding());
+		Assert.assertEquals(0f, result.getDepth());
+	}
+	
+	@Test
+	public void testIntersectsWithCollisionResultContained() {
+		CollisionResult result = new CollisionResult();
+		Polygon polygon1 = new Polygon(new float[] { 0f, 0f, 20f, 0f, 20f, 20f, 0f, 20f });
+		Polygon polygon2 = new Polygon(new float[] { 4f, 6f, 8f, 6f, 6f, 9f });
+		
+		Assert.assertEquals(false, polygon1.intersects(polygon2));
+		Assert.assertEquals(true, polygon1.intersects(polygon2, result));
+		Assert.assertEquals(true, polygon2.intersects(polygon1, result));
+		Assert.assertEquals(8f, result.getDepth(), 0.0001f);
+		Assert.assertEquals(-8f, result.getTranslationX(), 0.0001f);
+	}
+	
+	@Test
+	public void testEdgeNormalsOnlyRecomputedOnRotation() {
+		Polygon polygon = new Polygon(new float[] { 0f, 0f, 10f, 0f, 10f, 10f, 0f, 10f });
+		float [] normals = polygon.getEdgeNormals();
+		Assert.assertEquals(0f, normals[0], 0.0001f);
+		Assert.assertEquals(-1f, normals[1], 0.0001f);
+		
+		normals[0] = 100f;
+		polygon.translate(5f, 5f);
+		polygon.set(20f, 20f);
+		Assert.assertSame(normals, polygon.getEdgeNormals());
+		Assert.assertEquals(100f, polygon.getEdgeNormals()[0]);
+		
+		polygon.rotate(90f);
+		Assert.assertEquals(1f, polygon.getEdgeNormals()[0], 0.0001f);
+		Assert.assertEquals(0f, polygon.getEdgeNormals()[1], 0.0001f);
+	}
+	
 	private void clearDirtyBit(Polygon polygon) {
 		polygon.getMaxX();
 		polygon.getTriangles();
@@ -330,4 +330,73 @@ public class RectangleTest {
 		Assert.assertEquals(75f, rectangle1.getHeight());
 		Assert.assertEquals(0f, rectangle1.getRotation());
 	}
+	
+	@Test
+	public void testPolygonCreatedLazily() {
+		rectangle1 = new Rectangle(0f, 0f, 50f, 50f);
+		rectangle2 = new Rectangle(25f, 25f, 50f, 50f);
+		
+		Assert.assertEquals(true, rectangle1.intersects(rectangle2));
+		Assert.assertEquals(true, rectangle1.intersects((Shape) rectangle2));
+		Assert.assertEquals(true, rectangle1.contains(25f, 25f));
+		Assert.assertEquals(false, rectangle1.contains(rectangle2));
+		Assert.assertEquals(true, rectangle1.intersects(new Circle(60f, 60f, 20f)));
+		Assert.assertEquals(true, new Circle(60f, 60f, 20f).intersects(rectangle1));
+		Assert.assertEquals(true, rectangle1.intersectsLineSegment(-25f, 25f, 25f, 25f));
+		rectangle1.translate(10f, 10f);
+		rectangle1.setWidth(20f);
+		Assert.assertEquals(false, rectangle1.isPolygonCreated());
+		Assert.assertEquals(false, rectangle2.isPolygonCreated());
+		
+		rectangle1.setRotation(45f);
+		Assert.assertEquals(true, rectangle1.isPolygonCreated());
+		Assert.assertEquals(false, new Rectangle(rectangle2).isPolygonCreated());
+	}
+	
+	@Test
+	public void testPolygonUpdatedAfterChange() {
+		rectangle1 = new Rectangle(0f, 0f, 50f, 50f);
+		Assert.assertEquals(50f, rectangle1.getPolygon().getMaxX());
+		
+		rectangle1.set(10f, 20f);
+		rectangle1.setHeight(100f);
+		Assert.assertEquals(10f, rectangle1.getPolygon().getX());
+		Assert.assertEquals(20f, rectangle1.getPolygon().getY());
+		Assert.assertEquals(60f, rectangle1.getPolygon().getMaxX());
+		Assert.assertEquals(120f, rectangle1.getPolygon().getMaxY());
+	}
+	
+	@Test
+	public void testRotateBackToAxisAligned() {
+		rectangle1 = new Rectangle(0f, 0f, 50f, 50f);
+		rectangle1.rotateAround(25f, 25f, 90f);
+		Assert.assertEquals(90f, rectangle1.getRotation());
+		rectangle1.rotateAround(25f, 25f, -90f);
+		Assert.assertEquals(0f, rectangle1.getRotation());
+		Assert.assertEquals(0f, rectangle1.getX(), 0.01f);
+		Assert.assertEquals(0f, rectangle1.getY(), 0.01f);
+		Assert.assertEquals(50f, rectangle1.getMaxX(), 0.01f);
+		
+		rectangle1.translate(100f, 0f);
+		Assert.assertEquals(100f, rectangle1.getX(), 0.01f);
+		Assert.assertEquals(100f, rectangle1.getPolygon().getX(), 0.01f);
+	}
+	
+	@Test
+	public void testAxisAlignedMatchesPolygon() {
+		Random random = new Random(1234);
+		for(int i = 0; i < 1000; i++) {
+			rectangle1 = new Rectangle(random.nextInt(100), random.nextInt(100), 1 + random.nextInt(50), 1 + random.nextInt(50));
+			Polygon polygon = new Polygon(new float[] { rectangle1.getX(), rectangle1.getY(), rectangle1.getMaxX(),
+					rectangle1.getY(), rectangle1.getMaxX(), rectangle1.getMaxY(), rectangle1.getX(), rectangle1.getMaxY() });
+			
+			float x1 = random.nextInt(200) - 50f;
+			float y1 = random.nextInt(200) - 50f;
+			float x2 = random.nextInt(200) - 50f;
+			float y2 = random.nextInt(200) - 50f;
+			Assert.assertEquals(polygon.contains(x1, y1), rectangle1.contains(x1, y1));
+			Assert.assertEquals(polygon.intersectsLineSegment(x1, y1, x2, y2),
+					rectangle1.intersectsLineSegment(x1, y1, x2, y2));
+		}
+	}
 }
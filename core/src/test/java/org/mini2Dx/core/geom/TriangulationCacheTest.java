@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.geom;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.ShortArray;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link TriangulationCache}
+ */
+public class TriangulationCacheTest {
+	private static final float [] PREFAB = new float[] { 0f, 0f, 10f, 0f, 15f, 10f, 5f, 15f, -5f, 10f };
+	
+	@Before
+	public void setUp() {
+		TriangulationCache.clear();
+	}
+	
+	@After
+	public void teardown() {
+		TriangulationCache.setCapacity(TriangulationCache.DEFAULT_CAPACITY);
+		TriangulationCache.clear();
+	}
+	
+	@Test
+	public void testIdenticalLayoutsShareTriangles() {
+		Polygon polygon1 = createPrefab(0f, 0f);
+		Polygon polygon2 = createPrefab(100f, 50f);
+		
+		ShortArray triangles = polygon1.getTriangles();
+		Assert.assertSame(triangles, polygon2.getTriangles());
+		Assert.assertEquals(9, triangles.size);
+		Assert.assertEquals(1, TriangulationCache.getSize());
+		Assert.assertEquals(1L, TriangulationCache.getMisses());
+		Assert.assertEquals(1L, TriangulationCache.getHits());
+	}
+	
+	@Test
+	public void testDifferentLayoutsDoNotShareTriangles() {
+		Polygon polygon1 = createPrefab(0f, 0f);
+		Polygon polygon2 = new Polygon(new float[] { 0f, 0f, 10f, 0f, 15f, 10f, 5f, 20f, -5f, 10f });
+		
+		Assert.assertNotSame(polygon1.getTriangles(), polygon2.getTriangles());
+		Assert.assertEquals(2, TriangulationCache.getSize());
+		Assert.assertEquals(2L, TriangulationCache.getMisses());
+	}
+	
+	@Test
+	public void testCapacity() {
+		TriangulationCache.setCapacity(2);
+		for(int i = 0; i < 5; i++) {
+			new Polygon(new float[] { 0f, 0f, 10f + i, 0f, 10f, 10f }).getTriangles();
+		}
+		Assert.assertEquals(2, TriangulationCache.getSize());
+		
+		TriangulationCache.setCapacity(1);
+		Assert.assertEquals(1, TriangulationCache.getSize());
+		
+		TriangulationCache.setCapacity(0);
+		Assert.assertEquals(0, TriangulationCache.getSize());
+		Assert.assertEquals(3, createPrefab(0f, 0f).getTriangles().size / 3);
+		Assert.assertEquals(0, TriangulationCache.getSize());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeCapacity() {
+		TriangulationCache.setCapacity(-1);
+	}
+	
+	private Polygon createPrefab(float x, float y) {
+		float [] vertices = new float[PREFAB.length];
+		for(int i = 0; i < PREFAB.length; i += 2) {
+			vertices[i] = PREFAB[i] + x;
+			vertices[i + 1] = PREFAB[i + 1] + y;
+		}
+		return new Polygon(vertices);
+	}
+}
@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link DeferredGraphics}
+ */
+public class DeferredGraphicsTest {
+	private Mockery mockery;
+	private Texture textureA, textureB;
+	private ShaderProgram shaderA, shaderB;
+
+	private RecordingGraphics target;
+	private DeferredGraphics graphics;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		textureA = mockery.mock(Texture.class, "A");
+		textureB = mockery.mock(Texture.class, "B");
+		shaderA = mockery.mock(ShaderProgram.class, "shaderA");
+		shaderB = mockery.mock(ShaderProgram.class, "shaderB");
+
+		target = new RecordingGraphics();
+		graphics = new DeferredGraphics();
+	}
+
+	@Test
+	public void testSortsByLayerThenTexture() {
+		graphics.begin(target);
+		graphics.setLayer(1);
+		graphics.drawTexture(textureB, 0f, 0f, 1f, 1f);
+		graphics.setLayer(0);
+		graphics.drawTexture(textureA, 1f, 0f, 1f, 1f);
+		graphics.drawTexture(textureB, 2f, 0f, 1f, 1f);
+		graphics.drawTexture(textureA, 3f, 0f, 1f, 1f);
+		graphics.drawTexture(textureB, 4f, 0f, 1f, 1f);
+		graphics.setLayer(-1);
+		graphics.drawTexture(textureA, 5f, 0f, 1f, 1f);
+		Assert.assertEquals(0, target.log.size());
+		graphics.end();
+
+		assertLog("A@5.0", "B@2.0", "B@4.0", "A@1.0", "A@3.0", "B@0.0");
+		Assert.assertEquals(6, graphics.getTotalSubmittedCommands());
+		Assert.assertEquals(0, graphics.getTotalStateChanges());
+	}
+
+	@Test
+	public void testSortsByShaderBeforeTexture() {
+		graphics.begin(target);
+		graphics.setShaderProgram(shaderA);
+		graphics.drawTexture(textureB, 0f, 0f, 1f, 1f);
+		graphics.setShaderProgram(shaderB);
+		graphics.drawTexture(textureA, 1f, 0f, 1f, 1f);
+		graphics.setShaderProgram(shaderA);
+		graphics.drawTexture(textureA, 2f, 0f, 1f, 1f);
+		graphics.clearShaderProgram();
+		graphics.drawRect(3f, 0f, 1f, 1f);
+		graphics.end();
+
+		assertLog("rect@3.0", "shader:shaderA", "B@0.0", "A@2.0", "shader:shaderB", "A@1.0", "clearShader");
+		Assert.assertEquals(3, graphics.getTotalStateChanges());
+	}
+
+	@Test
+	public void testStateIsOnlyAppliedWhenChanged() {
+		target.setTranslation(10f, 10f);
+		graphics.begin(target);
+		target.log.clear();
+		Assert.assertEquals(10f, graphics.getTranslationX());
+
+		graphics.translate(5f, 0f);
+		graphics.drawTexture(textureA, 0f, 0f, 1f, 1f);
+		graphics.setColor(Color.RED);
+		graphics.setColor(Color.WHITE);
+		graphics.drawTexture(textureA, 1f, 0f, 1f, 1f);
+		graphics.translate(-5f, 0f);
+		graphics.drawTexture(textureA, 2f, 0f, 1f, 1f);
+		Assert.assertEquals(10f, target.getTranslationX());
+		graphics.end();
+
+		assertLog("translate:15.0", "A@0.0", "A@1.0", "translate:10.0", "A@2.0");
+		Assert.assertEquals(10f, target.getTranslationX());
+	}
+
+	@Test
+	public void testClipsAndTintsAreRestored() {
+		Rectangle existingClip = new Rectangle(0f, 0f, 100f, 100f);
+		target.setClip(existingClip);
+		graphics.begin(target);
+		target.log.clear();
+
+		graphics.pushClip(new Rectangle(50f, 50f, 100f, 100f));
+		graphics.setTint(Color.RED);
+		graphics.drawTexture(textureA, 0f, 0f, 1f, 1f);
+		graphics.popClip();
+		graphics.removeTint();
+		graphics.end();
+
+		assertLog("tint", "clip:50.0,50.0,50.0,50.0", "A@0.0", "removeTint", "clip:0.0,0.0,100.0,100.0");
+		Assert.assertSame(existingClip, target.removeClip());
+	}
+
+	@Test
+	public void testBuffersGrow() {
+		graphics = new DeferredGraphics(target, 2);
+		graphics.preRender(800, 600);
+		for (int i = 0; i < 100; i++) {
+			graphics.setLayer(100 - i);
+			graphics.fillRect(i, 0f, 1f, 1f);
+			graphics.translate(1f, 0f);
+		}
+		graphics.postRender();
+
+		Assert.assertEquals(100, graphics.getTotalSubmittedCommands());
+		Assert.assertEquals(203, target.log.size());
+		Assert.assertEquals("preRender", target.log.get(0));
+		Assert.assertEquals("translate:99.0", target.log.get(1));
+		Assert.assertEquals("fillRect@99.0", target.log.get(2));
+		Assert.assertEquals("translate:1.0", target.log.get(197));
+		Assert.assertEquals("fillRect@1.0", target.log.get(198));
+		Assert.assertEquals("translate:0.0", target.log.get(199));
+		Assert.assertEquals("fillRect@0.0", target.log.get(200));
+		Assert.assertEquals("clearShader", target.log.get(201));
+		Assert.assertEquals("postRender", target.log.get(202));
+	}
+
+	@Test
+	public void testFlushSubmitsRecordedCommands() {
+		graphics.begin(target);
+		graphics.drawTexture(textureB, 0f, 0f, 1f, 1f);
+		graphics.flush();
+		graphics.drawTexture(textureA, 1f, 0f, 1f, 1f);
+		graphics.drawTexture(textureB, 2f, 0f, 1f, 1f);
+		graphics.end();
+
+		assertLog("B@0.0", "flush", "B@2.0", "A@1.0");
+	}
+
+	@Test
+	public void testReplayRecordedFrame() {
+		graphics.beginRecording(target, 800, 600);
+		Assert.assertEquals(800, graphics.getWindowWidth());
+		graphics.translate(5f, 0f);
+		graphics.drawTexture(textureA, 0f, 0f, 1f, 1f);
+		graphics.endRecording();
+		Assert.assertEquals(0, target.log.size());
+
+		graphics.replay(target);
+		assertLog("preRender", "translate:0.0", "removeTint", "clearShader", "translate:5.0", "A@0.0", "translate:0.0",
+				"clearShader", "postRender");
+		Assert.assertEquals(800, target.getWindowWidth());
+	}
+
+	@Test
+	public void testSpritesAreCopiedWhenRecorded() {
+		Sprite sprite = new Sprite();
+		graphics.begin(target);
+		sprite.setPosition(1f, 0f);
+		graphics.drawSprite(sprite);
+		sprite.setPosition(2f, 0f);
+		graphics.drawSprite(sprite);
+		sprite.setPosition(3f, 0f);
+		graphics.end();
+
+		assertLog("sprite@1.0", "sprite@2.0");
+	}
+
+	@Test
+	public void testColorsAreCopiedWhenRecorded() {
+		Color initialColor = target.getColor();
+		Color color = new Color(Color.RED);
+		graphics.begin(target);
+		graphics.setColor(color);
+		graphics.drawLineSegment(0f, 0f, 1f, 1f);
+		color.set(Color.BLUE);
+		graphics.setColor(color);
+		graphics.drawLineSegment(1f, 0f, 2f, 1f);
+		color.set(Color.GREEN);
+		graphics.end();
+
+		assertLog("line@0.0:ff0000ff", "line@1.0:0000ffff");
+		Assert.assertSame(initialColor, target.getColor());
+	}
+
+	@Test
+	public void testPolygonsAreCopiedWhenRecorded() {
+		float[] vertices = new float[] { 0f, 0f, 1f, 0f, 1f, 1f };
+		short[] triangles = new short[] { 0, 1, 2 };
+		graphics.begin(target);
+		graphics.drawPolygon(vertices);
+		vertices[0] = 5f;
+		graphics.fillPolygon(vertices, triangles);
+		vertices[0] = 10f;
+		triangles[0] = 2;
+		graphics.end();
+
+		assertLog("polygon@0.0", "fillPolygon@5.0:0");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRenderingBeforeBegin() {
+		graphics.drawRect(0f, 0f, 1f, 1f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLayerOutOfRange() {
+		graphics.setLayer(DeferredGraphics.MAX_LAYER + 1);
+	}
+
+	private void assertLog(String... expected) {
+		Assert.assertEquals(Arrays.asList(expected), target.log);
+	}
+
+	private static class RecordingGraphics extends HeadlessGraphics {
+		private final List<String> log = new ArrayList<String>();
+
+		@Override
+		public void preRender(int gameWidth, int gameHeight) {
+			super.preRender(gameWidth, gameHeight);
+			log.add("preRender");
+		}
+
+		@Override
+		public void postRender() {
+			super.postRender();
+			log.add("postRender");
+		}
+
+		@Override
+		public void drawRect(float x, float y, float width, float height) {
+			log.add("rect@" + x);
+		}
+
+		@Override
+		public void drawLineSegment(float x1, float y1, float x2, float y2) {
+			log.add("line@" + x1 + ":" + getColor());
+		}
+
+		@Override
+		public void fillRect(float x, float y, float width, float height) {
+			log.add("fillRect@" + x);
+		}
+
+		@Override
+		public void drawPolygon(float[] vertices) {
+			log.add("polygon@" + vertices[0]);
+		}
+
+		@Override
+		public void fillPolygon(float[] vertices, short[] triangles) {
+			log.add("fillPolygon@" + vertices[0] + ":" + triangles[0]);
+		}
+
+		@Override
+		public void drawSprite(Sprite sprite) {
+			log.add("sprite@" + sprite.getX());
+		}
+
+		@Override
+		public void drawTexture(Texture texture, float x, float y, float width, float height, boolean flipY) {
+			log.add(texture + "@" + x);
+		}
+
+		@Override
+		public void setTranslation(float translateX, float translateY) {
+			super.setTranslation(translateX, translateY);
+			log.add("translate:" + translateX);
+		}
+
+		@Override
+		public void setClip(Rectangle clip) {
+			super.setClip(clip);
+			log.add("clip:" + clip.getX() + "," + clip.getY() + "," + clip.getWidth() + "," + clip.getHeight());
+		}
+
+		@Override
+		public void setTint(Color tint) {
+			super.setTint(tint);
+			log.add("tint");
+		}
+
+		@Override
+		public void removeTint() {
+			super.removeTint();
+			log.add("removeTint");
+		}
+
+		@Override
+		public void setShaderProgram(ShaderProgram shaderProgram) {
+			log.add("shader:" + shaderProgram);
+		}
+
+		@Override
+		public void clearShaderProgram() {
+			log.add("clearShader");
+		}
+
+		@Override
+		public void flush() {
+			log.add("flush");
+		}
+	}
+}
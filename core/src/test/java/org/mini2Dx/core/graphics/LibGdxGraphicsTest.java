@@ -16,11 +16,18 @@ import org.jmock.Mockery;
 import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Before;
 import org.junit.Test;
+import org.mini2Dx.core.geom.Rectangle;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.math.Matrix4;
 
 import junit.framework.Assert;
 
@@ -33,9 +40,13 @@ public class LibGdxGraphicsTest {
 	private SpriteBatch spriteBatch;
 	private PolygonSpriteBatch polygonSpriteBatch;
 	private ShapeRenderer shapeRenderer;
+	private ShapeTextureCache shapeTextureCache;
+	private Texture texture;
+	private GL20 gl;
+	private OrthographicCamera camera;
 	private com.badlogic.gdx.Graphics gdxGraphics;
 	
-	private Graphics graphics;
+	private LibGdxGraphics graphics;
 	
 	@Before
 	public void setup() {
@@ -44,8 +55,13 @@ public class LibGdxGraphicsTest {
 		spriteBatch = mockery.mock(SpriteBatch.class);
 		polygonSpriteBatch = mockery.mock(PolygonSpriteBatch.class);
 		shapeRenderer = mockery.mock(ShapeRenderer.class);
+		shapeTextureCache = mockery.mock(ShapeTextureCache.class);
+		texture = mockery.mock(Texture.class);
+		gl = mockery.mock(GL20.class);
+		camera = mockery.mock(OrthographicCamera.class);
 		gdxGraphics = mockery.mock(com.badlogic.gdx.Graphics.class);
 		Gdx.graphics = gdxGraphics;
+		Gdx.gl = gl;
 		
 		mockery.checking(new Expectations() {
 			{
@@ -58,7 +74,7 @@ public class LibGdxGraphicsTest {
 			}
 		});
 		
-		graphics = new LibGdxGraphics(spriteBatch, polygonSpriteBatch, shapeRenderer);
+		graphics = new LibGdxGraphics(spriteBatch, polygonSpriteBatch, shapeRenderer, shapeTextureCache, camera);
 	}
 
 	@Test
@@ -91,4 +107,127 @@ public class LibGdxGraphicsTest {
 		Assert.assertNotNull(graphics.getBackgroundColor());
 	}
 
+	@Test
+	public void testShapesShareSpriteBatch() {
+		mockery.checking(new Expectations() {
+			{
+				ignoring(gl);
+				ignoring(camera);
+				allowing(shapeTextureCache).getFilledRectangleTexture();
+				will(returnValue(texture));
+				one(shapeTextureCache).disposeEvictedTextures();
+				allowing(spriteBatch).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(shapeRenderer).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(polygonSpriteBatch).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(spriteBatch).setShader(with(aNull(ShaderProgram.class)));
+				allowing(spriteBatch).setBlendFunction(with(any(Integer.class)), with(any(Integer.class)));
+				one(spriteBatch).begin();
+				exactly(15).of(spriteBatch).draw(with(same(texture)), with(any(float[].class)), with(equal(0)),
+						with(equal(20)));
+				one(spriteBatch).end();
+			}
+		});
+
+		for(int i = 0; i < 4; i++) {
+			graphics.drawLineSegment(0f, i * 10f, 100f, i * 10f);
+		}
+		graphics.drawPolygon(new float[] { 0f, 0f, 10f, 0f, 10f, 10f, 0f, 10f });
+		graphics.fillPolygon(new float[] { 0f, 0f, 10f, 0f, 10f, 10f, 0f, 10f }, new short[] { 0, 1, 2, 2, 3, 0 });
+		graphics.drawRect(0f, 0f, 20f, 20f);
+		graphics.fillRect(0f, 0f, 20f, 20f);
+		Assert.assertEquals(0, graphics.getBatchFlushes());
+		
+		graphics.postRender();
+		Assert.assertEquals(1, graphics.getBatchFlushes());
+		mockery.assertIsSatisfied();
+	}
+
+	@Test
+	public void testScissorClipOnlyFlushesWhenClipChanges() {
+		mockery.checking(new Expectations() {
+			{
+				allowing(gdxGraphics).getWidth();
+				will(returnValue(800));
+				allowing(gdxGraphics).getBackBufferWidth();
+				will(returnValue(800));
+				allowing(gdxGraphics).getHeight();
+				will(returnValue(600));
+				allowing(gdxGraphics).getBackBufferHeight();
+				will(returnValue(600));
+				one(gl).glEnable(GL20.GL_SCISSOR_TEST);
+				one(gl).glScissor(10, 540, 30, 40);
+				one(gl).glDisable(GL20.GL_SCISSOR_TEST);
+				never(gl).glScissor(with(any(Integer.class)), with(any(Integer.class)), with(any(Integer.class)),
+						with(any(Integer.class)));
+				never(gl).glDepthFunc(with(any(Integer.class)));
+				ignoring(gl);
+				ignoring(camera);
+				allowing(shapeTextureCache).getFilledRectangleTexture();
+				will(returnValue(texture));
+				allowing(shapeTextureCache).disposeEvictedTextures();
+				allowing(spriteBatch).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(shapeRenderer).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(polygonSpriteBatch).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(spriteBatch).setShader(with(aNull(ShaderProgram.class)));
+				allowing(spriteBatch).setBlendFunction(with(any(Integer.class)), with(any(Integer.class)));
+				allowing(spriteBatch).draw(with(same(texture)), with(any(float[].class)), with(equal(0)),
+						with(equal(20)));
+				one(spriteBatch).begin();
+				exactly(2).of(spriteBatch).flush();
+				one(spriteBatch).end();
+			}
+		});
+
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		graphics.setClip(10f, 20f, 30f, 40f);
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		graphics.setClip(new Rectangle(10f, 20f, 30f, 40f));
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		graphics.pushClip(new Rectangle(0f, 0f, 100f, 100f));
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		graphics.popClip();
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		Assert.assertEquals(1, graphics.getBatchFlushes());
+
+		graphics.removeClip();
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		graphics.postRender();
+		Assert.assertEquals(3, graphics.getBatchFlushes());
+		mockery.assertIsSatisfied();
+	}
+
+	@Test
+	public void testRotatedClipUsesDepthBuffer() {
+		mockery.checking(new Expectations() {
+			{
+				never(gl).glEnable(GL20.GL_SCISSOR_TEST);
+				atLeast(1).of(gl).glDepthFunc(GL20.GL_EQUAL);
+				ignoring(gl);
+				ignoring(camera);
+				allowing(shapeTextureCache).getFilledRectangleTexture();
+				will(returnValue(texture));
+				allowing(shapeTextureCache).disposeEvictedTextures();
+				allowing(spriteBatch).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(shapeRenderer).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(polygonSpriteBatch).setProjectionMatrix(with(aNull(Matrix4.class)));
+				allowing(spriteBatch).setShader(with(aNull(ShaderProgram.class)));
+				allowing(spriteBatch).setBlendFunction(with(any(Integer.class)), with(any(Integer.class)));
+				allowing(spriteBatch).draw(with(same(texture)), with(any(float[].class)), with(equal(0)),
+						with(equal(20)));
+				one(shapeRenderer).begin(ShapeType.Filled);
+				allowing(shapeRenderer).setColor(with(any(Float.class)), with(any(Float.class)),
+						with(any(Float.class)), with(any(Float.class)));
+				one(shapeRenderer).rect(10f, 20f, 30f, 40f);
+				one(shapeRenderer).end();
+				one(spriteBatch).begin();
+				one(spriteBatch).end();
+			}
+		});
+
+		graphics.rotate(45f, 0f, 0f);
+		graphics.setClip(10f, 20f, 30f, 40f);
+		graphics.drawLineSegment(0f, 0f, 100f, 0f);
+		graphics.postRender();
+		mockery.assertIsSatisfied();
+	}
 }
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2015 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Texture;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link ShapeTextureCache}
+ */
+public class ShapeTextureCacheTest {
+	private Mockery mockery;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+	}
+
+	@Test
+	public void testHitsReturnCachedTexture() {
+		ShapeTextureCache cache = new MockShapeTextureCache(ShapeTextureCache.DEFAULT_TEXEL_BUDGET);
+
+		Texture circle = cache.getCircleTexture(4, 1);
+		Assert.assertSame(circle, cache.getCircleTexture(4, 1));
+		Assert.assertNotSame(circle, cache.getCircleTexture(4, 2));
+		Assert.assertNotSame(circle, cache.getFilledCircleTexture(4));
+		Assert.assertSame(cache.getFilledRectangleTexture(), cache.getFilledRectangleTexture());
+
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+		Assert.assertEquals(0, cache.getEvictions());
+		Assert.assertEquals(4, cache.getTotalTextures());
+		Assert.assertEquals((9 * 9 * 3) + 1, cache.getTotalTexels());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedTextureIsEvicted() {
+		// Each 4x4 rectangle texture is 5x5 texels
+		ShapeTextureCache cache = new MockShapeTextureCache(75);
+
+		Texture first = cache.getRectangleTexture(4, 4, 1);
+		Texture second = cache.getRectangleTexture(4, 4, 2);
+		Texture third = cache.getRectangleTexture(4, 4, 3);
+		Assert.assertEquals(75, cache.getTotalTexels());
+
+		Assert.assertSame(first, cache.getRectangleTexture(4, 4, 1));
+		cache.getRectangleTexture(4, 4, 4);
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertEquals(3, cache.getTotalTextures());
+		Assert.assertEquals(75, cache.getTotalTexels());
+
+		Assert.assertSame(first, cache.getRectangleTexture(4, 4, 1));
+		Assert.assertSame(third, cache.getRectangleTexture(4, 4, 3));
+		Assert.assertNotSame(second, cache.getRectangleTexture(4, 4, 2));
+		Assert.assertEquals(2, cache.getEvictions());
+	}
+
+	@Test
+	public void testTextureLargerThanBudgetIsKept() {
+		ShapeTextureCache cache = new MockShapeTextureCache(10);
+
+		Texture small = cache.getFilledRectangleTexture();
+		Texture large = cache.getFilledCircleTexture(10);
+		Assert.assertSame(large, cache.getFilledCircleTexture(10));
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertEquals(21 * 21, cache.getTotalTexels());
+		Assert.assertNotSame(small, cache.getFilledRectangleTexture());
+		Assert.assertEquals(1, cache.getTotalTexels());
+	}
+
+	@Test
+	public void testEvictedTexturesDisposedOnRequest() {
+		ShapeTextureCache cache = new MockShapeTextureCache(1);
+
+		final Texture first = cache.getFilledCircleTexture(1);
+		final Texture second = cache.getFilledCircleTexture(2);
+		cache.getFilledCircleTexture(3);
+		mockery.assertIsSatisfied();
+
+		mockery.checking(new Expectations() {
+			{
+				one(first).dispose();
+				one(second).dispose();
+			}
+		});
+		cache.disposeEvictedTextures();
+		cache.disposeEvictedTextures();
+		mockery.assertIsSatisfied();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeDimensionsRejected() {
+		new MockShapeTextureCache(1).getRectangleTexture(-1, 4, 1);
+	}
+
+	private class MockShapeTextureCache extends ShapeTextureCache {
+		private int totalTextures;
+
+		public MockShapeTextureCache(int texelBudget) {
+			super(texelBudget);
+		}
+
+		private Texture createMockTexture() {
+			return mockery.mock(Texture.class, "texture" + (totalTextures++));
+		}
+
+		@Override
+		protected Texture createFilledRectangleTexture() {
+			return createMockTexture();
+		}
+
+		@Override
+		protected Texture createRectangleTexture(int width, int height, int lineHeight) {
+			return createMockTexture();
+		}
+
+		@Override
+		protected Texture createCircleTexture(int radius, int lineHeight) {
+			return createMockTexture();
+		}
+
+		@Override
+		protected Texture createFilledCircleTexture(int radius) {
+			return createMockTexture();
+		}
+	}
+}
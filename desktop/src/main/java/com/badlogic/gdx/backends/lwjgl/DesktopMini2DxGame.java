@@ -21,6 +21,7 @@ import org.lwjgl.LWJGLException;
 import org.lwjgl.opengl.Display;
 import org.mini2Dx.core.game.ApplicationListener;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.PipelinedRenderer;
 import org.mini2Dx.desktop.DesktopGameWrapper;
 import org.mini2Dx.desktop.DesktopMini2DxConfig;
 
@@ -42,9 +43,16 @@ import com.badlogic.gdx.utils.ObjectMap;
  * Launches desktop-based mini2Dx games. Based on <a href=
  * "https://github.com/libgdx/libgdx/blob/master/backends/gdx-backend-lwjgl/src/com/badlogic/gdx/backends/lwjgl/LwjglApplication.java">
  * LibGDX's LwjglApplication class</a>
+ * 
+ * If {@link DesktopMini2DxConfig#pipelinedFrames} is set, updating, interpolating and recording frames happens on a
+ * separate game loop thread while the OpenGL thread renders the previously recorded frame. Pause, resume and resize
+ * events are then passed to the game loop thread and handled before the next update.
  */
 public class DesktopMini2DxGame implements Application {
+	private static final long PIPELINE_TIMEOUT_MILLIS = 100;
+
 	protected final DesktopMini2DxConfig config;
+	protected final GameContainer gameContainer;
 	protected final LwjglGraphics graphics;
 	protected OpenALAudio audio;
 	protected final LwjglFiles files;
@@ -52,13 +60,20 @@ public class DesktopMini2DxGame implements Application {
 	protected final LwjglNet net;
 	protected final ApplicationListener listener;
 	protected Thread mainLoopThread;
-	protected boolean running = true;
+	protected Thread gameLoopThread;
+	protected PipelinedRenderer pipelinedRenderer;
+	protected volatile Throwable gameLoopError;
+	protected volatile boolean running = true;
 	protected final Array<Runnable> runnables = new Array<Runnable>();
 	protected final Array<Runnable> executedRunnables = new Array<Runnable>();
+	protected final Array<Runnable> gameLoopRunnables = new Array<Runnable>();
+	protected final Array<Runnable> executedGameLoopRunnables = new Array<Runnable>();
 	protected final Array<LifecycleListener> lifecycleListeners = new Array<LifecycleListener>();
 	protected int logLevel = LOG_INFO;
 	protected String preferencesdir;
 
+	private float accumulator;
+
 	public DesktopMini2DxGame(GameContainer game, DesktopMini2DxConfig config) {
 		this(game, config, new LwjglGraphics(config));
 	}
@@ -71,6 +86,7 @@ public class DesktopMini2DxGame implements Application {
 		LwjglNativesLoader.load();
 
 		this.config = config;
+		this.gameContainer = game;
 		listener = new DesktopGameWrapper(game, config.gameIdentifier);
 
 		if (config.title == null) {
@@ -138,16 +154,15 @@ public class DesktopMini2DxGame implements Application {
 
 		listener.create();
 		graphics.resize = true;
+		if (config.pipelinedFrames > 0) {
+			launchGameLoop();
+		}
 
 		int lastWidth = graphics.getWidth();
 		int lastHeight = graphics.getHeight();
 
 		graphics.lastTime = System.nanoTime();
 
-		float maximumDelta = 1f / config.targetFPS;
-		float accumulator = 0f;
-		float targetTimestep = config.targetTimestep;
-
 		boolean wasActive = true;
 		while (running) {
 			Display.processMessages();
@@ -164,7 +179,7 @@ public class DesktopMini2DxGame implements Application {
 						listener.pause();
 					}
 				}
-				listener.pause();
+				pauseListener();
 			}
 			if (!wasActive && isGameActive) { // if it's just recently focused
 												// from minimized state
@@ -174,7 +189,7 @@ public class DesktopMini2DxGame implements Application {
 						listener.resume();
 					}
 				}
-				listener.resume();
+				resumeListener();
 			}
 
 			boolean shouldRender = false;
@@ -186,7 +201,7 @@ public class DesktopMini2DxGame implements Application {
 					lastWidth = width;
 					lastHeight = height;
 					Gdx.gl.glViewport(0, 0, lastWidth, lastHeight);
-					listener.resize(lastWidth, lastHeight);
+					resizeListener(lastWidth, lastHeight);
 					shouldRender = true;
 				}
 			} else {
@@ -200,7 +215,7 @@ public class DesktopMini2DxGame implements Application {
 					graphics.config.height = (int) (Display.getHeight() * Display.getPixelScaleFactor());
 					Gdx.gl.glViewport(0, 0, graphics.config.width, graphics.config.height);
 					if (listener != null) {
-						listener.resize(graphics.config.width, graphics.config.height);
+						resizeListener(graphics.config.width, graphics.config.height);
 					}
 					graphics.requestRendering();
 				}
@@ -229,23 +244,18 @@ public class DesktopMini2DxGame implements Application {
 				graphics.updateTime();
 				graphics.frameId++;
 
-				float delta = graphics.getDeltaTime();
-				if (delta > maximumDelta) {
-					delta = maximumDelta;
-				}
-
-				accumulator += delta;
-
-				while (accumulator >= targetTimestep) {
-					input.update();
-					input.processEvents();
-					listener.update(targetTimestep);
-					accumulator -= targetTimestep;
+				if (pipelinedRenderer != null) {
+					synchronized (input) {
+						input.update();
+					}
+					if (renderPipelinedFrame()) {
+						Display.update(false);
+					}
+				} else {
+					updateGame(graphics.getDeltaTime());
+					listener.render();
+					Display.update(false);
 				}
-				listener.interpolate(accumulator / targetTimestep);
-
-				listener.render();
-				Display.update(false);
 			} else {
 				// Sleeps to avoid wasting CPU in an empty loop.
 				if (frameRate == -1) {
@@ -262,6 +272,7 @@ public class DesktopMini2DxGame implements Application {
 				Display.sync(frameRate);
 			}
 		}
+		stopGameLoop();
 
 		synchronized (lifecycleListeners) {
 			for (LifecycleListener listener : lifecycleListeners) {
@@ -280,6 +291,157 @@ public class DesktopMini2DxGame implements Application {
 		}
 	}
 
+	private void launchGameLoop() {
+		pipelinedRenderer = new PipelinedRenderer(gameContainer, config.pipelinedFrames);
+		gameLoopThread = new Thread("mini2Dx Game Loop") {
+			@Override
+			public void run() {
+				try {
+					DesktopMini2DxGame.this.executeGameLoop();
+				} catch (InterruptedException e) {
+				} catch (Throwable t) {
+					gameLoopError = t;
+				}
+			}
+		};
+		gameLoopThread.start();
+	}
+
+	void executeGameLoop() throws InterruptedException {
+		long lastTime = System.nanoTime();
+
+		while (running) {
+			executeGameLoopRunnables();
+
+			long time = System.nanoTime();
+			updateGame((time - lastTime) / 1000000000f);
+			lastTime = time;
+
+			pipelinedRenderer.recordFrame();
+		}
+	}
+
+	/**
+	 * Runs as many fixed timestep updates as fit into the elapsed time and
+	 * interpolates the remainder. Called on the game loop thread if frames are
+	 * pipelined, otherwise on the OpenGL thread.
+	 * 
+	 * @param delta
+	 *            The time in seconds since the previous call
+	 */
+	private void updateGame(float delta) {
+		float maximumDelta = 1f / config.targetFPS;
+		float targetTimestep = config.targetTimestep;
+		if (delta > maximumDelta) {
+			delta = maximumDelta;
+		}
+
+		accumulator += delta;
+
+		while (accumulator >= targetTimestep) {
+			synchronized (input) {
+				if (pipelinedRenderer == null) {
+					input.update();
+				}
+				input.processEvents();
+			}
+			listener.update(targetTimestep);
+			accumulator -= targetTimestep;
+		}
+		listener.interpolate(accumulator / targetTimestep);
+	}
+
+	private void pauseListener() {
+		if (pipelinedRenderer == null) {
+			listener.pause();
+			return;
+		}
+		postGameLoopRunnable(new Runnable() {
+			@Override
+			public void run() {
+				listener.pause();
+			}
+		});
+	}
+
+	private void resumeListener() {
+		if (pipelinedRenderer == null) {
+			listener.resume();
+			return;
+		}
+		postGameLoopRunnable(new Runnable() {
+			@Override
+			public void run() {
+				listener.resume();
+			}
+		});
+	}
+
+	private void resizeListener(final int width, final int height) {
+		if (pipelinedRenderer == null) {
+			listener.resize(width, height);
+			return;
+		}
+		postGameLoopRunnable(new Runnable() {
+			@Override
+			public void run() {
+				listener.resize(width, height);
+			}
+		});
+	}
+
+	private void postGameLoopRunnable(Runnable runnable) {
+		synchronized (gameLoopRunnables) {
+			gameLoopRunnables.add(runnable);
+		}
+	}
+
+	private void executeGameLoopRunnables() {
+		synchronized (gameLoopRunnables) {
+			for (int i = gameLoopRunnables.size - 1; i >= 0; i--) {
+				executedGameLoopRunnables.add(gameLoopRunnables.get(i));
+			}
+			gameLoopRunnables.clear();
+		}
+		while (executedGameLoopRunnables.size > 0) {
+			executedGameLoopRunnables.pop().run();
+		}
+	}
+
+	private boolean renderPipelinedFrame() {
+		boolean result = false;
+		try {
+			result = pipelinedRenderer.renderFrame(PIPELINE_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			running = false;
+		}
+		if (gameLoopError != null) {
+			stopGameLoop();
+			throw new GdxRuntimeException(gameLoopError);
+		}
+		return result;
+	}
+
+	private void stopGameLoop() {
+		if (gameLoopThread == null) {
+			return;
+		}
+		gameLoopThread.interrupt();
+		try {
+			gameLoopThread.join();
+		} catch (InterruptedException e) {
+		}
+	}
+
+	/**
+	 * Returns the {@link PipelinedRenderer} in use
+	 * 
+	 * @return Null if {@link DesktopMini2DxConfig#pipelinedFrames} is 0
+	 */
+	public PipelinedRenderer getPipelinedRenderer() {
+		return pipelinedRenderer;
+	}
+
 	public boolean executeRunnables() {
 		synchronized (runnables) {
 			for (int i = runnables.size - 1; i >= 0; i--) {
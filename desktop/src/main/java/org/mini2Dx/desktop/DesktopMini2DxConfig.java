@@ -11,6 +11,8 @@
  */
 package org.mini2Dx.desktop;
 
+import org.mini2Dx.core.game.PipelinedRenderer;
+
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 
 /**
@@ -26,6 +28,17 @@ public class DesktopMini2DxConfig extends LwjglApplicationConfiguration {
 	 * The target timestep
 	 */
 	public float targetTimestep = 0.01f;
+	/**
+	 * The number of frames to pipeline between a separate game thread and
+	 * the OpenGL thread, e.g. {@link PipelinedRenderer#DOUBLE_BUFFERED}. When
+	 * 0, updates and rendering run on the OpenGL thread.
+	 * 
+	 * When enabled, update, interpolate and render are called on the game
+	 * thread, so graphics resources must be created via
+	 * {@link com.badlogic.gdx.Application#postRunnable(Runnable)}. Input events
+	 * are processed on the game thread before each update.
+	 */
+	public int pipelinedFrames = 0;
 	
 	public DesktopMini2DxConfig(String gameIdentifier) {
 		this.gameIdentifier = gameIdentifier;
@@ -17,6 +17,7 @@ package com.badlogic.gdx.backends.headless;
 
 import org.mini2Dx.core.game.ApplicationListener;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.PipelinedRenderer;
 import org.mini2Dx.headless.HeadlessGameWrapper;
 import org.mini2Dx.headless.HeadlessMini2DxConfig;
 
@@ -44,9 +45,15 @@ import com.badlogic.gdx.utils.TimeUtils;
  * LibGDX's LwjglApplication class</a>
  * 
  * The executeGame loop follows mini2Dx sequence: update, interpolate, render and tries to stay close to targetFps 
+ * 
+ * If {@link HeadlessMini2DxConfig#pipelinedFrames} is set, updating, interpolating and recording frames happens on a
+ * separate game loop thread while the executeGame loop renders the previously recorded frame
  */
 public class HeadlessMini2DxGame implements Application {
+	private static final long PIPELINE_TIMEOUT_MILLIS = 100;
+
 	protected final HeadlessMini2DxConfig config;
+	protected final GameContainer gameContainer;
 	protected final Mini2DxMockGraphics graphics;
 	protected MockAudio audio;
 	protected final HeadlessFiles files;
@@ -54,16 +61,22 @@ public class HeadlessMini2DxGame implements Application {
 	protected final HeadlessNet net;
 	protected final ApplicationListener listener;
 	protected Thread mainLoopThread;
-	protected boolean running = true;
+	protected Thread gameLoopThread;
+	protected PipelinedRenderer pipelinedRenderer;
+	protected volatile Throwable gameLoopError;
+	protected volatile boolean running = true;
 	protected final Array<Runnable> runnables = new Array<Runnable>();
 	protected final Array<Runnable> executedRunnables = new Array<Runnable>();
 	protected final Array<LifecycleListener> lifecycleListeners = new Array<LifecycleListener>();
 	protected int logLevel = LOG_INFO;
 	protected String preferencesdir;
 
+	private float accumulator;
+
 	public HeadlessMini2DxGame(GameContainer game, HeadlessMini2DxConfig config) {
 
 		this.config = config;
+		this.gameContainer = game;
 		listener = new HeadlessGameWrapper(game, config.gameIdentifier);
 
 		this.files = new HeadlessFiles();
@@ -109,12 +122,13 @@ public class HeadlessMini2DxGame implements Application {
 		Array<LifecycleListener> lifecycleListeners = this.lifecycleListeners;
 
 		listener.create();
+		if (config.pipelinedFrames > 0) {
+			launchGameLoop();
+		}
 
 		int frameRate = config.targetFPS;
 		float maximumDelta = 1f / frameRate;
 		long fpsDeltaNanos = (long) (maximumDelta*1000000000f);
-		float accumulator = 0f;
-		float targetTimestep = config.targetTimestep;
 
 		while (running) {
 
@@ -128,25 +142,18 @@ public class HeadlessMini2DxGame implements Application {
 				break;
 			}
 			
-			float delta = graphics.getDeltaTime();
-			if (delta > maximumDelta) {
-				delta = maximumDelta;
+			if (pipelinedRenderer != null) {
+				renderPipelinedFrame();
+			} else {
+				updateGame(graphics.getDeltaTime());
+				listener.render();
 			}
 
-			accumulator += delta;
-
-			while (accumulator >= targetTimestep) {
-				listener.update(targetTimestep);
-				accumulator -= targetTimestep;
-			}
-			listener.interpolate(accumulator / targetTimestep);
-
-			listener.render();
-
 			if (frameRate > 0) {
 				graphics.sleepTillDeltaTime(fpsDeltaNanos);
 			}
 		}
+		stopGameLoop();
 
 		synchronized (lifecycleListeners) {
 			for (LifecycleListener listener : lifecycleListeners) {
@@ -158,6 +165,90 @@ public class HeadlessMini2DxGame implements Application {
 		listener.dispose();
 	}
 
+	private void launchGameLoop() {
+		pipelinedRenderer = new PipelinedRenderer(gameContainer, config.pipelinedFrames);
+		gameLoopThread = new Thread("Headless Game Loop") {
+			@Override
+			public void run() {
+				try {
+					HeadlessMini2DxGame.this.executeGameLoop();
+				} catch (InterruptedException e) {
+				} catch (Throwable t) {
+					gameLoopError = t;
+				}
+			}
+		};
+		gameLoopThread.start();
+	}
+
+	void executeGameLoop() throws InterruptedException {
+		long lastTime = System.nanoTime();
+
+		while (running) {
+			long time = System.nanoTime();
+			updateGame((time - lastTime) / 1000000000f);
+			lastTime = time;
+
+			pipelinedRenderer.recordFrame();
+		}
+	}
+
+	/**
+	 * Runs as many fixed timestep updates as fit into the elapsed time and
+	 * interpolates the remainder. Called on the game loop thread if frames are
+	 * pipelined, otherwise on the executeGame thread.
+	 * 
+	 * @param delta
+	 *            The time in seconds since the previous call
+	 */
+	private void updateGame(float delta) {
+		float maximumDelta = 1f / config.targetFPS;
+		float targetTimestep = config.targetTimestep;
+		if (delta > maximumDelta) {
+			delta = maximumDelta;
+		}
+
+		accumulator += delta;
+
+		while (accumulator >= targetTimestep) {
+			listener.update(targetTimestep);
+			accumulator -= targetTimestep;
+		}
+		listener.interpolate(accumulator / targetTimestep);
+	}
+
+	private void renderPipelinedFrame() {
+		try {
+			pipelinedRenderer.renderFrame(PIPELINE_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			running = false;
+		}
+		if (gameLoopError != null) {
+			stopGameLoop();
+			throw new GdxRuntimeException(gameLoopError);
+		}
+	}
+
+	private void stopGameLoop() {
+		if (gameLoopThread == null) {
+			return;
+		}
+		gameLoopThread.interrupt();
+		try {
+			gameLoopThread.join();
+		} catch (InterruptedException e) {
+		}
+	}
+
+	/**
+	 * Returns the {@link PipelinedRenderer} in use
+	 * 
+	 * @return Null if {@link HeadlessMini2DxConfig#pipelinedFrames} is 0
+	 */
+	public PipelinedRenderer getPipelinedRenderer() {
+		return pipelinedRenderer;
+	}
+
 	public boolean executeRunnables() {
 		synchronized (runnables) {
 			for (int i = runnables.size - 1; i >= 0; i--) {
@@ -11,6 +11,8 @@
  */
 package org.mini2Dx.headless;
 
+import org.mini2Dx.core.game.PipelinedRenderer;
+
 import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
 
 
@@ -27,6 +29,12 @@ public class HeadlessMini2DxConfig extends HeadlessApplicationConfiguration {
 	 * The target timestep
 	 */
 	public float targetTimestep = 0.01f;
+	/**
+	 * The number of frames to pipeline between a separate game thread and
+	 * the rendering thread, e.g. {@link PipelinedRenderer#DOUBLE_BUFFERED}.
+	 * When 0, updates and rendering run on the same thread.
+	 */
+	public int pipelinedFrames = 0;
 	
 	public HeadlessMini2DxConfig(String gameIdentifier) {
 		this.gameIdentifier = gameIdentifier;
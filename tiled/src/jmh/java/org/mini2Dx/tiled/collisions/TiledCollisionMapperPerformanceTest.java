@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2016 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.exception.TiledException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Performance tests for loading collisions from a large generated TMX map
+ * into a {@link RegionQuadTree}
+ */
+@Threads(value=1)
+public class TiledCollisionMapperPerformanceTest {
+	private static final int MAP_SIZE = 1000;
+	private static final int TILE_SIZE = 32;
+	private static final int ELEMENTS_PER_QUAD = 8;
+	
+	@State(Scope.Benchmark)
+	public static class TestState {
+		public TiledMap tiledMap;
+		public int collisionLayerIndex;
+		public TiledCollisionMapper<CollisionBox> collisionMapper = new TiledCollisionMapper<CollisionBox>(new TiledCollisionBoxFactory());
+		public RegionQuadTree<CollisionBox> quadTree;
+		
+		@Setup(Level.Trial)
+		public void loadMap() throws IOException, TiledException {
+			File file = File.createTempFile("mini2Dx-collisions", ".tmx");
+			file.deleteOnExit();
+			writeMap(file);
+			
+			tiledMap = new TiledMap(new FileHandle(file), false, false);
+			collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+		}
+		
+		@Setup(Level.Invocation)
+		public void setUp() {
+			quadTree = new RegionQuadTree<CollisionBox>(ELEMENTS_PER_QUAD, 0f, 0f, MAP_SIZE * TILE_SIZE, MAP_SIZE * TILE_SIZE);
+		}
+		
+		@TearDown(Level.Invocation)
+		public void cleanup() {
+			quadTree.clear();
+		}
+		
+		private void writeMap(File file) throws IOException {
+			Random random = new Random(MAP_SIZE);
+			FileWriter writer = new FileWriter(file);
+			try {
+				writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+				writer.write("<map version=\"1.0\" orientation=\"orthogonal\" renderorder=\"right-down\" width=\"" + MAP_SIZE
+						+ "\" height=\"" + MAP_SIZE + "\" tilewidth=\"" + TILE_SIZE + "\" tileheight=\"" + TILE_SIZE + "\">\n");
+				writer.write(" <tileset firstgid=\"1\" name=\"generated\" tilewidth=\"" + TILE_SIZE + "\" tileheight=\"" + TILE_SIZE + "\">\n");
+				writer.write("  <image source=\"generated.png\" width=\"" + TILE_SIZE + "\" height=\"" + TILE_SIZE + "\"/>\n");
+				writer.write(" </tileset>\n");
+				writer.write(" <layer name=\"Collisions\" width=\"" + MAP_SIZE + "\" height=\"" + MAP_SIZE + "\">\n");
+				writer.write("  <data encoding=\"csv\">\n");
+				StringBuilder row = new StringBuilder();
+				for(int y = 0; y < MAP_SIZE; y++) {
+					row.setLength(0);
+					for(int x = 0; x < MAP_SIZE; x++) {
+						row.append(random.nextInt(4) == 0 ? 1 : 0);
+						if(x < MAP_SIZE - 1 || y < MAP_SIZE - 1) {
+							row.append(',');
+						}
+					}
+					row.append('\n');
+					writer.write(row.toString());
+				}
+				writer.write("  </data>\n");
+				writer.write(" </layer>\n");
+				writer.write("</map>\n");
+			} finally {
+				writer.close();
+			}
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	public void testMapCollisionsByLayer(TestState state) {
+		state.collisionMapper.mapCollisionsByLayer(state.quadTree, state.tiledMap, state.collisionLayerIndex);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	public void testMapCollisionsByLayerIndividually(TestState state) {
+		List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		state.collisionMapper.mapCollisionsByLayer(collisions, state.tiledMap, state.collisionLayerIndex);
+		for(int i = 0; i < collisions.size(); i++) {
+			state.quadTree.add(collisions.get(i));
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	public void testMapAndMergeCollisionsByLayer(TestState state) {
+		state.collisionMapper.mapAndMergeCollisionsByLayer(state.quadTree, state.tiledMap, state.collisionLayerIndex);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(value=Mode.AverageTime)
+	public void testMapAndMergeCollisionsByLayerIndividually(TestState state) {
+		List<CollisionBox> collisions = new ArrayList<CollisionBox>();
+		state.collisionMapper.mapAndMergeCollisionsByLayer(collisions, state.tiledMap, state.collisionLayerIndex);
+		for(int i = 0; i < collisions.size(); i++) {
+			state.quadTree.add(collisions.get(i));
+		}
+	}
+}
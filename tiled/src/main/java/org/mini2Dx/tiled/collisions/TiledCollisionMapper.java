@@ -11,6 +11,7 @@
  */
 package org.mini2Dx.tiled.collisions;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.mini2Dx.core.collisions.QuadTree;
@@ -113,19 +114,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 	 *            drawn in the layer is treated as a collision.
 	 */
 	public void mapCollisionsByLayer(QuadTree<T> quadTree, TiledMap tiledMap, int layerIndex) {
-		if(layerIndex < 0) {
-			return;
-		}
-		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (layer.getTileId(x, y) > 0) {
-					quadTree.add(collisionFactory.createCollision(tiledMap.getTile(layer.getTileId(x, y)),
-							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
-							tiledMap.getTileHeight()));
-				}
-			}
-		}
+		List<T> results = new ArrayList<T>();
+		mapCollisionsByLayer(results, tiledMap, layerIndex);
+		quadTree.addAll(results);
 	}
 	
 	/**
@@ -201,14 +192,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 	 *            object is treated as a collision.
 	 */
 	public void mapCollisionsByObjectGroup(QuadTree<T> quadTree, TiledMap tiledMap, String groupName) {
-		TiledObjectGroup objectGroup = tiledMap.getObjectGroup(groupName);
-		if(objectGroup == null) {
-			return;
-		}
-
-		for (TiledObject tiledObject : objectGroup.getObjects()) {
-			quadTree.add(collisionFactory.createCollision(tiledObject));
-		}
+		List<T> results = new ArrayList<T>();
+		mapCollisionsByObjectGroup(results, tiledMap, groupName);
+		quadTree.addAll(results);
 	}
 	
 	/**
@@ -265,21 +251,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 	 *            drawn in the layer is treated as a collision.
 	 */
 	public void mapAndMergeCollisionsByLayer(QuadTree<T> quadTree, TiledMap tiledMap, int layerIndex) {
-		if(layerIndex < 0) {
-			return;
-		}
-		
-		TileLayer layer = tiledMap.getTileLayer(layerIndex);
-		byte[][] collisions = mapCollisionsByLayer(tiledMap, layer);
-
-		for (int x = 0; x < layer.getWidth(); x++) {
-			for (int y = 0; y < layer.getHeight(); y++) {
-				if (collisions[x][y] == 0) {
-					continue;
-				}
-				quadTree.add(mergeCollisions(x, y, collisions, layer, tiledMap));
-			}
-		}
+		List<T> results = new ArrayList<T>();
+		mapAndMergeCollisionsByLayer(results, tiledMap, layerIndex);
+		quadTree.addAll(results);
 	}
 	
 	/**